@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 - 2013 Spring IDE Developers
+ * Copyright (c) 2007 - 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -97,8 +97,13 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	private AspectDefinitionMatcher aspectDefinitionMatcher = null;
 
+	private PointcutMatchCache.Generation matchCacheGeneration = null;
+
 	private AspectDefinitionBuilderHelper aspectDefinitionBuilder;
 
+	/** Beans to match against aspect definitions; collected first and matched in one go */
+	private List<MatchTask> matchTasks = null;
+
 	/**
 	 * Constructor to create a {@link AopReferenceModelBuilderJob} instance.
 	 * @param affectedResources the set of resources that should be processed
@@ -172,9 +177,16 @@ public class AopReferenceModelBuilderJob extends Job {
 	/**
 	 * Builds AOP references for given {@link IBean} instances. Matches the given Aspect definition against the
 	 * {@link IBean}.
+	 * <p>
+	 * References and exceptions are only recorded in the given {@link MatchTask} and merged into the model and marker
+	 * job afterwards.
 	 */
-	private void buildAopReferencesForBean(final IBean bean, final IModelElement context, final IAspectDefinition info,
-			final IResource file, final IAopProject aopProject, IProgressMonitor monitor) {
+	private void buildAopReferencesForBean(final MatchTask task) {
+		final IBean bean = task.bean;
+		final IModelElement context = task.context;
+		final IAspectDefinition info = task.info;
+		final IResource file = task.file;
+		final IAopProject aopProject = task.aopProject;
 		try {
 			AopLog.log(AopLog.BUILDER, Activator.getFormattedMessage(
 					"AopReferenceModelBuilder.processingBeanDefinition", bean, bean.getElementResource().getFullPath()));
@@ -237,7 +249,7 @@ public class AopReferenceModelBuilderJob extends Job {
 								IAopReference ref = new AopReference(info.getType(), jdtAspectMember, JdtUtils
 										.getLineNumber(jdtAspectMember), jdtTargetType, JdtUtils
 										.getLineNumber(jdtTargetType), info, file, bean);
-								aopProject.addAopReference(ref);
+								task.references.add(ref);
 							}
 						}
 					}
@@ -265,7 +277,7 @@ public class AopReferenceModelBuilderJob extends Job {
 								IAopReference ref = new AopReference(info.getType(), jdtAspectMethod, JdtUtils
 										.getLineNumber(jdtAspectMethod), method, JdtUtils.getLineNumber(method), info,
 										file, bean);
-								aopProject.addAopReference(ref);
+								task.references.add(ref);
 							}
 							// System.out.println(String.format("--- matching on '%s' took '%s'", targetClass, (System
 							// .currentTimeMillis() - start)));
@@ -275,25 +287,48 @@ public class AopReferenceModelBuilderJob extends Job {
 			});
 		}
 		catch (Throwable t) {
-			markerJob.addThrowableHolder(new ThrowableHolder(t, file, bean, info));
+			task.throwable = new ThrowableHolder(t, file, bean, info);
 		}
 	}
 
 	private void buildAopReferencesForBeans(IModelElement config, IAspectDefinition info, IProgressMonitor monitor,
 			IResource file, IAopProject aopProject, Set<IBean> beans) {
-
-		monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferences"));
-
 		for (IBean bean : beans) {
-			monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferencesForBean", bean
-					.getElementName(), bean.getElementResource().getFullPath()));
-			buildAopReferencesForBean(bean, config, info, file, aopProject, monitor);
+			matchTasks.add(new MatchTask(bean, config, info, file, aopProject));
 
 			// Make sure that inner beans are handled as well
 			buildAopReferencesForBeans(config, info, monitor, file, aopProject, BeansModelUtils.getInnerBeans(bean));
 		}
 	}
 
+	/**
+	 * Matches all collected beans against their aspect definitions and adds the resulting references to the model.
+	 * <p>
+	 * Matching is done on the job thread: the pointcuts of the {@link AspectDefinitionMatcher} and their shadow match
+	 * caches are not thread-safe. Results are merged in the order the tasks were collected.
+	 */
+	private void matchBeans(List<MatchTask> tasks, IProgressMonitor monitor) {
+		monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferences"));
+
+		for (MatchTask task : tasks) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			monitor.subTask(Activator.getFormattedMessage("AopReferenceModelBuilder.buildingAopReferencesForBean",
+					task.bean.getElementName(), task.bean.getElementResource().getFullPath()));
+			buildAopReferencesForBean(task);
+		}
+
+		for (MatchTask task : tasks) {
+			for (IAopReference reference : task.references) {
+				task.aopProject.addAopReference(reference);
+			}
+			if (task.throwable != null) {
+				markerJob.addThrowableHolder(task.throwable);
+			}
+		}
+	}
+
 	private void buildAopReferencesForBeansConfig(IBeansConfig config, IAspectDefinition info, IProgressMonitor monitor) {
 
 		IResource file = config.getElementResource();
@@ -362,6 +397,7 @@ public class AopReferenceModelBuilderJob extends Job {
 				//
 				// start = System.currentTimeMillis();
 
+				matchTasks = new ArrayList<>();
 				for (IAspectDefinition info : aspectInfos) {
 					// build model for config
 					buildAopReferencesForBeansConfig(config, info, monitor);
@@ -369,6 +405,8 @@ public class AopReferenceModelBuilderJob extends Job {
 					// build model for config sets
 					buildAopReferencesFromBeansConfigSets(project, config, info, monitor);
 				}
+				matchBeans(matchTasks, monitor);
+				matchTasks = null;
 
 				// System.out.println(String.format("-- building aop model for file '%s' took '%s'", currentFile,
 				// (System
@@ -435,10 +473,16 @@ public class AopReferenceModelBuilderJob extends Job {
 				affectedResources.size()));
 
 		markerJob = new MarkerModifyingJob();
-		aspectDefinitionMatcher = new AspectDefinitionMatcher();
+		// reuse the class loader, pointcuts and match results of previous builds if nothing relevant changed
+		PointcutMatchCache matchCache = PointcutMatchCache.getCache(project);
+		matchCacheGeneration = matchCache.getCurrentGeneration();
+		if (matchCacheGeneration == null) {
+			matchCacheGeneration = matchCache.startGeneration(createWeavingClassLoaderSupport());
+		}
+		aspectDefinitionMatcher = new AspectDefinitionMatcher(matchCacheGeneration);
 		aspectDefinitionCache = new HashMap<>();
 		aspectDefinitionBuilder = new AspectDefinitionBuilderHelper();
-		classLoaderSupport = createWeavingClassLoaderSupport();
+		classLoaderSupport = matchCacheGeneration.getClassLoaderSupport();
 
 		monitor.beginTask(Activator.getFormattedMessage("AopReferenceModelBuilder.startBuildingAopReferenceModel"),
 				affectedResources.size());
@@ -650,6 +694,37 @@ public class AopReferenceModelBuilderJob extends Job {
 
 	}
 
+	/**
+	 * A bean to match against an aspect definition, together with the outcome of the match.
+	 * @since 3.9.0
+	 */
+	private static class MatchTask {
+
+		private final IBean bean;
+
+		private final IModelElement context;
+
+		private final IAspectDefinition info;
+
+		private final IResource file;
+
+		private final IAopProject aopProject;
+
+		private final List<IAopReference> references = new ArrayList<>();
+
+		private ThrowableHolder throwable;
+
+		public MatchTask(IBean bean, IModelElement context, IAspectDefinition info, IResource file,
+				IAopProject aopProject) {
+			this.bean = bean;
+			this.context = context;
+			this.info = info;
+			this.file = file;
+			this.aopProject = aopProject;
+		}
+
+	}
+
 	/**
 	 * Holder to collect {@link Exception}s thrown during pointcut parsing and matching.
 	 * @since 2.0.4
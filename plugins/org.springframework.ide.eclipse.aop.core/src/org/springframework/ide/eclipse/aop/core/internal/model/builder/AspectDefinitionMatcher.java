@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,6 @@
 package org.springframework.ide.eclipse.aop.core.internal.model.builder;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -51,13 +50,38 @@ import org.springframework.util.ReflectionUtils;
  * Uses Spring AOP's {@link AspectJExpressionPointcut} infrastructure to determine matches.
  * <p>
  * With Spring 2.5 this class supports the bean pointcut primitive as well.
+ * <p>
+ * Instances are not thread-safe: the pointcuts they create and their shadow match caches must only be used from one
+ * thread.
+ * <p>
+ * If created for a {@link PointcutMatchCache.Generation}, parsed pointcuts and the matching methods of classes are
+ * taken from and added to that generation, so that they can be reused by later matchers.
  * @author Christian Dupuis
  * @since 2.0
  */
 public class AspectDefinitionMatcher {
 
 	/** Internal cache to used with {@link AspectJExpressionPointcut} */
-	private Map<IAspectDefinition, Object> pointcutExpressionCache = new HashMap<IAspectDefinition, Object>();
+	private final Map<IAspectDefinition, Object> pointcutExpressionCache = new HashMap<IAspectDefinition, Object>();
+
+	private final Map<IAspectDefinition, String> pointcutKeyCache = new HashMap<IAspectDefinition, String>();
+
+	private final PointcutMatchCache.Generation generation;
+
+	/**
+	 * Creates a matcher that only caches pointcuts for its own lifetime.
+	 */
+	public AspectDefinitionMatcher() {
+		this(null);
+	}
+
+	/**
+	 * Creates a matcher that shares pointcuts and match results with the given generation.
+	 * @since 3.9.0
+	 */
+	public AspectDefinitionMatcher(PointcutMatchCache.Generation generation) {
+		this.generation = generation;
+	}
 
 	/**
 	 * Returns all matches on {@link Method} in form of the corresponding {@link IMethod}.
@@ -89,7 +113,7 @@ public class AspectDefinitionMatcher {
 			ClassUtils.invokeMethod(proxyCreationContextClass, "setCurrentProxiedBeanName", new Object[] { beanName },
 					new Class[] { String.class });
 			try {
-				matches.addAll(internalMatches(targetClass, targetBean, info, project));
+				matches.addAll(internalMatches(targetClass, targetBean, info, project, beanName));
 			}
 			finally {
 				// reset bean name on thread local
@@ -100,23 +124,16 @@ public class AspectDefinitionMatcher {
 		return matches;
 	}
 
+	/**
+	 * Releases the pointcuts of this matcher and clears their shadow match caches; pointcuts shared with a
+	 * {@link PointcutMatchCache.Generation} stay cached there.
+	 */
 	public void close() {
 		for (Object pce : pointcutExpressionCache.values()) {
-			Field field = ReflectionUtils.findField(pce.getClass(), "shadowMatchCache");
-			field.setAccessible(true);
-			Map<?, ?> shadowMatchCache = (Map<?, ?>) ReflectionUtils.getField(field, pce);
-
-			try {
-				Class<?> resolvedTypeClass = pce.getClass().getClassLoader().loadClass(
-						"org.aspectj.weaver.ResolvedType");
-				Method resetPrimitivesMethod = resolvedTypeClass.getMethod("resetPrimitives");
-				resetPrimitivesMethod.invoke(resolvedTypeClass);
-			}
-			catch (Exception e) {
-			}
-			shadowMatchCache.clear();
+			PointcutMatchCache.clearShadowMatchCache(pce);
 		}
 		pointcutExpressionCache.clear();
+		pointcutKeyCache.clear();
 	}
 
 	/**
@@ -177,14 +194,35 @@ public class AspectDefinitionMatcher {
 	 * Creates {@link AspectJExpressionPointcut} instances based on {@link IAspectDefinition}.
 	 */
 	private Object createAspectJPointcutExpression(IAspectDefinition info) throws Throwable {
-		try {
-
-			if (pointcutExpressionCache.containsKey(info)) {
-				return pointcutExpressionCache.get(info);
+		if (pointcutExpressionCache.containsKey(info)) {
+			return pointcutExpressionCache.get(info);
+		}
+		Object pc = null;
+		if (generation != null) {
+			pc = generation.getPointcut(getPointcutKey(info));
+		}
+		if (pc == null) {
+			pc = doCreateAspectJPointcutExpression(info);
+			if (generation != null) {
+				generation.putPointcut(getPointcutKey(info), pc);
 			}
+		}
+		pointcutExpressionCache.put(info, pc);
+		return pc;
+	}
+
+	private String getPointcutKey(IAspectDefinition info) {
+		String key = pointcutKeyCache.get(info);
+		if (key == null) {
+			key = PointcutMatchCache.getPointcutKey(info);
+			pointcutKeyCache.put(info, key);
+		}
+		return key;
+	}
 
+	private Object doCreateAspectJPointcutExpression(IAspectDefinition info) throws Throwable {
+		try {
 			Object pc = initAspectJExpressionPointcut(info);
-			pointcutExpressionCache.put(info, pc);
 
 			Class<?> aspectJAdviceClass = AspectJAdviceClassFactory.getAspectJAdviceClass(info);
 			Class<?> aspectInstanceFactoryClass = ClassUtils
@@ -240,30 +278,73 @@ public class AspectDefinitionMatcher {
 	}
 
 	private Set<IMethod> internalMatches(final Class<?> targetClass, final IBean targetBean,
-			final IAspectDefinition info, final IProject project) throws Throwable {
+			final IAspectDefinition info, final IProject project, String beanName) throws Throwable {
 
 		// check if bean class can be processed
 		if (!checkClass(targetClass, info.isProxyTargetClass())) {
 			return Collections.emptySet();
 		}
 
+		// check if pointcut expression has been set
+		if (info.getPointcutExpression() == null) {
+			return Collections.emptySet();
+		}
+
+		Object aspectJExpressionPointcut = createAspectJPointcutExpression(info);
+
+		// the class level matches(targetClass) check of the pointcut runs before the merged bean definition is
+		// resolved and before any method is matched; most classes are rejected here
+		if (!couldMatchJoinPointsInType(aspectJExpressionPointcut, info, targetClass, beanName)) {
+			return Collections.emptySet();
+		}
+
 		// check if bean is synthetic as this would mean that the BeanPostProcessor would not load
 		BeanDefinition beanDefinition = BeansModelUtils.getMergedBeanDefinition(targetBean, null);
 		if (beanDefinition instanceof RootBeanDefinition && ((RootBeanDefinition) beanDefinition).isSynthetic()) {
 			return Collections.emptySet();
 		}
 
-		// check if pointcut expression has been set
-		if (info.getPointcutExpression() == null) {
-			return Collections.emptySet();
+		if (generation == null || !generation.isCacheable(targetClass)) {
+			return matchMethods(targetClass, info, project, aspectJExpressionPointcut);
 		}
+		String pointcutKey = getPointcutKey(info);
+		Set<IMethod> matchingMethods = generation.getMatches(pointcutKey, info.isProxyTargetClass(), targetClass,
+				beanName);
+		if (matchingMethods == null) {
+			matchingMethods = matchMethods(targetClass, info, project, aspectJExpressionPointcut);
+			generation.putMatches(pointcutKey, info.isProxyTargetClass(), targetClass, beanName, matchingMethods);
+		}
+		return matchingMethods;
+	}
 
-		final Set<IMethod> matchingMethods = new HashSet<IMethod>();
-		final Object aspectJExpressionPointcut = createAspectJPointcutExpression(info);
-
-		if (!((Boolean) ClassUtils.invokeMethod(aspectJExpressionPointcut, "matches", targetClass))) {
-			return matchingMethods;
+	/**
+	 * Checks if the given pointcut could match any join point in the given class. The verdict is cached in the
+	 * {@link PointcutMatchCache.Generation} if there is one.
+	 * <p>
+	 * {@link AspectJExpressionPointcut#matches(Class)} evaluates AspectJ's <code>couldMatchJoinPointsInType</code>,
+	 * i.e. only the type patterns of the pointcut.
+	 */
+	private boolean couldMatchJoinPointsInType(Object aspectJExpressionPointcut, IAspectDefinition info,
+			Class<?> targetClass, String beanName) throws Throwable {
+		if (generation == null || !generation.isCacheable(targetClass)) {
+			return (Boolean) ClassUtils.invokeMethod(aspectJExpressionPointcut, "matches", targetClass);
 		}
+		String pointcutKey = getPointcutKey(info);
+		Boolean couldMatch = generation.getTypeMatch(pointcutKey, targetClass, beanName);
+		if (couldMatch == null) {
+			couldMatch = (Boolean) ClassUtils.invokeMethod(aspectJExpressionPointcut, "matches", targetClass);
+			generation.putTypeMatch(pointcutKey, targetClass, beanName, couldMatch);
+		}
+		return couldMatch;
+	}
+
+	/**
+	 * Matches the methods of the given class against the given pointcut; the class itself must already have passed
+	 * {@link #couldMatchJoinPointsInType(Object, IAspectDefinition, Class, String)}.
+	 */
+	private Set<IMethod> matchMethods(final Class<?> targetClass, final IAspectDefinition info,
+			final IProject project, final Object aspectJExpressionPointcut) throws Throwable {
+		final Set<IMethod> matchingMethods = new HashSet<IMethod>();
 
 		final IType jdtTargetType = JdtUtils.getJavaType(project, targetClass.getName());
 
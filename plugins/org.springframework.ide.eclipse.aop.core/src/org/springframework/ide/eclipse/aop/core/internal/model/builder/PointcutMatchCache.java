@@ -0,0 +1,502 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.aop.core.internal.model.builder;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
+import org.springframework.ide.eclipse.aop.core.Activator;
+import org.springframework.ide.eclipse.aop.core.model.IAspectDefinition;
+import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Cache of parsed pointcut expressions and their match results per project, shared by all
+ * {@link AopReferenceModelBuilderJob}s of that project.
+ * <p>
+ * Parsed pointcuts and the classes they are matched against belong to a project class loader. The cache therefore
+ * hands out a {@link Generation} that consists of a project class loader together with the pointcuts parsed and the
+ * match results computed with it. A generation is reused by subsequent builder jobs and is only dropped if the
+ * classpath of the project changes, if a class is recompiled that the class loader of the generation has loaded, or if
+ * a class is added to the project or a project on its classpath. Changes to other classes keep the generation.
+ * <p>
+ * Pointcuts are identified by their expression together with the attributes of the advice they are bound to, so
+ * changed aspect definitions result in new entries. Match results are kept per target class and bean name, as
+ * pointcuts may use the bean() primitive. Both pointcuts and match results are kept in LRU maps of limited size. The
+ * shadow match cache of a pointcut, which holds on to the methods it has been matched against, is cleared when the
+ * pointcut is evicted or its generation is dropped.
+ * @author agent
+ * @since 3.9.0
+ */
+public class PointcutMatchCache {
+
+	private static final int MAX_POINTCUTS = 512;
+
+	private static final int MAX_MATCHES = 8192;
+
+	private static final int MAX_TYPE_MATCHES = 16384;
+
+	private static final ConcurrentMap<IProject, PointcutMatchCache> CACHES = new ConcurrentHashMap<IProject, PointcutMatchCache>();
+
+	private static volatile boolean listenersRegistered = false;
+
+	private Generation current;
+
+	/**
+	 * Returns the shared cache for the given project.
+	 */
+	public static PointcutMatchCache getCache(IProject project) {
+		registerListenersIfRequired();
+
+		PointcutMatchCache cache = CACHES.get(project);
+		if (cache == null) {
+			PointcutMatchCache newCache = new PointcutMatchCache();
+			cache = CACHES.putIfAbsent(project, newCache);
+			if (cache == null) {
+				cache = newCache;
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Drops the current generation of all project caches.
+	 */
+	public static void clearAll() {
+		for (PointcutMatchCache cache : CACHES.values()) {
+			cache.invalidate();
+		}
+	}
+
+	/**
+	 * Returns the current generation, or <code>null</code> if there is none and a new one needs to be started with
+	 * {@link #startGeneration(IProjectClassLoaderSupport)}.
+	 */
+	public synchronized Generation getCurrentGeneration() {
+		return current;
+	}
+
+	/**
+	 * Starts a new generation for the given project class loader. If another generation has been started in the
+	 * meantime, that one is returned instead.
+	 */
+	public synchronized Generation startGeneration(IProjectClassLoaderSupport classLoaderSupport) {
+		if (current == null) {
+			current = new Generation(classLoaderSupport);
+		}
+		return current;
+	}
+
+	/**
+	 * Drops the current generation; jobs that are still using it can continue to do so.
+	 */
+	public void invalidate() {
+		Generation old;
+		synchronized (this) {
+			old = current;
+			current = null;
+		}
+		if (old != null) {
+			old.dispose();
+		}
+	}
+
+	/**
+	 * Returns the key of the pointcut that is created for the given aspect definition.
+	 */
+	public static String getPointcutKey(IAspectDefinition info) {
+		StringBuilder key = new StringBuilder(info.getPointcutExpression());
+		key.append('|').append(info.getType());
+		key.append('|').append(info.getAspectClassName());
+		key.append('|').append(info.getAdviceMethodName());
+		key.append('|').append(Arrays.toString(info.getAdviceMethodParameterTypes()));
+		key.append('|').append(Arrays.toString(info.getArgNames()));
+		key.append('|').append(info.getReturning());
+		key.append('|').append(info.getThrowing());
+		return key.toString();
+	}
+
+	/**
+	 * Clears the cache of shadow matches of the given pointcut, which refers to the methods and thereby the classes
+	 * the pointcut has been matched against.
+	 */
+	static void clearShadowMatchCache(Object pointcut) {
+		Field field = ReflectionUtils.findField(pointcut.getClass(), "shadowMatchCache");
+		if (field != null) {
+			field.setAccessible(true);
+			Object shadowMatchCache = ReflectionUtils.getField(field, pointcut);
+			if (shadowMatchCache instanceof Map) {
+				((Map<?, ?>) shadowMatchCache).clear();
+			}
+		}
+	}
+
+	private static void registerListenersIfRequired() {
+		if (!listenersRegistered) {
+			synchronized (PointcutMatchCache.class) {
+				if (!listenersRegistered) {
+					JavaCore.addElementChangedListener(new ClasspathChangedListener(), ElementChangedEvent.POST_CHANGE);
+					ResourcesPlugin.getWorkspace().addResourceChangeListener(new ClassFileResourceChangeListener(),
+							IResourceChangeEvent.POST_CHANGE);
+					listenersRegistered = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A project class loader together with the pointcuts parsed and the match results computed with it.
+	 * <p>
+	 * All methods can be called concurrently.
+	 */
+	public static class Generation {
+
+		private final IProjectClassLoaderSupport classLoaderSupport;
+
+		private final Map<String, Object> pointcuts = Collections.synchronizedMap(new PointcutMap(MAX_POINTCUTS));
+
+		private final Map<String, Set<IMethod>> matches = Collections.synchronizedMap(new LruMap<String, Set<IMethod>>(
+				MAX_MATCHES));
+
+		private final Map<String, Boolean> typeMatches = Collections.synchronizedMap(new LruMap<String, Boolean>(
+				MAX_TYPE_MATCHES));
+
+		private Generation(IProjectClassLoaderSupport classLoaderSupport) {
+			this.classLoaderSupport = classLoaderSupport;
+		}
+
+		public IProjectClassLoaderSupport getClassLoaderSupport() {
+			return classLoaderSupport;
+		}
+
+		/**
+		 * Returns the pointcut for the given {@link PointcutMatchCache#getPointcutKey(IAspectDefinition) key} or
+		 * <code>null</code> if it hasn't been parsed yet.
+		 */
+		public Object getPointcut(String pointcutKey) {
+			return pointcuts.get(pointcutKey);
+		}
+
+		public void putPointcut(String pointcutKey, Object pointcut) {
+			pointcuts.put(pointcutKey, pointcut);
+		}
+
+		/**
+		 * Returns whether the given pointcut could match join points in the given class, or <code>null</code> if that
+		 * hasn't been determined yet.
+		 */
+		public Boolean getTypeMatch(String pointcutKey, Class<?> targetClass, String beanName) {
+			return typeMatches.get(getTypeMatchKey(pointcutKey, targetClass, beanName));
+		}
+
+		public void putTypeMatch(String pointcutKey, Class<?> targetClass, String beanName, boolean couldMatch) {
+			typeMatches.put(getTypeMatchKey(pointcutKey, targetClass, beanName), couldMatch);
+		}
+
+		/**
+		 * Returns the cached matching methods of the given class or <code>null</code> if the class hasn't been
+		 * matched yet.
+		 */
+		public Set<IMethod> getMatches(String pointcutKey, boolean isProxyTargetClass, Class<?> targetClass,
+				String beanName) {
+			return matches.get(getMatchKey(pointcutKey, isProxyTargetClass, targetClass, beanName));
+		}
+
+		public void putMatches(String pointcutKey, boolean isProxyTargetClass, Class<?> targetClass, String beanName,
+				Set<IMethod> matchingMethods) {
+			matches.put(getMatchKey(pointcutKey, isProxyTargetClass, targetClass, beanName), Collections
+					.unmodifiableSet(matchingMethods));
+		}
+
+		/**
+		 * Returns <code>true</code> if the given class has been loaded by the class loader of this generation, so that
+		 * its match results can be cached.
+		 */
+		public boolean isCacheable(Class<?> targetClass) {
+			ClassLoader targetClassLoader = targetClass.getClassLoader();
+			if (targetClassLoader == null) {
+				return true;
+			}
+			for (ClassLoader loader = classLoaderSupport.getProjectClassLoader(); loader != null; loader = loader
+					.getParent()) {
+				if (loader == targetClassLoader) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public int size() {
+			return pointcuts.size() + matches.size() + typeMatches.size();
+		}
+
+		/**
+		 * Returns <code>true</code> if the class loader of this generation has loaded a class from one of the given
+		 * class files. If the class loader doesn't record the classes it loads, any class file is considered loaded.
+		 */
+		private boolean hasLoadedAny(List<IPath> classFiles) {
+			Set<String> loadedClassNames = ProjectClassLoaderCache.getLoadedClassNames(classLoaderSupport
+					.getProjectClassLoader());
+			if (loadedClassNames == null) {
+				return !classFiles.isEmpty();
+			}
+			for (IPath classFile : classFiles) {
+				// the output folder is not known, so try the class names of all suffixes of the path
+				IPath path = classFile.removeFileExtension();
+				for (int i = path.segmentCount() - 1; i > 0; i--) {
+					if (loadedClassNames.contains(path.removeFirstSegments(i).toString().replace('/', '.'))) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+
+		private String getMatchKey(String pointcutKey, boolean isProxyTargetClass, Class<?> targetClass,
+				String beanName) {
+			return getTypeMatchKey(pointcutKey, targetClass, beanName) + '|' + isProxyTargetClass;
+		}
+
+		private String getTypeMatchKey(String pointcutKey, Class<?> targetClass, String beanName) {
+			// the bean() primitive may be used through named pointcuts, so results always depend on the bean name
+			return pointcutKey + '|' + targetClass.getName() + '|' + (beanName != null ? beanName : "");
+		}
+
+		private void dispose() {
+			synchronized (pointcuts) {
+				for (Object pointcut : pointcuts.values()) {
+					clearShadowMatchCache(pointcut);
+				}
+				if (!pointcuts.isEmpty()) {
+					resetPrimitives(pointcuts.values().iterator().next());
+				}
+				pointcuts.clear();
+			}
+		}
+
+		/**
+		 * Releases AspectJ's shared primitive types that refer to the reflection world of this generation.
+		 */
+		private static void resetPrimitives(Object pointcut) {
+			try {
+				Class<?> resolvedTypeClass = pointcut.getClass().getClassLoader().loadClass(
+						"org.aspectj.weaver.ResolvedType");
+				Method resetPrimitivesMethod = resolvedTypeClass.getMethod("resetPrimitives");
+				resetPrimitivesMethod.invoke(resolvedTypeClass);
+			}
+			catch (Exception e) {
+			}
+		}
+	}
+
+	/**
+	 * {@link LinkedHashMap} in access order that removes the least recently used entry once it exceeds its size.
+	 */
+	private static class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxSize;
+
+		public LruMap(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+			if (size() > maxSize) {
+				evicted(eldest.getValue());
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Called for an entry that is removed because the map exceeds its size.
+		 */
+		protected void evicted(V value) {
+		}
+	}
+
+	/**
+	 * {@link LruMap} of pointcuts that clears the shadow match cache of evicted pointcuts.
+	 */
+	private static class PointcutMap extends LruMap<String, Object> {
+
+		private static final long serialVersionUID = 1L;
+
+		public PointcutMap(int maxSize) {
+			super(maxSize);
+		}
+
+		@Override
+		protected void evicted(Object pointcut) {
+			clearShadowMatchCache(pointcut);
+		}
+	}
+
+	/**
+	 * Drops the generations of all projects if a classpath or a library on the classpath changes, as dependent
+	 * projects see those changes as well. Caches of removed or closed projects are removed.
+	 */
+	private static class ClasspathChangedListener implements IElementChangedListener {
+
+		private static final int CLASSPATH_CHANGED = IJavaElementDelta.F_CLASSPATH_CHANGED
+				| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+		private static final int ROOT_CHANGED = IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+				| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+		public void elementChanged(ElementChangedEvent event) {
+			if (!CACHES.isEmpty()) {
+				visit(event.getDelta());
+			}
+		}
+
+		private void visit(IJavaElementDelta delta) {
+			IJavaElement element = delta.getElement();
+			switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() == IJavaElementDelta.REMOVED
+						|| (delta.getFlags() & (IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_OPENED)) != 0) {
+					PointcutMatchCache cache = CACHES.remove(((IJavaProject) element).getProject());
+					if (cache != null) {
+						cache.invalidate();
+					}
+				}
+				if ((delta.getFlags() & CLASSPATH_CHANGED) != 0) {
+					clearAll();
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if ((delta.getFlags() & ROOT_CHANGED) != 0) {
+					clearAll();
+				}
+				return;
+			}
+
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				visit(child);
+			}
+		}
+	}
+
+	/**
+	 * Drops generations whose class loader has loaded a class whose class file has been changed or removed by a build.
+	 * New class files drop the generations of all projects that have them on their classpath, as the class loader may
+	 * have failed to find them before.
+	 */
+	private static class ClassFileResourceChangeListener implements IResourceChangeListener, IResourceDeltaVisitor {
+
+		private static final int CONTENT_CHANGED = IResourceDelta.CONTENT | IResourceDelta.REPLACED;
+
+		private final Set<IProject> projectsWithAddedClasses = new HashSet<IProject>();
+
+		private final List<IPath> changedClassFiles = new ArrayList<IPath>();
+
+		public synchronized void resourceChanged(IResourceChangeEvent event) {
+			if (!CACHES.isEmpty() && event.getDelta() != null) {
+				try {
+					event.getDelta().accept(this);
+					if (!projectsWithAddedClasses.isEmpty() || !changedClassFiles.isEmpty()) {
+						for (Map.Entry<IProject, PointcutMatchCache> entry : CACHES.entrySet()) {
+							Generation generation = entry.getValue().getCurrentGeneration();
+							if (generation != null
+									&& (isOnClasspath(entry.getKey(), projectsWithAddedClasses) || generation
+											.hasLoadedAny(changedClassFiles))) {
+								entry.getValue().invalidate();
+							}
+						}
+					}
+				}
+				catch (CoreException e) {
+					Activator.log(e);
+				}
+				finally {
+					projectsWithAddedClasses.clear();
+					changedClassFiles.clear();
+				}
+			}
+		}
+
+		public boolean visit(IResourceDelta delta) throws CoreException {
+			IResource resource = delta.getResource();
+			if (resource instanceof IFile) {
+				if ("class".equals(resource.getFileExtension())) {
+					if (delta.getKind() == IResourceDelta.ADDED) {
+						projectsWithAddedClasses.add(resource.getProject());
+					}
+					else if (delta.getKind() == IResourceDelta.REMOVED || (delta.getFlags() & CONTENT_CHANGED) != 0) {
+						changedClassFiles.add(resource.getFullPath());
+					}
+				}
+				return false;
+			}
+			return true;
+		}
+
+		/**
+		 * Returns <code>true</code> if the given project or one of the projects on its classpath is contained in the
+		 * given projects.
+		 */
+		private static boolean isOnClasspath(IProject project, Set<IProject> projects) {
+			Set<IProject> visited = new HashSet<IProject>();
+			List<IProject> queue = new ArrayList<IProject>();
+			queue.add(project);
+			while (!queue.isEmpty()) {
+				IProject current = queue.remove(queue.size() - 1);
+				if (visited.add(current)) {
+					if (projects.contains(current)) {
+						return true;
+					}
+					if (JdtUtils.isJavaProject(current)) {
+						for (IJavaProject required : JdtUtils.getAllDependingJavaProjects(JavaCore.create(current))) {
+							queue.add(required.getProject());
+						}
+					}
+				}
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.autowire.IFactoryBeanTypeResolver;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.ValidationRuleUtils;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModelElement;
+import org.springframework.ide.eclipse.core.java.ClassUtils;
+
+/**
+ * Index of autowire candidates that maps every type a bean can be assigned to onto the names of those beans.
+ * <p>
+ * The index is built once from the resolved bean classes, including the object types of {@link org.springframework.beans.factory.FactoryBean}s
+ * as reported by their <code>getObject</code> method and the contributed {@link IFactoryBeanTypeResolver}s. Every exposed
+ * type is registered together with all of its super classes and interfaces, so that looking up the candidates for a
+ * required type is a single map access instead of a class loading and assignability check for every bean.
+ * <p>
+ * Classes are loaded via the context class loader that is active while the index is built; the index must not be used
+ * with classes from a different class loader.
+ * @author agent
+ * @since 3.9.0
+ */
+public class AutowireCandidateIndex {
+
+	private static final String[] NO_BEANS = new String[0];
+
+	private final ClassLoader classLoader;
+
+	private final Map<Class<?>, Set<String>> beanNamesByType = new HashMap<Class<?>, Set<String>>();
+
+	private final Map<Class<?>, Set<Class<?>>> assignableTypes = new HashMap<Class<?>, Set<Class<?>>>();
+
+	/** Exposed array types, these can't be indexed by their super types and are checked one by one */
+	private final List<Class<?>> arrayTypes = new ArrayList<Class<?>>();
+
+	private final List<String> arrayTypeBeanNames = new ArrayList<String>();
+
+	public AutowireCandidateIndex(Set<IBean> beans, IBeansModelElement context, Class<?> factoryBeanClass) {
+		this.classLoader = Thread.currentThread().getContextClassLoader();
+
+		for (IBean bean : beans) {
+			String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
+			if (beanClassName != null) {
+				try {
+					Class<?> beanClass = ClassUtils.loadClass(beanClassName);
+					addBean(bean.getElementName(), beanClass);
+
+					if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
+						addBean(bean.getElementName(), getFactoryObjectType(beanClass));
+						for (IFactoryBeanTypeResolver factoryTypeResolver : FactoryBeanTypeResolverExtensions.getFactoryBeanTypeResolvers()) {
+							addBean(bean.getElementName(), factoryTypeResolver.resolveBeanTypeFromFactory(bean, beanClass));
+						}
+					}
+				}
+				catch (ClassNotFoundException e) {
+					// Ignore here as this can easily happen if project class path is not complete
+				}
+				catch (NoClassDefFoundError e) {
+					// Ignore here as this can easily happen if project class path is not complete
+				}
+				catch (Throwable e) {
+					BeansCorePlugin.log(e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the class loader that has been used to load the classes of this index.
+	 */
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	/**
+	 * Returns the names of all beans whose class (or factory bean object type) is assignable to the given type.
+	 */
+	public String[] getBeansForType(Class<?> requiredType) {
+		Set<String> beanNames = beanNamesByType.get(requiredType);
+		if (arrayTypes.isEmpty()) {
+			return (beanNames != null ? beanNames.toArray(new String[beanNames.size()]) : NO_BEANS);
+		}
+
+		Set<String> matchingBeans = new LinkedHashSet<String>();
+		if (beanNames != null) {
+			matchingBeans.addAll(beanNames);
+		}
+		for (int i = 0; i < arrayTypes.size(); i++) {
+			if (requiredType.isAssignableFrom(arrayTypes.get(i))) {
+				matchingBeans.add(arrayTypeBeanNames.get(i));
+			}
+		}
+		return matchingBeans.toArray(new String[matchingBeans.size()]);
+	}
+
+	private void addBean(String beanName, Class<?> type) {
+		if (type == null) {
+			return;
+		}
+		if (type.isArray()) {
+			arrayTypes.add(type);
+			arrayTypeBeanNames.add(beanName);
+			return;
+		}
+
+		for (Class<?> assignableType : getAssignableTypes(type)) {
+			Set<String> beanNames = beanNamesByType.get(assignableType);
+			if (beanNames == null) {
+				beanNames = new LinkedHashSet<String>();
+				beanNamesByType.put(assignableType, beanNames);
+			}
+			beanNames.add(beanName);
+		}
+	}
+
+	/**
+	 * Returns the given type and all of its super classes and interfaces, i.e. all types <code>T</code>
+	 * for which <code>T.isAssignableFrom(type)</code> returns <code>true</code>.
+	 */
+	private Set<Class<?>> getAssignableTypes(Class<?> type) {
+		Set<Class<?>> types = assignableTypes.get(type);
+		if (types == null) {
+			types = new LinkedHashSet<Class<?>>();
+			collectAssignableTypes(type, types);
+			if (type.isInterface()) {
+				types.add(Object.class);
+			}
+			assignableTypes.put(type, types);
+		}
+		return types;
+	}
+
+	private void collectAssignableTypes(Class<?> type, Set<Class<?>> types) {
+		if (type != null && types.add(type)) {
+			collectAssignableTypes(type.getSuperclass(), types);
+			for (Class<?> interfaceType : type.getInterfaces()) {
+				collectAssignableTypes(interfaceType, types);
+			}
+		}
+	}
+
+	private Class<?> getFactoryObjectType(Class<?> beanClass) {
+		try {
+			Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
+			if (factoryMethod != null) {
+				return factoryMethod.getReturnType();
+			}
+		}
+		catch (NoClassDefFoundError e) {
+			// Ignore here as this can easily happen if project class path is not complete
+		}
+		catch (Throwable e) {
+			BeansCorePlugin.log(e);
+		}
+		return null;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,6 @@ package org.springframework.ide.eclipse.beans.core.autowire.internal.provider;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Member;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -54,10 +53,8 @@ import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
 import org.springframework.ide.eclipse.beans.core.autowire.IAutowireDependencyResolver;
-import org.springframework.ide.eclipse.beans.core.autowire.IFactoryBeanTypeResolver;
 import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.InjectionMetadata.InjectedElement;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
-import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.ValidationRuleUtils;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
 import org.springframework.ide.eclipse.beans.core.model.IBeanAlias;
 import org.springframework.ide.eclipse.beans.core.model.IBeanReference;
@@ -114,6 +111,10 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 
 	private Map<Class<?>, String> resolvableDependencies = new HashMap<Class<?>, String>();
 
+	private AutowireCandidateIndex candidateIndex;
+
+	private Map<String, IBean> beansByName;
+
 	private Class<?> factoryBeanClass;
 	private Class<?> objectFactoryClass;
 	private Class<?> providerClass;
@@ -285,6 +286,8 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public void preloadClasses() {
+		candidateIndex = null;
+
 		try {
 			factoryBeanClass = ClassUtils.loadClass(FactoryBean.class.getName());
 		} catch (Throwable e) {
@@ -328,19 +331,51 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public IBean getBean(String candidateName) {
-		for (IBean bean : beans) {
-			if (bean.getElementName().equals(candidateName)) {
-				return bean;
+		return getBeansByName().get(candidateName);
+	}
+
+	/**
+	 * Returns lazily initialized map with all bean names and aliases, if several beans share a name the
+	 * first one wins.
+	 */
+	private Map<String, IBean> getBeansByName() {
+		if (this.beansByName == null) {
+			Map<String, Set<String>> aliasesByBeanName = new HashMap<String, Set<String>>();
+			Set<IBeanAlias> aliases = null;
+			if (context instanceof IBeansConfig) {
+				aliases = ((IBeansConfig) context).getAliases();
 			}
-			else {
-				for (String alias : getAliases(bean.getElementName())) {
-					if (alias.equals(candidateName)) {
-						return bean;
+			else if (context instanceof IBeansConfigSet) {
+				aliases = ((IBeansConfigSet) context).getAliases();
+			}
+			if (aliases != null) {
+				for (IBeanAlias alias : aliases) {
+					Set<String> beanAliases = aliasesByBeanName.get(alias.getBeanName());
+					if (beanAliases == null) {
+						beanAliases = new HashSet<String>();
+						aliasesByBeanName.put(alias.getBeanName(), beanAliases);
+					}
+					beanAliases.add(alias.getElementName());
+				}
+			}
+
+			Map<String, IBean> beansByName = new HashMap<String, IBean>();
+			for (IBean bean : beans) {
+				if (!beansByName.containsKey(bean.getElementName())) {
+					beansByName.put(bean.getElementName(), bean);
+				}
+				Set<String> beanAliases = aliasesByBeanName.get(bean.getElementName());
+				if (beanAliases != null) {
+					for (String alias : beanAliases) {
+						if (!beansByName.containsKey(alias)) {
+							beansByName.put(alias, bean);
+						}
 					}
 				}
 			}
+			this.beansByName = beansByName;
 		}
-		return null;
+		return this.beansByName;
 	}
 	
 	public String[] getBeansForType(String requiredTypeName) {
@@ -361,67 +396,20 @@ public class AutowireDependencyProvider implements IAutowireDependencyResolver {
 	}
 
 	public String[] getBeansForType(Class<?> requiredType) {
-		Set<String> matchingBeans = new HashSet<String>();
-		
-		for (IBean bean : beans) {
-			String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
-			if (beanClassName != null) {
-				try {
-					Class<?> beanClass = ClassUtils.loadClass(beanClassName);
-					if (requiredType.isAssignableFrom(beanClass)) {
-						matchingBeans.add(bean.getElementName());
-					}
-					else if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
-						if (isFactoryForType(beanClass, requiredType)) {
-							matchingBeans.add(bean.getElementName());
-						} 
-						else if (isExtensibleFactoryForType(bean, beanClass, requiredType)) {
-							matchingBeans.add(bean.getElementName());
-						}
-					}
-				}
-				catch (ClassNotFoundException e) {
-					// Ignore here as this can easily happen if project class path is not complete
-				}
-				catch (NoClassDefFoundError e) {
-					// Ignore here as this can easily happen if project class path is not complete
-				}
-				catch (Throwable e) {
-					BeansCorePlugin.log(e);
-				}
-			}
-		}
-		return (String[]) matchingBeans.toArray(new String[matchingBeans.size()]);
-	}
-
-	private boolean isFactoryForType(Class<?> beanClass, Class<?> requiredType) {
-		try {
-			Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
-			if (factoryMethod != null && requiredType.isAssignableFrom(factoryMethod.getReturnType())) {
-				return true;
-			}
-		}
-		catch (NoClassDefFoundError e) {
-			// Ignore here as this can easily happen if project class path is not complete
-		}
-		catch (Throwable e) {
-			BeansCorePlugin.log(e);
-		}
-
-		return false;
+		return getCandidateIndex().getBeansForType(requiredType);
 	}
 
-	private boolean isExtensibleFactoryForType(IBean bean, Class<?> beanClass, Class<?> requiredType) {
-		IFactoryBeanTypeResolver[] resolvers = FactoryBeanTypeResolverExtensions.getFactoryBeanTypeResolvers();
-		
-		for (IFactoryBeanTypeResolver factoryTypeResolver : resolvers) {
-			Class<?> beanType = factoryTypeResolver.resolveBeanTypeFromFactory(bean, beanClass);
-			if (beanType != null && requiredType.isAssignableFrom(beanType)) {
-				return true;
-			}
-		}
-
-		return false;
+	/**
+	 * Returns the index of autowire candidates for the currently active project class loader, the index
+	 * is built on first access and re-used for all injection points resolved with the same class loader.
+	 */
+	private AutowireCandidateIndex getCandidateIndex() {
+		AutowireCandidateIndex index = this.candidateIndex;
+		if (index == null || index.getClassLoader() != Thread.currentThread().getContextClassLoader()) {
+			index = new AutowireCandidateIndex(beans, context, factoryBeanClass);
+			this.candidateIndex = index;
+		}
+		return index;
 	}
 
 	public boolean isAutowireCandidate(String beanName, DependencyDescriptor descriptor)
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.core.classreading.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.IJavaProject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.classreading.CachingJdtMetadataReaderFactory;
+import org.springframework.ide.eclipse.core.java.classreading.JdtMetadataReaderCache;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @author agent
+ * @since 3.9.0
+ */
+public class JdtMetadataReaderCacheTest {
+
+	private IProject project;
+	private IJavaProject javaProject;
+	private ClassLoader classloader;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("jdt-annotation-tests", "org.springframework.ide.eclipse.beans.core.tests");
+		javaProject = JdtUtils.getJavaProject(project);
+		classloader = JdtUtils.getClassLoader(project, ApplicationContext.class.getClassLoader());
+		JdtMetadataReaderCache.clearAll();
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testReadersSharedBetweenFactories() throws Exception {
+		MetadataReader reader = new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.SimpleConfigurationClass");
+		MetadataReader otherReader = new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.SimpleConfigurationClass");
+		assertSame(reader, otherReader);
+		assertEquals(1, JdtMetadataReaderCache.getCache(javaProject, classloader).size());
+	}
+
+	@Test
+	public void testConcurrentReads() throws Exception {
+		final String[] classNames = { "org.test.spring.SimpleConfigurationClass", "org.test.spring.NoAnnotations",
+				"org.test.spring.ComponentScanClass", "org.test.spring.SimpleBeanClass" };
+		final CachingJdtMetadataReaderFactory factory = new CachingJdtMetadataReaderFactory(javaProject, classloader);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<MetadataReader>> results = new ArrayList<Future<MetadataReader>>();
+			for (int i = 0; i < 40; i++) {
+				final String className = classNames[i % classNames.length];
+				results.add(executor.submit(new Callable<MetadataReader>() {
+					public MetadataReader call() throws Exception {
+						return factory.getMetadataReader(className);
+					}
+				}));
+			}
+			for (int i = 0; i < results.size(); i++) {
+				assertSame(factory.getMetadataReader(classNames[i % classNames.length]), results.get(i).get());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertEquals(classNames.length, JdtMetadataReaderCache.getCache(javaProject, classloader).size());
+	}
+
+	@Test
+	public void testMissingClassIsNotCached() throws Exception {
+		CachingJdtMetadataReaderFactory factory = new CachingJdtMetadataReaderFactory(javaProject, classloader);
+		try {
+			factory.getMetadataReader("org.test.spring.DoesNotExist");
+			fail("expected IOException");
+		}
+		catch (IOException e) {
+			// expected
+		}
+		assertEquals(0, JdtMetadataReaderCache.getCache(javaProject, classloader).size());
+	}
+
+	@Test
+	public void testChangedCompilationUnitIsRemoved() throws Exception {
+		CachingJdtMetadataReaderFactory factory = new CachingJdtMetadataReaderFactory(javaProject, classloader);
+		MetadataReader reader = factory.getMetadataReader("org.test.spring.SimpleConfigurationClass");
+		MetadataReader unchangedReader = factory.getMetadataReader("org.test.spring.NoAnnotations");
+
+		IFile file = project.getFile("src/org/test/spring/SimpleConfigurationClass.java");
+		file.setContents(file.getContents(), true, false, null);
+		StsTestUtil.waitForAutoBuild();
+
+		assertNotSame(reader, factory.getMetadataReader("org.test.spring.SimpleConfigurationClass"));
+		assertSame(unchangedReader, factory.getMetadataReader("org.test.spring.NoAnnotations"));
+	}
+
+	@Test
+	public void testReadersNotSharedBetweenClassLoaders() throws Exception {
+		ClassLoader otherClassloader = new URLClassLoader(new URL[0], classloader);
+		MetadataReader reader = new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.SimpleConfigurationClass");
+		MetadataReader otherReader = new CachingJdtMetadataReaderFactory(javaProject, otherClassloader)
+				.getMetadataReader("org.test.spring.SimpleConfigurationClass");
+		assertNotSame(reader, otherReader);
+		assertSame(classloader, JdtMetadataReaderCache.getCache(javaProject, classloader).getClassLoader());
+		assertEquals(1, JdtMetadataReaderCache.getCache(javaProject, classloader).size());
+		assertEquals(1, JdtMetadataReaderCache.getCache(javaProject, otherClassloader).size());
+	}
+
+	@Test
+	public void testCachesOfUnusedClassLoadersAreDropped() throws Exception {
+		new CachingJdtMetadataReaderFactory(javaProject, classloader)
+				.getMetadataReader("org.test.spring.SimpleConfigurationClass");
+		for (int i = 0; i < JdtMetadataReaderCache.MAX_CLASSLOADERS_PER_PROJECT - 1; i++) {
+			JdtMetadataReaderCache.getCache(javaProject, new URLClassLoader(new URL[0], classloader));
+		}
+		assertEquals(1, JdtMetadataReaderCache.getCache(javaProject, classloader).size());
+
+		for (int i = 0; i < JdtMetadataReaderCache.MAX_CLASSLOADERS_PER_PROJECT; i++) {
+			JdtMetadataReaderCache.getCache(javaProject, new URLClassLoader(new URL[0], classloader));
+		}
+		assertEquals(0, JdtMetadataReaderCache.getCache(javaProject, classloader).size());
+	}
+
+	@Test
+	public void testNumberOfReadersIsBounded() throws Exception {
+		JdtMetadataReaderCache cache = JdtMetadataReaderCache.getCache(javaProject, classloader);
+		CountingMetadataReaderFactory factory = new CountingMetadataReaderFactory();
+		for (int i = 0; i < JdtMetadataReaderCache.MAX_READERS; i++) {
+			cache.getMetadataReader("org.test.Class" + i, factory);
+		}
+		assertEquals(JdtMetadataReaderCache.MAX_READERS, cache.size());
+
+		// the first class is used again and therefore kept, the second one is the least recently used
+		cache.getMetadataReader("org.test.Class0", factory);
+		cache.getMetadataReader("org.test.Class" + JdtMetadataReaderCache.MAX_READERS, factory);
+		assertEquals(JdtMetadataReaderCache.MAX_READERS, cache.size());
+		assertEquals(JdtMetadataReaderCache.MAX_READERS + 1, factory.reads.get());
+
+		cache.getMetadataReader("org.test.Class0", factory);
+		assertEquals(JdtMetadataReaderCache.MAX_READERS + 1, factory.reads.get());
+		cache.getMetadataReader("org.test.Class1", factory);
+		assertEquals(JdtMetadataReaderCache.MAX_READERS + 2, factory.reads.get());
+	}
+
+	private static class CountingMetadataReaderFactory implements MetadataReaderFactory {
+
+		private final AtomicInteger reads = new AtomicInteger();
+
+		public MetadataReader getMetadataReader(String className) throws IOException {
+			reads.incrementAndGet();
+			return null;
+		}
+
+		public MetadataReader getMetadataReader(Resource resource) throws IOException {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
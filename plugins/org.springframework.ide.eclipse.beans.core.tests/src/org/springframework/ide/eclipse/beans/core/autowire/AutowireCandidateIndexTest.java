@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.autowire;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.AutowireCandidateIndex;
+import org.springframework.ide.eclipse.beans.core.autowire.internal.provider.FactoryBeanTypeResolverExtensions;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.ValidationRuleUtils;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModelElement;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.ClassUtils;
+import org.springframework.ide.eclipse.core.java.IProjectClassLoaderSupport;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @author agent
+ * @since 3.9.0
+ */
+public class AutowireCandidateIndexTest {
+
+	private static final String CONFIG_FILE = "src/autowire-candidate-index-context.xml";
+
+	private static final String[] TYPES = new String[] {
+		"java.lang.Object",
+		"java.lang.String",
+		"java.lang.Comparable",
+		"java.io.Serializable",
+		"org.springframework.beans.factory.FactoryBean",
+		"org.springframework.beans.factory.BeanNameAware",
+		"test.beans.ITestBean",
+		"test.beans.IOther",
+		"test.beans.TestBean",
+		"test.beans.DerivedTestBean",
+		"test.beans.INestedTestBean",
+		"test.beans.NestedTestBean",
+		"test.beans.Colour"
+	};
+
+	private IProject project;
+	private BeansModel model;
+	private IBeansProject beansProject;
+	private BeansModel modelBackup;
+
+	@BeforeClass
+	public static void setUp() {
+		if (Platform.OS_WIN32.equals(Platform.getOS())) {
+			/*
+			 * Set non-locking class-loader for windows testing
+			 */
+			InstanceScope.INSTANCE.getNode(SpringCore.PLUGIN_ID).putBoolean(
+					SpringCore.USE_NON_LOCKING_CLASSLOADER, true);
+		}
+	}
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("autowire", "org.springframework.ide.eclipse.beans.core.tests");
+
+		model = new BeansModel();
+		beansProject = new BeansProject(model, project);
+
+		modelBackup = (BeansModel) BeansCorePlugin.getModel();
+		BeansCorePlugin.setModel(model);
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+		BeansCorePlugin.setModel(modelBackup);
+	}
+
+	@Test
+	public void testCandidatesByType() throws Throwable {
+		final BeansConfig config = createConfig(
+				"<bean id=\"testBean\" class=\"test.beans.TestBean\" />",
+				"<bean id=\"derivedTestBean\" class=\"test.beans.DerivedTestBean\" />",
+				"<bean id=\"nestedTestBean\" class=\"test.beans.NestedTestBean\" />",
+				"<bean id=\"stringFactory\" class=\"org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessorTests$StringFactoryBean\" />",
+				"<bean id=\"unknown\" class=\"test.beans.DoesNotExist\" />");
+
+		executeWithProjectClassLoader(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
+			public void doWithActiveProjectClassLoader() throws Throwable {
+				AutowireCandidateIndex index = createIndex(config);
+
+				assertCandidates(index, "test.beans.TestBean", "testBean", "derivedTestBean");
+				assertCandidates(index, "test.beans.DerivedTestBean", "derivedTestBean");
+				assertCandidates(index, "test.beans.ITestBean", "testBean", "derivedTestBean");
+				assertCandidates(index, "test.beans.INestedTestBean", "nestedTestBean");
+				assertCandidates(index, "java.lang.String", "stringFactory");
+				assertCandidates(index, "org.springframework.beans.factory.FactoryBean", "stringFactory");
+				assertCandidates(index, "java.lang.Object", "testBean", "derivedTestBean", "nestedTestBean", "stringFactory");
+				assertCandidates(index, "test.beans.Colour");
+
+				assertSameAsLinearScan(index, config);
+			}
+		});
+	}
+
+	@Test
+	public void testBeanDefinitionAdded() throws Throwable {
+		final BeansConfig config = createConfig(
+				"<bean id=\"testBean\" class=\"test.beans.TestBean\" />");
+		executeWithProjectClassLoader(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
+			public void doWithActiveProjectClassLoader() throws Throwable {
+				AutowireCandidateIndex index = createIndex(config);
+				assertCandidates(index, "test.beans.ITestBean", "testBean");
+				assertCandidates(index, "test.beans.INestedTestBean");
+				assertSameAsLinearScan(index, config);
+			}
+		});
+
+		final BeansConfig changedConfig = createConfig(
+				"<bean id=\"testBean\" class=\"test.beans.TestBean\" />",
+				"<bean id=\"derivedTestBean\" class=\"test.beans.DerivedTestBean\" />",
+				"<bean id=\"nestedTestBean\" class=\"test.beans.NestedTestBean\" />");
+		executeWithProjectClassLoader(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
+			public void doWithActiveProjectClassLoader() throws Throwable {
+				AutowireCandidateIndex index = createIndex(changedConfig);
+				assertCandidates(index, "test.beans.ITestBean", "testBean", "derivedTestBean");
+				assertCandidates(index, "test.beans.INestedTestBean", "nestedTestBean");
+				assertSameAsLinearScan(index, changedConfig);
+			}
+		});
+	}
+
+	@Test
+	public void testBeanDefinitionRemoved() throws Throwable {
+		final BeansConfig config = createConfig(
+				"<bean id=\"testBean\" class=\"test.beans.TestBean\" />",
+				"<bean id=\"derivedTestBean\" class=\"test.beans.DerivedTestBean\" />",
+				"<bean id=\"stringFactory\" class=\"org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessorTests$StringFactoryBean\" />");
+		executeWithProjectClassLoader(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
+			public void doWithActiveProjectClassLoader() throws Throwable {
+				AutowireCandidateIndex index = createIndex(config);
+				assertCandidates(index, "test.beans.TestBean", "testBean", "derivedTestBean");
+				assertCandidates(index, "java.lang.String", "stringFactory");
+				assertSameAsLinearScan(index, config);
+			}
+		});
+
+		final BeansConfig changedConfig = createConfig(
+				"<bean id=\"testBean\" class=\"test.beans.TestBean\" />");
+		executeWithProjectClassLoader(new IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback() {
+			public void doWithActiveProjectClassLoader() throws Throwable {
+				AutowireCandidateIndex index = createIndex(changedConfig);
+				assertCandidates(index, "test.beans.TestBean", "testBean");
+				assertCandidates(index, "java.lang.String");
+				assertFalse(Arrays.asList(index.getBeansForType(Object.class)).contains("derivedTestBean"));
+				assertSameAsLinearScan(index, changedConfig);
+			}
+		});
+	}
+
+	/**
+	 * Writes the config file with the given bean definitions and returns a freshly read config for it,
+	 * the same way the model re-reads a config after it changed.
+	 */
+	private BeansConfig createConfig(String... beanDefinitions) throws Exception {
+		StringBuilder xml = new StringBuilder();
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		xml.append("<beans xmlns=\"http://www.springframework.org/schema/beans\"\n");
+		xml.append("\txmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n");
+		xml.append("\txsi:schemaLocation=\"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans-3.0.xsd\">\n");
+		for (String beanDefinition : beanDefinitions) {
+			xml.append("\t").append(beanDefinition).append("\n");
+		}
+		xml.append("</beans>\n");
+
+		IFile file = project.getFile(CONFIG_FILE);
+		ByteArrayInputStream contents = new ByteArrayInputStream(xml.toString().getBytes("UTF-8"));
+		if (file.exists()) {
+			file.setContents(contents, true, false, null);
+		}
+		else {
+			file.create(contents, true, null);
+		}
+		StsTestUtil.waitForAutoBuild();
+
+		return new BeansConfig(beansProject, CONFIG_FILE, IBeansConfig.Type.MANUAL);
+	}
+
+	private void executeWithProjectClassLoader(IProjectClassLoaderSupport.IProjectClassLoaderAwareCallback callback) throws Throwable {
+		JdtUtils.getProjectClassLoaderSupport(project, null).executeCallback(callback);
+	}
+
+	private static AutowireCandidateIndex createIndex(IBeansModelElement context) throws Exception {
+		return new AutowireCandidateIndex(BeansModelUtils.getBeans(context), context, ClassUtils.loadClass(FactoryBean.class.getName()));
+	}
+
+	private static void assertCandidates(AutowireCandidateIndex index, String typeName, String... expectedBeanNames) throws Exception {
+		Class<?> type = ClassUtils.loadClass(typeName);
+		assertEquals(typeName, new HashSet<String>(Arrays.asList(expectedBeanNames)), new HashSet<String>(Arrays.asList(index.getBeansForType(type))));
+	}
+
+	private static void assertSameAsLinearScan(AutowireCandidateIndex index, IBeansModelElement context) throws Exception {
+		Set<IBean> beans = BeansModelUtils.getBeans(context);
+		Class<?> factoryBeanClass = ClassUtils.loadClass(FactoryBean.class.getName());
+		for (String typeName : TYPES) {
+			Class<?> type = ClassUtils.loadClass(typeName);
+			Set<String> expected = getBeansForTypeByLinearScan(beans, context, factoryBeanClass, type);
+			assertEquals(typeName, expected, new HashSet<String>(Arrays.asList(index.getBeansForType(type))));
+		}
+		assertTrue(beans.size() > 0);
+	}
+
+	/**
+	 * The lookup that was done for every injection point before the candidate index existed.
+	 */
+	private static Set<String> getBeansForTypeByLinearScan(Set<IBean> beans, IBeansModelElement context, Class<?> factoryBeanClass, Class<?> requiredType) {
+		Set<String> matchingBeans = new HashSet<String>();
+		for (IBean bean : beans) {
+			String beanClassName = ValidationRuleUtils.getBeanClassName(bean, context);
+			if (beanClassName != null) {
+				try {
+					Class<?> beanClass = ClassUtils.loadClass(beanClassName);
+					if (requiredType.isAssignableFrom(beanClass)) {
+						matchingBeans.add(bean.getElementName());
+					}
+					else if (factoryBeanClass != null && factoryBeanClass.isAssignableFrom(beanClass)) {
+						Method factoryMethod = beanClass.getMethod("getObject", new Class[] {});
+						if (requiredType.isAssignableFrom(factoryMethod.getReturnType())) {
+							matchingBeans.add(bean.getElementName());
+						}
+						else {
+							for (IFactoryBeanTypeResolver resolver : FactoryBeanTypeResolverExtensions.getFactoryBeanTypeResolvers()) {
+								Class<?> beanType = resolver.resolveBeanTypeFromFactory(bean, beanClass);
+								if (beanType != null && requiredType.isAssignableFrom(beanType)) {
+									matchingBeans.add(bean.getElementName());
+								}
+							}
+						}
+					}
+				}
+				catch (ClassNotFoundException e) {
+					// same as in the index
+				}
+				catch (NoSuchMethodException e) {
+					// same as in the index
+				}
+			}
+		}
+		return matchingBeans;
+	}
+
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.tests.BeansCoreTestCase;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Test case to make sure that validating several configs concurrently creates the same markers as validating
+ * them one after another.
+ * @author agent
+ * @since 3.9.0
+ */
+public class ConcurrentValidationTest extends BeansCoreTestCase {
+
+	private static final String PROBLEM_MARKER = BeansCorePlugin.PLUGIN_ID + ".problemmarker";
+
+	private IProject project;
+
+	@Before
+	public void setUp() throws Exception {
+		SpringCore.getDefault().getPluginPreferences().setValue(SpringCore.USE_CONCURRENT_VALIDATION, false);
+		project = createPredefinedProject("validation");
+	}
+
+	@After
+	public void resetPreferences() {
+		SpringCore.getDefault().getPluginPreferences().setToDefault(SpringCore.USE_CONCURRENT_VALIDATION);
+		SpringCore.getDefault().getPluginPreferences().setToDefault(SpringCore.CONCURRENT_VALIDATION_THREADS);
+	}
+
+	@Test
+	public void testConcurrentValidationCreatesSameMarkers() throws Exception {
+		List<String> serialMarkers = getProblemMarkers();
+		assertFalse(serialMarkers.isEmpty());
+
+		SpringCore.getDefault().getPluginPreferences().setValue(SpringCore.USE_CONCURRENT_VALIDATION, true);
+		SpringCore.getDefault().getPluginPreferences().setValue(SpringCore.CONCURRENT_VALIDATION_THREADS, 4);
+		project.deleteMarkers(PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+		project.build(IncrementalProjectBuilder.FULL_BUILD, null);
+
+		assertEquals(serialMarkers, getProblemMarkers());
+	}
+
+	private List<String> getProblemMarkers() throws CoreException {
+		List<String> markers = new ArrayList<String>();
+		for (IMarker marker : project.findMarkers(PROBLEM_MARKER, true, IResource.DEPTH_INFINITE)) {
+			markers.add(marker.getResource().getProjectRelativePath() + ":"
+					+ marker.getAttribute(IMarker.LINE_NUMBER, -1) + ":"
+					+ marker.getAttribute(IMarker.SEVERITY, -1) + ":"
+					+ marker.getAttribute(IMarker.MESSAGE, ""));
+		}
+		Collections.sort(markers);
+		return markers;
+	}
+
+}
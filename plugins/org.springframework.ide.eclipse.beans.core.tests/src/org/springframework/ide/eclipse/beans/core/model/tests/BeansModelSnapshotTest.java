@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.JavaCore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelSnapshot;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelSnapshot.ConfigSnapshot;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @author agent
+ * @since 3.9.0
+ */
+public class BeansModelSnapshotTest {
+
+	private IProject project;
+	private IBeansModel model;
+	private IBeansProject beansProject;
+	private File snapshotFile;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+
+		model = new BeansModel();
+		beansProject = new BeansProject(model, project);
+		snapshotFile = File.createTempFile("beans-model", ".snapshot");
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+		snapshotFile.delete();
+	}
+
+	@Test
+	public void testSnapshotRoundTrip() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertTrue(config.isBeanClass("org.test.spring.SimpleBeanClass"));
+
+		BeansModelSnapshot snapshot = new BeansModelSnapshot();
+		assertTrue(snapshot.add(config));
+		snapshot.write(snapshotFile);
+
+		BeansConfig restoredConfig = new BeansConfig(beansProject, "basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		ConfigSnapshot configSnapshot = BeansModelSnapshot.read(snapshotFile).get(restoredConfig);
+		assertNotNull(configSnapshot);
+		assertTrue(configSnapshot.isBeanClass("org.test.spring.SimpleBeanClass"));
+		assertFalse(configSnapshot.isBeanClass("org.test.spring.UnknownClass"));
+		assertTrue(configSnapshot.hasBean("simpleBean"));
+		assertFalse(configSnapshot.hasBean("unknownBean"));
+		assertEquals(config.getBeanClasses(), configSnapshot.getBeanClasses());
+		assertFalse(restoredConfig.isInitialized());
+	}
+
+	@Test
+	public void testSnapshotInvalidatedByFileChange() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		config.getBeans();
+
+		BeansModelSnapshot snapshot = new BeansModelSnapshot();
+		assertTrue(snapshot.add(config));
+		snapshot.write(snapshotFile);
+
+		IFile file = project.getFile("basic-bean-config.xml");
+		file.setContents(file.getContents(), true, false, null);
+
+		BeansConfig changedConfig = new BeansConfig(beansProject, "basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertNull(BeansModelSnapshot.read(snapshotFile).get(changedConfig));
+	}
+
+	@Test
+	public void testSnapshotInvalidatedByOutputFolderChange() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		config.getBeans();
+
+		BeansModelSnapshot snapshot = new BeansModelSnapshot();
+		assertTrue(snapshot.add(config));
+		snapshot.write(snapshotFile);
+
+		IPath outputLocation = JavaCore.create(project).getOutputLocation();
+		File outputFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(outputLocation).getLocation().toFile();
+		outputFolder.mkdirs();
+		Files.write(new File(outputFolder, "ChangedClass.class").toPath(), "changed class".getBytes());
+
+		BeansConfig changedConfig = new BeansConfig(beansProject, "basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertNull(BeansModelSnapshot.read(snapshotFile).get(changedConfig));
+	}
+
+	@Test
+	public void testUnreadConfigIsNotAdded() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		BeansModelSnapshot snapshot = new BeansModelSnapshot();
+		assertFalse(snapshot.add(config));
+		assertEquals(0, snapshot.size());
+	}
+
+	@Test
+	public void testComponentScanningConfigIsNotAdded() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "basic-component-scanning.xml", IBeansConfig.Type.MANUAL);
+		config.getBeans();
+
+		BeansModelSnapshot snapshot = new BeansModelSnapshot();
+		assertFalse(snapshot.add(config));
+	}
+
+	@Test
+	public void testCorruptSnapshotFile() throws Exception {
+		BeansConfig config = new BeansConfig(beansProject, "basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertEquals(0, BeansModelSnapshot.read(snapshotFile).size());
+		assertNull(BeansModelSnapshot.read(snapshotFile).get(config));
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 GoPivotal, Inc.
+ * Copyright (c) 2013, 2017 GoPivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,10 +23,12 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelUtils;
 import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
 import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansComponent;
 import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
 import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
@@ -297,4 +299,52 @@ public class BeansModelUtilsTest {
 		assertTrue(realConfig2 == config1 || realConfig2 == config2);
 	}
 
+	@Test
+	public void testGetBeanByNameAndAlias() throws Exception {
+		IBeansConfig config = beansProject.getConfig("basic-bean-config.xml");
+		IBean bean = config.getBean("simpleBean1");
+		assertNotNull(bean);
+
+		assertSame(bean, BeansModelUtils.getBean("simpleBean1", config));
+		assertSame(bean, BeansModelUtils.getBean("simpleBeanAlias", config));
+		assertNull(BeansModelUtils.getBean("unknownBean", config));
+		assertNull(BeansModelUtils.getBean(null, config));
+
+		((BeansConfig) config).reload();
+		IBean reloadedBean = config.getBean("simpleBean1");
+		assertNotNull(reloadedBean);
+		assertSame(reloadedBean, BeansModelUtils.getBean("simpleBeanAlias", config));
+	}
+
+	@Test
+	public void testGetBeanNestedInComponent() throws Exception {
+		beansProject.addConfig("nested-bean-config.xml", IBeansConfig.Type.MANUAL);
+		IBeansConfig config = beansProject.getConfig("nested-bean-config.xml");
+		IBean nestedBean = findComponentBean("nestedAdvisor", config.getComponents());
+		assertNotNull(nestedBean);
+
+		assertSame(nestedBean, BeansModelUtils.getBean("nestedAdvisor", config));
+		assertSame(config.getBean("adviceBean"), BeansModelUtils.getBean("adviceBean", config));
+
+		((BeansConfig) config).reload();
+		IBean reloadedBean = findComponentBean("nestedAdvisor", config.getComponents());
+		assertNotNull(reloadedBean);
+		assertSame(reloadedBean, BeansModelUtils.getBean("nestedAdvisor", config));
+	}
+
+	private IBean findComponentBean(String name, Set<IBeansComponent> components) {
+		for (IBeansComponent component : components) {
+			for (IBean bean : component.getBeans()) {
+				if (name.equals(bean.getElementName())) {
+					return bean;
+				}
+			}
+			IBean bean = findComponentBean(name, component.getComponents());
+			if (bean != null) {
+				return bean;
+			}
+		}
+		return null;
+	}
+
 }
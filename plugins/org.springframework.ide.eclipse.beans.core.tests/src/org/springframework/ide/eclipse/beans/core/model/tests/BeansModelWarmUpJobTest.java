@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansConfig;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModel;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelSnapshot;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansModelWarmUpJob;
+import org.springframework.ide.eclipse.beans.core.internal.model.BeansProject;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansModel;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.model.ILazyInitializedModelElement;
+import org.springsource.ide.eclipse.commons.tests.util.StsTestUtil;
+
+/**
+ * @author agent
+ * @since 3.9.0
+ */
+public class BeansModelWarmUpJobTest {
+
+	private IProject project;
+	private IBeansModel model;
+	private BeansProject beansProject;
+
+	@Before
+	public void createProject() throws Exception {
+		project = StsTestUtil.createPredefinedProject("beans-config-tests", "org.springframework.ide.eclipse.beans.core.tests");
+
+		model = new BeansModel();
+		beansProject = new BeansProject(model, project);
+	}
+
+	@After
+	public void deleteProject() throws Exception {
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testLoadConfigsConcurrently() throws Exception {
+		beansProject.addConfig("basic-bean-config.xml", IBeansConfig.Type.MANUAL);
+		beansProject.addConfig("advanced-bean-config.xml", IBeansConfig.Type.MANUAL);
+		beansProject.addConfig("importing-bean-config.xml", IBeansConfig.Type.MANUAL);
+		assertEquals(3, beansProject.getConfigs().size());
+		for (IBeansConfig config : beansProject.getConfigs()) {
+			assertFalse(((ILazyInitializedModelElement) config).isInitialized());
+		}
+
+		IStatus status = BeansModelWarmUpJob.loadConfigs(Arrays.<IBeansProject> asList(beansProject), 2,
+				new NullProgressMonitor());
+		assertTrue(status.isOK());
+
+		for (IBeansConfig config : beansProject.getConfigs()) {
+			assertTrue(((ILazyInitializedModelElement) config).isInitialized());
+		}
+		assertTrue(beansProject.getConfig("basic-bean-config.xml").hasBean("simpleBean"));
+	}
+
+	@Test
+	public void testConfigsRestoredFromSnapshotAreNotRead() throws Exception {
+		File snapshotFile = File.createTempFile("beans-model", ".snapshot");
+		try {
+			BeansConfig restoredConfig = addConfigWithRestoredSnapshot("basic-bean-config.xml", snapshotFile);
+			beansProject.addConfig("advanced-bean-config.xml", IBeansConfig.Type.MANUAL);
+
+			IStatus status = BeansModelWarmUpJob.loadConfigs(Arrays.<IBeansProject> asList(beansProject), 2,
+					new NullProgressMonitor());
+			assertTrue(status.isOK());
+
+			assertFalse(restoredConfig.isInitialized());
+			assertTrue(((ILazyInitializedModelElement) beansProject.getConfig("advanced-bean-config.xml")).isInitialized());
+
+			// answered from the snapshot
+			assertTrue(restoredConfig.hasBean("simpleBean"));
+			assertFalse(restoredConfig.isInitialized());
+		}
+		finally {
+			snapshotFile.delete();
+		}
+	}
+
+	@Test
+	public void testChangedConfigRestoredFromSnapshotIsRead() throws Exception {
+		File snapshotFile = File.createTempFile("beans-model", ".snapshot");
+		try {
+			BeansConfig restoredConfig = addConfigWithRestoredSnapshot("basic-bean-config.xml", snapshotFile);
+			restoredConfig.reload();
+
+			IStatus status = BeansModelWarmUpJob.loadConfigs(Arrays.<IBeansProject> asList(beansProject), 2,
+					new NullProgressMonitor());
+			assertTrue(status.isOK());
+			assertTrue(restoredConfig.isInitialized());
+		}
+		finally {
+			snapshotFile.delete();
+		}
+	}
+
+	/**
+	 * Adds the given config to the project and restores its snapshot, the same way the model does on startup.
+	 */
+	private BeansConfig addConfigWithRestoredSnapshot(String configName, File snapshotFile) throws Exception {
+		BeansConfig previousConfig = new BeansConfig(beansProject, configName, IBeansConfig.Type.MANUAL);
+		previousConfig.getBeans();
+		BeansModelSnapshot snapshot = new BeansModelSnapshot();
+		assertTrue(snapshot.add(previousConfig));
+		snapshot.write(snapshotFile);
+
+		beansProject.addConfig(configName, IBeansConfig.Type.MANUAL);
+		BeansConfig config = (BeansConfig) beansProject.getConfig(configName);
+		BeansModelSnapshot.ConfigSnapshot configSnapshot = BeansModelSnapshot.read(snapshotFile).get(config);
+		assertNotNull(configSnapshot);
+		config.restoreSnapshot(configSnapshot);
+		assertFalse(config.isInitialized());
+		return config;
+	}
+
+	@Test
+	public void testLoadWithoutConfigs() throws Exception {
+		IStatus status = BeansModelWarmUpJob.loadConfigs(Collections.<IBeansProject> singletonList(beansProject), 4,
+				new NullProgressMonitor());
+		assertTrue(status.isOK());
+	}
+
+}
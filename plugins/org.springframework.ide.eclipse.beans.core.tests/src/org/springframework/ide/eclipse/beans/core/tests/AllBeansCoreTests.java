@@ -16,9 +16,12 @@ import org.junit.runners.Suite.SuiteClasses;
 import org.springframework.ide.core.classreading.tests.JdtAnnotationMetadataTest;
 import org.springframework.ide.core.classreading.tests.JdtBasedAnnotationMetadataTest;
 import org.springframework.ide.core.classreading.tests.JdtClassMetadataTest;
+import org.springframework.ide.core.classreading.tests.JdtMetadataReaderCacheTest;
+import org.springframework.ide.eclipse.beans.core.autowire.AutowireCandidateIndexTest;
 import org.springframework.ide.eclipse.beans.core.autowire.AutowireDependencyProviderTest;
 import org.springframework.ide.eclipse.beans.core.autowire.CommonAnnotationInjectionMetadataProviderTests;
 import org.springframework.ide.eclipse.beans.core.internal.model.resources.tests.ResourceChangeEventHandlerTest;
+import org.springframework.ide.eclipse.beans.core.internal.model.validation.ConcurrentValidationTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanClassRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanConstructorArgumentRuleTest;
 import org.springframework.ide.eclipse.beans.core.internal.model.validation.rules.BeanConstructorArgumentRulesAutowireTest;
@@ -35,12 +38,17 @@ import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectDescri
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansConfigFactoryTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansConfigTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansJavaConfigTest;
+import org.springframework.ide.eclipse.beans.core.model.tests.BeansModelSnapshotTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansModelUtilsTest;
+import org.springframework.ide.eclipse.beans.core.model.tests.BeansModelWarmUpJobTest;
 import org.springframework.ide.eclipse.beans.core.model.tests.BeansProjectTest;
 import org.springframework.ide.eclipse.beans.ui.refactoring.tests.BeansJavaConfigRenameTypeRefactoringParticipantTest;
 import org.springframework.ide.eclipse.core.java.IntrospectorTest;
+import org.springframework.ide.eclipse.core.java.JarTypeHierarchyIndexTest;
 import org.springframework.ide.eclipse.core.java.JdtUtilsTest;
+import org.springframework.ide.eclipse.core.java.TypeHierarchyElementCacheTest;
 import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
+import org.springframework.ide.eclipse.core.model.validation.ValidationUtilsTest;
 
 /**
  * Test suite for <code>beans.core</code> plugin.
@@ -64,13 +72,16 @@ import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
 	BeanReferenceRuleWithConfigSetTest.class,
 	BeanReferenceRuleWithConfigSetAndProfileTest.class,
 	NamespaceElementsRuleTest.class,
+	ConcurrentValidationTest.class,
 	IntrospectorTest.class,
 	JdtUtilsTest.class,
 	AutowireDependencyProviderTest.class,
+	AutowireCandidateIndexTest.class,
 	CommonAnnotationInjectionMetadataProviderTests.class,
 	JdtAnnotationMetadataTest.class,
 	JdtBasedAnnotationMetadataTest.class,
 	JdtClassMetadataTest.class,
+	JdtMetadataReaderCacheTest.class,
 	BeansConfigTest.class,
 	BeansJavaConfigTest.class,
 	BeansConfigFactoryTest.class,
@@ -80,7 +91,12 @@ import org.springframework.ide.eclipse.core.java.TypeHierarchyEngineTest;
 	BeansJavaConfigRenameTypeRefactoringParticipantTest.class,
 	ResourceChangeEventHandlerTest.class,
 	TypeHierarchyEngineTest.class,
-	BeansModelUtilsTest.class
+	JarTypeHierarchyIndexTest.class,
+	TypeHierarchyElementCacheTest.class,
+	BeansModelUtilsTest.class,
+	BeansModelSnapshotTest.class,
+	BeansModelWarmUpJobTest.class,
+	ValidationUtilsTest.class
 })
 public class AllBeansCoreTests {
 	// goofy junit4, no class body needed
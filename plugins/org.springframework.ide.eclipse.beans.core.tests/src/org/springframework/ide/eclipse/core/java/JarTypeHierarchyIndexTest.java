@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.typehierarchy.JarTypeHierarchyIndex;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyIndexStore;
+
+/**
+ * @author agent
+ * @since 3.9.0
+ */
+public class JarTypeHierarchyIndexTest {
+
+	private File indexFile;
+
+	@Before
+	public void setup() throws Exception {
+		indexFile = File.createTempFile("typehierarchy", ".idx");
+	}
+
+	@After
+	public void cleanup() {
+		indexFile.delete();
+	}
+
+	@Test
+	public void testWriteAndReadIndex() throws Exception {
+		JarTypeHierarchyIndex index = new JarTypeHierarchyIndex("/libs/test.jar", 1000, 2000);
+		index.put("org/test/Sub", new TypeHierarchyElement("org/test/Sub".toCharArray(), "org/test/Super".toCharArray(),
+				new char[][] {"org/test/Interface1".toCharArray(), "org/test/Interface2".toCharArray()}));
+		index.put("org/test/Super", new TypeHierarchyElement("org/test/Super".toCharArray(), null, null));
+		index.setPackageNames(new HashSet<String>(Arrays.asList("", "org", "org/test")));
+		index.putMissing("org/test/Missing");
+		assertTrue(index.isDirty());
+
+		index.write(indexFile);
+		assertFalse(index.isDirty());
+
+		JarTypeHierarchyIndex readIndex = JarTypeHierarchyIndex.read(indexFile, "/libs/test.jar", 1000, 2000);
+		assertFalse(readIndex.isDirty());
+		assertEquals(new HashSet<String>(Arrays.asList("", "org", "org/test")), readIndex.getPackageNames());
+
+		TypeHierarchyElement sub = readIndex.get("org/test/Sub");
+		assertEquals("org/test/Sub", new String(sub.className));
+		assertEquals("org/test/Super", new String(sub.superclassName));
+		assertEquals(2, sub.interfaces.length);
+		assertEquals("org/test/Interface1", new String(sub.interfaces[0]));
+		assertEquals("org/test/Interface2", new String(sub.interfaces[1]));
+
+		TypeHierarchyElement superElement = readIndex.get("org/test/Super");
+		assertNull(superElement.superclassName);
+		assertNull(superElement.interfaces);
+
+		assertNull(readIndex.get("org/test/Unknown"));
+		assertTrue(readIndex.isMissing("org/test/Missing"));
+		assertFalse(readIndex.isMissing("org/test/Unknown"));
+	}
+
+	@Test
+	public void testElementsAreNotShared() throws Exception {
+		JarTypeHierarchyIndex index = new JarTypeHierarchyIndex("/libs/test.jar", 1000, 2000);
+		index.put("org/test/Sub", new TypeHierarchyElement("org/test/Sub".toCharArray(), "org/test/Super".toCharArray(), null));
+
+		assertNotSame(index.get("org/test/Sub"), index.get("org/test/Sub"));
+	}
+
+	@Test
+	public void testStaleIndexIsIgnored() throws Exception {
+		JarTypeHierarchyIndex index = new JarTypeHierarchyIndex("/libs/test.jar", 1000, 2000);
+		index.put("org/test/Sub", new TypeHierarchyElement("org/test/Sub".toCharArray(), "org/test/Super".toCharArray(), null));
+		index.write(indexFile);
+
+		assertNull(JarTypeHierarchyIndex.read(indexFile, "/libs/test.jar", 1001, 2000));
+		assertNull(JarTypeHierarchyIndex.read(indexFile, "/libs/test.jar", 1000, 2001));
+		assertNull(JarTypeHierarchyIndex.read(indexFile, "/libs/other.jar", 1000, 2000));
+		assertNull(JarTypeHierarchyIndex.read(new File(indexFile.getPath() + ".missing"), "/libs/test.jar", 1000, 2000));
+	}
+
+	@Test
+	public void testUnusedIndexFilesAreDeletedOnPrune() throws Exception {
+		File indexDirectory = new File(indexFile.getPath() + ".dir");
+		try {
+			TypeHierarchyIndexStore store = new TypeHierarchyIndexStore(indexDirectory);
+			store.getIndex("/libs/used.jar", 1000, 2000).put("org/test/Used", new TypeHierarchyElement("org/test/Used".toCharArray(), null, null));
+			store.getIndex("/libs/recent.jar", 1000, 2000).put("org/test/Recent", new TypeHierarchyElement("org/test/Recent".toCharArray(), null, null));
+			store.getIndex("/libs/removed.jar", 1000, 2000).put("org/test/Removed", new TypeHierarchyElement("org/test/Removed".toCharArray(), null, null));
+			store.save();
+			assertEquals(3, indexDirectory.listFiles().length);
+
+			long unused = System.currentTimeMillis() - TypeHierarchyIndexStore.UNUSED_INDEX_FILE_AGE - 1000;
+			for (File file : indexDirectory.listFiles()) {
+				if (!file.getName().startsWith("recent.jar")) {
+					file.setLastModified(unused);
+				}
+			}
+
+			// only the index of the used jar is opened, the recently used index file is kept nevertheless
+			store = new TypeHierarchyIndexStore(indexDirectory);
+			assertTrue(store.getIndex("/libs/used.jar", 1000, 2000).get("org/test/Used") != null);
+			store.saveAndPrune();
+			Set<String> names = new HashSet<String>();
+			for (File file : indexDirectory.listFiles()) {
+				names.add(file.getName().substring(0, file.getName().indexOf(".jar")));
+			}
+			assertEquals(new HashSet<String>(Arrays.asList("used", "recent")), names);
+		}
+		finally {
+			for (File file : indexDirectory.listFiles()) {
+				file.delete();
+			}
+			indexDirectory.delete();
+		}
+	}
+
+	@Test
+	public void testIndexFileCanBeReplacedAfterRead() throws Exception {
+		JarTypeHierarchyIndex index = new JarTypeHierarchyIndex("/libs/test.jar", 1000, 2000);
+		index.put("org/test/Sub", new TypeHierarchyElement("org/test/Sub".toCharArray(), null, null));
+		index.write(indexFile);
+
+		JarTypeHierarchyIndex readIndex = JarTypeHierarchyIndex.read(indexFile, "/libs/test.jar", 1000, 2000);
+		assertTrue(indexFile.delete());
+		assertTrue(readIndex.get("org/test/Sub") != null);
+	}
+
+}
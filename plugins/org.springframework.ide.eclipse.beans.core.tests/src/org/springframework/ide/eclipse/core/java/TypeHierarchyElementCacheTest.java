@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElement;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyElementCache;
+
+/**
+ * @author agent
+ * @since 3.9.0
+ */
+public class TypeHierarchyElementCacheTest {
+
+	@Test
+	public void testClassNamesWithSameHashCode() throws Exception {
+		// "Aa" and "BB" have identical hash codes
+		assertEquals("org/test/Aa".hashCode(), "org/test/BB".hashCode());
+
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		TypeHierarchyElement first = createElement("org/test/Aa");
+		TypeHierarchyElement second = createElement("org/test/BB");
+
+		cache.put("org/test/Aa".toCharArray(), first);
+		cache.put("org/test/BB".toCharArray(), second);
+
+		assertSame(first, cache.get("org/test/Aa".toCharArray()));
+		assertSame(second, cache.get("org/test/BB".toCharArray()));
+		assertNull(cache.get("org/test/Ab".toCharArray()));
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void testReplaceExistingElement() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		TypeHierarchyElement first = createElement("org/test/Type");
+		TypeHierarchyElement second = createElement("org/test/Type");
+
+		cache.put("org/test/Type".toCharArray(), first);
+		cache.put("org/test/Type".toCharArray(), second);
+
+		assertSame(second, cache.get("org/test/Type".toCharArray()));
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testManyElements() throws Exception {
+		TypeHierarchyElementCache cache = new TypeHierarchyElementCache();
+		for (int i = 0; i < 10000; i++) {
+			String name = "org/test/Type" + i;
+			cache.put(name.toCharArray(), createElement(name));
+		}
+
+		assertEquals(10000, cache.size());
+		for (int i = 0; i < 10000; i++) {
+			String name = "org/test/Type" + i;
+			assertEquals(name, new String(cache.get(name.toCharArray()).className));
+		}
+		assertNull(cache.get("org/test/Type10000".toCharArray()));
+	}
+
+	private TypeHierarchyElement createElement(String className) {
+		return new TypeHierarchyElement(className.toCharArray(), "java/lang/Object".toCharArray(), null);
+	}
+
+}
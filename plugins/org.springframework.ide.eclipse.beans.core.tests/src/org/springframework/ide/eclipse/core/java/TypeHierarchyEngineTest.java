@@ -14,11 +14,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.preferences.InstanceScope;
@@ -281,6 +285,82 @@ public class TypeHierarchyEngineTest {
 		assertEquals(1, caches[0].classAccessed("org/sub/ClassB")); // this is not being accessed again
 		assertEquals(1, caches[0].classAccessed("org/ClassA")); // this one is accessed for the first time
 	}
+
+	@Test
+	public void testKnownSubtypesOfUnindexedProject() throws Exception {
+		assertTrue(engine.getKnownSubtypes("org.ClassA", project).isEmpty());
+	}
+
+	@Test
+	public void testKnownSubtypes() throws Exception {
+		engine.indexSubtypes(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB", "org.Subclass"), project);
+
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD")), engine.getKnownSubtypes("org.sub.ClassB", project));
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD")), engine.getKnownSubtypes("org.sub.InterfaceCD", project));
+		assertEquals(new HashSet<String>(Arrays.asList("org.Subclass")), engine.getKnownSubtypes("org.SimpleClass", project));
+		assertTrue(engine.getKnownSubtypes("org.sub.ClassABCD", project).isEmpty());
+		assertTrue(engine.getKnownSubtypes("org.SimpleInterface", project).isEmpty());
+	}
+
+	@Test
+	public void testKnownSubtypesAreTransitive() throws Exception {
+		engine.indexSubtypes(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB", "org.Subclass"), project);
+
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB")), engine.getKnownSubtypes("org.ClassA", project));
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB")), engine.getKnownSubtypes("org.InterfaceA", project));
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD")), engine.getKnownSubtypes("org.InterfaceD", project));
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB", "org.Subclass")), engine.getKnownSubtypes("java.lang.Object", project));
+	}
+
+	@Test
+	public void testKnownSubtypesAreIndexedOnlyOnce() throws Exception {
+		engine.indexSubtypes(Arrays.asList("org.sub.ClassB"), project);
+		engine.indexSubtypes(Arrays.asList("org.sub.ClassB", "org.sub.ClassABCD"), project);
+
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB")), engine.getKnownSubtypes("org.InterfaceB", project));
+	}
+
+	@Test
+	public void testKnownSubtypesAfterTypeChange() throws Exception {
+		engine.indexSubtypes(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB", "org.Subclass"), project);
+		assertTrue(engine.getKnownSubtypes("org.InterfaceA", project).contains("org.sub.ClassB"));
+
+		IFile file = project.getFile("src/org/sub/ClassB.java");
+		String source = "package org.sub;\n\nimport org.ClassA;\n\npublic class ClassB extends ClassA {\n}\n";
+		file.setContents(new ByteArrayInputStream(source.getBytes("UTF-8")), true, false, null);
+		StsTestUtil.waitForAutoBuild();
+
+		// this is what the TypeHierarchyResourceChangeListener does for changed types
+		engine.clearCache(project, Arrays.asList("org.sub.ClassB"));
+		assertTrue(engine.getKnownSubtypes("org.InterfaceA", project).isEmpty());
+		// types that don't extend the changed type are still indexed
+		assertEquals(new HashSet<String>(Arrays.asList("org.Subclass")), engine.getKnownSubtypes("org.SimpleClass", project));
+
+		engine.indexSubtypes(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB"), project);
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD", "org.sub.ClassB")), engine.getKnownSubtypes("org.ClassA", project));
+		assertEquals(new HashSet<String>(Arrays.asList("org.sub.ClassABCD")), engine.getKnownSubtypes("org.InterfaceC", project));
+		assertTrue(engine.getKnownSubtypes("org.InterfaceA", project).isEmpty());
+		assertTrue(engine.getKnownSubtypes("org.sub.InterfaceAB", project).isEmpty());
+	}
+
+	@Test
+	public void testKnownSubtypesInvalidatedByResourceChangeListener() throws Exception {
+		TypeHierarchyEngine sharedEngine = SpringCore.getTypeHierarchyEngine();
+		try {
+			sharedEngine.indexSubtypes(Arrays.asList("org.sub.ClassB", "org.Subclass"), project);
+			assertTrue(sharedEngine.getKnownSubtypes("org.ClassA", project).contains("org.sub.ClassB"));
+
+			IFile file = project.getFile("src/org/sub/ClassB.java");
+			file.setContents(file.getContents(), true, false, null);
+			StsTestUtil.waitForAutoBuild();
+
+			assertTrue(sharedEngine.getKnownSubtypes("org.ClassA", project).isEmpty());
+			assertTrue(sharedEngine.getKnownSubtypes("org.SimpleClass", project).contains("org.Subclass"));
+		}
+		finally {
+			sharedEngine.clearCache(project);
+		}
+	}
 	
 	private static class AccessLoggingClassReaderFactory implements TypeHierarchyClassReaderFactory {
 		
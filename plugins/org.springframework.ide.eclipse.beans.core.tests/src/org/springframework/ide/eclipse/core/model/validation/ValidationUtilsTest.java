@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.model.validation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.beans.core.tests.BeansCoreTestCase;
+import org.springframework.ide.eclipse.core.MarkerUtils;
+
+/**
+ * @author agent
+ * @since 3.9.0
+ */
+public class ValidationUtilsTest extends BeansCoreTestCase {
+
+	private static final String MARKER_ID = "org.springframework.ide.eclipse.beans.core.tests.reconcileTestMarker";
+
+	private IResource resource;
+
+	@Before
+	public void setUp() throws Exception {
+		IProject project = createPredefinedProject("validation");
+		resource = project.findMember("src/bean-class-rule-tests.xml");
+		resource.deleteMarkers(MARKER_ID, false, IResource.DEPTH_INFINITE);
+	}
+
+	@Test
+	public void testReconcileUnchangedProblemsKeepsMarkers() throws Exception {
+		Set<ValidationProblem> problems = problems(
+				new ValidationProblem("rule1", "error1", IMarker.SEVERITY_ERROR, "first problem", resource, 10),
+				new ValidationProblem("rule2", "error2", IMarker.SEVERITY_WARNING, "second problem", resource, 20,
+						new ValidationProblemAttribute("BEAN", "foo")));
+
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems, MARKER_ID);
+		Map<Integer, Long> markerIds = getMarkerIdsByLine();
+		assertEquals(2, markerIds.size());
+
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems, MARKER_ID);
+		assertEquals(markerIds, getMarkerIdsByLine());
+	}
+
+	@Test
+	public void testReconcileKeepsMarkersWithEditorAttributes() throws Exception {
+		Set<ValidationProblem> problems = problems(
+				new ValidationProblem("rule1", "error1", IMarker.SEVERITY_ERROR, "first problem", resource, 10,
+						new ValidationProblemAttribute("BEAN", "foo")));
+
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems, MARKER_ID);
+		IMarker[] markers = findMarkers();
+		assertEquals(1, markers.length);
+
+		// an open editor's annotation model adds the char range of the problem
+		markers[0].setAttribute(IMarker.CHAR_START, 100);
+		markers[0].setAttribute(IMarker.CHAR_END, 120);
+
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems, MARKER_ID);
+		IMarker[] newMarkers = findMarkers();
+		assertEquals(1, newMarkers.length);
+		assertEquals(markers[0].getId(), newMarkers[0].getId());
+		assertEquals(100, newMarkers[0].getAttribute(IMarker.CHAR_START, -1));
+	}
+
+	@Test
+	public void testReconcileChangedProblems() throws Exception {
+		ValidationProblem unchanged = new ValidationProblem("rule1", "error1", IMarker.SEVERITY_ERROR, "first problem", resource, 10);
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems(unchanged,
+				new ValidationProblem("rule2", "error2", IMarker.SEVERITY_WARNING, "second problem", resource, 20),
+				new ValidationProblem("rule3", "error3", IMarker.SEVERITY_WARNING, "third problem", resource, 30)), MARKER_ID);
+		Map<Integer, Long> markerIds = getMarkerIdsByLine();
+		assertEquals(3, markerIds.size());
+
+		// fixed problem on line 20, changed severity on line 30 and a new problem on line 40
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems(unchanged,
+				new ValidationProblem("rule3", "error3", IMarker.SEVERITY_ERROR, "third problem", resource, 30),
+				new ValidationProblem("rule4", "error4", IMarker.SEVERITY_WARNING, "fourth problem", resource, 40)), MARKER_ID);
+		Map<Integer, Long> newMarkerIds = getMarkerIdsByLine();
+		assertEquals(3, newMarkerIds.size());
+		assertEquals(markerIds.get(10), newMarkerIds.get(10));
+		assertFalse(newMarkerIds.containsKey(20));
+		assertFalse(markerIds.get(30).equals(newMarkerIds.get(30)));
+		assertTrue(newMarkerIds.containsKey(40));
+
+		IMarker[] markers = resource.findMarkers(MARKER_ID, false, IResource.DEPTH_ZERO);
+		for (IMarker marker : markers) {
+			if (marker.getAttribute(IMarker.LINE_NUMBER, -1) == 30) {
+				assertEquals(IMarker.SEVERITY_ERROR, marker.getAttribute(IMarker.SEVERITY, -1));
+			}
+		}
+	}
+
+	@Test
+	public void testReconcileWithoutProblemsRemovesMarkers() throws Exception {
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems(
+				new ValidationProblem("rule1", "error1", IMarker.SEVERITY_ERROR, "first problem", resource, 10)), MARKER_ID);
+		assertEquals(1, findMarkers().length);
+
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), null, MARKER_ID);
+		assertEquals(0, findMarkers().length);
+	}
+
+	@Test
+	public void testReconcileIgnoresDuplicateAndDisabledProblems() throws Exception {
+		Set<ValidationProblem> problems = problems(
+				new ValidationProblem("rule1", "error1", IMarker.SEVERITY_ERROR, "first problem", resource, 10),
+				new ValidationProblem("rule1", "error1", IMarker.SEVERITY_WARNING, "first problem", resource, 10),
+				new ValidationProblem("rule2", "error2", -1, "ignored problem", resource, 20));
+
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems, MARKER_ID);
+		assertEquals(1, findMarkers().length);
+
+		ValidationUtils.reconcileProblemMarkers(resource, findMarkers(), problems, MARKER_ID);
+		assertEquals(1, findMarkers().length);
+	}
+
+	private IMarker[] findMarkers() throws Exception {
+		return MarkerUtils.findMarkers(resource, MARKER_ID);
+	}
+
+	private Map<Integer, Long> getMarkerIdsByLine() throws Exception {
+		Map<Integer, Long> markerIds = new HashMap<Integer, Long>();
+		for (IMarker marker : findMarkers()) {
+			markerIds.put(marker.getAttribute(IMarker.LINE_NUMBER, -1), marker.getId());
+		}
+		return markerIds;
+	}
+
+	private static Set<ValidationProblem> problems(ValidationProblem... problems) {
+		return new LinkedHashSet<ValidationProblem>(Arrays.asList(problems));
+	}
+
+}
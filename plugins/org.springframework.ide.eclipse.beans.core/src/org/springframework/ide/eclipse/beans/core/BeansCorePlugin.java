@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -85,6 +85,12 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 	/** preference key for defining the parsing timeout */
 	public static final String TIMEOUT_CONFIG_LOADING_PREFERENCE_ID = PLUGIN_ID + ".timeoutConfigLoading";
 
+	/** preference key to load all configs in the background after the model has been started (disabled by default) */
+	public static final String WARM_UP_MODEL_PREFERENCE_ID = PLUGIN_ID + ".warmUpModel";
+
+	/** preference key for the number of configs loaded concurrently when warming up the model */
+	public static final String PARALLEL_CONFIG_LOADING_PREFERENCE_ID = PLUGIN_ID + ".parallelConfigLoading";
+
 	/** preference key to enable namespace versions per namespace */
 	public static final String PROJECT_PROPERTY_ID = "enable.project.preferences";
 
@@ -183,6 +189,8 @@ public class BeansCorePlugin extends AbstractUIPlugin {
 		
 		nsManager = new NamespaceManager(context);
 		getPreferenceStore().setDefault(TIMEOUT_CONFIG_LOADING_PREFERENCE_ID, 60);
+		getPreferenceStore().setDefault(WARM_UP_MODEL_PREFERENCE_ID, false);
+		getPreferenceStore().setDefault(PARALLEL_CONFIG_LOADING_PREFERENCE_ID, Runtime.getRuntime().availableProcessors());
 		getPreferenceStore().setDefault(NAMESPACE_DEFAULT_FROM_CLASSPATH_ID, true);
 		getPreferenceStore().setDefault(LOAD_NAMESPACEHANDLER_FROM_CLASSPATH_ID, true);
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2013 Spring IDE Developers
+ * Copyright (c) 2008, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -70,6 +70,9 @@ public abstract class AbstractBeansConfig extends AbstractResourceModelElement i
 	/** List of bean names mapped beans (in registration order) */
 	protected volatile Map<String, IBean> beans = new LinkedHashMap<String, IBean>();
 
+	/** Bean names and aliases mapped to beans, including beans defined in (nested) components */
+	protected volatile Map<String, IBean> beanNamesMap = new HashMap<String, IBean>();
+
 	/** List of components (in registration order) */
 	protected volatile Set<IBeansComponent> components = new LinkedHashSet<IBeansComponent>();
 
@@ -87,6 +90,8 @@ public abstract class AbstractBeansConfig extends AbstractResourceModelElement i
 
 	protected volatile boolean isBeanClassesMapPopulated = false;
 
+	protected volatile boolean isBeanNamesMapPopulated = false;
+
 	protected volatile boolean isModelPopulated = false;
 
 	/** This bean config file's timestamp of last modification */
@@ -265,6 +270,18 @@ public abstract class AbstractBeansConfig extends AbstractResourceModelElement i
 		return null;
 	}
 
+	/**
+	 * Returns the bean with the given name or alias, including beans defined in (nested)
+	 * {@link IBeansComponent}s, or <code>null</code> if no such bean exists.
+	 * @since 3.9.0
+	 */
+	public IBean findBean(String name) {
+		if (name != null) {
+			return getBeanNamesMap().get(name);
+		}
+		return null;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -708,6 +725,55 @@ public abstract class AbstractBeansConfig extends AbstractResourceModelElement i
 		return beanClassesMap;
 	}
 
+	/**
+	 * Returns lazily initialized map with all bean names and aliases used in this config. Beans that are
+	 * defined directly in this config (or its imports) take precedence over aliases and aliases take
+	 * precedence over beans defined in components.
+	 */
+	protected Map<String, IBean> getBeanNamesMap() {
+		if (!this.isBeanNamesMapPopulated) {
+			try {
+				w.lock();
+				if (this.isBeanNamesMapPopulated) {
+					return beanNamesMap;
+				}
+				beanNamesMap = new HashMap<String, IBean>();
+				for (IBean bean : getBeans()) {
+					addBeanName(bean.getElementName(), bean, beanNamesMap);
+				}
+				for (IBeanAlias alias : getAliases()) {
+					IBean bean = getBean(alias.getBeanName());
+					if (bean != null) {
+						addBeanName(alias.getElementName(), bean, beanNamesMap);
+					}
+				}
+				for (IBeansComponent component : getComponents()) {
+					addComponentBeanNames(component, beanNamesMap);
+				}
+			}
+			finally {
+				this.isBeanNamesMapPopulated = true;
+				w.unlock();
+			}
+		}
+		return beanNamesMap;
+	}
+
+	private void addBeanName(String name, IBean bean, Map<String, IBean> beanNames) {
+		if (!beanNames.containsKey(name)) {
+			beanNames.put(name, bean);
+		}
+	}
+
+	private void addComponentBeanNames(IBeansComponent component, Map<String, IBean> beanNames) {
+		for (IBean bean : component.getBeans()) {
+			addBeanName(bean.getElementName(), bean, beanNames);
+		}
+		for (IBeansComponent innerComponent : component.getComponents()) {
+			addComponentBeanNames(innerComponent, beanNames);
+		}
+	}
+
 	public boolean doesAnnotationScanning() {
 		for (IBeansComponent component : this.getComponents()) {
 			boolean result = doesAnnotationScanning(component);
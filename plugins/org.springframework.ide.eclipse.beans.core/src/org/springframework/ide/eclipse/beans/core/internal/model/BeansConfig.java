@@ -179,6 +179,9 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 
 	private BeanRegistrationContextTracker beanRegistrationTracker = new BeanRegistrationContextTracker();
 
+	/** Bean classes and names restored from a previous session; only used until the config is read */
+	private volatile BeansModelSnapshot.ConfigSnapshot snapshot;
+
 	/**
 	 * Creates a new {@link BeansConfig}.
 	 */
@@ -211,6 +214,61 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 		return isModelPopulated;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isBeanClass(String className) {
+		BeansModelSnapshot.ConfigSnapshot snapshot = this.snapshot;
+		if (snapshot != null && !isModelPopulated) {
+			return className != null && snapshot.isBeanClass(className);
+		}
+		return super.isBeanClass(className);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<String> getBeanClasses() {
+		BeansModelSnapshot.ConfigSnapshot snapshot = this.snapshot;
+		if (snapshot != null && !isModelPopulated) {
+			return snapshot.getBeanClasses();
+		}
+		return super.getBeanClasses();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasBean(String name) {
+		BeansModelSnapshot.ConfigSnapshot snapshot = this.snapshot;
+		if (snapshot != null && !isModelPopulated) {
+			return name != null && snapshot.hasBean(name);
+		}
+		return super.hasBean(name);
+	}
+
+	/**
+	 * Restores the bean classes and bean names of a previous session. These are used to answer
+	 * {@link #isBeanClass(String)}, {@link #getBeanClasses()} and {@link #hasBean(String)} until the config is read.
+	 * @since 3.9.0
+	 */
+	public void restoreSnapshot(BeansModelSnapshot.ConfigSnapshot snapshot) {
+		if (!isModelPopulated) {
+			this.snapshot = snapshot;
+		}
+	}
+
+	/**
+	 * Returns the snapshot restored from a previous session or <code>null</code> if there is none or the config
+	 * has been read in the meantime.
+	 */
+	BeansModelSnapshot.ConfigSnapshot getSnapshot() {
+		return (isModelPopulated ? null : snapshot);
+	}
+
 	/**
 	 * Sets internal list of {@link IBean}s to <code>null</code>. Any further access to the data of this instance of
 	 * {@link IBeansConfig} leads to reloading of the corresponding beans config file.
@@ -221,6 +279,7 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 				w.lock();
 				// System.out.println(String.format("++- resetting config '%s'", file.getFullPath().toString()));
 				isModelPopulated = false;
+				snapshot = null;
 				modificationTimestamp = IResource.NULL_STAMP;
 				defaults = null;
 				imports.clear();
@@ -229,6 +288,8 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 				components.clear();
 				isBeanClassesMapPopulated = false;
 				beanClassesMap.clear();
+				isBeanNamesMapPopulated = false;
+				beanNamesMap.clear();
 				problems.clear();
 				children = null;
 
@@ -535,6 +596,7 @@ public class BeansConfig extends AbstractBeansConfig implements IBeansConfig, IL
 				this.children = allChildren.toArray(new IModelElement[allChildren.size()]);
 
 				this.isModelPopulated = true;
+				this.snapshot = null;
 				w.unlock();
 
 				// Run external post processors
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2011 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.internal.model;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -70,6 +71,10 @@ public class BeansConfigSet extends AbstractResourceModelElement implements IBea
 
 	private volatile boolean isBeanClassesMapPopulated = false;
 
+	private volatile Map<String, IBean> beanNamesMap;
+
+	private volatile boolean isBeanNamesMapPopulated = false;
+
 	private volatile Type type;
 
 	private volatile Set<String> profiles;
@@ -101,6 +106,8 @@ public class BeansConfigSet extends AbstractResourceModelElement implements IBea
 			isBeansMapPopulated = false;
 			beanClassesMap = null;
 			isBeanClassesMapPopulated = false;
+			beanNamesMap = null;
+			isBeanNamesMapPopulated = false;
 		}
 		finally {
 			w.unlock();
@@ -248,6 +255,18 @@ public class BeansConfigSet extends AbstractResourceModelElement implements IBea
 		return new LinkedHashSet<IBean>(getBeansMap().values());
 	}
 
+	/**
+	 * Returns the bean with the given name or alias, including beans defined in (nested)
+	 * {@link IBeansComponent}s, or <code>null</code> if no such bean exists.
+	 * @since 3.9.0
+	 */
+	public IBean findBean(String name) {
+		if (name != null) {
+			return getBeanNamesMap().get(name);
+		}
+		return null;
+	}
+
 	public boolean isBeanClass(String className) {
 		return getBeanClassesMap().containsKey(className);
 	}
@@ -432,6 +451,57 @@ public class BeansConfigSet extends AbstractResourceModelElement implements IBea
 		}
 	}
 
+	/**
+	 * Returns lazily initialized map with all bean names and aliases used in this config set. Beans take
+	 * precedence over aliases and aliases take precedence over beans defined in components.
+	 */
+	private Map<String, IBean> getBeanNamesMap() {
+		if (!this.isBeanNamesMapPopulated) {
+			try {
+				w.lock();
+				if (this.isBeanNamesMapPopulated) {
+					return beanNamesMap;
+				}
+				beanNamesMap = new HashMap<String, IBean>(getBeansMap());
+				for (IBeanAlias alias : getAliasesMap().values()) {
+					IBean bean = getBeansMap().get(alias.getBeanName());
+					if (bean != null) {
+						addBeanNameToMap(alias.getElementName(), bean);
+					}
+				}
+				for (IBeansComponent component : getComponentsList()) {
+					addComponentBeanNamesToMap(component);
+				}
+			}
+			finally {
+				this.isBeanNamesMapPopulated = true;
+				w.unlock();
+			}
+		}
+		try {
+			r.lock();
+			return beanNamesMap;
+		}
+		finally {
+			r.unlock();
+		}
+	}
+
+	private void addBeanNameToMap(String name, IBean bean) {
+		if (!beanNamesMap.containsKey(name)) {
+			beanNamesMap.put(name, bean);
+		}
+	}
+
+	private void addComponentBeanNamesToMap(IBeansComponent component) {
+		for (IBean bean : component.getBeans()) {
+			addBeanNameToMap(bean.getElementName(), bean);
+		}
+		for (IBeansComponent innerComponent : component.getComponents()) {
+			addComponentBeanNamesToMap(innerComponent);
+		}
+	}
+
 	private void addBeanClassToMap(IBean bean) {
 
 		// Get name of bean class - strip name of any inner class
@@ -298,6 +298,8 @@ public class BeansJavaConfig extends AbstractBeansConfig implements IBeansConfig
 				components.clear();
 				isBeanClassesMapPopulated = false;
 				beanClassesMap.clear();
+				isBeanNamesMapPopulated = false;
+				beanNamesMap.clear();
 				problems.clear();
 				children = null;
 				//				componentDefinitions.clear();
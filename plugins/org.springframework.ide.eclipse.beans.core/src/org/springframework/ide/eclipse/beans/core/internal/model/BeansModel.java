@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.beans.core.internal.model;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,6 +34,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.wst.common.project.facet.core.FacetedProjectFramework;
@@ -158,6 +161,9 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 
 			// Check for update actions
 			BeansModelUpdater.updateModel(projects.values());
+
+			// Restore bean classes and names of unchanged configs from the previous session
+			restoreSnapshot();
 		}
 		finally {
 			modelPopulated = true;
@@ -173,6 +179,14 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 		FacetedProjectFramework.addListener(facetedProjectListener, IFacetedProjectEvent.Type.POST_INSTALL,
 				IFacetedProjectEvent.Type.POST_UNINSTALL);
 
+		// Read all configs in the background instead of one by one on first access, if enabled
+		if (BeansCorePlugin.getDefault().getPreferenceStore().getBoolean(BeansCorePlugin.WARM_UP_MODEL_PREFERENCE_ID)) {
+			int parallelism = BeansCorePlugin.getDefault().getPreferenceStore().getInt(
+					BeansCorePlugin.PARALLEL_CONFIG_LOADING_PREFERENCE_ID);
+			Job warmUpJob = new BeansModelWarmUpJob(getProjects(), parallelism);
+			warmUpJob.setPriority(Job.DECORATE);
+			warmUpJob.schedule();
+		}
 	}
 
 	public void addProject(IBeansProject project) {
@@ -194,6 +208,8 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 
 		try {
 			w.lock();
+			saveSnapshot();
+
 			// Remove all projects
 			projects.clear();
 		}
@@ -202,6 +218,74 @@ public class BeansModel extends AbstractModel implements IBeansModel {
 		}
 	}
 
+	private void restoreSnapshot() {
+		File snapshotFile = getSnapshotFile();
+		if (snapshotFile == null) {
+			return;
+		}
+
+		BeansModelSnapshot snapshot = BeansModelSnapshot.read(snapshotFile);
+		int restored = 0;
+		if (snapshot.size() > 0) {
+			for (IBeansProject beansProject : projects.values()) {
+				for (IBeansConfig config : beansProject.getConfigs()) {
+					if (config instanceof BeansConfig) {
+						BeansModelSnapshot.ConfigSnapshot configSnapshot = snapshot.get((BeansConfig) config);
+						if (configSnapshot != null) {
+							((BeansConfig) config).restoreSnapshot(configSnapshot);
+							restored++;
+						}
+					}
+				}
+			}
+		}
+		if (DEBUG) {
+			System.out.println(String.format("Restored %s of %s config snapshots", restored, snapshot.size()));
+		}
+	}
+
+	private void saveSnapshot() {
+		File snapshotFile = getSnapshotFile();
+		if (snapshotFile == null) {
+			return;
+		}
+
+		BeansModelSnapshot snapshot = new BeansModelSnapshot();
+		for (IBeansProject beansProject : projects.values()) {
+			for (IBeansConfig config : beansProject.getConfigs()) {
+				if (config instanceof BeansConfig) {
+					snapshot.add((BeansConfig) config);
+				}
+			}
+		}
+
+		File tempFile = new File(snapshotFile.getPath() + ".tmp");
+		try {
+			snapshot.write(tempFile);
+			if (!tempFile.renameTo(snapshotFile)) {
+				snapshotFile.delete();
+				if (!tempFile.renameTo(snapshotFile)) {
+					tempFile.delete();
+				}
+			}
+		}
+		catch (IOException e) {
+			tempFile.delete();
+			BeansCorePlugin.log("Error writing beans model snapshot", e);
+		}
+		if (DEBUG) {
+			System.out.println(String.format("Saved %s config snapshots", snapshot.size()));
+		}
+	}
+
+	private File getSnapshotFile() {
+		BeansCorePlugin plugin = BeansCorePlugin.getDefault();
+		if (plugin == null) {
+			return null;
+		}
+		return plugin.getStateLocation().append("beans-model.snapshot").toFile();
+	}
+
 	public IBeansProject getProject(IProject project) {
 		try {
 			r.lock();
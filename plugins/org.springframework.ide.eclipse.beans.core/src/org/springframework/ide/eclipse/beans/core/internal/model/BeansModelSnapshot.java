@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaModelException;
+import org.springframework.ide.eclipse.beans.core.model.IBean;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansImport;
+import org.springframework.ide.eclipse.beans.core.model.IImportedBeansConfig;
+import org.springframework.ide.eclipse.core.io.ExternalFile;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
+
+/**
+ * Snapshot of the bean classes and bean names of populated {@link BeansConfig}s. The snapshot is written when the
+ * {@link BeansModel} is stopped and read back on the next start, so that questions like
+ * {@link IBeansConfig#isBeanClass(String)} can be answered without reading the XML files of all configs first.
+ * <p>
+ * An entry is only valid as long as the config file, all imported files and the classpath of the project are
+ * unchanged, identified by the modification stamps of the files and a fingerprint of the resolved classpath. The
+ * fingerprint covers libraries, output folders and required projects, so a class changed in the project or in a
+ * project it depends on invalidates the entry.
+ * Configs that scan for annotated classes or live outside of the workspace are not part of the snapshot, as
+ * their content depends on more than these files.
+ * @author agent
+ * @since 3.9.0
+ */
+public class BeansModelSnapshot {
+
+	private static final int MAGIC = 0x424D534E; // "BMSN"
+
+	/**
+	 * Version of the snapshot file format, increase this whenever the format changes
+	 */
+	public static final int VERSION = 1;
+
+	private final Map<String, ConfigSnapshot> configs = new LinkedHashMap<String, ConfigSnapshot>();
+
+	private final Map<IProject, Long> classpathFingerprints = new HashMap<IProject, Long>();
+
+	/**
+	 * Adds the given config to this snapshot. Configs that haven't been read yet are only added if they still hold
+	 * a valid snapshot of a previous session.
+	 * @return <code>true</code> if the config has been added
+	 */
+	public boolean add(BeansConfig config) {
+		IResource resource = config.getElementResource();
+		if (!(resource instanceof IFile) || resource instanceof ExternalFile || config.isElementArchived()) {
+			return false;
+		}
+
+		ConfigSnapshot snapshot = config.getSnapshot();
+		if (snapshot == null && config.isInitialized()) {
+			snapshot = createSnapshot(config);
+		}
+		if (snapshot != null) {
+			configs.put(getKey(config), snapshot);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the snapshot of the given config, if the config file, its imports and the classpath haven't been
+	 * changed since the snapshot was taken.
+	 */
+	public ConfigSnapshot get(BeansConfig config) {
+		ConfigSnapshot snapshot = configs.get(getKey(config));
+		if (snapshot == null) {
+			return null;
+		}
+		Long classpathFingerprint = getClasspathFingerprint(config.getElementResource().getProject());
+		if (classpathFingerprint == null || snapshot.classpathFingerprint != classpathFingerprint.longValue()) {
+			return null;
+		}
+		for (Map.Entry<String, Long> resourceStamp : snapshot.resourceStamps.entrySet()) {
+			IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember(resourceStamp.getKey());
+			if (!(resource instanceof IFile) || resource.getModificationStamp() != resourceStamp.getValue().longValue()) {
+				return null;
+			}
+		}
+		return snapshot;
+	}
+
+	public int size() {
+		return configs.size();
+	}
+
+	private ConfigSnapshot createSnapshot(BeansConfig config) {
+		Long classpathFingerprint = getClasspathFingerprint(config.getElementResource().getProject());
+		if (classpathFingerprint == null) {
+			return null;
+		}
+
+		Map<String, Long> resourceStamps = new LinkedHashMap<String, Long>();
+		if (!addResourceStamps(config, resourceStamps, new HashSet<IBeansConfig>())) {
+			return null;
+		}
+
+		Set<String> beanNames = new LinkedHashSet<String>();
+		for (IBean bean : config.getBeans()) {
+			beanNames.add(bean.getElementName());
+		}
+		return new ConfigSnapshot(classpathFingerprint, resourceStamps, new LinkedHashSet<String>(config.getBeanClasses()),
+				beanNames);
+	}
+
+	private boolean addResourceStamps(IBeansConfig config, Map<String, Long> resourceStamps, Set<IBeansConfig> visited) {
+		if (!visited.add(config)) {
+			return true;
+		}
+
+		IResource resource = config.getElementResource();
+		if (!(resource instanceof IFile) || resource instanceof ExternalFile || config.isElementArchived()
+				|| config.doesAnnotationScanning()) {
+			return false;
+		}
+		resourceStamps.put(resource.getFullPath().toString(), resource.getModificationStamp());
+
+		for (IBeansImport beansImport : config.getImports()) {
+			for (IImportedBeansConfig importedConfig : beansImport.getImportedBeansConfigs()) {
+				if (!addResourceStamps(importedConfig, resourceStamps, visited)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Calculates a fingerprint of the resolved classpath of the given project. It includes the timestamps and sizes
+	 * of all libraries and of the files in the output folders of the project, and the fingerprints of all required
+	 * projects. Namespace handlers and bean classes may come from any of these.
+	 * @return the fingerprint or <code>null</code> if the classpath can't be resolved
+	 */
+	private Long getClasspathFingerprint(IProject project) {
+		if (classpathFingerprints.containsKey(project)) {
+			return classpathFingerprints.get(project);
+		}
+		Long fingerprint;
+		try {
+			fingerprint = computeClasspathFingerprint(project, new HashSet<IProject>());
+		}
+		catch (JavaModelException e) {
+			fingerprint = null;
+		}
+		classpathFingerprints.put(project, fingerprint);
+		return fingerprint;
+	}
+
+	private long computeClasspathFingerprint(IProject project, Set<IProject> visited) throws JavaModelException {
+		long hash = 17;
+		IJavaProject javaProject = JdtUtils.getJavaProject(project);
+		if (javaProject == null || !visited.add(project)) {
+			return hash;
+		}
+		hash = 31 * hash + getFileTreeFingerprint(getOutputFolder(javaProject.getOutputLocation()));
+		for (IClasspathEntry entry : javaProject.getResolvedClasspath(true)) {
+			hash = 31 * hash + entry.getPath().toString().hashCode();
+			switch (entry.getEntryKind()) {
+			case IClasspathEntry.CPE_LIBRARY:
+				hash = 31 * hash + getFileTreeFingerprint(getFile(entry.getPath()));
+				break;
+			case IClasspathEntry.CPE_SOURCE:
+				if (entry.getOutputLocation() != null) {
+					hash = 31 * hash + getFileTreeFingerprint(getOutputFolder(entry.getOutputLocation()));
+				}
+				break;
+			case IClasspathEntry.CPE_PROJECT:
+				IProject requiredProject = ResourcesPlugin.getWorkspace().getRoot().getProject(
+						entry.getPath().lastSegment());
+				hash = 31 * hash + computeClasspathFingerprint(requiredProject, visited);
+				break;
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Calculates a fingerprint of the names, timestamps and sizes of the given file or of all files in the given
+	 * folder.
+	 */
+	private static long getFileTreeFingerprint(File file) {
+		long hash = file.getName().hashCode();
+		if (file.isDirectory()) {
+			String[] names = file.list();
+			if (names != null) {
+				Arrays.sort(names);
+				for (String name : names) {
+					hash = 31 * hash + getFileTreeFingerprint(new File(file, name));
+				}
+			}
+		}
+		else {
+			hash = 31 * hash + file.lastModified();
+			hash = 31 * hash + file.length();
+		}
+		return hash;
+	}
+
+	private File getFile(IPath path) {
+		IResource resource = ResourcesPlugin.getWorkspace().getRoot().findMember(path);
+		if (resource != null && resource.getLocation() != null) {
+			return resource.getLocation().toFile();
+		}
+		return path.toFile();
+	}
+
+	/**
+	 * Returns the location of the given output folder, which may not exist or may not be refreshed yet.
+	 */
+	private File getOutputFolder(IPath path) {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		IResource folder = path.segmentCount() == 1 ? root.getProject(path.lastSegment()) : root.getFolder(path);
+		IPath location = folder.getLocation();
+		return location != null ? location.toFile() : path.toFile();
+	}
+
+	private String getKey(BeansConfig config) {
+		return config.getElementResource().getProject().getName() + '/' + config.getElementName();
+	}
+
+	public void write(File snapshotFile) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(snapshotFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(configs.size());
+			for (Map.Entry<String, ConfigSnapshot> entry : configs.entrySet()) {
+				ConfigSnapshot snapshot = entry.getValue();
+				out.writeUTF(entry.getKey());
+				out.writeLong(snapshot.classpathFingerprint);
+				out.writeInt(snapshot.resourceStamps.size());
+				for (Map.Entry<String, Long> resourceStamp : snapshot.resourceStamps.entrySet()) {
+					out.writeUTF(resourceStamp.getKey());
+					out.writeLong(resourceStamp.getValue());
+				}
+				writeStrings(out, snapshot.beanClasses);
+				writeStrings(out, snapshot.beanNames);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads the snapshot from the given file.
+	 * @return the snapshot or an empty snapshot if the file does not exist, is corrupt or has been written by a
+	 * different version
+	 */
+	public static BeansModelSnapshot read(File snapshotFile) {
+		BeansModelSnapshot result = new BeansModelSnapshot();
+		if (!snapshotFile.isFile()) {
+			return result;
+		}
+
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+					return result;
+				}
+				int configCount = in.readInt();
+				for (int i = 0; i < configCount; i++) {
+					String key = in.readUTF();
+					long classpathFingerprint = in.readLong();
+					int resourceCount = in.readInt();
+					Map<String, Long> resourceStamps = new LinkedHashMap<String, Long>();
+					for (int j = 0; j < resourceCount; j++) {
+						resourceStamps.put(in.readUTF(), in.readLong());
+					}
+					Set<String> beanClasses = readStrings(in);
+					Set<String> beanNames = readStrings(in);
+					result.configs.put(key, new ConfigSnapshot(classpathFingerprint, resourceStamps, beanClasses, beanNames));
+				}
+			}
+			finally {
+				in.close();
+			}
+		}
+		catch (IOException e) {
+			// corrupt snapshot file
+			return new BeansModelSnapshot();
+		}
+		return result;
+	}
+
+	private static void writeStrings(DataOutputStream out, Set<String> strings) throws IOException {
+		out.writeInt(strings.size());
+		for (String string : strings) {
+			out.writeUTF(string);
+		}
+	}
+
+	private static Set<String> readStrings(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) {
+			throw new IOException("Negative count in beans model snapshot");
+		}
+		String[] strings = new String[count];
+		for (int i = 0; i < count; i++) {
+			strings[i] = in.readUTF();
+		}
+		return new LinkedHashSet<String>(Arrays.asList(strings));
+	}
+
+	/**
+	 * Bean classes and bean names of a single config.
+	 */
+	public static class ConfigSnapshot {
+
+		private final long classpathFingerprint;
+
+		private final Map<String, Long> resourceStamps;
+
+		private final Set<String> beanClasses;
+
+		private final Set<String> beanNames;
+
+		ConfigSnapshot(long classpathFingerprint, Map<String, Long> resourceStamps, Set<String> beanClasses,
+				Set<String> beanNames) {
+			this.classpathFingerprint = classpathFingerprint;
+			this.resourceStamps = resourceStamps;
+			this.beanClasses = Collections.unmodifiableSet(beanClasses);
+			this.beanNames = Collections.unmodifiableSet(beanNames);
+		}
+
+		public Set<String> getBeanClasses() {
+			return beanClasses;
+		}
+
+		public boolean isBeanClass(String className) {
+			return beanClasses.contains(className);
+		}
+
+		public boolean hasBean(String name) {
+			return beanNames.contains(name);
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,9 +12,11 @@ package org.springframework.ide.eclipse.beans.core.internal.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
@@ -97,13 +99,21 @@ public abstract class BeansModelUtils {
 	/**
 	 * Returns the <code>IBean</code> for a given bean name from specified context ( <code>IBeansConfig</code> or
 	 * <code>IBeansConfigSet</code>). If the corresponding bean is not found then the context's list of
-	 * <code>IBeanAlias</code>es is checked too.
+	 * <code>IBeanAlias</code>es and the beans defined in <code>IBeansComponent</code>s are checked too. The
+	 * lookup uses the name index of the Spring IDE config and config set implementations instead of iterating
+	 * over all beans.
 	 * @param context the context (<code>IBeanConfig</code> or <code>IBeanConfigSet</code>) the beans are looked-up
 	 * @return <code>IBean</code> or <code>null</code> if bean not found
 	 * @throws IllegalArgumentException if unsupported context specified
 	 */
 	public static IBean getBean(String name, IModelElement context) {
-		if (context instanceof IBeansConfig) {
+		if (context instanceof AbstractBeansConfig) {
+			return ((AbstractBeansConfig) context).findBean(name);
+		}
+		else if (context instanceof BeansConfigSet) {
+			return ((BeansConfigSet) context).findBean(name);
+		}
+		else if (context instanceof IBeansConfig) {
 			IBeansConfig config = (IBeansConfig) context;
 			IBean bean = config.getBean(name);
 			if (bean == null) {
@@ -1304,10 +1314,8 @@ public abstract class BeansModelUtils {
 					try {
 						IType[] types = ((ICompilationUnit) element).getAllTypes();
 						String[] changedTypeNames = new String[types.length];
-						boolean[] changedTypeIsInterface = new boolean[types.length];
 						for (int i = 0; i < types.length; i++) {
 							changedTypeNames[i] = types[i].getFullyQualifiedName();
-							changedTypeIsInterface[i] = types[i].isInterface();
 						}
 						
 						for (IBeansProject project : projects) {
@@ -1318,24 +1326,45 @@ public abstract class BeansModelUtils {
 									continue;
 								}
 								
+								// map bean classes to the configs using them and make them known to the reverse subtype index
 								Set<IBeansConfig> configs = project.getConfigs();
+								Map<String, Set<IBeansConfig>> configsByBeanClass = new HashMap<String, Set<IBeansConfig>>();
 								for (IBeansConfig config : configs) {
-									boolean configAdded = false;
-									Set<String> allBeanClasses = config.getBeanClasses();
-									for (int i = 0; i < changedTypeNames.length; i++) {
-										for (String className : allBeanClasses) {
-											if (changedTypeIsInterface[i] && typeEngine.doesImplement(className, changedTypeNames[i], project.getProject())) {
-												files.add(config);
-												configAdded = true;
-												break;
-											}
-											else if (!changedTypeIsInterface[i] && typeEngine.doesExtend(className, changedTypeNames[i], project.getProject())) {
-												files.add(config);
-												configAdded = true;
-												break;
-											}
+									for (String className : config.getBeanClasses()) {
+										Set<IBeansConfig> configsForClass = configsByBeanClass.get(className);
+										if (configsForClass == null) {
+											configsForClass = new HashSet<IBeansConfig>();
+											configsByBeanClass.put(className, configsForClass);
+										}
+										configsForClass.add(config);
+									}
+								}
+								if (configsByBeanClass.isEmpty()) {
+									continue;
+								}
+								typeEngine.indexSubtypes(configsByBeanClass.keySet(), project.getProject());
+								
+								// collect configs of bean classes that are the changed type or one of its subtypes
+								Set<IBeansConfig> affectedConfigs = new HashSet<IBeansConfig>();
+								for (String changedTypeName : changedTypeNames) {
+									Set<IBeansConfig> configsForClass = configsByBeanClass.get(changedTypeName);
+									if (configsForClass != null) {
+										affectedConfigs.addAll(configsForClass);
+									}
+									for (String subtype : typeEngine.getKnownSubtypes(changedTypeName, project.getProject())) {
+										configsForClass = configsByBeanClass.get(subtype);
+										if (configsForClass != null) {
+											affectedConfigs.addAll(configsForClass);
+										}
+									}
+								}
+								
+								// keep the order of the configs within the project
+								if (!affectedConfigs.isEmpty()) {
+									for (IBeansConfig config : configs) {
+										if (affectedConfigs.contains(config)) {
+											files.add(config);
 										}
-										if (configAdded) break;
 									}
 								}
 								
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.beans.core.internal.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.springframework.ide.eclipse.beans.core.BeansCorePlugin;
+import org.springframework.ide.eclipse.beans.core.model.IBeansConfig;
+import org.springframework.ide.eclipse.beans.core.model.IBeansProject;
+import org.springframework.ide.eclipse.core.model.ILazyInitializedModelElement;
+
+/**
+ * Background job that reads all not yet initialized {@link IBeansConfig}s of the given projects, loading up to a
+ * configurable number of configs concurrently on the {@link BeansCorePlugin#getExecutorService() executor service}.
+ * <p>
+ * The first config of every project is read on its own, so that the project class loader and the namespace handlers
+ * of the project's classpath are created once instead of by several threads racing for them. The remaining configs
+ * of that project are scheduled as soon as the first one has been read. Configs of different projects are interleaved
+ * so that one large project doesn't delay all others.
+ * <p>
+ * Configs whose bean classes and names have been restored from the snapshot of the previous session are unchanged
+ * since then and are skipped; they are read on first real access only.
+ * <p>
+ * The job is only scheduled on model startup if {@link BeansCorePlugin#WARM_UP_MODEL_PREFERENCE_ID} is enabled.
+ * @author agent
+ * @since 3.9.0
+ */
+public class BeansModelWarmUpJob extends Job {
+
+	private final Collection<IBeansProject> projects;
+
+	private final int parallelism;
+
+	public BeansModelWarmUpJob(Collection<IBeansProject> projects, int parallelism) {
+		super("Loading Spring Bean Configurations");
+		this.projects = new ArrayList<IBeansProject>(projects);
+		this.parallelism = parallelism;
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+		return loadConfigs(projects, parallelism, monitor);
+	}
+
+	/**
+	 * Reads all not yet initialized configs of the given projects that have not been restored from a snapshot, using at most <code>parallelism</code> threads.
+	 * Blocks until all configs have been read or the monitor has been canceled.
+	 */
+	public static IStatus loadConfigs(Collection<IBeansProject> projects, int parallelism, IProgressMonitor monitor) {
+		long start = System.currentTimeMillis();
+
+		Deque<IBeansConfig> readyConfigs = new ArrayDeque<IBeansConfig>();
+		Map<IBeansConfig, List<IBeansConfig>> followingConfigs = new HashMap<IBeansConfig, List<IBeansConfig>>();
+		int total = 0;
+		for (IBeansProject project : projects) {
+			List<IBeansConfig> configs = new ArrayList<IBeansConfig>();
+			for (IBeansConfig config : project.getConfigs()) {
+				if (!isInitialized(config) && !isRestoredFromSnapshot(config)) {
+					configs.add(config);
+				}
+			}
+			if (!configs.isEmpty()) {
+				readyConfigs.add(configs.get(0));
+				followingConfigs.put(configs.get(0), configs.subList(1, configs.size()));
+				total += configs.size();
+			}
+		}
+
+		SubMonitor progress = SubMonitor.convert(monitor, "Loading Spring Bean Configurations", total);
+		CompletionService<IBeansConfig> completionService = new ExecutorCompletionService<IBeansConfig>(
+				BeansCorePlugin.getExecutorService());
+		Map<Future<IBeansConfig>, IBeansConfig> running = new HashMap<Future<IBeansConfig>, IBeansConfig>();
+		try {
+			while (!running.isEmpty() || !readyConfigs.isEmpty()) {
+				while (running.size() < Math.max(1, parallelism) && !readyConfigs.isEmpty()) {
+					final IBeansConfig config = readyConfigs.poll();
+					running.put(completionService.submit(new Callable<IBeansConfig>() {
+
+						public IBeansConfig call() throws Exception {
+							config.getElementChildren();
+							return config;
+						}
+					}), config);
+				}
+
+				if (progress.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+
+				Future<IBeansConfig> result = completionService.poll(500, TimeUnit.MILLISECONDS);
+				if (result != null) {
+					IBeansConfig config = running.remove(result);
+					try {
+						result.get();
+					}
+					catch (ExecutionException e) {
+						BeansCorePlugin.log(e.getCause());
+					}
+
+					// Now that the project class loader exists, the other configs of the project can follow
+					List<IBeansConfig> configs = followingConfigs.remove(config);
+					if (configs != null) {
+						readyConfigs.addAll(configs);
+					}
+					progress.subTask(config.getElementName());
+					progress.worked(1);
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return Status.CANCEL_STATUS;
+		}
+		finally {
+			if (monitor != null) {
+				monitor.done();
+			}
+		}
+
+		if (BeansModel.DEBUG) {
+			System.out.println(String.format("Loading of %s configs with %s threads took %sms", total, parallelism,
+					(System.currentTimeMillis() - start)));
+		}
+		return Status.OK_STATUS;
+	}
+
+	private static boolean isInitialized(IBeansConfig config) {
+		return config instanceof ILazyInitializedModelElement && ((ILazyInitializedModelElement) config).isInitialized();
+	}
+
+	private static boolean isRestoredFromSnapshot(IBeansConfig config) {
+		return config instanceof BeansConfig && ((BeansConfig) config).getSnapshot() != null;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,7 @@ import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
@@ -88,6 +89,11 @@ public class BeansConfigValidator extends AbstractValidator {
 		MarkerUtils.deleteAllMarkers(resource, getMarkerId());
 	}
 
+	@Override
+	protected IMarker[] findMarkers(IResource resource) throws CoreException {
+		return MarkerUtils.findAllMarkers(resource, getMarkerId());
+	}
+
 	public Set<IResource> getAffectedResources(IResource resource, int kind, int deltaKind) throws CoreException {
 		Set<IResource> resources = new LinkedHashSet<IResource>();
 		if (resource instanceof IFile) {
@@ -261,6 +267,15 @@ public class BeansConfigValidator extends AbstractValidator {
 		return !BeansModelUtils.isProfileDisabled(contextElement, element);
 	}
 
+	/**
+	 * The set of affected beans is only read while validating and every config gets its own
+	 * {@link BeansValidationContext}, therefore configs can be validated concurrently.
+	 */
+	@Override
+	protected boolean supportsConcurrentValidation() {
+		return true;
+	}
+
 	private void addBeans(IBeansConfig beansConfig) {
 		for (IBean bean : BeansModelUtils.getBeans(beansConfig)) {
 			affectedBeans.add(bean.getElementID());
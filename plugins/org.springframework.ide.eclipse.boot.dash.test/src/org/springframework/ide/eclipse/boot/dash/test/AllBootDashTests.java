@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -44,6 +44,9 @@ import org.springframework.ide.eclipse.boot.dash.test.yaml.Yaml2DeploymentProper
 	BootDashElementTagsTests.class,
 	ActuatorClientTest.class,
 	ToggleFiltersModelTest.class,
+	ExponentialBackoffTest.class,
+	RefreshSchedulerTest.class,
+	ResourceFingerprintCacheTest.class,
 
 	//Medium length (less than 30 seconds):
 	JarNameGeneratorTest.class,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -574,6 +574,36 @@ public class CloudFoundryBootDashModelMockingTest {
 		};
 	}
 
+	@Test
+	public void testRefreshOnlyLooksUpChangedApps() throws Exception {
+		CFClientParams targetParams = CfTestTargetParams.fromEnv();
+
+		MockCFSpace space = clientFactory.defSpace(targetParams.getOrgName(), targetParams.getSpaceName());
+
+		final MockCFApplication foo = space.defApp("foo");
+		space.defApp("bar");
+
+		final CloudFoundryBootDashModel target = harness.createCfTarget(targetParams);
+
+		waitForApps(target, "foo", "bar");
+		waitForJobsToComplete();
+		int lookups = clientFactory.getApplicationDetailsLookups();
+
+		//Nothing changed: nothing to look up
+		target.refresh(ui);
+		waitForJobsToComplete();
+		assertEquals(lookups, clientFactory.getApplicationDetailsLookups());
+		assertEquals(1024, (int)target.getApplication("foo").getMemory());
+
+		//Only 'foo' changed
+		foo.setMemory(2048);
+		target.refresh(ui);
+		waitForJobsToComplete();
+		assertEquals(lookups+1, clientFactory.getApplicationDetailsLookups());
+		assertEquals(2048, (int)target.getApplication("foo").getMemory());
+		assertEquals(1024, (int)target.getApplication("bar").getMemory());
+	}
+
 	@Test
 	public void testRefreshServices() throws Exception {
 		CFClientParams targetParams = CfTestTargetParams.fromEnv();
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.Duration;
+
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.dash.util.ExponentialBackoff;
+
+/**
+ * @author agent
+ */
+public class ExponentialBackoffTest {
+
+	@Test
+	public void doublesUpToMax() throws Exception {
+		ExponentialBackoff backoff = new ExponentialBackoff(Duration.ofMillis(100), Duration.ofMillis(500));
+		assertEquals(100, backoff.next());
+		assertEquals(200, backoff.next());
+		assertEquals(400, backoff.next());
+		assertEquals(500, backoff.next());
+		assertEquals(500, backoff.next());
+	}
+
+	@Test
+	public void reset() throws Exception {
+		ExponentialBackoff backoff = new ExponentialBackoff(Duration.ofMillis(100), Duration.ofMillis(500));
+		backoff.next();
+		backoff.next();
+		backoff.reset();
+		assertEquals(100, backoff.next());
+		assertEquals(200, backoff.next());
+	}
+
+	@Test
+	public void maxSmallerThanMin() throws Exception {
+		ExponentialBackoff backoff = new ExponentialBackoff(Duration.ofMillis(100), Duration.ofMillis(50));
+		assertEquals(100, backoff.next());
+		assertEquals(100, backoff.next());
+	}
+
+}
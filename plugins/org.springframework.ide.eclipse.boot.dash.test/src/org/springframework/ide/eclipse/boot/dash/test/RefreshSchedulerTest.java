@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.ide.eclipse.boot.dash.util.RefreshScheduler;
+import org.springframework.ide.eclipse.boot.dash.util.RefreshScheduler.Batch;
+import org.springframework.ide.eclipse.boot.dash.util.RefreshScheduler.Metrics;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * @author agent
+ */
+public class RefreshSchedulerTest {
+
+	private static final long TICK = 50;
+
+	private BlockingQueue<Batch<String>> flushed = new LinkedBlockingQueue<>();
+	private RefreshScheduler<String> scheduler = new RefreshScheduler<>(TICK, Runnable::run, flushed::add);
+
+	@After
+	public void tearDown() throws Exception {
+		scheduler.dispose();
+	}
+
+	private Batch<String> nextBatch() throws InterruptedException {
+		return flushed.poll(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void coalescesElements() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			scheduler.refresh("a");
+			scheduler.refresh("b");
+		}
+		Batch<String> batch = nextBatch();
+		assertFalse(batch.isRefreshAll());
+		assertEquals(ImmutableSet.of("a", "b"), batch.getElements());
+		assertNull(flushed.poll(2*TICK, TimeUnit.MILLISECONDS));
+
+		Metrics metrics = scheduler.getMetrics();
+		assertEquals(200, metrics.getRequests());
+		assertEquals(1, metrics.getBatches());
+		assertEquals(2, metrics.getRefreshedElements());
+		assertTrue(metrics.getMaxLatency() >= metrics.getAverageLatency());
+	}
+
+	@Test
+	public void refreshAllSubsumesElements() throws Exception {
+		scheduler.refresh("a");
+		scheduler.refreshAll();
+		scheduler.refresh("b");
+		Batch<String> batch = nextBatch();
+		assertTrue(batch.isRefreshAll());
+		assertTrue(batch.getElements().isEmpty());
+		assertEquals(1, scheduler.getMetrics().getRefreshAllBatches());
+	}
+
+	@Test
+	public void laterRequestsGoInNextBatch() throws Exception {
+		scheduler.refresh("a");
+		assertEquals(ImmutableSet.of("a"), nextBatch().getElements());
+		scheduler.refresh("b");
+		assertEquals(ImmutableSet.of("b"), nextBatch().getElements());
+		assertEquals(2, scheduler.getMetrics().getBatches());
+	}
+
+	@Test
+	public void noFlushAfterDispose() throws Exception {
+		scheduler.refresh("a");
+		scheduler.dispose();
+		scheduler.refresh("b");
+		assertNull(flushed.poll(4*TICK, TimeUnit.MILLISECONDS));
+	}
+
+}
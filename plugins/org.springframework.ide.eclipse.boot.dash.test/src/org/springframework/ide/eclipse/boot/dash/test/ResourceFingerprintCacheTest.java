@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.loader.tools.Libraries;
+import org.springframework.boot.loader.tools.Library;
+import org.springframework.boot.loader.tools.LibraryCallback;
+import org.springframework.boot.loader.tools.LibraryScope;
+import org.springframework.boot.loader.tools.Repackager;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.v1.ResourceFingerprintCache;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * @author agent
+ */
+public class ResourceFingerprintCacheTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private ResourceFingerprintCache cache = new ResourceFingerprintCache();
+
+	private File createZip(String... namesAndContents) throws Exception {
+		return writeZip(tmp.newFile(), namesAndContents);
+	}
+
+	private File writeZip(File file, String... namesAndContents) throws Exception {
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+			for (int i = 0; i < namesAndContents.length; i+=2) {
+				out.putNextEntry(new ZipEntry(namesAndContents[i]));
+				out.write(namesAndContents[i+1].getBytes(StandardCharsets.UTF_8));
+				out.closeEntry();
+			}
+		}
+		return file;
+	}
+
+	private byte[] sha1(File zipFile, String name) throws Exception {
+		try (ZipFile zip = new ZipFile(zipFile)) {
+			return cache.getSha1Digest(zip, zip.getEntry(name));
+		}
+	}
+
+	/**
+	 * Repackages an app into a new temp jar, the way the cf archivers do on every push.
+	 */
+	private File repackage(final File library, String appContent) throws Exception {
+		File base = createZip("App.class", appContent);
+		File repackaged = new File(tmp.newFolder(), "app.jar");
+		Repackager repackager = new Repackager(base);
+		repackager.setMainClass("App");
+		repackager.repackage(repackaged, new Libraries() {
+			public void doWithLibraries(LibraryCallback callback) throws IOException {
+				callback.library(new Library("lib.jar", library, LibraryScope.COMPILE, false));
+			}
+		});
+		cache.addLibraries(repackaged, Collections.singletonMap("lib.jar", library));
+		return repackaged;
+	}
+
+	private static String nestedLibrary(File repackaged) throws Exception {
+		try (ZipFile zip = new ZipFile(repackaged)) {
+			for (ZipEntry entry : Collections.list(zip.entries())) {
+				if (entry.getName().endsWith("/lib.jar")) {
+					return entry.getName();
+				}
+			}
+		}
+		throw new AssertionError("No nested lib.jar in "+repackaged);
+	}
+
+	private static byte[] expectedSha1(String content) {
+		return Hashing.sha1().hashString(content, StandardCharsets.UTF_8).asBytes();
+	}
+
+	@Test
+	public void computesSha1() throws Exception {
+		File zip = createZip(
+				"BOOT-INF/lib/lib.jar", "library",
+				"BOOT-INF/classes/App.class", "app"
+		);
+		assertArrayEquals(expectedSha1("library"), sha1(zip, "BOOT-INF/lib/lib.jar"));
+		assertArrayEquals(expectedSha1("app"), sha1(zip, "BOOT-INF/classes/App.class"));
+	}
+
+	@Test
+	public void reusesFingerprintsOfUnchangedArchives() throws Exception {
+		File zip = createZip(
+				"BOOT-INF/lib/lib.jar", "library",
+				"BOOT-INF/classes/App.class", "app"
+		);
+		sha1(zip, "BOOT-INF/lib/lib.jar");
+		sha1(zip, "BOOT-INF/classes/App.class");
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		assertArrayEquals(expectedSha1("library"), sha1(zip, "BOOT-INF/lib/lib.jar"));
+		assertArrayEquals(expectedSha1("app"), sha1(zip, "BOOT-INF/classes/App.class"));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void doesNotShareFingerprintsBetweenArchives() throws Exception {
+		File first = createZip("BOOT-INF/lib/lib.jar", "library");
+		File second = createZip("BOOT-INF/lib/lib.jar", "library");
+		assertArrayEquals(expectedSha1("library"), sha1(first, "BOOT-INF/lib/lib.jar"));
+		assertArrayEquals(expectedSha1("library"), sha1(second, "BOOT-INF/lib/lib.jar"));
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void rehashesChangedArchives() throws Exception {
+		File zip = createZip("BOOT-INF/lib/lib.jar", "library-1.0");
+		assertArrayEquals(expectedSha1("library-1.0"), sha1(zip, "BOOT-INF/lib/lib.jar"));
+		long modified = zip.lastModified();
+
+		writeZip(zip, "BOOT-INF/lib/lib.jar", "library-1.0.1");
+		assertTrue(zip.setLastModified(modified));
+		assertArrayEquals(expectedSha1("library-1.0.1"), sha1(zip, "BOOT-INF/lib/lib.jar"));
+
+		assertTrue(zip.setLastModified(modified + 10000));
+		assertArrayEquals(expectedSha1("library-1.0.1"), sha1(zip, "BOOT-INF/lib/lib.jar"));
+		assertEquals(0, cache.getHits());
+		assertEquals(3, cache.getMisses());
+	}
+
+	@Test
+	public void reusesFingerprintsOfLibrariesOfRepackagedArchives() throws Exception {
+		File library = createZip("Lib.class", "library");
+		byte[] expected = Files.hash(library, Hashing.sha1()).asBytes();
+
+		File first = repackage(library, "app");
+		assertArrayEquals(expected, sha1(first, nestedLibrary(first)));
+		assertEquals(0, cache.getHits());
+
+		File second = repackage(library, "changed app");
+		assertArrayEquals(expected, sha1(second, nestedLibrary(second)));
+		assertTrue(cache.getHits() > 0);
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void rehashesChangedLibrariesOfRepackagedArchives() throws Exception {
+		File library = createZip("Lib.class", "library-1.0");
+		File first = repackage(library, "app");
+		sha1(first, nestedLibrary(first));
+
+		writeZip(library, "Lib.class", "library-1.0.1");
+		File second = repackage(library, "app");
+		assertArrayEquals(Files.hash(library, Hashing.sha1()).asBytes(), sha1(second, nestedLibrary(second)));
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+}
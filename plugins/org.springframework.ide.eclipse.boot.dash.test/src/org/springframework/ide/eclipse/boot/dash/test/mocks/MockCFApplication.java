@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Pivotal, Inc.
+ * Copyright (c) 2016, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -236,7 +237,31 @@ public class MockCFApplication {
 				uris,
 				state,
 				diskQuota,
-				getExtras()
+				getExtras(),
+				getChangeStamp()
+		);
+	}
+
+	/**
+	 * Like the app summaries returned by CF, the stamp changes whenever anything about the app changes.
+	 */
+	private Object getChangeStamp() {
+		return Arrays.asList(
+				name,
+				instances,
+				getRunningInstances(),
+				memory,
+				guid,
+				uris==null ? null : new ArrayList<>(uris),
+				state,
+				diskQuota,
+				env==null ? null : new HashMap<>(env),
+				services==null ? null : new ArrayList<>(services),
+				buildpackUrl,
+				timeout,
+				healthCheckType,
+				command,
+				stack
 		);
 	}
 
@@ -287,7 +312,8 @@ public class MockCFApplication {
 						uris,
 						state,
 						diskQuota,
-						getExtras()
+						getExtras(),
+						getChangeStamp()
 				),
 				ImmutableList.copyOf(stats)
 		);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Pivotal, Inc.
+ * Copyright (c) 2016, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -73,6 +73,7 @@ public class MockCloudFoundryClientFactory extends CloudFoundryClientFactory {
 	 */
 	private Exception notImplementedStubCalled = null;
 	private long startDelay = 0;
+	private int applicationDetailsLookups = 0;
 
 	public MockCloudFoundryClientFactory() {
 		defDomain("cfmockapps.io"); //Lost of functionality may assume there's at least one domain so make sure we have one.
@@ -80,6 +81,17 @@ public class MockCloudFoundryClientFactory extends CloudFoundryClientFactory {
 		defStacks("cflinuxfs2", "windows2012R2");
 	}
 
+	private synchronized void countApplicationDetailsLookup() {
+		applicationDetailsLookups++;
+	}
+
+	/**
+	 * @return The number of apps for which details were requested via 'getApplicationDetails'.
+	 */
+	public synchronized int getApplicationDetailsLookups() {
+		return applicationDetailsLookups;
+	}
+
 	synchronized public String getSsoToken() {
 		String token = RandomStringUtils.randomAlphabetic(8);
 		ssoTokens.add(token);
@@ -178,6 +190,7 @@ public class MockCloudFoundryClientFactory extends CloudFoundryClientFactory {
 			checkConnection();
 			MockCFSpace space = getSpace();
 			return Flux.fromIterable(appsToLookUp)
+			.doOnNext((app) -> countApplicationDetailsLookup())
 			.flatMap((app) -> {
 				return Mono.justOrEmpty(space.getApplication(app.getGuid()).getDetailedInfo());
 			});
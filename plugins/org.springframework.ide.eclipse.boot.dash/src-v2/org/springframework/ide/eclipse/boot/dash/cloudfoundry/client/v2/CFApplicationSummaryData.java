@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Pivotal, Inc.
+ * Copyright (c) 2016, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,6 +28,7 @@ public class CFApplicationSummaryData implements CFApplication {
 	private CFAppState state;
 	private int diskQuota;
 	protected ApplicationExtras extras;
+	protected Object changeStamp;
 
 	public CFApplicationSummaryData(
 			String name,
@@ -39,6 +40,21 @@ public class CFApplicationSummaryData implements CFApplication {
 			CFAppState state,
 			int diskQuota,
 			ApplicationExtras extras
+	) {
+		this(name, instances, runningInstances, memory, guid, uris, state, diskQuota, extras, null);
+	}
+
+	public CFApplicationSummaryData(
+			String name,
+			int instances,
+			int runningInstances,
+			int memory,
+			UUID guid,
+			List<String> uris,
+			CFAppState state,
+			int diskQuota,
+			ApplicationExtras extras,
+			Object changeStamp
 	) {
 		super();
 		this.name = name;
@@ -50,6 +66,7 @@ public class CFApplicationSummaryData implements CFApplication {
 		this.state = state;
 		this.diskQuota = diskQuota;
 		this.extras = extras;
+		this.changeStamp = changeStamp;
 	}
 
 	@Override
@@ -127,4 +144,9 @@ public class CFApplicationSummaryData implements CFApplication {
 		return extras.getEnv().block();
 	}
 
+	@Override
+	public Object getChangeStamp() {
+		return changeStamp;
+	}
+
 }
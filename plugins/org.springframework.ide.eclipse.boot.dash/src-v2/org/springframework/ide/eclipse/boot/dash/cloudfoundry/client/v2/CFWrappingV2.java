@@ -16,8 +16,8 @@ import java.util.stream.Collectors;
 
 import org.cloudfoundry.client.v2.buildpacks.BuildpackResource;
 import org.cloudfoundry.client.v2.domains.DomainResource;
+import org.cloudfoundry.client.v2.spaces.SpaceApplicationSummary;
 import org.cloudfoundry.operations.applications.ApplicationDetail;
-import org.cloudfoundry.operations.applications.ApplicationSummary;
 import org.cloudfoundry.operations.applications.InstanceDetail;
 import org.cloudfoundry.operations.organizations.OrganizationSummary;
 import org.cloudfoundry.operations.services.ServiceInstance;
@@ -164,10 +164,15 @@ public class CFWrappingV2 {
 		);
 	}
 
-	public static CFApplication wrap(ApplicationSummary app, ApplicationExtras extras) {
+	/**
+	 * Wraps an app from a space summary. The summary contains the complete app entity
+	 * (including its 'version' and 'package_updated_at'), so the summary itself serves as the
+	 * app's change stamp.
+	 */
+	public static CFApplication wrap(SpaceApplicationSummary app, ApplicationExtras extras) {
 		CFAppState state;
 		try {
-			state = CFAppState.valueOf(app.getRequestedState());
+			state = CFAppState.valueOf(app.getState());
 		} catch (Exception e) {
 			BootActivator.log(e);
 			state = CFAppState.UNKNOWN;
@@ -177,12 +182,13 @@ public class CFWrappingV2 {
 				app.getName(),
 				app.getInstances(),
 				app.getRunningInstances(),
-				app.getMemoryLimit(),
+				app.getMemory(),
 				UUID.fromString(app.getId()),
 				app.getUrls(),
 				state,
 				app.getDiskQuota(),
-				extras
+				extras,
+				app
 		);
 	}
 
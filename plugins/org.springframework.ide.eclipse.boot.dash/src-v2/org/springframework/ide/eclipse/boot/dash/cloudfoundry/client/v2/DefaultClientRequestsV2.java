@@ -38,6 +38,7 @@ import org.cloudfoundry.client.v2.domains.ListDomainsResponse;
 import org.cloudfoundry.client.v2.info.GetInfoRequest;
 import org.cloudfoundry.client.v2.info.GetInfoResponse;
 import org.cloudfoundry.client.v2.serviceinstances.DeleteServiceInstanceRequest;
+import org.cloudfoundry.client.v2.spaces.GetSpaceSummaryRequest;
 import org.cloudfoundry.client.v2.stacks.GetStackRequest;
 import org.cloudfoundry.client.v2.stacks.GetStackResponse;
 import org.cloudfoundry.client.v2.userprovidedserviceinstances.DeleteUserProvidedServiceInstanceRequest;
@@ -117,6 +118,11 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 	private static final Duration GET_SPACES_TIMEOUT = Duration.ofSeconds(20);
 	private static final Duration GET_USERNAME_TIMEOUT = Duration.ofSeconds(5);
 
+	/**
+	 * Maximum number of application details requests in flight at the same time.
+	 */
+	private static final int APP_DETAILS_CONCURRENCY = 8;
+
 	private static final boolean DEBUG = (""+Platform.getLocation()).contains("kdvolder") || (""+Platform.getLocation()).contains("bamboo");
 //	private static final boolean DEBUG_REACTOR = false;//(""+Platform.getLocation()).contains("kdvolder")
 									//|| (""+Platform.getLocation()).contains("bamboo");
@@ -233,7 +239,7 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 
 	@Override
 	public List<CFApplication> getApplicationsWithBasicInfo() throws Exception {
-		return ReactorUtils.get(operations_listApps());
+		return ReactorUtils.get(client_listApps());
 	}
 
 	private ApplicationExtras getApplicationExtras(String appName) {
@@ -367,6 +373,9 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 	 * as many apps as possible but it does not guarantee that it will return details for each app in the
 	 * list. This is to avoid one 'bad apple' from spoiling the whole batch. (I.e if failing to fetch details for
 	 * some apps we can still return details for the others rather than throw an exception).
+	 * <p>
+	 * At most {@link #APP_DETAILS_CONCURRENCY} apps are looked up at the same time, so that looking up
+	 * a large space doesn't flood the CC api with requests.
 	 */
 	@Override
 	public Flux<CFApplicationDetail> getApplicationDetails(List<CFApplication> appsToLookUp) throws Exception {
@@ -378,7 +387,7 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 				return Mono.empty();
 			})
 			.map((ApplicationDetail appDetails) -> CFWrappingV2.wrap((CFApplicationSummaryData)appSummary, appDetails));
-		});
+		}, APP_DETAILS_CONCURRENCY);
 	}
 
 	@Override
@@ -1329,10 +1338,19 @@ public class DefaultClientRequestsV2 implements ClientRequests {
 		);
 	}
 
-	private Mono<ImmutableList<CFApplication>> operations_listApps() {
-		return log("operations.applications.list()",
-			_operations.applications()
-			.list()
+	/**
+	 * List apps via the space summary. This is what operations.applications.list() does as well, but it drops
+	 * most of the info from the summary, including the bits we need to tell whether an app changed.
+	 */
+	private Mono<ImmutableList<CFApplication>> client_listApps() {
+		return log("client.spaces.getSummary()",
+			spaceId.then((id) ->
+				_client.spaces().getSummary(GetSpaceSummaryRequest.builder()
+					.spaceId(id)
+					.build()
+				)
+			)
+			.flatMap((summary) -> Flux.fromIterable(summary.getApplications()))
 			.map((appSummary) ->
 				CFWrappingV2.wrap(appSummary, getApplicationExtras(appSummary.getName()))
 			)
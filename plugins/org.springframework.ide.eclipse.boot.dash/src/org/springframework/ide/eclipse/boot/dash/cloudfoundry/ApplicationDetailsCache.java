@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.cloudfoundry;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFAppState;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplication;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplicationDetail;
+
+/**
+ * Remembers the details fetched for the applications of a Cloud Foundry target, so that
+ * a refresh only has to fetch details for apps that changed since the previous refresh.
+ * <p>
+ * Whether an app changed is determined by comparing the {@link CFApplication#getChangeStamp()}
+ * of its summary with that of the summary the details were fetched for. Details are always
+ * fetched again for apps that
+ * <ul>
+ *   <li>have no change stamp, or</li>
+ *   <li>are starting (i.e. not all of their instances are running yet), because the state of
+ *       their instances may change without changing their summary.</li>
+ * </ul>
+ * The state and health of the instances of a running app can also change without changing its
+ * summary, for example when an instance crashes and is restarted. Details of apps that have
+ * running instances therefore expire {@link #RUNNING_APP_DETAILS_TTL} after they were fetched.
+ * Details of apps without running instances only expire when their summary changes.
+ *
+ * @author agent
+ */
+public class ApplicationDetailsCache {
+
+	/**
+	 * How long the details of an app with running instances are reused.
+	 */
+	public static final Duration RUNNING_APP_DETAILS_TTL = Duration.ofSeconds(30);
+
+	private static class Entry {
+		final Object stamp;
+		final CFApplicationDetail details;
+		final long fetchTime = System.nanoTime();
+
+		Entry(Object stamp, CFApplicationDetail details) {
+			this.stamp = stamp;
+			this.details = details;
+		}
+
+		boolean isExpired(CFApplication summary) {
+			return summary.getRunningInstances() > 0
+					&& System.nanoTime() - fetchTime > RUNNING_APP_DETAILS_TTL.toNanos();
+		}
+	}
+
+	private final Map<UUID, Entry> entries = new HashMap<>();
+
+	/**
+	 * @return Previously fetched details for the app, if they are still up-to-date with
+	 * the given summary and haven't expired, or null otherwise.
+	 */
+	public synchronized CFApplicationDetail get(CFApplication summary) {
+		Object stamp = summary.getChangeStamp();
+		if (stamp!=null && summary.getGuid()!=null && !isStarting(summary)) {
+			Entry entry = entries.get(summary.getGuid());
+			if (entry!=null && entry.stamp.equals(stamp) && !entry.isExpired(summary)) {
+				return entry.details;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Remember the details that were fetched for the app with the given summary.
+	 */
+	public synchronized void put(CFApplication summary, CFApplicationDetail details) {
+		Object stamp = summary.getChangeStamp();
+		if (stamp!=null && summary.getGuid()!=null && details!=null) {
+			entries.put(summary.getGuid(), new Entry(stamp, details));
+		}
+	}
+
+	/**
+	 * Forget about all apps that aren't in the given list (i.e. that have been deleted).
+	 */
+	public synchronized void retainAll(Collection<CFApplication> summaries) {
+		Set<UUID> guids = new HashSet<>();
+		for (CFApplication app : summaries) {
+			guids.add(app.getGuid());
+		}
+		entries.keySet().retainAll(guids);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private static boolean isStarting(CFApplication summary) {
+		return summary.getState()==CFAppState.STARTED && summary.getRunningInstances() < summary.getInstances();
+	}
+
+}
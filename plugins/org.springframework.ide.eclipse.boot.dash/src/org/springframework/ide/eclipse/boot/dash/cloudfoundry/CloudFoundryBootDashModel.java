@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -149,6 +149,7 @@ public class CloudFoundryBootDashModel extends AbstractBootDashModel implements
 
 	private final LiveSetVariable<CloudServiceInstanceDashElement> services = new LiveSetVariable<>(AsyncMode.SYNC);
 	private final CloudDashApplications applications = new CloudDashApplications(this);
+	private final ApplicationDetailsCache applicationDetailsCache = new ApplicationDetailsCache();
 	private final ObservableSet<BootDashElement> allElements = LiveSets.union(applications.getApplications(), services);
 
 	private BootDashModelConsoleManager consoleManager;
@@ -271,6 +272,7 @@ public class CloudFoundryBootDashModel extends AbstractBootDashModel implements
 	final private ValueListener<ClientRequests> RUN_TARGET_CONNECTION_LISTENER = new ValueListener<ClientRequests>() {
 		@Override
 		public void gotValue(LiveExpression<ClientRequests> exp, ClientRequests value) {
+			applicationDetailsCache.clear();
 			CloudFoundryBootDashModel.this.notifyModelStateChanged();
 		}
 	};
@@ -851,6 +853,10 @@ public class CloudFoundryBootDashModel extends AbstractBootDashModel implements
 		return applications.getApplicationValues();
 	}
 
+	public ApplicationDetailsCache getApplicationDetailsCache() {
+		return applicationDetailsCache;
+	}
+
 	public ObservableSet<CloudServiceInstanceDashElement> getServices() {
 		return services;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016 Pivotal, Inc.
+ * Copyright (c) 2016, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,4 +32,10 @@ public interface CFApplication extends CFEntity {
 
 	Map<String,String> getEnvAsMap();
 	String getHealthCheckType();
+
+	/**
+	 * @return A value that is different (according to 'equals') whenever anything about
+	 * the app changes, or null if there is no such value.
+	 */
+	Object getChangeStamp();
 }
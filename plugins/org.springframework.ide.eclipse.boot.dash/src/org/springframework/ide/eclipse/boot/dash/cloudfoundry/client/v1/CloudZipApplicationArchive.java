@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,17 +10,46 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.v1;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.cloudfoundry.client.lib.archive.ZipApplicationArchive;
 
+/**
+ * Zip archive that is uploaded to Cloud Foundry. The client first sends the fingerprints of its
+ * entries to Cloud Foundry's resource matching endpoint and then only uploads the entries Cloud
+ * Foundry doesn't already have. The fingerprints are obtained from a {@link ResourceFingerprintCache}
+ * so that the libraries of an unchanged archive aren't hashed again on each push.
+ */
 public class CloudZipApplicationArchive extends ZipApplicationArchive {
 
 	protected final ZipFile zipFile;
+	private final ResourceFingerprintCache fingerprints;
+	private List<Entry> entries;
 
 	public CloudZipApplicationArchive(ZipFile zipFile) {
+		this(zipFile, ResourceFingerprintCache.getDefault());
+	}
+
+	public CloudZipApplicationArchive(ZipFile zipFile, ResourceFingerprintCache fingerprints) {
 		super(zipFile);
 		this.zipFile = zipFile;
+		this.fingerprints = fingerprints;
+	}
+
+	@Override
+	public synchronized Iterable<Entry> getEntries() {
+		if (entries==null) {
+			entries = new ArrayList<>();
+			for (Entry e : super.getEntries()) {
+				entries.add(new FingerprintedEntry(e));
+			}
+		}
+		return entries;
 	}
 
 	public void close() throws Exception {
@@ -28,4 +57,51 @@ public class CloudZipApplicationArchive extends ZipApplicationArchive {
 			zipFile.close();
 		}
 	}
+
+	private class FingerprintedEntry implements Entry {
+
+		private final Entry delegate;
+		private byte[] sha1;
+
+		FingerprintedEntry(Entry delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public boolean isDirectory() {
+			return delegate.isDirectory();
+		}
+
+		@Override
+		public String getName() {
+			return delegate.getName();
+		}
+
+		@Override
+		public long getSize() {
+			return delegate.getSize();
+		}
+
+		@Override
+		public synchronized byte[] getSha1Digest() {
+			if (sha1==null) {
+				ZipEntry zipEntry = zipFile.getEntry(getName());
+				if (zipEntry==null || zipEntry.isDirectory()) {
+					sha1 = delegate.getSha1Digest();
+				} else {
+					try {
+						sha1 = fingerprints.getSha1Digest(zipFile, zipEntry);
+					} catch (IOException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}
+			return sha1;
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return delegate.getInputStream();
+		}
+	}
 }
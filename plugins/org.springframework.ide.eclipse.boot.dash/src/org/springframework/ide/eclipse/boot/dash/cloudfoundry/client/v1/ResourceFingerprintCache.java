@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.v1;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Computes the SHA-1 fingerprints of the entries of an application archive, which Cloud Foundry
+ * uses to determine which resources it already has, so that only the other ones are uploaded.
+ * <p>
+ * Fingerprints of nested jars (i.e. the libraries of a Boot fat jar) are remembered between
+ * pushes, so that unchanged libraries don't have to be read and hashed again each time
+ * an app is pushed. Since an app is repackaged into a new archive for every push, the
+ * archiver registers the library files it copied into the archive with
+ * {@link #addLibraries(File, Map)}. The fingerprint of such a nested jar is keyed on the
+ * path, last modified time and size of its source library file, and reused for any later
+ * archive containing the same unchanged library. Other nested jars are keyed on the path,
+ * last modified time and size of the outer archive, so their fingerprints are only reused
+ * if the very same archive is pushed again. The name, size and crc of a nested entry alone
+ * are not used as key, since a crc is not collision-resistant and a stale SHA-1 would make
+ * Cloud Foundry substitute a different resource.
+ *
+ * @author agent
+ */
+public class ResourceFingerprintCache {
+
+	private static final long MAX_ENTRIES = 10000;
+	private static final long MAX_ARCHIVES = 100;
+
+	private static final ResourceFingerprintCache DEFAULT = new ResourceFingerprintCache();
+
+	/**
+	 * @return The cache shared by all pushes.
+	 */
+	public static ResourceFingerprintCache getDefault() {
+		return DEFAULT;
+	}
+
+	private static class Key {
+		final String path;
+		final long modified;
+		final long size;
+		final String entry;
+
+		/**
+		 * @param file The file the fingerprinted contents are taken from.
+		 * @param entry The name of the zip entry of the file, or <code>null</code> if the contents are those of the
+		 *            file itself.
+		 */
+		Key(File file, String entry) {
+			this.path = file.getAbsolutePath();
+			this.modified = file.lastModified();
+			this.size = file.length();
+			this.entry = entry;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(path, modified, size, entry);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key other = (Key) obj;
+				return path.equals(other.path)
+						&& modified==other.modified
+						&& size==other.size
+						&& Objects.equal(entry, other.entry);
+			}
+			return false;
+		}
+	}
+
+	private final Cache<Key, byte[]> fingerprints = CacheBuilder.newBuilder()
+			.maximumSize(MAX_ENTRIES)
+			.build();
+
+	/**
+	 * Source library files of the nested jars of archives, by archive and name of the nested jar.
+	 */
+	private final Cache<Key, Map<String, Key>> librarySources = CacheBuilder.newBuilder()
+			.maximumSize(MAX_ARCHIVES)
+			.build();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @return The SHA-1 digest of the contents of the given entry of the zip file.
+	 */
+	public byte[] getSha1Digest(ZipFile zip, ZipEntry entry) throws IOException {
+		File archive = new File(zip.getName());
+		if (!isCacheable(archive, entry)) {
+			return computeSha1Digest(zip, entry);
+		}
+		Key key = getKey(archive, entry);
+		byte[] sha1 = fingerprints.getIfPresent(key);
+		if (sha1!=null) {
+			hits.incrementAndGet();
+			return sha1;
+		}
+		misses.incrementAndGet();
+		sha1 = computeSha1Digest(zip, entry);
+		fingerprints.put(key, sha1);
+		return sha1;
+	}
+
+	/**
+	 * Records the library files that were copied, unmodified, into the given archive as nested
+	 * jars. Must be called after the archive has been written.
+	 *
+	 * @param archive The archive.
+	 * @param libraries The source library files, by the (file) name of the nested jar entry
+	 *            they were copied to.
+	 */
+	public void addLibraries(File archive, Map<String, File> libraries) {
+		Map<String, Key> sources = new HashMap<>();
+		for (Entry<String, File> library : libraries.entrySet()) {
+			if (library.getValue().isFile()) {
+				sources.put(library.getKey(), new Key(library.getValue(), null));
+			}
+		}
+		librarySources.put(new Key(archive, null), sources);
+	}
+
+	/**
+	 * @return Number of fingerprints that were found in the cache.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return Number of fingerprints of cacheable entries that had to be computed.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public void clear() {
+		fingerprints.invalidateAll();
+		librarySources.invalidateAll();
+		hits.set(0);
+		misses.set(0);
+	}
+
+	private Key getKey(File archive, ZipEntry entry) {
+		Map<String, Key> sources = librarySources.getIfPresent(new Key(archive, null));
+		if (sources!=null) {
+			String name = entry.getName();
+			Key source = sources.get(name.substring(name.lastIndexOf('/')+1));
+			if (source!=null && source.size==entry.getSize()) {
+				return source;
+			}
+		}
+		return new Key(archive, entry.getName());
+	}
+
+	private static boolean isCacheable(File archive, ZipEntry entry) {
+		return !entry.isDirectory()
+				&& entry.getName().endsWith(".jar")
+				&& archive.isFile()
+				&& archive.lastModified()!=0;
+	}
+
+	private static byte[] computeSha1Digest(ZipFile zip, ZipEntry entry) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		try (InputStream in = zip.getInputStream(entry)) {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer))>=0) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		return digest.digest();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,10 +11,14 @@
 package org.springframework.ide.eclipse.boot.dash.cloudfoundry.ops;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.ApplicationDetailsCache;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.CloudFoundryBootDashModel;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplication;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.CFApplicationDetail;
@@ -28,7 +32,9 @@ import reactor.core.publisher.Flux;
  * <p/>
  * This will indirectly refresh the application running state as the running
  * state of an app is resolved from the number of running instances
- *
+ * <p/>
+ * Only apps that changed since the last refresh are looked up. The details of
+ * other apps are taken from the model's {@link ApplicationDetailsCache}.
  */
 public class AppInstancesRefreshOperation extends CloudOperation {
 
@@ -43,10 +49,27 @@ public class AppInstancesRefreshOperation extends CloudOperation {
 	protected void doCloudOp(IProgressMonitor monitor) throws Exception {
 		this.model.setBaseRefreshState(RefreshState.loading("Fetching App Instances..."));
 		try {
-			if (!appsToLookUp.isEmpty()) {
+			ApplicationDetailsCache cache = model.getApplicationDetailsCache();
+			cache.retainAll(appsToLookUp);
+			Map<String, CFApplication> changedApps = new LinkedHashMap<>();
+			for (CFApplication app : appsToLookUp) {
+				CFApplicationDetail cached = cache.get(app);
+				if (cached!=null) {
+					model.updateApplication(cached);
+				} else {
+					changedApps.put(app.getName(), app);
+				}
+			}
+			if (!changedApps.isEmpty()) {
 				Duration timeToWait = Duration.ofSeconds(30);
-				model.getRunTarget().getClient().getApplicationDetails(appsToLookUp)
-				.doOnNext(this.model::updateApplication)
+				model.getRunTarget().getClient().getApplicationDetails(new ArrayList<>(changedApps.values()))
+				.doOnNext((CFApplicationDetail details) -> {
+					CFApplication summary = changedApps.get(details.getName());
+					if (summary!=null) {
+						cache.put(summary, details);
+					}
+					model.updateApplication(details);
+				})
 				.then()
 				.block(timeToWait);
 			}
@@ -13,6 +13,8 @@ package org.springframework.ide.eclipse.boot.dash.cloudfoundry.packaging;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
@@ -35,6 +37,7 @@ import org.springframework.boot.loader.tools.Repackager;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.ApplicationManifestHandler;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.CloudFoundryUiUtil;
 import org.springframework.ide.eclipse.boot.dash.cloudfoundry.JavaPackageFragmentRootHandler;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.v1.ResourceFingerprintCache;
 import org.springsource.ide.eclipse.commons.livexp.util.ExceptionUtil;
 
 public class CloudApplicationArchiver implements ICloudApplicationArchiver {
@@ -111,6 +114,7 @@ public class CloudApplicationArchiver implements ICloudApplicationArchiver {
 	}
 
 	protected void bootRepackage(final IPackageFragmentRoot[] roots, File packagedFile) throws Exception {
+		final Map<String, File> libraries = new HashMap<>();
 		Repackager bootRepackager = new Repackager(packagedFile);
 		bootRepackager.repackage(new Libraries() {
 
@@ -122,11 +126,14 @@ public class CloudApplicationArchiver implements ICloudApplicationArchiver {
 						File rootFile = new File(root.getPath().toOSString());
 						if (rootFile.exists()) {
 							callBack.library(new Library(rootFile, LibraryScope.COMPILE));
+							libraries.put(rootFile.getName(), rootFile);
 						}
 					}
 				}
 			}
 		});
+		// lets the fingerprints of unchanged libraries be reused for the next push
+		ResourceFingerprintCache.getDefault().addLibraries(packagedFile, libraries);
 	}
 
 	protected JarPackageData getJarPackageData(IPackageFragmentRoot[] roots, IType mainType, IProgressMonitor monitor)
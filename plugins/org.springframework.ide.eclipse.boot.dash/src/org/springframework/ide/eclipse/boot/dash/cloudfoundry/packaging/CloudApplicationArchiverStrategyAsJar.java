@@ -15,8 +15,10 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.resources.IContainer;
@@ -36,6 +38,7 @@ import org.springframework.boot.loader.tools.LibraryScope;
 import org.springframework.boot.loader.tools.Repackager;
 import org.springframework.ide.eclipse.boot.core.ISpringBootProject;
 import org.springframework.ide.eclipse.boot.core.SpringBootCore;
+import org.springframework.ide.eclipse.boot.dash.cloudfoundry.client.v1.ResourceFingerprintCache;
 import org.springframework.ide.eclipse.boot.dash.model.UserInteractions;
 import org.springframework.ide.eclipse.boot.launch.BootLaunchConfigurationDelegate;
 import org.springframework.ide.eclipse.boot.util.FileUtil;
@@ -211,17 +214,25 @@ public class CloudApplicationArchiverStrategyAsJar implements CloudApplicationAr
 		}
 
 		private void repackage(File baseJar, List<File> dependencies, File repackagedJar) throws IOException {
+			Map<String, File> libraries = new HashMap<>();
 			Repackager repackager = new Repackager(baseJar);
 			repackager.setMainClass(mainType.getFullyQualifiedName());
-			repackager.repackage(repackagedJar, asLibraries(dependencies));
+			repackager.repackage(repackagedJar, asLibraries(dependencies, libraries));
+			// lets the fingerprints of unchanged library jars be reused for the next push
+			ResourceFingerprintCache.getDefault().addLibraries(repackagedJar, libraries);
 		}
 
-		private Libraries asLibraries(final List<File> dependencies) {
+		/**
+		 * @param libraries Receives the library jars copied as is into the archive, by their name in the archive.
+		 */
+		private Libraries asLibraries(final List<File> dependencies, final Map<String, File> libraries) {
 			return new Libraries() {
 				public void doWithLibraries(LibraryCallback callback) throws IOException {
 					for (File dep : dependencies) {
 						if (dep.isFile()) {
-							callback.library(new Library(jarNames.createName(dep), dep, LibraryScope.COMPILE, false));
+							String jarName = jarNames.createName(dep);
+							callback.library(new Library(jarName, dep, LibraryScope.COMPILE, false));
+							libraries.put(jarName, dep);
 						} else if (dep.isDirectory()) {
 							String jarName = jarNames.createName(dep);
 							File jarFile = new File(getTempFolder(), jarName);
@@ -11,6 +11,7 @@
 package org.springframework.ide.eclipse.boot.dash.livexp;
 
 import java.time.Duration;
+import java.util.Objects;
 
 import javax.inject.Provider;
 
@@ -18,6 +19,7 @@ import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.springframework.ide.eclipse.boot.dash.util.ExponentialBackoff;
 import org.springsource.ide.eclipse.commons.livexp.core.LiveExpression;
 
 /**
@@ -25,6 +27,9 @@ import org.springsource.ide.eclipse.commons.livexp.core.LiveExpression;
  * <p>
  * The expression, when created, starts out in a 'sleeping' state. It will not start refreshing/computing
  * its value until methods like 'refreshOnce', 'refreshFor' or 'refreshForever' are called.
+ * <p>
+ * Optionally, the interval between refreshes can {@link #backoff(Duration)} while the value
+ * isn't changing.
  *
  * @author Kris De Volder
  */
@@ -39,6 +44,14 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 	 */
 	private long sleepBetweenRefreshes = 500;
 
+	/**
+	 * Upper limit for the time in ms to 'sleep' between refreshes, when backing off.
+	 * A value <= sleepBetweenRefreshes disables backing off.
+	 */
+	private long maxSleepBetweenRefreshes = 0;
+
+	private ExponentialBackoff backoff = null;
+
 	private Provider<Boolean> continueRefreshing = STOP_REFRESHING;
 
 	/**
@@ -49,13 +62,24 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 		return this;
 	}
 
+	/**
+	 * Double the time between refreshes, up to the given maximum, every time a refresh
+	 * leaves the value unchanged. When the value changes, or when refreshing is
+	 * (re)started, refreshes become frequent again.
+	 */
+	public PollingLiveExp<T> backoff(Duration maxSleepBetweenRefreshes) {
+		this.maxSleepBetweenRefreshes = maxSleepBetweenRefreshes.toMillis();
+		return this;
+	}
+
 	private Job createRefreshJob() {
 		Job job = new Job("Refresh PollingLiveExp") {
 			@Override
 			protected IStatus run(IProgressMonitor monitor) {
+				T oldValue = getValue();
 				refresh();
 				if (continueRefreshing.get()) {
-					this.schedule(sleepBetweenRefreshes);
+					this.schedule(nextSleep(oldValue));
 				}
 				return Status.OK_STATUS;
 			}
@@ -64,6 +88,25 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 		return job;
 	}
 
+	private long nextSleep(T oldValue) {
+		ExponentialBackoff backoff = this.backoff;
+		if (backoff==null) {
+			return sleepBetweenRefreshes;
+		}
+		if (!Objects.equals(oldValue, getValue())) {
+			backoff.reset();
+		}
+		return backoff.next();
+	}
+
+	private void startRefreshing(Job job, Provider<Boolean> continueRefreshing) {
+		this.backoff = maxSleepBetweenRefreshes > sleepBetweenRefreshes
+				? new ExponentialBackoff(Duration.ofMillis(sleepBetweenRefreshes), Duration.ofMillis(maxSleepBetweenRefreshes))
+				: null;
+		this.continueRefreshing = continueRefreshing;
+		job.schedule();
+	}
+
 	@Override
 	public void refresh() {
 		if (continueRefreshing.get()) {
@@ -85,8 +128,7 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 		Job job = refreshJob;
 		if (job!=null) {
 			long stopRefrestingAfter = System.currentTimeMillis() + duration.toMillis();
-			this.continueRefreshing = () -> System.currentTimeMillis() <= stopRefrestingAfter;
-			job.schedule();
+			startRefreshing(job, () -> System.currentTimeMillis() <= stopRefrestingAfter);
 		}
 	}
 
@@ -96,8 +138,7 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 	public PollingLiveExp<T> refreshForever() {
 		Job job = refreshJob;
 		if (job!=null) {
-			continueRefreshing = () -> true;
-			job.schedule();
+			startRefreshing(job, () -> true);
 		}
 		return this;
 	}
@@ -105,7 +146,7 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 	public PollingLiveExp<T> refreshOnce() {
 		Job job = refreshJob;
 		if (job!=null) {
-			continueRefreshing = new Provider<Boolean>() {
+			startRefreshing(job, new Provider<Boolean>() {
 
 				boolean firstTime = true;
 
@@ -117,8 +158,7 @@ public abstract class PollingLiveExp<T> extends LiveExpression<T> {
 						firstTime = false;
 					}
 				}
-			};
-			job.schedule();
+			});
 		}
 		return this;
 	}
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.dash.model;
 
+import java.io.IOException;
 import java.net.URI;
 import java.time.Duration;
 import java.util.Collection;
@@ -88,6 +89,7 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 	public static final EnumSet<RunState> READY_STATES = EnumSet.of(RunState.RUNNING, RunState.DEBUGGING);
 
 	private static final Duration REQUEST_MAPPING_REFRESH_TIMEOUT = Duration.ofMinutes(2);
+	private static final Duration REQUEST_MAPPING_MAX_REFRESH_INTERVAL = Duration.ofSeconds(8);
 
 	private LiveExpression<RunState> runState;
 	private LiveExpression<Integer> livePort;
@@ -500,7 +502,7 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 		synchronized (this) {
 			if (liveRequestMappings==null) {
 				ActuatorClient client = getActuatorClient();
-				liveRequestMappings = PollingLiveExp.create(client::getRequestMappings);
+				liveRequestMappings = PollingLiveExp.create(client::getRequestMappings).backoff(REQUEST_MAPPING_MAX_REFRESH_INTERVAL);
 				addElementState(liveRequestMappings);
 				addDisposableChild(liveRequestMappings);
 				runState.addListener((e, runstate) -> {
@@ -564,9 +566,15 @@ public abstract class AbstractLaunchConfigurationsDashElement<T> extends Wrappin
 										return port;
 									});
 								}
+							} catch (IOException e) {
+								debug(ExceptionUtil.getMessage(e));
+								//the connection is broken, so re-establish it for all its users
+								if (cm!=null) {
+									cm.invalidateClient();
+								}
 							} catch (Exception e) {
 								debug(ExceptionUtil.getMessage(e));
-								//most likely this just means the app isn't running so ignore
+								//most likely this just means the app isn't running or has no port (yet) so ignore
 							} finally {
 								if (cm!=null) {
 									cm.disposeClient();
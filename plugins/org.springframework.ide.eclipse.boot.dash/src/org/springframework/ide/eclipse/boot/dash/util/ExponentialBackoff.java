@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.util;
+
+import java.time.Duration;
+
+/**
+ * Computes delays between polls of some state that is expected to change
+ * eventually. Each call to {@link #next()} doubles the delay, up to a maximum.
+ * When there's reason to believe the state is about to change (e.g. it just
+ * changed, or some event hints at it) the delay can be {@link #reset()} to its
+ * minimum.
+ *
+ * @author agent
+ */
+public class ExponentialBackoff {
+
+	private final long min;
+	private final long max;
+	private long current;
+
+	public ExponentialBackoff(Duration min, Duration max) {
+		this.min = min.toMillis();
+		this.max = Math.max(this.min, max.toMillis());
+		this.current = this.min;
+	}
+
+	/**
+	 * @return The delay in milliseconds to wait before the next poll.
+	 */
+	public synchronized long next() {
+		long delay = current;
+		current = Math.min(max, current * 2);
+		return delay;
+	}
+
+	public synchronized void reset() {
+		current = min;
+	}
+
+}
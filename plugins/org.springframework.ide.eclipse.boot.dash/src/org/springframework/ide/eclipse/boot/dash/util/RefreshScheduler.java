@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.dash.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.springsource.ide.eclipse.commons.livexp.ui.Disposable;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Coalesces requests to refresh elements of a viewer. Requests can be made from any thread.
+ * They are collected for one 'tick' after the first request. Then all of them are handed
+ * to a 'flusher', as a single {@link Batch}, via an {@link Executor} (typically one that
+ * runs things on the UI thread).
+ * <p>
+ * Requests for the same element are only flushed once per batch. A request to refresh
+ * everything subsumes all element requests in the same batch.
+ *
+ * @author agent
+ */
+public class RefreshScheduler<T> implements Disposable {
+
+	public static class Batch<T> {
+		private final boolean all;
+		private final ImmutableSet<T> elements;
+
+		private Batch(boolean all, ImmutableSet<T> elements) {
+			this.all = all;
+			this.elements = elements;
+		}
+
+		/**
+		 * @return Whether everything should be refreshed. In that case {@link #getElements()} is empty.
+		 */
+		public boolean isRefreshAll() {
+			return all;
+		}
+
+		public ImmutableSet<T> getElements() {
+			return elements;
+		}
+
+		@Override
+		public String toString() {
+			return all ? "Batch(ALL)" : "Batch("+elements+")";
+		}
+	}
+
+	/**
+	 * Counts and timings of the requests and batches handled by a {@link RefreshScheduler}.
+	 */
+	public static class Metrics {
+		private long requests;
+		private long batches;
+		private long refreshAllBatches;
+		private long refreshedElements;
+		private long totalLatency;
+		private long maxLatency;
+
+		private Metrics() {}
+
+		private Metrics(Metrics other) {
+			this.requests = other.requests;
+			this.batches = other.batches;
+			this.refreshAllBatches = other.refreshAllBatches;
+			this.refreshedElements = other.refreshedElements;
+			this.totalLatency = other.totalLatency;
+			this.maxLatency = other.maxLatency;
+		}
+
+		/**
+		 * @return Number of refresh requests received.
+		 */
+		public long getRequests() {
+			return requests;
+		}
+
+		/**
+		 * @return Number of batches flushed.
+		 */
+		public long getBatches() {
+			return batches;
+		}
+
+		/**
+		 * @return Number of flushed batches that refreshed everything.
+		 */
+		public long getRefreshAllBatches() {
+			return refreshAllBatches;
+		}
+
+		/**
+		 * @return Number of individual element refreshes flushed.
+		 */
+		public long getRefreshedElements() {
+			return refreshedElements;
+		}
+
+		/**
+		 * @return Average time in ms between the first request of a batch and its flush.
+		 */
+		public long getAverageLatency() {
+			return batches==0 ? 0 : totalLatency / batches;
+		}
+
+		/**
+		 * @return Longest time in ms between the first request of a batch and its flush.
+		 */
+		public long getMaxLatency() {
+			return maxLatency;
+		}
+
+		@Override
+		public String toString() {
+			return "RefreshScheduler.Metrics(requests="+requests+", batches="+batches+", refreshAll="+refreshAllBatches
+					+", elements="+refreshedElements+", avgLatency="+getAverageLatency()+"ms, maxLatency="+maxLatency+"ms)";
+		}
+	}
+
+	private final long tick;
+	private final Executor executor;
+	private final Consumer<Batch<T>> flusher;
+	private final Job tickJob;
+
+	//All of the below are guarded by 'this'
+	private Set<T> pending = new LinkedHashSet<>();
+	private boolean pendingAll = false;
+	private boolean scheduled = false;
+	private long firstRequestTime;
+	private boolean disposed = false;
+	private final Metrics metrics = new Metrics();
+
+	/**
+	 * @param tick Time in ms to collect requests before flushing them.
+	 * @param executor Used to run the flusher, typically on the UI thread.
+	 * @param flusher Performs the actual refreshes for a batch of requests.
+	 */
+	public RefreshScheduler(long tick, Executor executor, Consumer<Batch<T>> flusher) {
+		this.tick = tick;
+		this.executor = executor;
+		this.flusher = flusher;
+		this.tickJob = new Job("Coalesce refreshes") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				executor.execute(RefreshScheduler.this::flush);
+				return Status.OK_STATUS;
+			}
+		};
+		tickJob.setSystem(true);
+	}
+
+	public void refresh(T element) {
+		synchronized (this) {
+			metrics.requests++;
+			if (!pendingAll) {
+				pending.add(element);
+			}
+			requestFlush();
+		}
+	}
+
+	public void refreshAll() {
+		synchronized (this) {
+			metrics.requests++;
+			pendingAll = true;
+			pending.clear();
+			requestFlush();
+		}
+	}
+
+	private void requestFlush() {
+		if (!scheduled && !disposed) {
+			scheduled = true;
+			firstRequestTime = System.currentTimeMillis();
+			tickJob.schedule(tick);
+		}
+	}
+
+	private void flush() {
+		Batch<T> batch;
+		synchronized (this) {
+			if (disposed) {
+				return;
+			}
+			batch = new Batch<>(pendingAll, ImmutableSet.copyOf(pending));
+			pending = new LinkedHashSet<>();
+			pendingAll = false;
+			scheduled = false;
+
+			long latency = System.currentTimeMillis() - firstRequestTime;
+			metrics.batches++;
+			if (batch.isRefreshAll()) {
+				metrics.refreshAllBatches++;
+			}
+			metrics.refreshedElements += batch.getElements().size();
+			metrics.totalLatency += latency;
+			metrics.maxLatency = Math.max(metrics.maxLatency, latency);
+		}
+		flusher.accept(batch);
+	}
+
+	/**
+	 * @return A snapshot of the metrics collected so far.
+	 */
+	public synchronized Metrics getMetrics() {
+		return new Metrics(metrics);
+	}
+
+	@Override
+	public void dispose() {
+		synchronized (this) {
+			disposed = true;
+			pending.clear();
+		}
+		tickJob.cancel();
+	}
+
+}
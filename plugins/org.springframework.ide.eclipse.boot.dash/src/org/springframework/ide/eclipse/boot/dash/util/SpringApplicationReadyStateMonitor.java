@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 GoPivotal, Inc.
+ * Copyright (c) 2015, 2017 GoPivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,11 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.dash.util;
 
+import java.time.Duration;
+
 import javax.inject.Provider;
+import javax.management.MBeanServerConnection;
+import javax.management.NotificationListener;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -23,10 +27,14 @@ import org.springsource.ide.eclipse.commons.livexp.core.LiveVariable;
 
 /**
  * An instance of this class starts checking a spring application's lifecyle using
- * a JMX bean protocol. Checks are performed repeatedly with a short delay between
- * polls. This continues until either the  SpringApplicationReadyStateMonitor is disposed,
+ * a JMX bean protocol. Checks are performed repeatedly with an exponentially growing delay
+ * between polls. This continues until either the  SpringApplicationReadyStateMonitor is disposed,
  * or the application enters the 'ready' state.
  * <p>
+ * Spring's lifecycle mbean doesn't send notifications when the application becomes ready.
+ * However, an application registers most of its mbeans towards the end of its startup. So
+ * we listen for mbean registrations and check again promptly whenever one happens.
+ * <p>
  * When the application reaches ready state then its 'ready' LiveExp will change value from
  * false to true. Clients who wish to respond to this 'event' can attach a listener to
  * the livexp.
@@ -38,7 +46,9 @@ public class SpringApplicationReadyStateMonitor implements ReadyStateMonitor {
 	//////////////////////////////////////////////////////////////////////////
 	// public API
 
-	public static final long POLLING_INTERVAL = 500/*ms*/;
+	public static final long POLLING_INTERVAL = 250/*ms*/;
+	public static final long MAX_POLLING_INTERVAL = 2000/*ms*/;
+
 	private SpringApplicationLifeCycleClientManager clientManager;
 
 	public SpringApplicationReadyStateMonitor(Provider<Integer> jmxPort) {
@@ -49,9 +59,10 @@ public class SpringApplicationReadyStateMonitor implements ReadyStateMonitor {
 				if (r!=null) { //null means disposed. Job may be lagging behind
 					r.setValue(checkReady());
 					if (!r.getValue()) {
-						this.schedule(POLLING_INTERVAL);
+						this.schedule(backoff.next());
 					} else {
 						// don't reschedule
+						stopListening();
 					}
 				}
 				return Status.OK_STATUS;
@@ -66,6 +77,7 @@ public class SpringApplicationReadyStateMonitor implements ReadyStateMonitor {
 	}
 
 	public void dispose() {
+		stopListening();
 		clientManager.disposeClient();
 		if (job!=null) {
 			job.cancel();
@@ -80,19 +92,69 @@ public class SpringApplicationReadyStateMonitor implements ReadyStateMonitor {
 
 	private Job job;
 	private LiveVariable<Boolean> ready = new LiveVariable<>(false);
+	private final ExponentialBackoff backoff = new ExponentialBackoff(Duration.ofMillis(POLLING_INTERVAL), Duration.ofMillis(MAX_POLLING_INTERVAL));
+
+	/**
+	 * The client we tried to register {@link #registrationListener} with, or null.
+	 */
+	private SpringApplicationLifecycleClient listeningClient;
+	/**
+	 * The connection of {@link #listeningClient}. New clients may share it, as connections are pooled.
+	 */
+	private MBeanServerConnection listeningConnection;
+	private boolean listening = false;
+
+	private final NotificationListener registrationListener = (notification, handback) -> {
+		backoff.reset();
+		Job job = this.job;
+		if (job!=null) {
+			//Has no effect if the job is running. But then it will be rescheduled with the reset delay.
+			job.wakeUp();
+		}
+	};
 
 	private boolean checkReady() {
 		try {
 			SpringApplicationLifecycleClient client = clientManager.getLifeCycleClient();
 			if (client!=null) {
+				startListening(client);
 				return client.isReady();
 			}
 		} catch (Exception e) {
 			//Something went wrong asking client for ready state.
 			// most likely process died.
-			clientManager.disposeClient();
+			clientManager.invalidateClient();
 		}
 		return false;
 	}
 
+	private synchronized void startListening(SpringApplicationLifecycleClient client) {
+		if (listeningConnection!=client.getConnection()) {
+			//A new connection. Remove the listener from the old one, in case it is still alive.
+			stopListening();
+			listeningClient = client;
+			listeningConnection = client.getConnection();
+			try {
+				client.addMBeanRegistrationListener(registrationListener);
+				listening = true;
+			} catch (Exception e) {
+				//No notifications. We'll still notice readiness by polling.
+				listening = false;
+			}
+		}
+	}
+
+	private synchronized void stopListening() {
+		if (listening) {
+			try {
+				listeningClient.removeMBeanRegistrationListener(registrationListener);
+			} catch (Exception e) {
+				//ignore: most likely the connection is already gone
+			}
+			listening = false;
+		}
+		listeningClient = null;
+		listeningConnection = null;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -71,6 +71,7 @@ import org.springframework.ide.eclipse.boot.dash.model.ModifiableModel;
 import org.springframework.ide.eclipse.boot.dash.model.RunTarget;
 import org.springframework.ide.eclipse.boot.dash.model.UserInteractions;
 import org.springframework.ide.eclipse.boot.dash.util.HiddenElementsLabel;
+import org.springframework.ide.eclipse.boot.dash.util.RefreshScheduler;
 import org.springframework.ide.eclipse.boot.dash.views.AbstractBootDashAction;
 import org.springframework.ide.eclipse.boot.dash.views.AddRunTargetAction;
 import org.springframework.ide.eclipse.boot.dash.views.BootDashActions;
@@ -113,7 +114,13 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 
 	protected static final Object[] NO_OBJECTS = new Object[0];
 
+	/**
+	 * Time in ms during which refresh requests are collected into a single viewer update.
+	 */
+	private static final long REFRESH_TICK = 50;
+
 	private CustomTreeViewer tv;
+	private RefreshScheduler<BootDashElement> refreshScheduler;
 	private BootDashViewModel model;
 	private MultiSelection<Object> mixedSelection; // selection that may contain section or element nodes or both.
 	private MultiSelection<BootDashElement> selection;
@@ -164,42 +171,24 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 
 	final private ElementStateListener ELEMENT_STATE_LISTENER = new ElementStateListener() {
 		public void stateChanged(final BootDashElement e) {
-			Display.getDefault().asyncExec(new Runnable() {
-				public void run() {
-					if (tv != null && !tv.getControl().isDisposed()) {
-						//tv.update(e, null);
-						tv.refresh(e, true);
-					}
-				}
-			});
+			refreshScheduler.refresh(e);
 		}
 	};
 
 	final private ModelStateListener MODEL_STATE_LISTENER = new ModelStateListener() {
 		public void stateChanged(final BootDashModel model) {
-			Display.getDefault().asyncExec(new Runnable() {
-				public void run() {
-					if (tv != null && !tv.getControl().isDisposed()) {
-						tv.refresh();
-						/*
-						 * TODO: ideally the above should do the repaint of
-						 * the control's area where the tree item is
-						 * located, but for some reason repaint doesn't
-						 * happen. #refresh() didn't trigger the repaint either
-						 */
-						tv.getControl().redraw();
-					} else {
-						model.removeModelStateListener(MODEL_STATE_LISTENER);
-					}
-				}
-			});
+			if (tv != null && !tv.getControl().isDisposed()) {
+				refreshScheduler.refreshAll();
+			} else {
+				model.removeModelStateListener(MODEL_STATE_LISTENER);
+			}
 		}
 	};
 
 	final private ValueListener<ImmutableSet<RunTarget>> RUN_TARGET_LISTENER = new UIValueListener<ImmutableSet<RunTarget>>() {
 		protected void uiGotValue(LiveExpression<ImmutableSet<RunTarget>> exp, ImmutableSet<RunTarget> value) {
 			if (tv != null && !tv.getControl().isDisposed()) {
-				tv.refresh();
+				refreshScheduler.refreshAll();
 			}
 		}
 	};
@@ -210,7 +199,7 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 				//TODO: refreshing the whole table is overkill, but is a bit tricky to figure out which BDM
 				// this set of elements belong to. If we did know then we could just refresh the node representing its section
 				// only.
-				tv.refresh();
+				refreshScheduler.refreshAll();
 			} else {
 				//This listener can't easily be removed because of the intermediary adapter that adds it to a numner of different
 				// things. So at least remove it when model remains chatty after view got disposed.
@@ -285,6 +274,9 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 		tv.setInput(model);
 		tv.getTree().setLinesVisible(false);
 
+		Display display = tv.getControl().getDisplay();
+		refreshScheduler = new RefreshScheduler<>(REFRESH_TICK, display::asyncExec, this::flushRefreshes);
+
 		stylers = new Stylers(tv.getTree().getFont());
 		tv.setLabelProvider(new BootDashTreeLabelProvider(stylers, tv));
 
@@ -355,6 +347,7 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 			@Override
 			public void widgetDisposed(DisposeEvent e) {
 				model.removeElementStateListener(ELEMENT_STATE_LISTENER);
+				refreshScheduler.dispose();
 				model.getRunTargets().removeListener(RUN_TARGET_LISTENER);
 				model.getSectionModels().removeListener(ELEMENTS_SET_LISTENER_ADAPTER);
 				for (BootDashModel m : model.getSectionModels().getValue()) {
@@ -380,6 +373,46 @@ public class BootDashUnifiedTreeSection extends PageSection implements MultiSele
 		addDropSupport(tv);
 	}
 
+	/**
+	 * Performs a batch of coalesced refresh requests as a single update of the viewer.
+	 */
+	private void flushRefreshes(RefreshScheduler.Batch<BootDashElement> batch) {
+		if (tv != null && !tv.getControl().isDisposed()) {
+			Tree tree = tv.getTree();
+			tree.setRedraw(false);
+			try {
+				if (batch.isRefreshAll()) {
+					tv.refresh();
+				} else {
+					for (BootDashElement e : batch.getElements()) {
+						tv.refresh(e, true);
+					}
+				}
+			} finally {
+				tree.setRedraw(true);
+			}
+			if (batch.isRefreshAll()) {
+				/*
+				 * TODO: ideally the above should do the repaint of
+				 * the control's area where the tree item is
+				 * located, but for some reason repaint doesn't
+				 * happen. #refresh() didn't trigger the repaint either
+				 */
+				tree.redraw();
+			}
+			if (DEBUG) {
+				System.out.println(refreshScheduler.getMetrics());
+			}
+		}
+	}
+
+	/**
+	 * @return Counts and latencies of the viewer refreshes done so far.
+	 */
+	public RefreshScheduler.Metrics getRefreshMetrics() {
+		return refreshScheduler==null ? null : refreshScheduler.getMetrics();
+	}
+
 	private LiveExpression<BootDashModel> getSectionSelection() {
 		if (sectionSelection==null) {
 			sectionSelection = getMixedSelection().toSingleSelection().filter(BootDashModel.class);
@@ -20,7 +20,8 @@ import org.junit.runners.Suite.SuiteClasses;
 	ProfileHistoryTest.class,
 	BootLaunchConfigurationDelegateTest.class,
 	BootLaunchShortcutTest.class,
-	BootGroovyScriptLaunchConfigurationDelegateTest.class
+	BootGroovyScriptLaunchConfigurationDelegateTest.class,
+	JMXConnectionPoolTest.class
 })
 public class AllBootLaunchTests {
 
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.launch.test;
+
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorServer;
+import javax.management.remote.JMXConnectorServerFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.springframework.ide.eclipse.boot.launch.util.JMXClient;
+import org.springframework.ide.eclipse.boot.launch.util.JMXConnectionPool;
+
+import junit.framework.TestCase;
+
+/**
+ * @author agent
+ */
+public class JMXConnectionPoolTest extends TestCase {
+
+	private int port;
+	private Registry registry;
+	private JMXConnectorServer server;
+	private JMXConnectionPool pool;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		registry = LocateRegistry.createRegistry(port);
+		JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://127.0.0.1:" + port + "/jmxrmi");
+		server = JMXConnectorServerFactory.newJMXConnectorServer(url, null, ManagementFactory.getPlatformMBeanServer());
+		server.start();
+		pool = new JMXConnectionPool();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		server.stop();
+		UnicastRemoteObject.unexportObject(registry, true);
+		super.tearDown();
+	}
+
+	public void testConnectionIsShared() throws Exception {
+		JMXConnectionPool.Handle h1 = pool.acquire(port);
+		JMXConnectionPool.Handle h2 = pool.acquire(port);
+		assertEquals(0, pool.getConnectCount()); //lazy
+
+		assertNotNull(h1.getConnection().getMBeanCount());
+		assertNotNull(h2.getConnection().getMBeanCount());
+		assertSame(h1.getConnector(), h2.getConnector());
+		assertEquals(1, pool.getConnectCount());
+		assertEquals(1, pool.size());
+
+		h1.dispose();
+		assertEquals(1, pool.size());
+		assertNotNull(h2.getConnection().getMBeanCount());
+		h2.dispose();
+		assertEquals(0, pool.size());
+		assertEquals(1, pool.getConnectCount());
+	}
+
+	public void testInvalidateReconnects() throws Exception {
+		JMXConnectionPool.Handle h1 = pool.acquire(port);
+		JMXConnectionPool.Handle h2 = pool.acquire(port);
+		JMXConnector broken = h1.getConnector();
+
+		h1.invalidate(broken);
+		JMXConnector fresh = h2.getConnector();
+		assertNotSame(broken, fresh);
+		assertEquals(2, pool.getConnectCount());
+
+		//Reporting the old connector again must not close the new one
+		h2.invalidate(broken);
+		assertSame(fresh, h1.getConnector());
+		assertNotNull(h1.getConnection().getMBeanCount());
+
+		h1.dispose();
+		h2.dispose();
+	}
+
+	public void testCloseOnTermination() throws Exception {
+		JMXConnectionPool.Handle h = pool.acquire(port);
+		JMXConnector first = h.getConnector();
+		pool.close(port);
+		assertNotSame(first, h.getConnector());
+		assertEquals(2, pool.getConnectCount());
+		h.dispose();
+	}
+
+	public void testDisposedHandle() throws Exception {
+		JMXConnectionPool.Handle h = pool.acquire(port);
+		h.dispose();
+		h.dispose(); //harmless
+		try {
+			h.getConnector();
+			fail("Should have thrown");
+		} catch (IllegalStateException e) {
+			//expected
+		}
+		assertEquals(0, pool.size());
+	}
+
+	public void testNoProcess() throws Exception {
+		int deadPort;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			deadPort = socket.getLocalPort();
+		}
+		JMXConnectionPool.Handle h = pool.acquire(deadPort);
+		try {
+			h.getConnection();
+			fail("Should have thrown");
+		} catch (Exception e) {
+			//expected
+		}
+		h.dispose();
+		assertEquals(0, pool.size());
+	}
+
+	public void testJMXClient() throws Exception {
+		JMXClient client = new JMXClient(port, "java.lang:type=Runtime");
+		assertEquals(ManagementFactory.getRuntimeMXBean().getName(), client.getAttribute(String.class, "Name"));
+		client.dispose();
+	}
+
+}
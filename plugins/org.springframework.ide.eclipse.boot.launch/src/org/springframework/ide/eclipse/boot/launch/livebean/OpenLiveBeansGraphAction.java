@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Pivotal Software, Inc.
+ * Copyright (c) 2014, 2017 Pivotal Software, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,13 +10,22 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.launch.livebean;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.remote.JMXConnector;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
@@ -25,15 +34,18 @@ import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IViewPart;
 import org.eclipse.ui.PlatformUI;
 import org.springframework.ide.eclipse.beans.ui.livegraph.model.LiveBeansModel;
 import org.springframework.ide.eclipse.beans.ui.livegraph.model.LiveBeansModelGenerator;
+import org.springframework.ide.eclipse.beans.ui.livegraph.model.LiveBeansSession;
 import org.springframework.ide.eclipse.beans.ui.livegraph.views.LiveBeansGraphView;
 import org.springframework.ide.eclipse.boot.core.BootActivator;
 import org.springframework.ide.eclipse.boot.core.BootPropertyTester;
 import org.springframework.ide.eclipse.boot.launch.BootLaunchConfigurationDelegate;
 import org.springframework.ide.eclipse.boot.launch.livebean.JmxBeanSupport.Feature;
+import org.springframework.ide.eclipse.boot.launch.util.JMXConnectionPool;
 import org.springsource.ide.eclipse.commons.frameworks.ui.internal.actions.AbstractActionDelegate;
 import org.springsource.ide.eclipse.commons.livexp.util.ExceptionUtil;
 import org.springsource.ide.eclipse.commons.ui.launch.LaunchUtils;
@@ -42,6 +54,11 @@ public class OpenLiveBeansGraphAction extends AbstractActionDelegate {
 
 	private static final String HOST = "127.0.0.1";
 
+	/**
+	 * Seconds to wait for the JMX connection and model fetch before giving up.
+	 */
+	private static final long CONNECT_TIMEOUT = 30;
+
 	@Override
 	public void selectionChanged(IAction action, ISelection sel) {
 		super.selectionChanged(action, sel);
@@ -73,40 +90,119 @@ public class OpenLiveBeansGraphAction extends AbstractActionDelegate {
 
 	/**
 	 * Tries to open live beans view and connect it to a running process associated with the
-	 * project.
+	 * project. The JMX connection and model fetch are done in a background job, so a slow or
+	 * hung process doesn't block the UI.
 	 */
-	private void connectToProject(IProject project) {
+	private void connectToProject(final IProject project) {
 		try {
-			String serviceUrl = getServiceUrl(project);
-			if (serviceUrl==null) {
-				throw ExceptionUtil.coreException("Didn't find a JMX-enabled process for project '"+project.getName()+"'\n"+
-						"To open the livebeans graph a process must be run with the following or similar VM arguments:\n\n"
-						+ JmxBeanSupport.jmxBeanVmArgs("${jmxPort}", EnumSet.of(Feature.LIVE_BEAN_GRAPH))
-				);
+			final int jmxPort = getJMXPort(project);
+			final String serviceUrl = "service:jmx:rmi:///jndi/rmi://" + HOST + ":" + jmxPort + "/jmxrmi";
+			Job job = new Job("Opening Live Beans Graph") {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					try {
+						final LiveBeansModel model = fetchModel(project, jmxPort, serviceUrl);
+						Display.getDefault().asyncExec(new Runnable() {
+							public void run() {
+								showModel(model);
+							}
+						});
+					} catch (Exception e) {
+						showError(e);
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			job.schedule();
+		}
+		catch (Exception e) {
+			BootActivator.log(e);
+			MessageDialog.openError(getShell(), "Error", ExceptionUtil.getMessage(e)+"\n\n"
+					+ "Check the error log for more details");
+		}
+	}
+
+	/**
+	 * Fetches the live beans model over the process' shared JMX connection. The network operations
+	 * are done in a separate job so that they can be given up on after {@link #CONNECT_TIMEOUT}
+	 * seconds. That job releases the connection when it is done, even if it was given up on.
+	 */
+	private LiveBeansModel fetchModel(final IProject project, final int jmxPort, final String serviceUrl) throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final LiveBeansModel[] result = new LiveBeansModel[1];
+		final Exception[] error = new Exception[1];
+
+		Job jmxOperation = new Job("Fetching Live Beans Model") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				//Use the process' shared connection rather than opening one just for this.
+				JMXConnectionPool.Handle connection = JMXConnectionPool.getDefault().acquire(jmxPort);
+				JMXConnector connector = null;
+				try {
+					connector = connection.getConnector();
+					LiveBeansSession session = new LiveBeansSession(serviceUrl, /*username*/null, /*password*/null, /*appName*/"", project);
+					result[0] = LiveBeansModelGenerator.connectToModel(connector, session);
+				} catch (IOException e) {
+					connection.invalidate();
+					error[0] = e;
+				} catch (CoreException e) {
+					if (connector!=null && e.getCause() instanceof IOException) {
+						connection.invalidate(connector);
+					}
+					error[0] = e;
+				} catch (Exception e) {
+					error[0] = e;
+				} finally {
+					connection.dispose();
+					latch.countDown();
+				}
+				return Status.OK_STATUS;
 			}
+		};
+		jmxOperation.setSystem(true);
+		jmxOperation.schedule();
+
+		if (!latch.await(CONNECT_TIMEOUT, TimeUnit.SECONDS)) {
+			throw ExceptionUtil.coreException("Timed out connecting to the process of project '"+project.getName()+"' on JMX port "+jmxPort);
+		}
+		if (error[0]!=null) {
+			throw error[0];
+		}
+		return result[0];
+	}
 
-			LiveBeansModel model = LiveBeansModelGenerator.connectToModel(serviceUrl, /*username*/null, /*password*/null, /*appName*/"", project);
+	private void showModel(LiveBeansModel model) {
+		try {
 			IViewPart part = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage()
 					.showView(LiveBeansGraphView.VIEW_ID);
 			if (part instanceof LiveBeansGraphView) {
 				((LiveBeansGraphView) part).setInput(model);
 			}
-		}
-		catch (Exception e) {
+		} catch (Exception e) {
 			BootActivator.log(e);
 			MessageDialog.openError(getShell(), "Error", ExceptionUtil.getMessage(e)+"\n\n"
 					+ "Check the error log for more details");
 		}
 	}
 
+	private void showError(final Exception e) {
+		BootActivator.log(e);
+		Display.getDefault().asyncExec(new Runnable() {
+			public void run() {
+				MessageDialog.openError(getShell(), "Error", ExceptionUtil.getMessage(e)+"\n\n"
+						+ "Check the error log for more details");
+			}
+		});
+	}
+
 	/**
-	 * Determine JMX service url to be used to connect live bean graph on a running JMX-enabled process
+	 * Determine JMX port to be used to connect live bean graph on a running JMX-enabled process
 	 * associated with given project.
 	 *
-	 * @return url never null
-	 * @throws CoreException with an explanation error message if url can not be determined.
+	 * @return a valid port
+	 * @throws CoreException with an explanation error message if the port can not be determined.
 	 */
-	private String getServiceUrl(IProject project) throws CoreException {
+	private int getJMXPort(IProject project) throws CoreException {
 		//The service url is derived from the jmxport property of an active launch associated
 		// with the property. Therefore, we look for a launch that is associated with project
 		// and sets the corresponding system property as one of its VMArguments.
@@ -122,7 +218,7 @@ public class OpenLiveBeansGraphAction extends AbstractActionDelegate {
 
 					if (jmxPortProp>0) {
 						//Looks like JMX is enabled.
-						return "service:jmx:rmi:///jndi/rmi://" + HOST + ":" + jmxPortProp + "/jmxrmi";
+						return jmxPortProp;
 					}
 				}
 			}
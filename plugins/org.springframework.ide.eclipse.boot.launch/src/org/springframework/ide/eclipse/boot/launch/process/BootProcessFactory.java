@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,6 +23,7 @@ import org.eclipse.debug.core.model.IStreamsProxy;
 import org.eclipse.debug.core.model.RuntimeProcess;
 import org.springframework.ide.eclipse.boot.core.BootActivator;
 import org.springframework.ide.eclipse.boot.launch.BootLaunchConfigurationDelegate;
+import org.springframework.ide.eclipse.boot.launch.util.JMXConnectionPool;
 import org.springframework.ide.eclipse.boot.launch.util.SpringApplicationLifeCycleClientManager;
 import org.springframework.ide.eclipse.boot.launch.util.SpringApplicationLifecycleClient;
 import org.springframework.ide.eclipse.boot.util.DumpOutput;
@@ -68,6 +69,15 @@ public class BootProcessFactory implements IProcessFactory {
 				}
 			}
 
+			@Override
+			protected void terminated() {
+				super.terminated();
+				if (jmxPort>0) {
+					//Nothing left to talk to, close connections shared by the process' clients.
+					JMXConnectionPool.getDefault().close(jmxPort);
+				}
+			}
+
 			@Override
 			protected IStreamsProxy createStreamsProxy() {
 				IStreamsProxy streams = super.createStreamsProxy();
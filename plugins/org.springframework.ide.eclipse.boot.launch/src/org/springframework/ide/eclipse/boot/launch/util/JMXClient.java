@@ -15,7 +15,6 @@ import java.io.IOException;
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanException;
-import javax.management.MBeanServerConnection;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
@@ -26,38 +25,26 @@ import javax.management.remote.JMXServiceURL;
 import org.springsource.ide.eclipse.commons.livexp.ui.Disposable;
 
 /**
- * A JMX client for interacting with specific mbean.
+ * A JMX client for interacting with specific mbean. The connection to the
+ * mbean server is shared with other clients of the same process through the
+ * {@link JMXConnectionPool}.
  *
  * @author Stephane Nicoll
  * @author Kris De Volder
  */
 public class JMXClient implements Disposable {
 
-	private JMXConnector connector;
-	private MBeanServerConnection connection;
-	private ObjectName objectName;
+	private final JMXConnectionPool.Handle connection;
+	private final ObjectName objectName;
 
-	public JMXClient(int port, String objectName) throws IOException {
-		this(createLocalJmxConnector(port), objectName);
-	}
-
-	private JMXClient(JMXConnector connector, String objectName) throws IOException {
-		this(connector, connector.getMBeanServerConnection(), objectName);
+	public JMXClient(int port, String objectName) {
+		this.objectName = toObjectName(objectName);
+		this.connection = JMXConnectionPool.getDefault().acquire(port);
 	}
 
 	@Override
 	public void dispose() {
-		try {
-			this.connector.close();
-		} catch (IOException e) {
-			//Ignore
-		}
-	}
-
-	private JMXClient(JMXConnector connector, MBeanServerConnection connection, String objectName) {
-		this.connector = connector;
-		this.connection = connection;
-		this.objectName = toObjectName(objectName);
+		connection.dispose();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -71,7 +58,13 @@ public class JMXClient implements Disposable {
 	}
 
 	public Object getAttribute(String attributeName) throws AttributeNotFoundException, InstanceNotFoundException, MBeanException, ReflectionException, IOException {
-		return this.connection.getAttribute(objectName, attributeName);
+		JMXConnector connector = connection.getConnector();
+		try {
+			return connector.getMBeanServerConnection().getAttribute(objectName, attributeName);
+		} catch (IOException e) {
+			connection.invalidate(connector);
+			throw e;
+		}
 	}
 
 	private ObjectName toObjectName(String name) {
@@ -0,0 +1,221 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.launch.util;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+
+import org.springsource.ide.eclipse.commons.livexp.ui.Disposable;
+
+/**
+ * Shares a single JMX connection per local process (i.e. per JMX port) between all
+ * its clients (lifecycle management, live ports, request mappings, live beans etc.).
+ * <p>
+ * Clients {@link #acquire(int)} a {@link Handle} and dispose it when they no longer
+ * need it. The connection itself is established lazily, the first time one of its
+ * handles asks for it. When a client finds the connection broken it
+ * {@link Handle#invalidate(JMXConnector)}s it, so that the next request
+ * reconnects. The connection is closed when the last handle is disposed
+ * or when the process terminates (see {@link #close(int)}).
+ *
+ * @author agent
+ */
+public class JMXConnectionPool {
+
+	private static final JMXConnectionPool DEFAULT = new JMXConnectionPool();
+
+	public static JMXConnectionPool getDefault() {
+		return DEFAULT;
+	}
+
+	private final Map<Integer, SharedConnection> connections = new HashMap<>();
+	private final AtomicLong connects = new AtomicLong();
+
+	/**
+	 * Obtain a handle for the connection to the process with the given jmx port. Every
+	 * handle must be disposed when no longer needed.
+	 */
+	public synchronized Handle acquire(int port) {
+		SharedConnection shared = connections.get(port);
+		if (shared==null) {
+			connections.put(port, shared = new SharedConnection(port));
+		}
+		shared.references++;
+		return new Handle(shared);
+	}
+
+	private void release(SharedConnection shared) {
+		synchronized (this) {
+			if (--shared.references>0 || connections.get(shared.port)!=shared) {
+				return;
+			}
+			connections.remove(shared.port);
+		}
+		shared.close();
+	}
+
+	/**
+	 * Close the connection to the process with the given port, typically because the
+	 * process has terminated. Existing handles remain usable but will have to reconnect.
+	 */
+	public void close(int port) {
+		SharedConnection shared;
+		synchronized (this) {
+			shared = connections.get(port);
+		}
+		if (shared!=null) {
+			shared.close();
+		}
+	}
+
+	/**
+	 * @return The number of processes that currently have handles.
+	 */
+	public synchronized int size() {
+		return connections.size();
+	}
+
+	/**
+	 * @return The number of JMX connections established so far.
+	 */
+	public long getConnectCount() {
+		return connects.get();
+	}
+
+	private class SharedConnection {
+		final int port;
+		int references = 0; //guarded by the pool
+
+		private JMXConnector connector;
+
+		SharedConnection(int port) {
+			this.port = port;
+		}
+
+		synchronized JMXConnector getConnector() throws IOException {
+			if (connector==null) {
+				connector = JMXClient.createLocalJmxConnector(port);
+				connects.incrementAndGet();
+			}
+			return connector;
+		}
+
+		void invalidate(JMXConnector broken) {
+			synchronized (this) {
+				if (broken==null || broken!=connector) {
+					//Already replaced by a new connection.
+					return;
+				}
+				connector = null;
+			}
+			closeQuietly(broken);
+		}
+
+		void close() {
+			JMXConnector toClose;
+			synchronized (this) {
+				toClose = connector;
+				connector = null;
+			}
+			closeQuietly(toClose);
+		}
+
+		private void closeQuietly(JMXConnector connector) {
+			if (connector!=null) {
+				try {
+					connector.close();
+				} catch (Exception e) {
+					//ignore
+				}
+			}
+		}
+	}
+
+	/**
+	 * A client's reference to a shared connection.
+	 */
+	public class Handle implements Disposable {
+
+		private SharedConnection shared;
+
+		private Handle(SharedConnection shared) {
+			this.shared = shared;
+		}
+
+		public int getPort() {
+			return getShared().port;
+		}
+
+		/**
+		 * Get the connector, connecting if it isn't connected yet. The connector
+		 * is shared and must not be closed by the caller.
+		 */
+		public JMXConnector getConnector() throws IOException {
+			return getShared().getConnector();
+		}
+
+		public MBeanServerConnection getConnection() throws IOException {
+			JMXConnector connector = getConnector();
+			try {
+				return connector.getMBeanServerConnection();
+			} catch (IOException e) {
+				invalidate(connector);
+				throw e;
+			}
+		}
+
+		/**
+		 * Report that the given connector, obtained from this handle, doesn't work (anymore).
+		 * The next request will try to reconnect.
+		 */
+		public void invalidate(JMXConnector broken) {
+			SharedConnection shared = this.shared;
+			if (shared!=null) {
+				shared.invalidate(broken);
+			}
+		}
+
+		/**
+		 * Report that the current connection doesn't work (anymore).
+		 */
+		public void invalidate() {
+			SharedConnection shared = this.shared;
+			if (shared!=null) {
+				JMXConnector current;
+				synchronized (shared) {
+					current = shared.connector;
+				}
+				shared.invalidate(current);
+			}
+		}
+
+		@Override
+		public synchronized void dispose() {
+			if (shared!=null) {
+				release(shared);
+				shared = null;
+			}
+		}
+
+		private synchronized SharedConnection getShared() {
+			if (shared==null) {
+				throw new IllegalStateException("Connection handle has been disposed");
+			}
+			return shared;
+		}
+	}
+
+}
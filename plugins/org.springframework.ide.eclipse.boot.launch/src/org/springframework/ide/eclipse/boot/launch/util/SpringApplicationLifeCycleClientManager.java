@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,12 +18,16 @@ import org.springframework.ide.eclipse.boot.launch.BootLaunchConfigurationDelega
 
 /**
  * Creates and manages an instance of {@link SpringApplicationLifecycleClient}.
+ * <p>
+ * The JMX connection used by the client is obtained from the {@link JMXConnectionPool}
+ * and shared with other clients of the same process.
  *
  * @author Kris De Volder
  */
 public class SpringApplicationLifeCycleClientManager {
 
 	private Provider<Integer> jmxPort;
+	private JMXConnectionPool.Handle connection;
 	private JMXConnector connector;
 	private SpringApplicationLifecycleClient client;
 
@@ -51,33 +55,46 @@ public class SpringApplicationLifeCycleClientManager {
 	}
 
 	/**
-	 * Dispose of current client and JMX connection. This does not
+	 * Dispose of current client and release its JMX connection. The connection
+	 * itself stays open as long as other clients of the same process use it. This does not
 	 * make the manager itself unusable, as an attempt will be made to
 	 * re-establish the connection the next time it is needed.
 	 */
 	public synchronized void disposeClient() {
-		try {
-			if (connector!=null) {
-				connector.close();
-			}
-		} catch (Exception e) {
-			//ignore
+		if (connection!=null) {
+			connection.dispose();
 		}
+		connection = null;
 		client = null;
 		connector = null;
 	}
 
+	/**
+	 * Like {@link #disposeClient()} but also reports the JMX connection as broken, so
+	 * that it is re-established for all its clients. Use this when the client failed
+	 * to talk to the process.
+	 */
+	public synchronized void invalidateClient() {
+		if (connection!=null) {
+			connection.invalidate(connector);
+		}
+		disposeClient();
+	}
+
 	/**
 	 * Try to obtain a client, may return null if a connection could not be established.
 	 */
-	public SpringApplicationLifecycleClient getLifeCycleClient() {
+	public synchronized SpringApplicationLifecycleClient getLifeCycleClient() {
 		try {
 			if (client==null) {
 				Integer resolvedPort = jmxPort.get();
 				if (resolvedPort==null || resolvedPort <=0) {
 					throw new IllegalStateException("JMX port not specified");
 				}
-				connector = JMXClient.createLocalJmxConnector(resolvedPort);
+				if (connection==null) {
+					connection = JMXConnectionPool.getDefault().acquire(resolvedPort);
+				}
+				connector = connection.getConnector();
 				client = new SpringApplicationLifecycleClient(
 						connector.getMBeanServerConnection(),
 						SpringApplicationLifecycleClient.DEFAULT_OBJECT_NAME
@@ -88,7 +105,7 @@ public class SpringApplicationLifeCycleClientManager {
 			//e.printStackTrace();
 			//Someting went wrong creating client (most likely process we are trying to connect
 			// doesn't exist yet or has been terminated.
-			disposeClient();
+			invalidateClient();
 		}
 		return null;
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013-2015 Pivotal Software, Inc.
+ * Copyright (c) 2013-2017 Pivotal Software, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,9 +14,14 @@ import java.io.IOException;
 
 import javax.management.AttributeNotFoundException;
 import javax.management.InstanceNotFoundException;
+import javax.management.ListenerNotFoundException;
 import javax.management.MBeanException;
 import javax.management.MBeanServerConnection;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
 import javax.management.MalformedObjectNameException;
+import javax.management.NotificationFilterSupport;
+import javax.management.NotificationListener;
 import javax.management.ObjectName;
 import javax.management.ReflectionException;
 
@@ -41,6 +46,14 @@ public class SpringApplicationLifecycleClient {
 		this.objectName = toObjectName(jmxName);
 	}
 
+	/**
+	 * @return the connection to the application's mbean server. Clients created for
+	 * the same process may share the same connection.
+	 */
+	public MBeanServerConnection getConnection() {
+		return this.connection;
+	}
+
 	/**
 	 * Check if the spring application managed by this instance is ready. Returns
 	 * {@code false} if the mbean is not yet deployed so this method should be repeatedly
@@ -101,6 +114,22 @@ public class SpringApplicationLifecycleClient {
 		}
 	}
 
+	/**
+	 * Register a listener that is notified whenever an mbean is registered in the
+	 * application's mbean server. Spring applications register most of their mbeans
+	 * towards the end of their startup, so this is a hint that the application
+	 * may become ready soon.
+	 */
+	public void addMBeanRegistrationListener(NotificationListener listener) throws InstanceNotFoundException, IOException {
+		NotificationFilterSupport filter = new NotificationFilterSupport();
+		filter.enableType(MBeanServerNotification.REGISTRATION_NOTIFICATION);
+		this.connection.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, listener, filter, null);
+	}
+
+	public void removeMBeanRegistrationListener(NotificationListener listener) throws InstanceNotFoundException, ListenerNotFoundException, IOException {
+		this.connection.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, listener);
+	}
+
 	private ObjectName toObjectName(String name) {
 		try {
 			return new ObjectName(name);
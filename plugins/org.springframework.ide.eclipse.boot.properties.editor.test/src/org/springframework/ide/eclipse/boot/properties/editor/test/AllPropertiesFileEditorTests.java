@@ -28,6 +28,9 @@ import org.junit.runners.Suite.SuiteClasses;
 	SpringPropertiesEditorTests.class,
 	TypeUtilTests.class,
 	FuzzyMapTests.class,
+	ConfigurationMetadataFragmentCacheTest.class,
+	SpringPropertyIndexTest.class,
+	ConfigurationMetadataJsonReaderTest.class,
 	TypeParserTest.class,
 
 	YamlASTTests.class,
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.test;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import junit.framework.TestCase;
+
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepositoryJsonBuilder;
+import org.springframework.ide.eclipse.boot.properties.editor.ConfigurationMetadataFragment;
+import org.springframework.ide.eclipse.boot.properties.editor.ConfigurationMetadataFragmentCache;
+
+/**
+ * @author agent
+ */
+public class ConfigurationMetadataFragmentCacheTest extends TestCase {
+
+	private static final String METADATA =
+			"{\"properties\": [" +
+				"{\"name\": \"server.port\", \"type\": \"java.lang.Integer\"}," +
+				"{\"name\": \"server.address\", \"type\": \"java.net.InetAddress\"}" +
+			"]}";
+
+	private AtomicInteger reads = new AtomicInteger();
+
+	public void testSharedBetweenUsers() throws Exception {
+		ConfigurationMetadataFragmentCache cache = new ConfigurationMetadataFragmentCache();
+		ConfigurationMetadataFragment f1 = cache.acquire("/libs/boot.jar", "1:100", loader("/libs/boot.jar", "1:100"));
+		ConfigurationMetadataFragment f2 = cache.acquire("/libs/boot.jar", "1:100", loader("/libs/boot.jar", "1:100"));
+
+		assertSame(f1, f2);
+		assertEquals(1, reads.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.size());
+		assertEquals(2, f1.getProperties().size());
+		assertNotNull(f1.getProperties().get("server.port"));
+	}
+
+	public void testReleasedByLastUser() throws Exception {
+		ConfigurationMetadataFragmentCache cache = new ConfigurationMetadataFragmentCache();
+		ConfigurationMetadataFragment f1 = cache.acquire("/libs/boot.jar", "1:100", loader("/libs/boot.jar", "1:100"));
+		ConfigurationMetadataFragment f2 = cache.acquire("/libs/boot.jar", "1:100", loader("/libs/boot.jar", "1:100"));
+
+		cache.release(f1);
+		assertEquals(1, cache.size());
+		cache.release(f2);
+		assertEquals(0, cache.size());
+
+		cache.acquire("/libs/boot.jar", "1:100", loader("/libs/boot.jar", "1:100"));
+		assertEquals(2, reads.get());
+	}
+
+	public void testChangedJarIsReadAgain() throws Exception {
+		ConfigurationMetadataFragmentCache cache = new ConfigurationMetadataFragmentCache();
+		ConfigurationMetadataFragment old = cache.acquire("/libs/boot.jar", "1:100", loader("/libs/boot.jar", "1:100"));
+		ConfigurationMetadataFragment changed = cache.acquire("/libs/boot.jar", "2:120", loader("/libs/boot.jar", "2:120"));
+
+		assertNotSame(old, changed);
+		assertEquals(2, reads.get());
+		assertEquals(2, cache.size());
+
+		cache.release(old);
+		assertEquals(1, cache.size());
+		assertSame(changed, cache.acquire("/libs/boot.jar", "2:120", loader("/libs/boot.jar", "2:120")));
+	}
+
+	private Supplier<ConfigurationMetadataFragment> loader(String location, String stamp) {
+		return () -> {
+			reads.incrementAndGet();
+			try {
+				ConfigurationMetadataRepositoryJsonBuilder builder = ConfigurationMetadataRepositoryJsonBuilder.create();
+				builder.withJsonResource(location, new ByteArrayInputStream(METADATA.getBytes("UTF-8")));
+				return new ConfigurationMetadataFragment(location, stamp, builder.build());
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+}
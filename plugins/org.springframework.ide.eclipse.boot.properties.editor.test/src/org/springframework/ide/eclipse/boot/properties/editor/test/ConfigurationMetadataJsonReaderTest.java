@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepository;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepositoryJsonBuilder;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataSource;
+import org.springframework.boot.configurationmetadata.ValueHint;
+import org.springframework.boot.configurationmetadata.ValueProvider;
+import org.springframework.ide.eclipse.org.json.JSONObject;
+
+/**
+ * Tests for reading spring configuration metadata json documents.
+ *
+ * @author agent
+ */
+public class ConfigurationMetadataJsonReaderTest extends TestCase {
+
+	public void testPropertiesAndGroups() throws Exception {
+		ConfigurationMetadataRepository repo = read(
+				"{\"groups\": [" +
+					"{\"name\": \"server\", \"type\": \"com.example.ServerProperties\", \"sourceType\": \"com.example.ServerProperties\"}" +
+				"]," +
+				"\"properties\": [" +
+					"{\"name\": \"server.port\", \"type\": \"java.lang.Integer\", \"sourceType\": \"com.example.ServerProperties\"," +
+					" \"description\": \"Server \\\"HTTP\\\" port. Defaults to 8080.\", \"defaultValue\": 8080}," +
+					"{\"name\": \"server.name\", \"type\": \"java.lang.String\", \"description\": \"Caf\\u00e9\", \"unknown\": {\"a\": [1, {}]}}" +
+				"]}");
+
+		Map<String, ConfigurationMetadataProperty> props = repo.getAllProperties();
+		assertEquals(2, props.size());
+
+		ConfigurationMetadataProperty port = props.get("server.port");
+		assertEquals("port", port.getName());
+		assertEquals("java.lang.Integer", port.getType());
+		assertEquals("Server \"HTTP\" port. Defaults to 8080.", port.getDescription());
+		assertEquals("Server \"HTTP\" port.", port.getShortDescription());
+		assertEquals(8080, port.getDefaultValue());
+		assertNull(port.getDeprecation());
+
+		assertEquals("Caf\u00e9", props.get("server.name").getDescription());
+
+		ConfigurationMetadataSource source = repo.getAllGroups().get("server").getSources().get("com.example.ServerProperties");
+		assertNotNull(source.getProperties().get("server.port"));
+	}
+
+	public void testDefaultValueTypes() throws Exception {
+		ConfigurationMetadataRepository repo = read(
+				"{\"properties\": [" +
+					"{\"name\": \"a.bool\", \"defaultValue\": true}," +
+					"{\"name\": \"a.long\", \"defaultValue\": 12345678901}," +
+					"{\"name\": \"a.double\", \"defaultValue\": 1.5}," +
+					"{\"name\": \"a.null\", \"defaultValue\": null}," +
+					"{\"name\": \"a.list\", \"defaultValue\": [\"x\", 1, false]}," +
+					"{\"name\": \"a.map\", \"defaultValue\": {\"k\": \"v\"}}" +
+				"]}");
+		Map<String, ConfigurationMetadataProperty> props = repo.getAllProperties();
+		assertEquals(Boolean.TRUE, props.get("a.bool").getDefaultValue());
+		assertEquals(12345678901L, props.get("a.long").getDefaultValue());
+		assertEquals(1.5, props.get("a.double").getDefaultValue());
+		assertEquals(JSONObject.NULL, props.get("a.null").getDefaultValue());
+		Object[] list = (Object[]) props.get("a.list").getDefaultValue();
+		assertEquals(3, list.length);
+		assertEquals("x", list[0]);
+		assertEquals(1, list[1]);
+		assertEquals(Boolean.FALSE, list[2]);
+		assertEquals("v", ((JSONObject) props.get("a.map").getDefaultValue()).get("k"));
+	}
+
+	public void testDeprecation() throws Exception {
+		ConfigurationMetadataRepository repo = read(
+				"{\"properties\": [" +
+					"{\"name\": \"old.one\", \"deprecation\": {\"reason\": \"Not used\", \"replacement\": \"new.one\"}}," +
+					"{\"deprecated\": true, \"name\": \"old.two\"}" +
+				"]}");
+		Map<String, ConfigurationMetadataProperty> props = repo.getAllProperties();
+		assertEquals("Not used", props.get("old.one").getDeprecation().getReason());
+		assertEquals("new.one", props.get("old.one").getDeprecation().getReplacement());
+		assertNotNull(props.get("old.two").getDeprecation());
+		assertNull(props.get("old.two").getDeprecation().getReason());
+	}
+
+	public void testHints() throws Exception {
+		ConfigurationMetadataRepository repo = read(
+				"{\"properties\": [{\"name\": \"my.type\"}]," +
+				"\"hints\": [{\"name\": \"my.type\"," +
+					"\"values\": [{\"value\": \"one\", \"description\": \"The first.\"}, {\"value\": 2}]," +
+					"\"providers\": [{\"name\": \"class-reference\", \"parameters\": {\"target\": \"java.lang.Runnable\", \"concrete\": true}}]" +
+				"}]}");
+		ConfigurationMetadataProperty prop = repo.getAllProperties().get("my.type");
+		assertEquals(2, prop.getHints().getValueHints().size());
+		ValueHint first = prop.getHints().getValueHints().get(0);
+		assertEquals("one", first.getValue());
+		assertEquals("The first.", first.getDescription());
+		assertEquals(2, prop.getHints().getValueHints().get(1).getValue());
+
+		ValueProvider provider = prop.getHints().getValueProviders().get(0);
+		assertEquals("class-reference", provider.getName());
+		assertEquals("java.lang.Runnable", provider.getParameters().get("target"));
+		assertEquals(Boolean.TRUE, provider.getParameters().get("concrete"));
+	}
+
+	public void testInvalidDocument() throws Exception {
+		assertInvalid("{\"properties\": [{\"name\": \"a\"}");
+		assertInvalid("{\"properties\": [{\"name\": \"a\" \"type\": \"b\"}]}");
+		assertInvalid("{\"properties\": [{\"type\": \"b\"}]}");
+		assertInvalid("[]");
+	}
+
+	private void assertInvalid(String json) throws Exception {
+		try {
+			read(json);
+			fail("Should fail: "+json);
+		} catch (IllegalArgumentException e) {
+			//expected
+		}
+	}
+
+	private ConfigurationMetadataRepository read(String json) throws Exception {
+		return ConfigurationMetadataRepositoryJsonBuilder.create()
+				.withJsonResource(null, new ByteArrayInputStream(json.getBytes("UTF-8")))
+				.build();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,14 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
 
 import junit.framework.TestCase;
 
@@ -65,6 +70,75 @@ public class FuzzyMapTests extends TestCase {
 		);
 	}
 
+	public void testIndexedFindMatchesSequentialScoring() {
+		Random random = new Random(42);
+		String alphabet = "abcdeprstu.-_[]";
+		TestMap map = new TestMap();
+		TreeSet<String> keys = new TreeSet<String>();
+		for (int i = 0; i < 2000; i++) {
+			String key = randomString(random, alphabet, 3 + random.nextInt(30));
+			if (keys.add(key)) {
+				map.add(key);
+			}
+		}
+
+		for (int i = 0; i < 200; i++) {
+			String pattern = randomString(random, alphabet, 1 + random.nextInt(5));
+			List<String> expectedKeys = new ArrayList<String>();
+			List<Double> expectedScores = new ArrayList<Double>();
+			for (String key : keys) {
+				double score = FuzzyMatcher.matchScore(pattern, key);
+				if (score!=0.0) {
+					expectedKeys.add(key);
+					expectedScores.add(score);
+				}
+			}
+
+			List<Match<String>> found = map.find(pattern);
+			assertEquals(pattern, expectedKeys.size(), found.size());
+			for (int j = 0; j < found.size(); j++) {
+				assertEquals(pattern, expectedKeys.get(j), found.get(j).data);
+				assertEquals(pattern, expectedScores.get(j), found.get(j).score, 0.0);
+			}
+		}
+	}
+
+	public void testFindAfterAdd() {
+		TestMap map = new TestMap("server.port", "server.address");
+		assertEquals(1, map.find("port").size());
+		assertEquals(0, map.find("xyz").size());
+
+		map.add("xyz.port");
+		assertEquals(2, map.find("port").size());
+		assertEquals(1, map.find("xyz").size());
+	}
+
+	public void testFindAfterReplace() {
+		TestMap map = new TestMap("server.port", "server.address", "xyz.port");
+		assertEquals(2, map.find("port").size());
+		List<Match<String>> before = map.find("");
+
+		map.update(Arrays.asList("xyz.port", "server.address"), Arrays.asList("abc.port", "server.address"));
+		assertEquals(3, map.size());
+		assertEquals(2, map.find("port").size());
+		assertEquals(0, map.find("xyz").size());
+		assertEquals(1, map.find("abc").size());
+		assertEquals("abc.port", map.findLongestCommonPrefixEntry("abc"));
+		assertEquals(null, map.get("xyz.port"));
+
+		//Results of earlier searches are not affected
+		assertEquals(3, before.size());
+		assertEquals("xyz.port", before.get(2).data);
+	}
+
+	private static String randomString(Random random, String alphabet, int length) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return builder.toString();
+	}
+
 	public class TestMap extends FuzzyMap<String> {
 		public TestMap(String... entries) {
 			for (String e : entries) {
@@ -74,6 +148,9 @@ public class FuzzyMapTests extends TestCase {
 		protected String getKey(String entry) {
 			return entry;
 		}
+		public void update(Collection<String> removed, Collection<String> added) {
+			replace(removed, added);
+		}
 	}
 
 	public void testCommonPrefix() {
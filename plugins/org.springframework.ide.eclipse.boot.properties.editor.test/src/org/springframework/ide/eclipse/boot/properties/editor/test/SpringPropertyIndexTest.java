@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jdt.core.IJavaProject;
+import org.springframework.ide.eclipse.boot.properties.editor.ConfigurationMetadataFragment;
+import org.springframework.ide.eclipse.boot.properties.editor.SpringPropertyIndex;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.PropertyInfo;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.StsValueHint;
+import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProviderRegistry;
+import org.springframework.ide.eclipse.boot.properties.editor.util.TypeUtil;
+import org.springframework.ide.eclipse.boot.test.BootProjectTestHarness;
+
+import com.google.common.collect.ImmutableList;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the incremental refresh of a {@link SpringPropertyIndex}.
+ *
+ * @author agent
+ */
+public class SpringPropertyIndexTest extends TestCase {
+
+	private IProject project;
+	private File libsDir;
+
+	@Override
+	protected void setUp() throws Exception {
+		libsDir = File.createTempFile("property-index", "libs");
+		libsDir.delete();
+		libsDir.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (project!=null) {
+			project.delete(true, true, null);
+		}
+		for (File f : libsDir.listFiles()) {
+			f.delete();
+		}
+		libsDir.delete();
+	}
+
+	public void testRefreshOnlyRebuildsChangedJar() throws Exception {
+		File fooJar = createMetadataJar("foo.jar", "foo.name", "foo.size");
+		File barJar = createMetadataJar("bar.jar", "bar.enabled", "bar.timeout");
+		IJavaProject jp = new BootProjectTestHarness(ResourcesPlugin.getWorkspace()).createJavaProject("property-index-test", fooJar, barJar);
+		project = jp.getProject();
+
+		SpringPropertyIndex index = new SpringPropertyIndex(ValueProviderRegistry.getDefault(), jp);
+		try {
+			List<ConfigurationMetadataFragment> oldFragments = new ArrayList<>(index.getFragments());
+			PropertyInfo fooName = index.get("foo.name");
+			PropertyInfo barEnabled = index.get("bar.enabled");
+			assertNotNull(fooName);
+			assertNotNull(barEnabled);
+			assertNotNull(index.get("bar.timeout"));
+			assertFalse(index.refresh());
+
+			//Change the metadata of one jar: 'bar.timeout' is removed and 'bar.retries' added.
+			createMetadataJar("bar.jar", "bar.enabled", "bar.retries");
+			barJar.setLastModified(barJar.lastModified()+2000);
+			assertTrue(index.refresh());
+
+			List<ConfigurationMetadataFragment> newFragments = index.getFragments();
+			assertEquals(oldFragments.size(), newFragments.size());
+			assertSame(fragment(oldFragments, fooJar), fragment(newFragments, fooJar));
+			assertNotSame(fragment(oldFragments, barJar), fragment(newFragments, barJar));
+
+			//Properties of the unchanged jar are left as is, those of the changed jar are replaced.
+			assertSame(fooName, index.get("foo.name"));
+			assertNotNull(index.get("foo.size"));
+			assertNotNull(index.get("bar.enabled"));
+			assertNotSame(barEnabled, index.get("bar.enabled"));
+			assertNotNull(index.get("bar.retries"));
+			assertNull(index.get("bar.timeout"));
+			assertTrue(index.find("bar.timeout").isEmpty());
+		} finally {
+			index.dispose();
+		}
+	}
+
+	public void testProjectHintsApplyToJarProperties() throws Exception {
+		File fooJar = createMetadataJar("foo.jar", "foo.name", "foo.size");
+		IJavaProject jp = new BootProjectTestHarness(ResourcesPlugin.getWorkspace()).createJavaProject("property-index-test", fooJar);
+		project = jp.getProject();
+
+		SpringPropertyIndex index = new SpringPropertyIndex(ValueProviderRegistry.getDefault(), jp);
+		try {
+			assertEquals(ImmutableList.of(), valueHints(jp, index.get("foo.name")));
+
+			//The project's additional metadata declares hints for a property defined in the jar.
+			IFolder metaInf = project.getFolder("bin/META-INF");
+			if (!project.getFolder("bin").exists()) {
+				project.getFolder("bin").create(true, true, null);
+			}
+			metaInf.create(true, true, null);
+			String json = "{\"hints\": [{\"name\": \"foo.name\", \"values\": [{\"value\": \"alice\"}, {\"value\": \"bob\"}]}]}";
+			metaInf.getFile("additional-spring-configuration-metadata.json").create(new ByteArrayInputStream(json.getBytes("UTF-8")), true, null);
+			assertTrue(index.refresh());
+
+			assertEquals(ImmutableList.of("alice", "bob"), valueHints(jp, index.get("foo.name")));
+			assertEquals(ImmutableList.of(), valueHints(jp, index.get("foo.size")));
+		} finally {
+			index.dispose();
+		}
+	}
+
+	private List<String> valueHints(IJavaProject jp, PropertyInfo info) {
+		List<String> values = new ArrayList<>();
+		for (StsValueHint hint : info.getHints(new TypeUtil(jp), false).getValueHints("")) {
+			values.add(hint.getValue());
+		}
+		return values;
+	}
+
+	private ConfigurationMetadataFragment fragment(List<ConfigurationMetadataFragment> fragments, File jar) {
+		for (ConfigurationMetadataFragment f : fragments) {
+			if (f.getLocation().equals(jar.getAbsolutePath())) {
+				return f;
+			}
+		}
+		fail("No fragment for "+jar+" in "+fragments);
+		return null;
+	}
+
+	private File createMetadataJar(String name, String... properties) throws Exception {
+		StringBuilder json = new StringBuilder("{\"properties\": [");
+		for (int i = 0; i < properties.length; i++) {
+			if (i>0) {
+				json.append(',');
+			}
+			json.append("{\"name\": \"").append(properties[i]).append("\", \"type\": \"java.lang.String\"}");
+		}
+		json.append("]}");
+
+		File jar = new File(libsDir, name);
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+			out.putNextEntry(new ZipEntry("META-INF/spring-configuration-metadata.json"));
+			out.write(json.toString().getBytes("UTF-8"));
+			out.closeEntry();
+		}
+		return jar;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,20 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor.test;
 
+import java.io.StringReader;
 import java.util.List;
 
+import org.eclipse.jface.text.Document;
 import org.junit.Test;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeRef;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.NodeUtil;
+import org.springframework.ide.eclipse.editor.support.yaml.ast.YamlASTProvider;
 import org.springframework.ide.eclipse.editor.support.yaml.ast.YamlFileAST;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.nodes.MappingNode;
 import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeTuple;
+import org.yaml.snakeyaml.nodes.SequenceNode;
 
 /**
  * @author Kris De Volder
@@ -110,6 +118,96 @@ public class YamlASTTests extends ApplicationYamlEditorTestHarness {
 		);
 	}
 
+	public void testIncrementalParse() throws Exception {
+		Document doc = new Document(
+				"spring:\n" +
+				"  application:\n" +
+				"    name: foofoo\n" +
+				"server:\n" +
+				"  port: 8888\n" +
+				"list:\n" +
+				"- a\n" +
+				"- b\n" +
+				"logging:\n" +
+				"  level: debug\n" +
+				"---\n" +
+				"# second document\n" +
+				"other: value\n" +
+				"more:\n" +
+				"  nested: true\n" +
+				"---\n" +
+				"---\n" +
+				"last: doc\n"
+		);
+		YamlASTProvider provider = new YamlASTProvider(yaml);
+		YamlFileAST ast = provider.getAST(doc);
+		assertSame(ast, provider.getAST(doc));
+
+		String[] edits = { "zz: 1\n", "  port: 9999\n", "x", "---\n", "" };
+		String text = doc.get();
+		for (int offset = text.length(); offset >= 0; offset--) {
+			for (String edit : edits) {
+				doc.set(text);
+				provider.getAST(doc);
+				doc.replace(offset, edit.isEmpty() && offset < text.length() ? 1 : 0, edit);
+				assertSameAST(provider, doc);
+			}
+		}
+
+		doc.set(text);
+		Node firstEntry = ((MappingNode) provider.getAST(doc).get(0)).getValue().get(0).getKeyNode();
+		doc.replace(text.indexOf("last: doc"), 0, "x");
+		assertSame(firstEntry, ((MappingNode) provider.getAST(doc).get(0)).getValue().get(0).getKeyNode());
+	}
+
+	private void assertSameAST(YamlASTProvider provider, Document doc) {
+		String expected;
+		try {
+			expected = dumpAST(new YamlFileAST(yaml.composeAll(new StringReader(doc.get()))));
+		} catch (YAMLException e) {
+			expected = "error: " + e.getMessage();
+		}
+		String actual;
+		try {
+			actual = dumpAST(provider.getAST(doc));
+		} catch (YAMLException e) {
+			actual = "error: " + e.getMessage();
+		}
+		assertEquals(doc.get(), expected, actual);
+	}
+
+	private String dumpAST(YamlFileAST ast) {
+		StringBuilder buf = new StringBuilder();
+		for (Node node : ast.getNodes()) {
+			dumpNode(node, buf);
+		}
+		return buf.toString();
+	}
+
+	private void dumpNode(Node node, StringBuilder buf) {
+		buf.append(node.getNodeId() + "[" + NodeUtil.getStart(node) + "," + NodeUtil.getEnd(node) + "]");
+		if (node instanceof MappingNode) {
+			buf.append("{");
+			for (NodeTuple entry : ((MappingNode) node).getValue()) {
+				dumpNode(entry.getKeyNode(), buf);
+				buf.append(":");
+				dumpNode(entry.getValueNode(), buf);
+				buf.append(",");
+			}
+			buf.append("}");
+		} else if (node instanceof SequenceNode) {
+			buf.append("(");
+			for (Node child : ((SequenceNode) node).getValue()) {
+				dumpNode(child, buf);
+				buf.append(",");
+			}
+			buf.append(")");
+		} else {
+			buf.append("'" + NodeUtil.asScalar(node) + "'");
+		}
+		buf.append("\n");
+	}
+
 	protected void assertPath(MockYamlEditor input, String nodeText, String expected) {
 		YamlFileAST ast = input.parse();
 		String path = pathString(ast.findPath(input.middleOf(nodeText)));
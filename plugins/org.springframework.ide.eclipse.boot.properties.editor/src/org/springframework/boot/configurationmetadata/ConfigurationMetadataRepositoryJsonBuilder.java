@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -100,6 +101,38 @@ public final class ConfigurationMetadataRepositoryJsonBuilder {
 		return result;
 	}
 
+	/**
+	 * Collect the hints of the current state of this builder, keyed by the id of the
+	 * property they target. Hints for the keys of a map property are returned as its
+	 * key hints, all other hints as value hints.
+	 * <p>
+	 * Unlike {@link #build()}, this doesn't require the targeted properties to be
+	 * defined by the same resources as the hints, so that the hints can be applied to
+	 * properties defined elsewhere.
+	 * @return the hints, keyed by property id
+	 */
+	public Map<String, Hints> buildHints() {
+		Map<String, Hints> result = new HashMap<>();
+		for (RawConfigurationMetadata metadata : rawDatas) {
+			for (ConfigurationMetadataHint hint : metadata.getHints()) {
+				String id = hint.resolveId();
+				Hints hints = result.get(id);
+				if (hints == null) {
+					result.put(id, hints = new Hints());
+				}
+				if (hint.isMapKeyHints()) {
+					addAll(hints.getKeyHints(), hint.getValueHints());
+					hints.getKeyProviders().addAll(hint.getValueProviders());
+				}
+				else {
+					addAll(hints.getValueHints(), hint.getValueHints());
+					hints.getValueProviders().addAll(hint.getValueProviders());
+				}
+			}
+		}
+		return result;
+	}
+
 	private RawConfigurationMetadata parseRaw(Object origin, InputStream in, Charset charset)
 			throws IOException {
 		try {
@@ -0,0 +1,444 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.boot.configurationmetadata;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.springframework.ide.eclipse.org.json.JSONArray;
+import org.springframework.ide.eclipse.org.json.JSONException;
+import org.springframework.ide.eclipse.org.json.JSONObject;
+
+/**
+ * A minimal pull parser for json documents. Tokens are read from the underlying
+ * {@link Reader} on demand, so a document can be processed without first reading
+ * it into a String or building a tree of {@link JSONObject}s.
+ * <p>
+ * Values returned by {@link #nextValue()} use the same representation as
+ * org.json (i.e. {@link JSONObject#NULL}, {@link JSONArray}, {@link JSONObject}
+ * and the number types of {@link JSONObject#stringToValue(String)}).
+ * <p>
+ * Syntax errors are reported as {@link JSONException}s.
+ *
+ * @author agent
+ */
+class JsonPullParser {
+
+	enum Token {
+		BEGIN_OBJECT,
+		END_OBJECT,
+		BEGIN_ARRAY,
+		END_ARRAY,
+		NAME,
+		STRING,
+		NUMBER,
+		BOOLEAN,
+		NULL,
+		END_DOCUMENT
+	}
+
+	private static final int BUFFER_SIZE = 8192;
+
+	//Scopes of the nesting stack
+	private static final int EMPTY_DOCUMENT = 0;
+	private static final int NONEMPTY_DOCUMENT = 1;
+	private static final int EMPTY_OBJECT = 2;
+	private static final int NONEMPTY_OBJECT = 3;
+	private static final int DANGLING_NAME = 4;
+	private static final int EMPTY_ARRAY = 5;
+	private static final int NONEMPTY_ARRAY = 6;
+
+	private final Reader in;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int pos = 0;
+	private int limit = 0;
+
+	private int[] stack = new int[32];
+	private int stackSize = 0;
+
+	/**
+	 * The token returned by {@link #peek()} but not yet consumed, or null.
+	 */
+	private Token peeked = null;
+
+	/**
+	 * The text of a peeked number or literal.
+	 */
+	private String peekedLiteral = null;
+
+	private final StringBuilder stringBuilder = new StringBuilder();
+
+	public JsonPullParser(Reader in) {
+		this.in = in;
+		push(EMPTY_DOCUMENT);
+	}
+
+	public Token peek() throws IOException {
+		if (peeked!=null) {
+			return peeked;
+		}
+		int scope = stack[stackSize-1];
+		switch (scope) {
+		case EMPTY_ARRAY:
+			stack[stackSize-1] = NONEMPTY_ARRAY;
+			int first = nextNonWhitespace();
+			if (first==']') {
+				return peeked = Token.END_ARRAY;
+			} else if (first==-1) {
+				throw syntaxError("Unexpected end of document");
+			}
+			pos--;
+			break;
+		case NONEMPTY_ARRAY:
+			switch (nextNonWhitespace()) {
+			case ']':
+				return peeked = Token.END_ARRAY;
+			case ',':
+				break;
+			default:
+				throw syntaxError("Expected ',' or ']'");
+			}
+			break;
+		case EMPTY_OBJECT:
+		case NONEMPTY_OBJECT:
+			stack[stackSize-1] = DANGLING_NAME;
+			int c = nextNonWhitespace();
+			if (c=='}') {
+				return peeked = Token.END_OBJECT;
+			}
+			if (scope==NONEMPTY_OBJECT) {
+				if (c!=',') {
+					throw syntaxError("Expected ',' or '}'");
+				}
+				c = nextNonWhitespace();
+			}
+			if (c!='"') {
+				throw syntaxError("Expected name");
+			}
+			return peeked = Token.NAME;
+		case DANGLING_NAME:
+			stack[stackSize-1] = NONEMPTY_OBJECT;
+			if (nextNonWhitespace()!=':') {
+				throw syntaxError("Expected ':'");
+			}
+			break;
+		case EMPTY_DOCUMENT:
+			stack[stackSize-1] = NONEMPTY_DOCUMENT;
+			break;
+		case NONEMPTY_DOCUMENT:
+			if (nextNonWhitespace()==-1) {
+				return peeked = Token.END_DOCUMENT;
+			}
+			throw syntaxError("Expected end of document");
+		}
+		return peeked = peekValue();
+	}
+
+	private Token peekValue() throws IOException {
+		int c = nextNonWhitespace();
+		switch (c) {
+		case '{':
+			return Token.BEGIN_OBJECT;
+		case '[':
+			return Token.BEGIN_ARRAY;
+		case '"':
+			return Token.STRING;
+		case -1:
+			throw syntaxError("Unexpected end of document");
+		}
+		pos--;
+		peekedLiteral = readLiteral();
+		if (peekedLiteral.equals("true") || peekedLiteral.equals("false")) {
+			return Token.BOOLEAN;
+		} else if (peekedLiteral.equals("null")) {
+			return Token.NULL;
+		} else if (c=='-' || (c>='0' && c<='9')) {
+			return Token.NUMBER;
+		}
+		throw syntaxError("Unexpected value '"+peekedLiteral+"'");
+	}
+
+	public void beginObject() throws IOException {
+		expect(Token.BEGIN_OBJECT);
+		push(EMPTY_OBJECT);
+	}
+
+	public void endObject() throws IOException {
+		expect(Token.END_OBJECT);
+		stackSize--;
+	}
+
+	public void beginArray() throws IOException {
+		expect(Token.BEGIN_ARRAY);
+		push(EMPTY_ARRAY);
+	}
+
+	public void endArray() throws IOException {
+		expect(Token.END_ARRAY);
+		stackSize--;
+	}
+
+	/**
+	 * @return whether the current object or array has more elements.
+	 */
+	public boolean hasNext() throws IOException {
+		Token t = peek();
+		return t!=Token.END_OBJECT && t!=Token.END_ARRAY && t!=Token.END_DOCUMENT;
+	}
+
+	public String nextName() throws IOException {
+		expect(Token.NAME);
+		return readString();
+	}
+
+	/**
+	 * Read a string value. Like {@link JSONObject#optString(String)}, numbers and booleans
+	 * are returned as their literal text and null as null.
+	 */
+	public String nextString() throws IOException {
+		Token t = peek();
+		switch (t) {
+		case STRING:
+			peeked = null;
+			return readString();
+		case NUMBER:
+		case BOOLEAN:
+			peeked = null;
+			return peekedLiteral;
+		case NULL:
+			peeked = null;
+			return null;
+		default:
+			return nextValue().toString();
+		}
+	}
+
+	public boolean nextBoolean() throws IOException {
+		Object value = nextValue();
+		return Boolean.TRUE.equals(value) || (value instanceof String && ((String) value).equalsIgnoreCase("true"));
+	}
+
+	/**
+	 * Read a value with the same representation org.json would use.
+	 */
+	public Object nextValue() throws IOException {
+		Token t = peek();
+		switch (t) {
+		case STRING:
+			peeked = null;
+			return readString();
+		case NUMBER:
+		case BOOLEAN:
+		case NULL:
+			peeked = null;
+			return JSONObject.stringToValue(peekedLiteral);
+		case BEGIN_ARRAY:
+			JSONArray array = new JSONArray();
+			beginArray();
+			while (hasNext()) {
+				array.put(nextValue());
+			}
+			endArray();
+			return array;
+		case BEGIN_OBJECT:
+			JSONObject object = new JSONObject();
+			beginObject();
+			while (hasNext()) {
+				String name = nextName();
+				object.put(name, nextValue());
+			}
+			endObject();
+			return object;
+		default:
+			throw syntaxError("Expected a value but was "+t);
+		}
+	}
+
+	/**
+	 * Skip the next value, including all its nested values, without creating any objects for it.
+	 */
+	public void skipValue() throws IOException {
+		int depth = 0;
+		do {
+			Token t = peek();
+			switch (t) {
+			case BEGIN_ARRAY:
+				beginArray();
+				depth++;
+				break;
+			case BEGIN_OBJECT:
+				beginObject();
+				depth++;
+				break;
+			case END_ARRAY:
+				endArray();
+				depth--;
+				break;
+			case END_OBJECT:
+				endObject();
+				depth--;
+				break;
+			case NAME:
+			case STRING:
+				peeked = null;
+				skipString();
+				break;
+			case END_DOCUMENT:
+				throw syntaxError("Unexpected end of document");
+			default:
+				peeked = null;
+				break;
+			}
+		} while (depth>0);
+	}
+
+	private void expect(Token expected) throws IOException {
+		Token t = peek();
+		if (t!=expected) {
+			throw syntaxError("Expected "+expected+" but was "+t);
+		}
+		peeked = null;
+	}
+
+	private void push(int scope) {
+		if (stackSize==stack.length) {
+			int[] newStack = new int[stackSize*2];
+			System.arraycopy(stack, 0, newStack, 0, stackSize);
+			stack = newStack;
+		}
+		stack[stackSize++] = scope;
+	}
+
+	private boolean fill() throws IOException {
+		limit = in.read(buffer, 0, buffer.length);
+		pos = 0;
+		if (limit<0) {
+			limit = 0;
+			return false;
+		}
+		return true;
+	}
+
+	private int nextNonWhitespace() throws IOException {
+		while (pos<limit || fill()) {
+			char c = buffer[pos++];
+			if (c!=' ' && c!='\n' && c!='\r' && c!='\t') {
+				return c;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Read the remainder of a literal (number, true, false or null), up to the next delimiter.
+	 */
+	private String readLiteral() throws IOException {
+		stringBuilder.setLength(0);
+		while (pos<limit || fill()) {
+			char c = buffer[pos];
+			switch (c) {
+			case ',': case ':': case ']': case '}': case '[': case '{': case '"':
+			case ' ': case '\n': case '\r': case '\t':
+				return stringBuilder.toString();
+			default:
+				stringBuilder.append(c);
+				pos++;
+			}
+		}
+		return stringBuilder.toString();
+	}
+
+	/**
+	 * Read the rest of a string whose opening quote has already been consumed.
+	 */
+	private String readString() throws IOException {
+		//Fast path: the whole string is in the buffer and has no escapes.
+		for (int i = pos; i < limit; i++) {
+			char c = buffer[i];
+			if (c=='"') {
+				String s = new String(buffer, pos, i-pos);
+				pos = i+1;
+				return s;
+			} else if (c=='\\') {
+				break;
+			}
+		}
+		stringBuilder.setLength(0);
+		while (pos<limit || fill()) {
+			char c = buffer[pos++];
+			if (c=='"') {
+				return stringBuilder.toString();
+			} else if (c=='\\') {
+				stringBuilder.append(readEscape());
+			} else {
+				stringBuilder.append(c);
+			}
+		}
+		throw syntaxError("Unterminated string");
+	}
+
+	private void skipString() throws IOException {
+		while (pos<limit || fill()) {
+			char c = buffer[pos++];
+			if (c=='"') {
+				return;
+			} else if (c=='\\') {
+				readEscape();
+			}
+		}
+		throw syntaxError("Unterminated string");
+	}
+
+	private char readEscape() throws IOException {
+		int c = read();
+		switch (c) {
+		case 'b':
+			return '\b';
+		case 't':
+			return '\t';
+		case 'n':
+			return '\n';
+		case 'f':
+			return '\f';
+		case 'r':
+			return '\r';
+		case 'u':
+			int code = 0;
+			for (int i = 0; i < 4; i++) {
+				int digit = Character.digit(read(), 16);
+				if (digit<0) {
+					throw syntaxError("Illegal unicode escape");
+				}
+				code = (code<<4) + digit;
+			}
+			return (char) code;
+		case '"':
+		case '\'':
+		case '\\':
+		case '/':
+			return (char) c;
+		default:
+			throw syntaxError("Illegal escape");
+		}
+	}
+
+	private int read() throws IOException {
+		if (pos<limit || fill()) {
+			return buffer[pos++];
+		}
+		throw syntaxError("Unexpected end of document");
+	}
+
+	private JSONException syntaxError(String message) {
+		return new JSONException(message+" near: '"+new String(buffer, Math.max(0, pos-20), Math.min(pos, 20))+"'");
+	}
+
+}
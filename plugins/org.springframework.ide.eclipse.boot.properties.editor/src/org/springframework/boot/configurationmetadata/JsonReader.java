@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2017 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,174 +21,291 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import org.springframework.ide.eclipse.org.json.JSONArray;
-import org.springframework.ide.eclipse.org.json.JSONObject;
+import org.springframework.boot.configurationmetadata.JsonPullParser.Token;
+import org.springframework.ide.eclipse.org.json.JSONException;
 
 /**
  * Read standard json metadata format as {@link ConfigurationMetadataRepository}.
+ * <p>
+ * The document is streamed through a {@link JsonPullParser}, creating the metadata
+ * objects directly instead of first building a tree of json objects.
  *
  * @author Stephane Nicoll
  * @since 1.3.0
  */
 class JsonReader {
 
-	private static final int BUFFER_SIZE = 4096;
-
 	private final DescriptionExtractor descriptionExtractor = new DescriptionExtractor();
 
+	/**
+	 * Type names are repeated many times in a metadata file. They are shared to save memory.
+	 */
+	private final Map<String, String> typeNames = new HashMap<String, String>();
+
 	public RawConfigurationMetadata read(Object origin, InputStream in, Charset charset)
 			throws IOException {
-		JSONObject json = readJson(in, charset);
-		List<ConfigurationMetadataSource> groups = parseAllSources(json);
-		List<ConfigurationMetadataItem> items = parseAllItems(json);
-		List<ConfigurationMetadataHint> hints = parseAllHints(json);
-		return new RawConfigurationMetadata(origin, groups, items, hints);
-	}
-
-	private List<ConfigurationMetadataSource> parseAllSources(JSONObject root) {
-		List<ConfigurationMetadataSource> result = new ArrayList<ConfigurationMetadataSource>();
-		if (!root.has("groups")) {
-			return result;
-		}
-		JSONArray sources = root.getJSONArray("groups");
-		for (int i = 0; i < sources.length(); i++) {
-			JSONObject source = sources.getJSONObject(i);
-			result.add(parseSource(source));
-		}
-		return result;
-	}
-
-	private List<ConfigurationMetadataItem> parseAllItems(JSONObject root) {
-		List<ConfigurationMetadataItem> result = new ArrayList<ConfigurationMetadataItem>();
-		if (!root.has("properties")) {
-			return result;
-		}
-		JSONArray items = root.getJSONArray("properties");
-		for (int i = 0; i < items.length(); i++) {
-			JSONObject item = items.getJSONObject(i);
-			result.add(parseItem(item));
-		}
-		return result;
-	}
-
-	private List<ConfigurationMetadataHint> parseAllHints(JSONObject root) {
-		List<ConfigurationMetadataHint> result = new ArrayList<ConfigurationMetadataHint>();
-		if (!root.has("hints")) {
-			return result;
+		try {
+			List<ConfigurationMetadataSource> groups = new ArrayList<ConfigurationMetadataSource>();
+			List<ConfigurationMetadataItem> items = new ArrayList<ConfigurationMetadataItem>();
+			List<ConfigurationMetadataHint> hints = new ArrayList<ConfigurationMetadataHint>();
+			JsonPullParser json = new JsonPullParser(new InputStreamReader(in, charset));
+			json.beginObject();
+			while (json.hasNext()) {
+				String name = json.nextName();
+				if (name.equals("groups")) {
+					json.beginArray();
+					while (json.hasNext()) {
+						groups.add(parseSource(json));
+					}
+					json.endArray();
+				}
+				else if (name.equals("properties")) {
+					json.beginArray();
+					while (json.hasNext()) {
+						items.add(parseItem(json));
+					}
+					json.endArray();
+				}
+				else if (name.equals("hints")) {
+					json.beginArray();
+					while (json.hasNext()) {
+						hints.add(parseHint(json));
+					}
+					json.endArray();
+				}
+				else {
+					json.skipValue();
+				}
+			}
+			json.endObject();
+			return new RawConfigurationMetadata(origin, groups, items, hints);
 		}
-		JSONArray items = root.getJSONArray("hints");
-		for (int i = 0; i < items.length(); i++) {
-			JSONObject item = items.getJSONObject(i);
-			result.add(parseHint(item));
+		finally {
+			in.close();
 		}
-		return result;
 	}
 
-	private ConfigurationMetadataSource parseSource(JSONObject json) {
+	private ConfigurationMetadataSource parseSource(JsonPullParser json) throws IOException {
 		ConfigurationMetadataSource source = new ConfigurationMetadataSource();
-		source.setGroupId(json.getString("name"));
-		source.setType(json.optString("type", null));
-		String description = json.optString("description", null);
+		String description = null;
+		json.beginObject();
+		while (json.hasNext()) {
+			String name = json.nextName();
+			if (name.equals("name")) {
+				source.setGroupId(json.nextString());
+			}
+			else if (name.equals("type")) {
+				source.setType(typeName(json.nextString()));
+			}
+			else if (name.equals("description")) {
+				description = json.nextString();
+			}
+			else if (name.equals("sourceType")) {
+				source.setSourceType(typeName(json.nextString()));
+			}
+			else if (name.equals("sourceMethod")) {
+				source.setSourceMethod(json.nextString());
+			}
+			else {
+				json.skipValue();
+			}
+		}
+		json.endObject();
+		required("name", source.getGroupId());
 		source.setDescription(description);
 		source.setShortDescription(
 				this.descriptionExtractor.getShortDescription(description));
-		source.setSourceType(json.optString("sourceType", null));
-		source.setSourceMethod(json.optString("sourceMethod", null));
 		return source;
 	}
 
-	private ConfigurationMetadataItem parseItem(JSONObject json) {
+	private ConfigurationMetadataItem parseItem(JsonPullParser json) throws IOException {
 		ConfigurationMetadataItem item = new ConfigurationMetadataItem();
-		item.setId(json.getString("name"));
-		item.setType(json.optString("type", null));
-		String description = json.optString("description", null);
+		String description = null;
+		Deprecation deprecation = null;
+		boolean deprecated = false;
+		json.beginObject();
+		while (json.hasNext()) {
+			String name = json.nextName();
+			if (name.equals("name")) {
+				item.setId(json.nextString());
+			}
+			else if (name.equals("type")) {
+				item.setType(typeName(json.nextString()));
+			}
+			else if (name.equals("description")) {
+				description = json.nextString();
+			}
+			else if (name.equals("defaultValue")) {
+				item.setDefaultValue(readItemValue(json));
+			}
+			else if (name.equals("deprecation")) {
+				deprecation = parseDeprecation(json);
+			}
+			else if (name.equals("deprecated")) {
+				deprecated = json.nextBoolean();
+			}
+			else if (name.equals("sourceType")) {
+				item.setSourceType(typeName(json.nextString()));
+			}
+			else if (name.equals("sourceMethod")) {
+				item.setSourceMethod(json.nextString());
+			}
+			else {
+				json.skipValue();
+			}
+		}
+		json.endObject();
+		required("name", item.getId());
 		item.setDescription(description);
 		item.setShortDescription(
 				this.descriptionExtractor.getShortDescription(description));
-		item.setDefaultValue(readItemValue(json.opt("defaultValue")));
-		item.setDeprecation(parseDeprecation(json));
-		item.setSourceType(json.optString("sourceType", null));
-		item.setSourceMethod(json.optString("sourceMethod", null));
+		item.setDeprecation(deprecation != null ? deprecation
+				: (deprecated ? new Deprecation() : null));
 		return item;
 	}
 
-	private ConfigurationMetadataHint parseHint(JSONObject json) {
+	private ConfigurationMetadataHint parseHint(JsonPullParser json) throws IOException {
 		ConfigurationMetadataHint hint = new ConfigurationMetadataHint();
-		hint.setId(json.getString("name"));
-		if (json.has("values")) {
-			JSONArray values = json.getJSONArray("values");
-			for (int i = 0; i < values.length(); i++) {
-				JSONObject value = values.getJSONObject(i);
-				ValueHint valueHint = new ValueHint();
-				valueHint.setValue(readItemValue(value.get("value")));
-				String description = value.optString("description", null);
-				valueHint.setDescription(description);
-				valueHint.setShortDescription(
-						this.descriptionExtractor.getShortDescription(description));
-				hint.getValueHints().add(valueHint);
+		json.beginObject();
+		while (json.hasNext()) {
+			String name = json.nextName();
+			if (name.equals("name")) {
+				hint.setId(json.nextString());
 			}
-		}
-		if (json.has("providers")) {
-			JSONArray providers = json.getJSONArray("providers");
-			for (int i = 0; i < providers.length(); i++) {
-				JSONObject provider = providers.getJSONObject(i);
-				ValueProvider valueProvider = new ValueProvider();
-				valueProvider.setName(provider.getString("name"));
-				if (provider.has("parameters")) {
-					JSONObject parameters = provider.getJSONObject("parameters");
-					Iterator<?> keys = parameters.keys();
-					while (keys.hasNext()) {
-						String key = (String) keys.next();
-						valueProvider.getParameters().put(key,
-								readItemValue(parameters.get(key)));
-					}
+			else if (name.equals("values")) {
+				json.beginArray();
+				while (json.hasNext()) {
+					hint.getValueHints().add(parseValueHint(json));
+				}
+				json.endArray();
+			}
+			else if (name.equals("providers")) {
+				json.beginArray();
+				while (json.hasNext()) {
+					hint.getValueProviders().add(parseValueProvider(json));
 				}
-				hint.getValueProviders().add(valueProvider);
+				json.endArray();
+			}
+			else {
+				json.skipValue();
 			}
 		}
+		json.endObject();
+		required("name", hint.getId());
 		return hint;
 	}
 
-	private Deprecation parseDeprecation(JSONObject object) {
-		if (object.has("deprecation")) {
-			JSONObject deprecationJsonObject = object.getJSONObject("deprecation");
-			Deprecation deprecation = new Deprecation();
-			deprecation.setReason(deprecationJsonObject.optString("reason", null));
-			deprecation
-					.setReplacement(deprecationJsonObject.optString("replacement", null));
-			return deprecation;
+	private ValueHint parseValueHint(JsonPullParser json) throws IOException {
+		ValueHint valueHint = new ValueHint();
+		String description = null;
+		boolean hasValue = false;
+		json.beginObject();
+		while (json.hasNext()) {
+			String name = json.nextName();
+			if (name.equals("value")) {
+				valueHint.setValue(readItemValue(json));
+				hasValue = true;
+			}
+			else if (name.equals("description")) {
+				description = json.nextString();
+			}
+			else {
+				json.skipValue();
+			}
+		}
+		json.endObject();
+		if (!hasValue) {
+			throw new JSONException("JSONObject[\"value\"] not found.");
 		}
-		return (object.optBoolean("deprecated") ? new Deprecation() : null);
+		valueHint.setDescription(description);
+		valueHint.setShortDescription(
+				this.descriptionExtractor.getShortDescription(description));
+		return valueHint;
 	}
 
-	private Object readItemValue(Object value) {
-		if (value instanceof JSONArray) {
-			JSONArray array = (JSONArray) value;
-			Object[] content = new Object[array.length()];
-			for (int i = 0; i < array.length(); i++) {
-				content[i] = array.get(i);
+	private ValueProvider parseValueProvider(JsonPullParser json) throws IOException {
+		ValueProvider valueProvider = new ValueProvider();
+		json.beginObject();
+		while (json.hasNext()) {
+			String name = json.nextName();
+			if (name.equals("name")) {
+				valueProvider.setName(json.nextString());
+			}
+			else if (name.equals("parameters") && json.peek() == Token.BEGIN_OBJECT) {
+				json.beginObject();
+				while (json.hasNext()) {
+					String key = json.nextName();
+					valueProvider.getParameters().put(key, readItemValue(json));
+				}
+				json.endObject();
+			}
+			else {
+				json.skipValue();
 			}
-			return content;
 		}
-		return value;
+		json.endObject();
+		required("name", valueProvider.getName());
+		return valueProvider;
 	}
 
-	private JSONObject readJson(InputStream in, Charset charset) throws IOException {
-		try {
-			StringBuilder out = new StringBuilder();
-			InputStreamReader reader = new InputStreamReader(in, charset);
-			char[] buffer = new char[BUFFER_SIZE];
-			int bytesRead = -1;
-			while ((bytesRead = reader.read(buffer)) != -1) {
-				out.append(buffer, 0, bytesRead);
-			}
-			return new JSONObject(out.toString());
+	private Deprecation parseDeprecation(JsonPullParser json) throws IOException {
+		if (json.peek() != Token.BEGIN_OBJECT) {
+			json.skipValue();
+			return null;
 		}
-		finally {
-			in.close();
+		Deprecation deprecation = new Deprecation();
+		json.beginObject();
+		while (json.hasNext()) {
+			String name = json.nextName();
+			if (name.equals("reason")) {
+				deprecation.setReason(json.nextString());
+			}
+			else if (name.equals("replacement")) {
+				deprecation.setReplacement(json.nextString());
+			}
+			else {
+				json.skipValue();
+			}
+		}
+		json.endObject();
+		return deprecation;
+	}
+
+	/**
+	 * Read a value, representing a json array as an Object[] of its elements.
+	 */
+	private Object readItemValue(JsonPullParser json) throws IOException {
+		if (json.peek() == Token.BEGIN_ARRAY) {
+			List<Object> content = new ArrayList<Object>();
+			json.beginArray();
+			while (json.hasNext()) {
+				content.add(json.nextValue());
+			}
+			json.endArray();
+			return content.toArray();
+		}
+		return json.nextValue();
+	}
+
+	private String typeName(String name) {
+		if (name == null) {
+			return null;
+		}
+		String shared = this.typeNames.get(name);
+		if (shared == null) {
+			this.typeNames.put(name, name);
+			shared = name;
+		}
+		return shared;
+	}
+
+	private static void required(String key, String value) {
+		if (value == null) {
+			throw new JSONException("JSONObject[\"" + key + "\"] not found.");
 		}
 	}
 
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataGroup;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepository;
+import org.springframework.boot.configurationmetadata.ConfigurationMetadataSource;
+import org.springframework.boot.configurationmetadata.Hints;
+
+/**
+ * The spring configuration metadata contributed by a single entry of a project's
+ * classpath, i.e. a jar file or the output folder of a project.
+ * <p>
+ * A fragment remembers a 'stamp' of the data it was read from, so that a
+ * {@link SpringPropertyIndex} only needs to re-read the fragments of classpath
+ * entries that were added or changed.
+ * <p>
+ * Besides the properties, a fragment keeps all the hints it declares, because hints
+ * may target properties declared by other fragments (e.g. hints for library properties
+ * in a project's additional metadata).
+ *
+ * @author agent
+ */
+public class ConfigurationMetadataFragment {
+
+	private final String location;
+	private final String stamp;
+	private final Map<String, ConfigurationMetadataProperty> properties;
+	private final Map<String, List<ConfigurationMetadataSource>> sources = new HashMap<>();
+	private final Map<String, Hints> hints;
+
+	public ConfigurationMetadataFragment(String location, String stamp, ConfigurationMetadataRepository metadata) {
+		this(location, stamp, metadata, Collections.<String, Hints>emptyMap());
+	}
+
+	/**
+	 * @param hints The hints declared by the fragment's metadata, keyed by the id of the property they target.
+	 */
+	public ConfigurationMetadataFragment(String location, String stamp, ConfigurationMetadataRepository metadata, Map<String, Hints> hints) {
+		this.location = location;
+		this.stamp = stamp;
+		this.properties = Collections.unmodifiableMap(metadata.getAllProperties());
+		this.hints = Collections.unmodifiableMap(hints);
+		for (ConfigurationMetadataGroup group : metadata.getAllGroups().values()) {
+			for (ConfigurationMetadataSource source : group.getSources().values()) {
+				for (String id : source.getProperties().keySet()) {
+					List<ConfigurationMetadataSource> sourcesForId = sources.get(id);
+					if (sourcesForId==null) {
+						sources.put(id, sourcesForId = new ArrayList<>(1));
+					}
+					sourcesForId.add(source);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return A string identifying the classpath entry this fragment was read from.
+	 */
+	public String getLocation() {
+		return location;
+	}
+
+	/**
+	 * @return A string that changes whenever the metadata of the classpath entry may have changed.
+	 */
+	public String getStamp() {
+		return stamp;
+	}
+
+	/**
+	 * @return The properties defined in this fragment, keyed by id.
+	 */
+	public Map<String, ConfigurationMetadataProperty> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * @return The sources in this fragment that declare the property with the given id.
+	 */
+	public List<ConfigurationMetadataSource> getSources(String id) {
+		List<ConfigurationMetadataSource> sourcesForId = sources.get(id);
+		return sourcesForId==null ? Collections.<ConfigurationMetadataSource>emptyList() : sourcesForId;
+	}
+
+	/**
+	 * @return The ids of the properties targeted by hints declared in this fragment.
+	 */
+	public Set<String> getHintedIds() {
+		return hints.keySet();
+	}
+
+	/**
+	 * @return The hints declared in this fragment for the property with the given id, or null.
+	 */
+	public Hints getHints(String id) {
+		return hints.get(id);
+	}
+
+	@Override
+	public String toString() {
+		return "ConfigurationMetadataFragment("+location+", "+properties.size()+" properties)";
+	}
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Pivotal, Inc.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Pivotal, Inc. - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.boot.properties.editor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Workspace wide cache of parsed {@link ConfigurationMetadataFragment}s, so that projects
+ * sharing the same jars (e.g. spring-boot-autoconfigure) share a single parsed copy of
+ * their metadata.
+ * <p>
+ * Fragments are identified by their location and stamp and are reference counted. Every
+ * {@link #acquire(String, String, Supplier)} must be paired with a {@link #release(ConfigurationMetadataFragment)}.
+ * A fragment is dropped from the cache when its last user releases it.
+ *
+ * @author agent
+ */
+public class ConfigurationMetadataFragmentCache {
+
+	private static final ConfigurationMetadataFragmentCache DEFAULT = new ConfigurationMetadataFragmentCache();
+
+	public static ConfigurationMetadataFragmentCache getDefault() {
+		return DEFAULT;
+	}
+
+	private static class Entry {
+		final ConfigurationMetadataFragment fragment;
+		int references = 0;
+		Entry(ConfigurationMetadataFragment fragment) {
+			this.fragment = fragment;
+		}
+	}
+
+	private final Map<String, Entry> entries = new HashMap<>();
+	private long hits = 0;
+
+	/**
+	 * Get the fragment for a given location and stamp, reading it with the given loader if
+	 * it isn't cached yet. The loader is called without holding a lock, so different fragments
+	 * can be read concurrently.
+	 */
+	public ConfigurationMetadataFragment acquire(String location, String stamp, Supplier<ConfigurationMetadataFragment> loader) {
+		String key = key(location, stamp);
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry!=null) {
+				hits++;
+				entry.references++;
+				return entry.fragment;
+			}
+		}
+		ConfigurationMetadataFragment fragment = loader.get();
+		synchronized (this) {
+			Entry entry = entries.get(key);
+			if (entry==null) {
+				//Nobody else read the same fragment in the mean time.
+				entry = new Entry(fragment);
+				entries.put(key, entry);
+			}
+			entry.references++;
+			return entry.fragment;
+		}
+	}
+
+	/**
+	 * Release a fragment obtained from {@link #acquire(String, String, Supplier)}.
+	 */
+	public synchronized void release(ConfigurationMetadataFragment fragment) {
+		String key = key(fragment.getLocation(), fragment.getStamp());
+		Entry entry = entries.get(key);
+		if (entry!=null && entry.fragment==fragment) {
+			if (--entry.references<=0) {
+				entries.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * @return The number of fragments currently in the cache.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return The number of times a cached fragment was reused instead of read again.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	private static String key(String location, String stamp) {
+		return location+"@"+stamp;
+	}
+}
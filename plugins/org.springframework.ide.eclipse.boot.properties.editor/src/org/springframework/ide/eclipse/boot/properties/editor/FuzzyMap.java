@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Pivotal, Inc.
+ * Copyright (c) 2014, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,9 +11,12 @@
 package org.springframework.ide.eclipse.boot.properties.editor;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 
@@ -27,7 +30,9 @@ import org.springframework.ide.eclipse.editor.support.util.StringUtil;
  * a search 'key' is associated with each data item.
  * <p>
  * The collection can then be searched for items who's key matches
- * simple 'fuzzy' patterns.
+ * simple 'fuzzy' patterns. To avoid scoring every key on every search, a
+ * {@link CharacterIndex} is used to skip keys that don't contain all of the
+ * characters of a pattern.
  */
 public abstract class FuzzyMap<E> implements Iterable<E> {
 
@@ -67,7 +72,17 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 		return entries.values().iterator();
 	}
 
-	private TreeMap<String,E> entries = new TreeMap<String, E>();
+	/**
+	 * The entries of the map. Entries are added in place while the map is populated, later updates
+	 * through {@link #replace(Collection, Collection)} swap in a modified copy so that concurrent
+	 * searches never see a partially updated map.
+	 */
+	private volatile TreeMap<String,E> entries = new TreeMap<String, E>();
+
+	/**
+	 * Lazily built index over the current entries, discarded whenever an entry is added.
+	 */
+	private volatile CharacterIndex<E> index;
 
 	protected abstract String getKey(E entry);
 
@@ -77,11 +92,33 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 		E existing = entries.get(key);
 		if (existing==null) {
 			entries.put(getKey(value), value);
+			index = null;
 		} else {
 			SpringPropertiesEditorPlugin.warning(FuzzyMap.class.getName()+": Multiple entries for key "+key+" some entries discarded");
 		}
 	}
 
+	/**
+	 * Removes the entries with the given keys and adds the given values in a single update. Searches
+	 * running concurrently see either all or none of the changes.
+	 */
+	protected synchronized void replace(Collection<String> removedKeys, Collection<E> addedValues) {
+		TreeMap<String, E> newEntries = new TreeMap<String, E>(entries);
+		for (String key : removedKeys) {
+			newEntries.remove(key);
+		}
+		for (E value : addedValues) {
+			String key = getKey(value);
+			if (newEntries.containsKey(key)) {
+				SpringPropertiesEditorPlugin.warning(FuzzyMap.class.getName()+": Multiple entries for key "+key+" some entries discarded");
+			} else {
+				newEntries.put(key, value);
+			}
+		}
+		entries = newEntries;
+		index = null;
+	}
+
 	/**
 	 * Search for pattern. A pattern is just a sequence of characters which have to found in
 	 * an entrie's key in the same order as they are in the pattern.
@@ -94,25 +131,36 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 			//Special case because
 			// 1) no need to search. Matches everything
 			// 2) want to use different way of sorting / scoring. See https://issuetracker.springsource.com/browse/STS-4008
+			TreeMap<String, E> entries = this.entries;
 			ArrayList<Match<E>> matches = new ArrayList<Match<E>>(entries.size());
 			for (E v : entries.values()) {
 				matches.add(new Match<E>(pattern, 1.0, v));
 			}
 			return matches;
 		} else {
-			//TODO: optimize somehow with a smarter index? (right now searches all map entries sequentially)
 			ArrayList<Match<E>> matches = new ArrayList<Match<E>>();
-			for (Entry<String, E> e : entries.entrySet()) {
-				String key = e.getKey();
+			CharacterIndex<E> index = getIndex();
+			BitSet candidates = index.getCandidates(pattern);
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i+1)) {
+				String key = index.keys[i];
 				double score = FuzzyMatcher.matchScore(pattern, key);
 				if (score!=0.0) {
-					matches.add(new Match<E>(pattern, score, e.getValue()));
+					matches.add(new Match<E>(pattern, score, index.values.get(i)));
 				}
 			}
 			return matches;
 		}
 	}
 
+	private CharacterIndex<E> getIndex() {
+		TreeMap<String, E> entries = this.entries;
+		CharacterIndex<E> index = this.index;
+		if (index==null || index.entries!=entries) {
+			this.index = index = new CharacterIndex<E>(entries);
+		}
+		return index;
+	}
+
 	/**
 	 * Searches the index for the longest string which is both
 	 *  - a prefix of propertyName
@@ -135,6 +183,7 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 		//The 'best' entry must therefore be either the entry just before or just after
 		//the property we are searching for.
 
+		TreeMap<String, E> entries = this.entries;
 		Entry<String, E> ceiln = entries.ceilingEntry(propertyName);
 		Entry<String, E> floor = entries.floorEntry(propertyName);
 		Entry<String, E> best;
@@ -165,4 +214,74 @@ public abstract class FuzzyMap<E> implements Iterable<E> {
 		return entries.size();
 	}
 
+	/**
+	 * Posting lists of the characters used in the keys of a FuzzyMap. A key can only match a
+	 * pattern if it contains every character of the pattern, so the candidates for a pattern are
+	 * the intersection of the posting lists of its characters. Keys are numbered in the sorted
+	 * order of the map, so iterating over the candidates preserves the order of the keys.
+	 */
+	private static class CharacterIndex<E> {
+
+		private static final int ASCII = 128;
+
+		final TreeMap<String, E> entries;
+		final String[] keys;
+		final List<E> values;
+
+		private final BitSet[] asciiPostings = new BitSet[ASCII];
+		private final Map<Character, BitSet> otherPostings = new HashMap<Character, BitSet>();
+
+		CharacterIndex(TreeMap<String, E> entries) {
+			this.entries = entries;
+			keys = entries.keySet().toArray(new String[entries.size()]);
+			values = new ArrayList<E>(entries.values());
+			for (int i = 0; i < keys.length; i++) {
+				String key = keys[i];
+				for (int pos = 0; pos < key.length(); pos++) {
+					getPostings(key.charAt(pos), true).set(i);
+				}
+			}
+		}
+
+		/**
+		 * @return the numbers of all keys that contain every character of the pattern.
+		 */
+		BitSet getCandidates(String pattern) {
+			BitSet candidates = null;
+			for (int pos = 0; pos < pattern.length(); pos++) {
+				BitSet postings = getPostings(pattern.charAt(pos), false);
+				if (postings==null) {
+					return new BitSet();
+				}
+				if (candidates==null) {
+					candidates = (BitSet) postings.clone();
+				} else {
+					candidates.and(postings);
+				}
+			}
+			if (candidates==null) {
+				candidates = new BitSet();
+				candidates.set(0, keys.length);
+			}
+			return candidates;
+		}
+
+		private BitSet getPostings(char c, boolean create) {
+			BitSet postings;
+			if (c < ASCII) {
+				postings = asciiPostings[c];
+				if (postings==null && create) {
+					postings = asciiPostings[c] = new BitSet();
+				}
+			} else {
+				postings = otherPostings.get(c);
+				if (postings==null && create) {
+					postings = new BitSet();
+					otherPostings.put(c, postings);
+				}
+			}
+			return postings;
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,50 +10,264 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.boot.properties.editor;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.jdt.core.IJavaProject;
-import org.springframework.boot.configurationmetadata.ConfigurationMetadataGroup;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataProperty;
-import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepository;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataSource;
+import org.springframework.boot.configurationmetadata.Hints;
+import org.springframework.boot.configurationmetadata.ValueHint;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.PropertyInfo;
 import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProviderRegistry;
 
+/**
+ * Index of the spring properties metadata found on a project's classpath.
+ * <p>
+ * The index is composed of {@link ConfigurationMetadataFragment}s, one per jar and
+ * output folder on the classpath. When the classpath changes, {@link #refresh()}
+ * only reads the fragments of new or changed classpath entries and patches the
+ * properties they affect, instead of rebuilding the whole index.
+ * <p>
+ * Fragments are obtained from the workspace wide {@link ConfigurationMetadataFragmentCache}
+ * so that indexes of different projects share the metadata of common jars. Call
+ * {@link #dispose()} when the index is no longer used.
+ *
+ * @author agent
+ */
 public class SpringPropertyIndex extends FuzzyMap<PropertyInfo> {
 
 	private ValueProviderRegistry valueProviders;
+	private final IJavaProject project;
+	private List<ConfigurationMetadataFragment> fragments = Collections.emptyList();
+	private final ConfigurationMetadataFragmentCache fragmentCache = ConfigurationMetadataFragmentCache.getDefault();
 
 	public SpringPropertyIndex(ValueProviderRegistry valueProviders, IJavaProject jp) {
 		this.valueProviders = valueProviders;
+		this.project = jp;
 		if (jp!=null) {
-			try {
-				StsConfigMetadataRepositoryJsonLoader loader = new StsConfigMetadataRepositoryJsonLoader();
-				ConfigurationMetadataRepository metadata = loader.load(jp);
-				//^^^ Should be done in bg? It seems fast enough for now.
-
-				Collection<ConfigurationMetadataProperty> allEntries = metadata.getAllProperties().values();
-				for (ConfigurationMetadataProperty item : allEntries) {
-					add(new PropertyInfo(valueProviders, item));
-				}
+			refresh();
+		}
+	}
 
-				for (ConfigurationMetadataGroup group : metadata.getAllGroups().values()) {
-					for (ConfigurationMetadataSource source : group.getSources().values()) {
-						for (ConfigurationMetadataProperty prop : source.getProperties().values()) {
-							PropertyInfo info = get(prop.getId());
-							info.addSource(source);
-						}
+	/**
+	 * Bring the index up-to-date with the project's classpath. Only the metadata of
+	 * classpath entries that were added or changed since the last refresh is read, and
+	 * only the properties defined by added, changed or removed entries are replaced.
+	 *
+	 * @return true if any fragments of the index have changed.
+	 */
+	public synchronized boolean refresh() {
+		if (project==null) {
+			return false;
+		}
+		List<ConfigurationMetadataFragment> newFragments = null;
+		try {
+			Map<String, ConfigurationMetadataFragment> reusable = new HashMap<>();
+			for (ConfigurationMetadataFragment f : fragments) {
+				reusable.put(f.getLocation(), f);
+			}
+			StsConfigMetadataRepositoryJsonLoader loader = new StsConfigMetadataRepositoryJsonLoader();
+			newFragments = loader.loadFragments(project, reusable, fragmentCache);
+			//^^^ Should be done in bg? It seems fast enough for now.
+			if (newFragments.equals(fragments)) {
+				return false;
+			}
+
+			Set<String> affected = new HashSet<>();
+			if (hasSameOrder(fragments, newFragments)) {
+				Map<ConfigurationMetadataFragment, Boolean> oldSet = identitySet(fragments);
+				Map<ConfigurationMetadataFragment, Boolean> newSet = identitySet(newFragments);
+				for (ConfigurationMetadataFragment f : fragments) {
+					if (!newSet.containsKey(f)) {
+						affected.addAll(f.getProperties().keySet());
+						affected.addAll(f.getHintedIds());
+					}
+				}
+				for (ConfigurationMetadataFragment f : newFragments) {
+					if (!oldSet.containsKey(f)) {
+						affected.addAll(f.getProperties().keySet());
+						affected.addAll(f.getHintedIds());
 					}
 				}
+			} else {
+				//Entries were reordered, which may change which fragment 'wins' for any property.
+				for (ConfigurationMetadataFragment f : fragments) {
+					affected.addAll(f.getProperties().keySet());
+					affected.addAll(f.getHintedIds());
+				}
+				for (ConfigurationMetadataFragment f : newFragments) {
+					affected.addAll(f.getProperties().keySet());
+					affected.addAll(f.getHintedIds());
+				}
+			}
+
+			List<PropertyInfo> added = new ArrayList<>();
+			for (String id : affected) {
+				PropertyInfo info = createPropertyInfo(id, newFragments);
+				if (info!=null) {
+					added.add(info);
+				}
+			}
+			replace(affected, added);
+			releaseRemoved(fragments, newFragments);
+			fragments = newFragments;
+	//		System.out.println(">>> spring properties metadata loaded "+this.size()+" items===");
+	//		dumpAsTestData();
+	//		System.out.println(">>> spring properties metadata loaded "+this.size()+" items===");
+			return true;
+		} catch (Exception e) {
+			SpringPropertiesEditorPlugin.log(e);
+			return false;
+		} finally {
+			if (newFragments!=null && newFragments!=fragments) {
+				//The refresh failed, release the fragments acquired for it that the index doesn't use.
+				releaseRemoved(newFragments, fragments);
+			}
+		}
+	}
 
-	//			System.out.println(">>> spring properties metadata loaded "+this.size()+" items===");
-	//			dumpAsTestData();
-	//			System.out.println(">>> spring properties metadata loaded "+this.size()+" items===");
-			} catch (Exception e) {
-				SpringPropertiesEditorPlugin.log(e);
+	/**
+	 * Create the {@link PropertyInfo} for a given property id. If more than one fragment defines
+	 * the property, the one that comes first on the classpath wins. Hints are collected from
+	 * all fragments, so that e.g. a project's additional metadata can add hints to a property
+	 * defined in a jar. Sources are collected from the winning fragment and the ones after it.
+	 */
+	private PropertyInfo createPropertyInfo(String id, List<ConfigurationMetadataFragment> fragments) {
+		ConfigurationMetadataFragment owner = null;
+		ConfigurationMetadataProperty prop = null;
+		for (ConfigurationMetadataFragment f : fragments) {
+			prop = f.getProperties().get(id);
+			if (prop!=null) {
+				owner = f;
+				break;
+			}
+		}
+		if (prop==null) {
+			return null;
+		}
+		List<Hints> otherHints = new ArrayList<>();
+		for (ConfigurationMetadataFragment f : fragments) {
+			//The hints of the owner are already applied to its properties.
+			Hints hints = f==owner ? null : f.getHints(id);
+			if (hints!=null) {
+				otherHints.add(hints);
 			}
 		}
+		if (!otherHints.isEmpty()) {
+			prop = withHints(prop, otherHints);
+		}
+		PropertyInfo info = new PropertyInfo(valueProviders, prop);
+		Set<String> sourceKeys = new HashSet<>();
+		for (ConfigurationMetadataFragment f : fragments.subList(fragments.indexOf(owner), fragments.size())) {
+			for (ConfigurationMetadataSource source : f.getSources(id)) {
+				if (sourceKeys.add(source.getGroupId()+"/"+source.getType())) {
+					info.addSource(source);
+				}
+			}
+		}
+		return info;
+	}
+
+	/**
+	 * Create a copy of a property with some more hints added to it. The property itself is
+	 * not modified, because it belongs to a fragment shared with the indexes of other projects.
+	 */
+	private static ConfigurationMetadataProperty withHints(ConfigurationMetadataProperty prop, List<Hints> otherHints) {
+		ConfigurationMetadataProperty copy = new ConfigurationMetadataProperty();
+		copy.setId(prop.getId());
+		copy.setName(prop.getName());
+		copy.setType(prop.getType());
+		copy.setDescription(prop.getDescription());
+		copy.setShortDescription(prop.getShortDescription());
+		copy.setDefaultValue(prop.getDefaultValue());
+		copy.setDeprecation(prop.getDeprecation());
+		addHints(copy.getHints(), prop.getHints());
+		for (Hints hints : otherHints) {
+			addHints(copy.getHints(), hints);
+		}
+		return copy;
+	}
+
+	private static void addHints(Hints target, Hints hints) {
+		addValueHints(target.getKeyHints(), hints.getKeyHints());
+		target.getKeyProviders().addAll(hints.getKeyProviders());
+		addValueHints(target.getValueHints(), hints.getValueHints());
+		target.getValueProviders().addAll(hints.getValueProviders());
+	}
+
+	/**
+	 * Add a bunch of hints to a list, but guard against duplicates.
+	 */
+	private static void addValueHints(List<ValueHint> existing, List<ValueHint> toAdd) {
+		Set<String> existingValues = new HashSet<>();
+		for (ValueHint hint : existing) {
+			existingValues.add(""+hint.getValue());
+		}
+		for (ValueHint hint : toAdd) {
+			if (existingValues.add(""+hint.getValue())) {
+				existing.add(hint);
+			}
+		}
+	}
+
+	/**
+	 * @return true if the fragments present in both lists appear in the same relative order.
+	 */
+	private static boolean hasSameOrder(List<ConfigurationMetadataFragment> oldFragments, List<ConfigurationMetadataFragment> newFragments) {
+		Map<String, Integer> newPositions = new HashMap<>();
+		for (int i = 0; i < newFragments.size(); i++) {
+			newPositions.put(newFragments.get(i).getLocation(), i);
+		}
+		int last = -1;
+		for (ConfigurationMetadataFragment f : oldFragments) {
+			Integer pos = newPositions.get(f.getLocation());
+			if (pos!=null) {
+				if (pos<last) {
+					return false;
+				}
+				last = pos;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Release the fragments that are no longer used by this index back to the cache.
+	 */
+	public synchronized void dispose() {
+		releaseRemoved(fragments, Collections.<ConfigurationMetadataFragment>emptyList());
+		fragments = Collections.emptyList();
+	}
+
+	private void releaseRemoved(List<ConfigurationMetadataFragment> oldFragments, List<ConfigurationMetadataFragment> newFragments) {
+		Map<ConfigurationMetadataFragment, Boolean> newSet = identitySet(newFragments);
+		for (ConfigurationMetadataFragment f : oldFragments) {
+			if (!newSet.containsKey(f)) {
+				fragmentCache.release(f);
+			}
+		}
+	}
+
+	private static Map<ConfigurationMetadataFragment, Boolean> identitySet(List<ConfigurationMetadataFragment> fragments) {
+		Map<ConfigurationMetadataFragment, Boolean> set = new IdentityHashMap<>();
+		for (ConfigurationMetadataFragment f : fragments) {
+			set.put(f, true);
+		}
+		return set;
+	}
+
+	/**
+	 * @return The metadata fragments this index is currently composed of, in classpath order.
+	 */
+	public synchronized List<ConfigurationMetadataFragment> getFragments() {
+		return Collections.unmodifiableList(fragments);
 	}
 
 	public void add(ConfigurationMetadataProperty propertyInfo) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014-2016 Pivotal, Inc.
+ * Copyright (c) 2014-2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,6 +15,11 @@ import static org.springframework.ide.eclipse.boot.properties.editor.SpringPrope
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -28,7 +33,6 @@ import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaCore;
-import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepository;
 import org.springframework.boot.configurationmetadata.ConfigurationMetadataRepositoryJsonBuilder;
 import org.springframework.ide.eclipse.boot.util.FileUtil;
 
@@ -60,61 +64,139 @@ public class StsConfigMetadataRepositoryJsonLoader {
 		ADDITIONAL_SPRING_CONFIGURATION_METADATA_JSON
 	};
 
-	private ConfigurationMetadataRepositoryJsonBuilder builder = ConfigurationMetadataRepositoryJsonBuilder.create();
-
 	/**
-	 * Load the {@link ConfigMetadataRepository} with the metadata of the current
-	 * classpath using the {@link #DEFAULT_LOCATION_PATTERN}. If the same config
-	 * metadata items is held within different resources, the first that is
-	 * loaded is kept which means the result is not deterministic.
+	 * Load the metadata of the current classpath as a list of fragments, one per jar file
+	 * and project output folder, in classpath order. Fragments in the 'reusable' map whose
+	 * location and stamp still match are returned as is, without reading their data again.
+	 * All other fragments are acquired from the given cache and must be released by the
+	 * caller when no longer used. If loading fails, the fragments acquired so far are
+	 * released before the exception is thrown.
+	 *
+	 * @param reusable Fragments of a previous load, keyed by their location.
 	 */
-	public ConfigurationMetadataRepository load(IJavaProject project) throws Exception {
-		debug(">> load ConfigurationMetadataRepository for "+project.getElementName());
-		IClasspathEntry[] classpath = project.getResolvedClasspath(true);
-		for (IClasspathEntry e : classpath) {
-			int ekind = e.getEntryKind();
-			int ckind = e.getContentKind();
-			IPath path = e.getPath();
-			if (ekind==IClasspathEntry.CPE_LIBRARY && ckind==IPackageFragmentRoot.K_BINARY) {
-				//jar file dependency
-				File jarFile = path.toFile();
-				if (FileUtil.isJarFile(jarFile)) {
-					loadFromJar(jarFile);
+	public List<ConfigurationMetadataFragment> loadFragments(IJavaProject project, Map<String, ConfigurationMetadataFragment> reusable,
+			ConfigurationMetadataFragmentCache cache) throws Exception {
+		debug(">> load ConfigurationMetadataFragments for "+project.getElementName());
+		List<ConfigurationMetadataFragment> fragments = new ArrayList<>();
+		Set<String> locations = new HashSet<>();
+		boolean loaded = false;
+		try {
+			IClasspathEntry[] classpath = project.getResolvedClasspath(true);
+			for (IClasspathEntry e : classpath) {
+				int ekind = e.getEntryKind();
+				int ckind = e.getContentKind();
+				IPath path = e.getPath();
+				ConfigurationMetadataFragment fragment = null;
+				if (ekind==IClasspathEntry.CPE_LIBRARY && ckind==IPackageFragmentRoot.K_BINARY) {
+					//jar file dependency
+					File jarFile = path.toFile();
+					if (FileUtil.isJarFile(jarFile)) {
+						String location = jarFile.getAbsolutePath();
+						String stamp = jarFile.lastModified()+":"+jarFile.length();
+						if (locations.add(location)) {
+							fragment = reuse(reusable, location, stamp);
+							if (fragment==null) {
+								fragment = cache.acquire(location, stamp, () -> {
+									ConfigurationMetadataRepositoryJsonBuilder jarBuilder = ConfigurationMetadataRepositoryJsonBuilder.create();
+									loadFromJar(jarBuilder, jarFile);
+									return new ConfigurationMetadataFragment(location, stamp, jarBuilder.build(), jarBuilder.buildHints());
+								});
+							}
+						}
+					}
+				} else if (ekind==IClasspathEntry.CPE_PROJECT) {
+					IJavaProject dependency = getProjectDependency(e);
+					if (dependency!=null) {
+						fragment = outputFolderFragment(dependency, reusable, cache, locations);
+					}
+				} else {
+					debug("Skipped: "+ekind(ekind)+" "+ckind(ckind)+": "+path);
+				}
+				if (fragment!=null) {
+					fragments.add(fragment);
+				}
+			}
+			ConfigurationMetadataFragment fragment = outputFolderFragment(project, reusable, cache, locations);
+			if (fragment!=null) {
+				fragments.add(fragment);
+			}
+			loaded = true;
+		} finally {
+			if (!loaded) {
+				for (ConfigurationMetadataFragment f : fragments) {
+					if (reusable.get(f.getLocation())!=f) {
+						cache.release(f);
+					}
+				}
+			}
+		}
+		debug("<< load ConfigurationMetadataFragments for "+project.getElementName()+": "+fragments.size()+" fragments");
+		return fragments;
+	}
+
+	private ConfigurationMetadataFragment reuse(Map<String, ConfigurationMetadataFragment> reusable, String location, String stamp) {
+		ConfigurationMetadataFragment fragment = reusable.get(location);
+		if (fragment!=null && fragment.getStamp().equals(stamp)) {
+			return fragment;
+		}
+		return null;
+	}
+
+	private ConfigurationMetadataFragment outputFolderFragment(IJavaProject project, Map<String, ConfigurationMetadataFragment> reusable,
+			ConfigurationMetadataFragmentCache cache, Set<String> locations) {
+		try {
+			IPath outputLoc = project.getOutputLocation();
+			if (outputLoc!=null) {
+				IFolder outputFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(outputLoc);
+				String location = "output:"+outputLoc;
+				if (!locations.add(location)) {
+					return null;
+				}
+				StringBuilder stampBuilder = new StringBuilder();
+				for (String mdLoc : PROJECT_META_DATA_LOCATIONS) {
+					IFile mdf = outputFolder.getFile(new Path(mdLoc));
+					stampBuilder.append(mdf.getModificationStamp()).append(':');
 				}
-			} else if (ekind==IClasspathEntry.CPE_PROJECT) {
-				loadFromProjectDependency(e);
-			} else {
-				debug("Skipped: "+ekind(ekind)+" "+ckind(ckind)+": "+path);
+				String stamp = stampBuilder.toString();
+				ConfigurationMetadataFragment fragment = reuse(reusable, location, stamp);
+				if (fragment==null) {
+					fragment = cache.acquire(location, stamp, () -> {
+						ConfigurationMetadataRepositoryJsonBuilder folderBuilder = ConfigurationMetadataRepositoryJsonBuilder.create();
+						loadFromOutputFolder(folderBuilder, project);
+						return new ConfigurationMetadataFragment(location, stamp, folderBuilder.build(), folderBuilder.buildHints());
+					});
+				}
+				return fragment;
 			}
+		} catch (Exception e) {
+			SpringPropertiesEditorPlugin.log(e);
 		}
-		loadFromOutputFolder(project);
-		ConfigurationMetadataRepository repository = builder.build();
-		debug("<< load ConfigurationMetadataRepository for "+project.getElementName()+": "+repository.getAllProperties().size()+" properties");
-		return repository;
+		return null;
 	}
 
-	private void loadFromProjectDependency(IClasspathEntry entry) {
+	private IJavaProject getProjectDependency(IClasspathEntry entry) {
 		try {
 			String pname = entry.getPath().segment(0);
 			if (pname!=null) {
 				IProject p = ResourcesPlugin.getWorkspace().getRoot().getProject(pname);
 				if (p.isAccessible() && p.hasNature(JavaCore.NATURE_ID)) {
-					loadFromOutputFolder(JavaCore.create(p));
+					return JavaCore.create(p);
 				}
 			}
 		} catch (Exception e) {
 			SpringPropertiesEditorPlugin.log(e);
 		}
+		return null;
 	}
 
-	private void loadFromOutputFolder(IJavaProject project) {
+	private void loadFromOutputFolder(ConfigurationMetadataRepositoryJsonBuilder builder, IJavaProject project) {
 		try {
 			IPath outputLoc = project.getOutputLocation();
 			if (outputLoc!=null) {
 				IFolder outputFolder = ResourcesPlugin.getWorkspace().getRoot().getFolder(outputLoc);
 				for (String mdLoc : PROJECT_META_DATA_LOCATIONS) {
 					IFile mdf = outputFolder.getFile(new Path(mdLoc));
-					loadFromJsonFile(mdf);
+					loadFromJsonFile(builder, mdf);
 				}
 			}
 		} catch (Exception e) {
@@ -122,12 +204,12 @@ public class StsConfigMetadataRepositoryJsonLoader {
 		}
 	}
 
-	private void loadFromJsonFile(IFile mdf) {
+	private void loadFromJsonFile(ConfigurationMetadataRepositoryJsonBuilder builder, IFile mdf) {
 		if (mdf.exists()) {
 			InputStream is = null;
 			try {
 				is = mdf.getContents(true);
-				loadFromInputStream(mdf, is);
+				loadFromInputStream(builder, mdf, is);
 			} catch (Exception e) {
 				SpringPropertiesEditorPlugin.log(e);
 			} finally {
@@ -142,7 +224,7 @@ public class StsConfigMetadataRepositoryJsonLoader {
 		}
 	}
 
-	private void loadFromJar(File f) {
+	private void loadFromJar(ConfigurationMetadataRepositoryJsonBuilder builder, File f) {
 		debug("load from jar: "+f);
 		JarFile jarFile = null;
 		try {
@@ -151,7 +233,7 @@ public class StsConfigMetadataRepositoryJsonLoader {
 			for (String loc : JAR_META_DATA_LOCATIONS) {
 				ZipEntry e = jarFile.getEntry(loc);
 				if (e!=null) {
-					loadFrom(jarFile, e);
+					loadFrom(builder, jarFile, e);
 				}
 			}
 		} catch (Throwable e) {
@@ -167,11 +249,11 @@ public class StsConfigMetadataRepositoryJsonLoader {
 	}
 
 
-	private void loadFrom(JarFile jarFile, ZipEntry ze) {
+	private void loadFrom(ConfigurationMetadataRepositoryJsonBuilder builder, JarFile jarFile, ZipEntry ze) {
 		InputStream is = null;
 		try {
 			is = jarFile.getInputStream(ze);
-			loadFromInputStream(jarFile.getName()+"["+ze.getName()+"]", is);
+			loadFromInputStream(builder, jarFile.getName()+"["+ze.getName()+"]", is);
 		} catch (Throwable e) {
 			SpringPropertiesEditorPlugin.log(e);
 		} finally {
@@ -184,7 +266,7 @@ public class StsConfigMetadataRepositoryJsonLoader {
 		}
 	}
 
-	private void loadFromInputStream(Object origin, InputStream is) throws IOException {
+	private void loadFromInputStream(ConfigurationMetadataRepositoryJsonBuilder builder, Object origin, InputStream is) throws IOException {
 		builder.withJsonResource(origin, is);
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Pivotal, Inc.
+ * Copyright (c) 2014, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,9 @@
 package org.springframework.ide.eclipse.boot.properties.editor.util;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -37,17 +39,22 @@ import org.springframework.ide.eclipse.boot.properties.editor.metadata.ValueProv
  * file all make use of a per-project index of spring properties metadata extracted
  * from project's classpath. This Index manager is responsible for keeping at most
  * one index per-project and to keep the index up-to-date.
+ * <p>
+ * When the classpath or live metadata of a project changes, the indexes are marked as
+ * outdated and refreshed the next time they are requested. A refresh only re-reads the
+ * jars and output folders that changed (see {@link SpringPropertyIndex#refresh()}).
  *
  * @author Kris De Volder
  */
 public class SpringPropertiesIndexManager extends ListenerManager<Listener<SpringPropertiesIndexManager>> implements ClasspathListener {
 
-	//TODO: More precise cache flushing?
-	// right now, any detected change that may affect the cached metadata results.
-	// in clearing the entire cache.
-	// Probably this is okay, since reading the data is pretty fast.
-
 	private Map<String, SpringPropertyIndex> indexes = null;
+
+	/**
+	 * Keys of the indexes that may be out of date because of a change since they were last loaded.
+	 * Since a project's classpath can include other projects, any change marks all indexes.
+	 */
+	private final Set<String> outdated = new HashSet<>();
 	final private ValueProviderRegistry valueProviders;
 
 	public SpringPropertiesIndexManager(ValueProviderRegistry valueProviders) {
@@ -65,18 +72,27 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 		if (index==null) {
 			index = new SpringPropertyIndex(valueProviders, jp);
 			indexes.put(key, index);
+		} else if (outdated.remove(key)) {
+			index.refresh();
 		}
 		return index;
 	}
 
 	@Override
 	public synchronized void classpathChanged(IJavaProject jp) {
-		clear();
+		if (indexes!=null && !jp.getProject().isAccessible()) {
+			SpringPropertyIndex index = indexes.remove(jp.getElementName());
+			if (index!=null) {
+				index.dispose();
+			}
+			outdated.remove(jp.getElementName());
+		}
+		markOutdated();
 	}
 
-	private void clear() {
-		if (indexes!=null) {
-			indexes.clear();
+	private void markOutdated() {
+		if (indexes!=null && !indexes.isEmpty()) {
+			outdated.addAll(indexes.keySet());
 			for (Listener<SpringPropertiesIndexManager> l : getListeners()) {
 				l.changed(this);
 			}
@@ -92,7 +108,7 @@ public class SpringPropertiesIndexManager extends ListenerManager<Listener<Sprin
 	 * @param jsonFile The IFile in project's output folder that was changed.
 	 */
 	public synchronized void liveMetadataChanged(IJavaProject jp, IFile jsonFile) {
-		clear();
+		markOutdated();
 	}
 
 	private class LiveMetadataListener implements IResourceChangeListener, IResourceDeltaVisitor {
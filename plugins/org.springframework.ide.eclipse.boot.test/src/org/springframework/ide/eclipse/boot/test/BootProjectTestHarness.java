@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,8 +28,12 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.m2e.core.ui.internal.UpdateMavenProjectJob;
 import org.osgi.framework.Version;
@@ -343,6 +347,25 @@ public class BootProjectTestHarness {
 		return project;
 	}
 
+	/**
+	 * Create a plain java project, without source folders or JRE, that only has the given jars
+	 * on its classpath and 'bin' as its output folder.
+	 */
+	public IJavaProject createJavaProject(String projectName, File... jars) throws Exception {
+		IProject project = createProject(projectName);
+		IProjectDescription description = project.getDescription();
+		description.setNatureIds(new String[] { JavaCore.NATURE_ID });
+		project.setDescription(description, new NullProgressMonitor());
+
+		IJavaProject jp = JavaCore.create(project);
+		IClasspathEntry[] classpath = new IClasspathEntry[jars.length];
+		for (int i = 0; i < jars.length; i++) {
+			classpath[i] = JavaCore.newLibraryEntry(new Path(jars[i].getAbsolutePath()), null, null);
+		}
+		jp.setRawClasspath(classpath, project.getFullPath().append("bin"), new NullProgressMonitor());
+		return jp;
+	}
+
 	public IProject rename(IProject project, String newName) throws Exception {
 		IProjectDescription description = project.getDescription();
 		description.setName(newName);
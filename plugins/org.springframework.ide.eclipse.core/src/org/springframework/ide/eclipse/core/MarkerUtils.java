@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,9 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.core.resources.IMarker;
@@ -85,16 +87,8 @@ public final class MarkerUtils {
 	public static void deleteAllMarkers(IResource resource, String id) {
 		if (resource != null && resource.isAccessible()) {
 			try {
-				// Look for markers that have been created elsewhere in the
-				// workspace but originate from the given resource
-				String originatingResourceValue = resource.getFullPath().toString();
-				IMarker[] markers = ResourcesPlugin.getWorkspace().getRoot().findMarkers(id, true,
-						IResource.DEPTH_INFINITE);
-				for (IMarker marker : markers) {
-					if (originatingResourceValue.equals(marker
-							.getAttribute(ORIGINATING_RESOURCE_KEY))) {
-						marker.delete();
-					}
+				for (IMarker marker : findAllMarkers(resource, id)) {
+					marker.delete();
 				}
 			}
 			catch (CoreException e) {
@@ -103,6 +97,37 @@ public final class MarkerUtils {
 		}
 	}
 
+	/**
+	 * Returns all {@link IMarker markers} with the given id (including the
+	 * inherited ones) anywhere in the workspace that have an attribute under
+	 * the key named {@link #ORIGINATING_RESOURCE_KEY} that matches the given
+	 * {@link IResource#getFullPath()}.
+	 * @since 3.9.0
+	 */
+	public static IMarker[] findAllMarkers(IResource resource, String id) throws CoreException {
+		// Look for markers that have been created elsewhere in the
+		// workspace but originate from the given resource
+		String originatingResourceValue = resource.getFullPath().toString();
+		IMarker[] markers = ResourcesPlugin.getWorkspace().getRoot().findMarkers(id, true,
+				IResource.DEPTH_INFINITE);
+		List<IMarker> foundMarkers = new ArrayList<IMarker>();
+		for (IMarker marker : markers) {
+			if (originatingResourceValue.equals(marker.getAttribute(ORIGINATING_RESOURCE_KEY))) {
+				foundMarkers.add(marker);
+			}
+		}
+		return foundMarkers.toArray(new IMarker[foundMarkers.size()]);
+	}
+
+	/**
+	 * Returns all {@link IMarker markers} with given id (including the
+	 * inherited ones) from given {@link IResource} and it's members.
+	 * @since 3.9.0
+	 */
+	public static IMarker[] findMarkers(IResource resource, String id) throws CoreException {
+		return resource.findMarkers(id, true, IResource.DEPTH_INFINITE);
+	}
+
 	/**
 	 * Removes all {@link IMarker markers} with given id (including the
 	 * inherited ones) from given {@link IResource} and it's members.
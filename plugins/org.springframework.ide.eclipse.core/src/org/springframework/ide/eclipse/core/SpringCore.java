@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2014 Spring IDE Developers
+ * Copyright (c) 2005, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,6 +21,8 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Plugin;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.JavaCore;
 import org.osgi.framework.BundleContext;
 import org.springframework.ide.eclipse.core.internal.model.SpringModel;
 import org.springframework.ide.eclipse.core.java.ITypeStructureCache;
@@ -28,6 +30,7 @@ import org.springframework.ide.eclipse.core.java.TypeStructureCache;
 import org.springframework.ide.eclipse.core.java.typehierarchy.BytecodeTypeHierarchyClassReaderFactory;
 import org.springframework.ide.eclipse.core.java.typehierarchy.DirectTypeHierarchyElementCacheFactory;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyEngine;
+import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyIndexStore;
 import org.springframework.ide.eclipse.core.java.typehierarchy.TypeHierarchyResourceChangeListener;
 import org.springframework.ide.eclipse.core.model.ISpringModel;
 
@@ -74,6 +77,15 @@ public class SpringCore extends Plugin {
 	/** Temporally setting to enable or disable the use of XBean's non-locking classloader infrastructure */
 	public static final String USE_NON_LOCKING_CLASSLOADER = PLUGIN_ID + ".useNonLockingClassLoader";
 
+	/** Setting to enable or disable the concurrent validation of resources by validators that support it */
+	public static final String USE_CONCURRENT_VALIDATION = PLUGIN_ID + ".useConcurrentValidation";
+
+	/** Setting for the maximum number of worker threads used for concurrent validation */
+	public static final String CONCURRENT_VALIDATION_THREADS = PLUGIN_ID + ".concurrentValidationThreads";
+
+	/** Setting for the maximum size of the project classloader cache in MB, measured by the size of the cached jars */
+	public static final String CLASSLOADER_CACHE_SIZE = PLUGIN_ID + ".classLoaderCacheSize";
+
 	/** The shared instance */
 	private static SpringCore plugin;
 
@@ -87,6 +99,8 @@ public class SpringCore extends Plugin {
 	
 	private static TypeHierarchyEngine typeHierarchyEngine;
 
+	private static TypeHierarchyIndexStore typeHierarchyIndexStore;
+
 	/**
 	 * Creates the Spring core plug-in.
 	 * <p>
@@ -103,6 +117,7 @@ public class SpringCore extends Plugin {
 
 		TypeHierarchyResourceChangeListener resetListener = new TypeHierarchyResourceChangeListener();
 		ResourcesPlugin.getWorkspace().addResourceChangeListener(resetListener, IResourceChangeEvent.PRE_BUILD);
+		JavaCore.addElementChangedListener(resetListener, ElementChangedEvent.POST_CHANGE);
 		
 		try {
 			resourceBundle = ResourceBundle.getBundle(RESOURCE_NAME);
@@ -117,16 +132,31 @@ public class SpringCore extends Plugin {
 		super.start(context);
 		model.startup();
 		typeStructureCache.startup();
+		// the index store is shared by all projects, the indexes are persisted only if enabled
+		if (System.getProperty(TypeHierarchyEngine.ENABLE_PERSISTENT_INDEX_PROPERTY, "true").equals("true")) {
+			typeHierarchyIndexStore = new TypeHierarchyIndexStore(getStateLocation().append("typehierarchy").toFile());
+		}
+		else {
+			typeHierarchyIndexStore = new TypeHierarchyIndexStore(null);
+		}
 		// install default for incremtal compilation
 		plugin.getPluginPreferences().setDefault(USE_CHANGE_DETECTION_IN_JAVA_FILES, true);
 		// non.locking classloader is not enabled by default
 		plugin.getPluginPreferences().setDefault(USE_NON_LOCKING_CLASSLOADER, false);
+		// concurrent validation is not enabled by default
+		plugin.getPluginPreferences().setDefault(USE_CONCURRENT_VALIDATION, false);
+		plugin.getPluginPreferences().setDefault(CONCURRENT_VALIDATION_THREADS, Runtime.getRuntime().availableProcessors());
+		plugin.getPluginPreferences().setDefault(CLASSLOADER_CACHE_SIZE, 1024);
 	}
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		model.shutdown();
 		typeStructureCache.shutdown();
+		if (typeHierarchyIndexStore != null) {
+			typeHierarchyIndexStore.saveAndPrune();
+			typeHierarchyIndexStore = null;
+		}
 		super.stop(context);
 	}
 
@@ -152,6 +182,15 @@ public class SpringCore extends Plugin {
 		return typeHierarchyEngine;
 	}
 
+	/**
+	 * Returns the workspace-wide store of per-jar type hierarchy indexes, shared by the type hierarchy engines
+	 * of all projects, or <code>null</code> if the plug-in has not been started yet.
+	 * @since 3.9.0
+	 */
+	public static final TypeHierarchyIndexStore getTypeHierarchyIndexStore() {
+		return typeHierarchyIndexStore;
+	}
+
 	/**
 	 * Returns the workspace instance.
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -116,7 +116,7 @@ public class ValidationRuleDefinition extends PersistablePreferenceObjectSupport
 		return ENABLEMENT_PREFIX + id;
 	}
 
-	public IValidationRule getRule() {
+	public synchronized IValidationRule getRule() {
 		if (propertyValues.size() > 0 && !rulePropertiesInitialized) {
 			BeanWrapper wrapper = new BeanWrapperImpl(rule);
 			for (Map.Entry<String, String> entry : propertyValues.entrySet()) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,8 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.xbean.classloader.NonLockingJarFileClassLoader;
 
@@ -30,8 +32,40 @@ public class FilteringNonLockingJarFileClassLoader extends NonLockingJarFileClas
 
 	private static final Enumeration<URL> EMPTY_ENUMERATION = Collections.enumeration(new ArrayList<URL>());
 
+	private final Set<String> loadedClassNames;
+
 	public FilteringNonLockingJarFileClassLoader(String name, URL[] urls, ClassLoader parent) {
+		this(name, urls, parent, false);
+	}
+
+	/**
+	 * @param recordLoadedClasses whether to remember the names of the classes defined by this class loader, see
+	 * {@link #getLoadedClassNames()}
+	 * @since 3.9.0
+	 */
+	public FilteringNonLockingJarFileClassLoader(String name, URL[] urls, ClassLoader parent,
+			boolean recordLoadedClasses) {
 		super(name, urls, parent);
+		this.loadedClassNames = recordLoadedClasses ? Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>())
+				: null;
+	}
+
+	/**
+	 * Returns the names of the classes defined by this class loader itself, i.e. not by one of its parents, or
+	 * <code>null</code> if it doesn't record them.
+	 * @since 3.9.0
+	 */
+	public Set<String> getLoadedClassNames() {
+		return loadedClassNames != null ? Collections.unmodifiableSet(loadedClassNames) : null;
+	}
+
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		Class<?> clazz = super.findClass(name);
+		if (loadedClassNames != null) {
+			loadedClassNames.add(name);
+		}
+		return clazz;
 	}
 	
 	@Override
@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool of class loaders for sets of jar files. Projects with the same libraries on their classpath share one class
+ * loader, so that the jars are opened and indexed only once instead of once per project.
+ * <p>
+ * Class loaders are reference counted: a class loader is acquired for every project class loader that uses it and
+ * removed from the pool when the last of them is released. The size of a pooled class loader is estimated by the
+ * total size of its jar files.
+ * <p>
+ * Class loaders are pooled by the location and the time stamp and length of their jar files, so a jar that is rewritten
+ * in place (e.g. a snapshot dependency) gets a new class loader instead of one that still holds the old classes.
+ * @author agent
+ * @since 3.9.0
+ */
+public class JarClassLoaderPool {
+
+	private final Map<Key, PooledClassLoader> classLoaders = new HashMap<Key, PooledClassLoader>();
+
+	private long size = 0;
+
+	private long hits = 0;
+
+	/**
+	 * Returns the pooled class loader for the given jars and parent class loader, creating it if necessary. Every
+	 * call has to be paired with a call to {@link #release(PooledClassLoader)}.
+	 */
+	public synchronized PooledClassLoader acquire(String name, Collection<URL> jars, ClassLoader parent, boolean nonLocking) {
+		Key key = new Key(jars, parent, nonLocking);
+		PooledClassLoader classLoader = classLoaders.get(key);
+		if (classLoader != null) {
+			hits++;
+		}
+		else {
+			URL[] urls = jars.toArray(new URL[jars.size()]);
+			ClassLoader jarClassLoader = nonLocking ? new FilteringNonLockingJarFileClassLoader(name, urls, parent)
+					: new FilteringURLClassLoader(urls, parent);
+			classLoader = new PooledClassLoader(key, jarClassLoader, getSize(jars));
+			classLoaders.put(key, classLoader);
+			size += classLoader.size;
+		}
+		classLoader.references++;
+		return classLoader;
+	}
+
+	/**
+	 * Releases the given class loader; it is removed from the pool once it isn't used anymore.
+	 */
+	public synchronized void release(PooledClassLoader classLoader) {
+		if (--classLoader.references == 0 && classLoaders.get(classLoader.key) == classLoader) {
+			classLoaders.remove(classLoader.key);
+			size -= classLoader.size;
+		}
+	}
+
+	/**
+	 * Removes all class loaders from the pool. Class loaders that are still in use are not reused anymore.
+	 */
+	public synchronized void clear() {
+		classLoaders.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns the estimated size of all pooled class loaders, i.e. the total size of their jar files.
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of project class loaders that currently use the given class loader.
+	 */
+	public synchronized int getReferences(PooledClassLoader classLoader) {
+		return classLoader.references;
+	}
+
+	public synchronized int getClassLoaderCount() {
+		return classLoaders.size();
+	}
+
+	/**
+	 * Returns the number of times an existing class loader has been reused.
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	private static long getSize(Collection<URL> jars) {
+		long size = 0;
+		for (URL jar : jars) {
+			File file = getFile(jar);
+			if (file != null) {
+				size += file.length();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the file of the given jar url, or <code>null</code> if it isn't a file url.
+	 */
+	private static File getFile(URL jar) {
+		try {
+			return new File(jar.toURI());
+		}
+		catch (URISyntaxException e) {
+			return null;
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * A class loader for a set of jars shared by several projects.
+	 */
+	public static class PooledClassLoader {
+
+		private final Key key;
+
+		private final ClassLoader classLoader;
+
+		private final long size;
+
+		private int references;
+
+		private PooledClassLoader(Key key, ClassLoader classLoader, long size) {
+			this.key = key;
+			this.classLoader = classLoader;
+			this.size = size;
+		}
+
+		public ClassLoader getClassLoader() {
+			return classLoader;
+		}
+
+		/**
+		 * Returns the total size of the jar files of this class loader.
+		 */
+		public long getSize() {
+			return size;
+		}
+	}
+
+	/**
+	 * The jars are compared by their external form, as {@link URL#equals(Object)} may resolve host names, together
+	 * with the time stamp and length of their files.
+	 */
+	private static class Key {
+
+		private final List<String> jars;
+
+		private final long[] stamps;
+
+		private final ClassLoader parent;
+
+		private final boolean nonLocking;
+
+		public Key(Collection<URL> jars, ClassLoader parent, boolean nonLocking) {
+			this.jars = new ArrayList<String>(jars.size());
+			this.stamps = new long[2 * jars.size()];
+			int i = 0;
+			for (URL jar : jars) {
+				this.jars.add(jar.toExternalForm());
+				File file = getFile(jar);
+				if (file != null) {
+					stamps[i] = file.lastModified();
+					stamps[i + 1] = file.length();
+				}
+				i += 2;
+			}
+			this.parent = parent;
+			this.nonLocking = nonLocking;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return jars.equals(other.jars) && Arrays.equals(stamps, other.stamps) && parent == other.parent
+					&& nonLocking == other.nonLocking;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * jars.hashCode() + System.identityHashCode(parent)) + (nonLocking ? 1 : 0);
+		}
+	}
+
+}
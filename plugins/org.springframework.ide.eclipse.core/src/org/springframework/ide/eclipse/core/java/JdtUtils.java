@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -970,21 +970,24 @@ public class JdtUtils {
 
 	static class DefaultProjectClassLoaderSupport implements IProjectClassLoaderSupport {
 
-		private ClassLoader classLoader;
-
 		private ClassLoader weavingClassLoader;
 
 		public DefaultProjectClassLoaderSupport(IProject javaProject, ClassLoader parentClassLoader) {
 			setupClassLoaders(javaProject, parentClassLoader);
 		}
 
+		/**
+		 * Executes the callback with the weaving class loader as thread context class loader and restores the
+		 * previous context class loader of the calling thread afterwards. Can be called from any thread.
+		 */
 		public void executeCallback(IProjectClassLoaderAwareCallback callback) throws Throwable {
+			ClassLoader previousClassLoader = Thread.currentThread().getContextClassLoader();
 			try {
 				activateWeavingClassLoader();
 				callback.doWithActiveProjectClassLoader();
 			}
 			finally {
-				recoverClassLoader();
+				Thread.currentThread().setContextClassLoader(previousClassLoader);
 			}
 		}
 
@@ -994,19 +997,12 @@ public class JdtUtils {
 
 		/**
 		 * Activates the weaving class loader as thread context classloader.
-		 * <p>
-		 * Use {@link #recoverClassLoader()} to recover the original thread context classloader
 		 */
 		private void activateWeavingClassLoader() {
 			Thread.currentThread().setContextClassLoader(weavingClassLoader);
 		}
 
-		private void recoverClassLoader() {
-			Thread.currentThread().setContextClassLoader(classLoader);
-		}
-
 		private void setupClassLoaders(IProject project, ClassLoader parentClassLoader) {
-			classLoader = Thread.currentThread().getContextClassLoader();
 			weavingClassLoader = ProjectClassLoaderCache.getClassLoader(project, parentClassLoader);
 		}
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Spring IDE Developers
+ * Copyright (c) 2009, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,9 +17,11 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.xbean.classloader.NonLockingJarFileClassLoader;
@@ -49,6 +51,10 @@ import org.springframework.ide.eclipse.core.SpringCore;
 
 /**
  * Internal cache of classpath urls and corresponding classloaders.
+ * <p>
+ * The cache is bounded by the estimated size of the cached classloaders, which is the total size of the jar files
+ * they hold (see {@link SpringCore#CLASSLOADER_CACHE_SIZE}). The jars of a project are loaded by a classloader from a
+ * {@link JarClassLoaderPool}, so projects with identical libraries share the classloader for these libraries.
  * @author Christian Dupuis
  * @author Martin Lippert
  * @since 2.2.5
@@ -57,8 +63,14 @@ import org.springframework.ide.eclipse.core.SpringCore;
 public class ProjectClassLoaderCache {
 
 	private static final String FILE_SCHEME = "file";
-	private static final int CACHE_SIZE = 12;
-	private static final List<ClassLoaderCacheEntry> CLASSLOADER_CACHE = new ArrayList<ClassLoaderCacheEntry>(CACHE_SIZE);
+	private static final int DEFAULT_CACHE_SIZE = 1024;
+	private static final List<ClassLoaderCacheEntry> CLASSLOADER_CACHE = new ArrayList<ClassLoaderCacheEntry>();
+	private static final JarClassLoaderPool JAR_CLASSLOADER_POOL = new JarClassLoaderPool();
+
+	private static long hits = 0;
+	private static long misses = 0;
+	private static long evictions = 0;
+	private static long accessCount = 0;
 
 	private static final String DEBUG_OPTION = SpringCore.PLUGIN_ID + "/java/classloader/debug";
 	private static final boolean DEBUG_CLASSLOADER = SpringCore.isDebug(DEBUG_OPTION);
@@ -69,35 +81,83 @@ public class ProjectClassLoaderCache {
 
 	private static ClassLoader addClassLoaderToCache(IProject project, List<URL> urls, ClassLoader parentClassLoader) {
 		synchronized (CLASSLOADER_CACHE) {
-			int nEntries = CLASSLOADER_CACHE.size();
-			if (nEntries >= CACHE_SIZE) {
-				// find obsolete entries or remove entry that was least recently accessed
-				ClassLoaderCacheEntry oldest = null;
-				List<ClassLoaderCacheEntry> obsoleteClassLoaders = new ArrayList<ClassLoaderCacheEntry>(CACHE_SIZE);
-				for (int i = 0; i < nEntries; i++) {
-					ClassLoaderCacheEntry entry = (ClassLoaderCacheEntry) CLASSLOADER_CACHE.get(i);
-					IProject curr = entry.getProject();
-					if (!curr.exists() || !curr.isAccessible() || !curr.isOpen()) {
-						obsoleteClassLoaders.add(entry);
-					}
-					else {
-						if (oldest == null || entry.getLastAccess() < oldest.getLastAccess()) {
-							oldest = entry;
+			misses++;
+			ClassLoaderCacheEntry newEntry = new ClassLoaderCacheEntry(project, urls, parentClassLoader);
+			CLASSLOADER_CACHE.add(newEntry);
+			removeEntriesIfRequired(newEntry);
+			return newEntry.getClassLoader();
+		}
+	}
+
+	/**
+	 * Removes obsolete entries and, while the estimated size of the cache exceeds the configured limit, the jar
+	 * classloader that was least recently accessed together with all entries that share it. The jar classloader of the
+	 * given entry is never removed. Hence the size of the cache is bounded by the configured limit or the size of the
+	 * given entry's jars, whatever is larger.
+	 */
+	private static void removeEntriesIfRequired(ClassLoaderCacheEntry newEntry) {
+		synchronized (CLASSLOADER_CACHE) {
+			for (ClassLoaderCacheEntry entry : new ArrayList<ClassLoaderCacheEntry>(CLASSLOADER_CACHE)) {
+				IProject curr = entry.getProject();
+				if (!curr.exists() || !curr.isAccessible() || !curr.isOpen()) {
+					removeClassLoaderEntryFromCache(entry);
+				}
+			}
+
+			long sizeLimit = getCacheSizeLimit();
+			while (JAR_CLASSLOADER_POOL.getSize() > sizeLimit) {
+				// a jar classloader counts as accessed whenever one of the entries sharing it is accessed
+				Map<JarClassLoaderPool.PooledClassLoader, Long> lastAccesses = new HashMap<JarClassLoaderPool.PooledClassLoader, Long>();
+				for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE) {
+					JarClassLoaderPool.PooledClassLoader jarClassLoader = entry.getJarClassLoader();
+					if (jarClassLoader != null && jarClassLoader.getSize() > 0) {
+						Long lastAccess = lastAccesses.get(jarClassLoader);
+						if (lastAccess == null || lastAccess < entry.getLastAccess()) {
+							lastAccesses.put(jarClassLoader, entry.getLastAccess());
 						}
 					}
 				}
-				if (!obsoleteClassLoaders.isEmpty()) {
-					for (int i = 0; i < obsoleteClassLoaders.size(); i++) {
-						removeClassLoaderEntryFromCache((ClassLoaderCacheEntry) obsoleteClassLoaders.get(i));
+				lastAccesses.remove(newEntry.getJarClassLoader());
+
+				JarClassLoaderPool.PooledClassLoader oldest = null;
+				for (Map.Entry<JarClassLoaderPool.PooledClassLoader, Long> lastAccess : lastAccesses.entrySet()) {
+					if (oldest == null || lastAccess.getValue() < lastAccesses.get(oldest)) {
+						oldest = lastAccess.getKey();
 					}
 				}
-				else if (oldest != null) {
-					removeClassLoaderEntryFromCache(oldest);
+				if (oldest == null) {
+					break;
+				}
+				for (ClassLoaderCacheEntry entry : new ArrayList<ClassLoaderCacheEntry>(CLASSLOADER_CACHE)) {
+					if (entry.getJarClassLoader() == oldest) {
+						evictions++;
+						removeClassLoaderEntryFromCache(entry);
+					}
 				}
 			}
-			ClassLoaderCacheEntry newEntry = new ClassLoaderCacheEntry(project, urls, parentClassLoader);
-			CLASSLOADER_CACHE.add(newEntry);
-			return newEntry.getClassLoader();
+		}
+	}
+
+	/**
+	 * Returns the configured size limit of the cache in bytes.
+	 */
+	private static long getCacheSizeLimit() {
+		int sizeInMegabytes = SpringCore.getDefault().getPluginPreferences().getInt(SpringCore.CLASSLOADER_CACHE_SIZE);
+		if (sizeInMegabytes <= 0) {
+			sizeInMegabytes = DEFAULT_CACHE_SIZE;
+		}
+		return sizeInMegabytes * 1024L * 1024L;
+	}
+
+	/**
+	 * Returns a snapshot of the hit, miss and eviction counts and the current size of the cache.
+	 * @since 3.9.0
+	 */
+	public static Statistics getStatistics() {
+		synchronized (CLASSLOADER_CACHE) {
+			return new Statistics(hits, misses, evictions, CLASSLOADER_CACHE.size(),
+					JAR_CLASSLOADER_POOL.getClassLoaderCount(), JAR_CLASSLOADER_POOL.getHits(),
+					JAR_CLASSLOADER_POOL.getSize(), getCacheSizeLimit());
 		}
 	}
 
@@ -223,6 +283,7 @@ public class ProjectClassLoaderCache {
 				}
 				else {
 					if (entry.matches(project, parentClassLoader)) {
+						hits++;
 						entry.markAsAccessed();
 						return entry.getClassLoader();
 					}
@@ -280,6 +341,22 @@ public class ProjectClassLoaderCache {
 		}
 	}
 
+	/**
+	 * Returns the names of the classes that the given project class loader has loaded from the source and output
+	 * folders of the project and the projects it depends on, or <code>null</code> if the given class loader hasn't
+	 * been created by this cache.
+	 * @since 3.9.0
+	 */
+	public static Set<String> getLoadedClassNames(ClassLoader projectClassLoader) {
+		if (projectClassLoader instanceof FilteringURLClassLoader) {
+			return ((FilteringURLClassLoader) projectClassLoader).getLoadedClassNames();
+		}
+		else if (projectClassLoader instanceof FilteringNonLockingJarFileClassLoader) {
+			return ((FilteringNonLockingJarFileClassLoader) projectClassLoader).getLoadedClassNames();
+		}
+		return null;
+	}
+
 	public static boolean shouldFilter(String name) {
 		if ("commons-logging.properties".equals(name)) return true;
 		if (name != null && name.startsWith("META-INF/services/")) {
@@ -366,7 +443,7 @@ public class ProjectClassLoaderCache {
 
 		private URL[] directories;
 
-		private ClassLoader jarClassLoader;
+		private JarClassLoaderPool.PooledClassLoader jarClassLoader;
 
 		private long lastAccess;
 
@@ -374,20 +451,36 @@ public class ProjectClassLoaderCache {
 
 		private IProject project;
 
-		private URL[] urls;
-
 		public ClassLoaderCacheEntry(IProject project, List<URL> urls, ClassLoader parentClassLoader) {
 			this.project = project;
-			this.urls = urls.toArray(new URL[urls.size()]);
 			this.parentClassLoader = parentClassLoader;
+
+			Set<URL> jars = new LinkedHashSet<URL>();
+			List<URL> dirs = new ArrayList<URL>();
+			for (URL url : urls) {
+				if (shouldLoadFromParent(url)) {
+					jars.add(url);
+				}
+				else {
+					dirs.add(url);
+				}
+			}
+			this.directories = dirs.toArray(new URL[dirs.size()]);
+			// We use the parent class loader of the org.springframework.ide.eclipse.beans.core bundle
+			this.jarClassLoader = JAR_CLASSLOADER_POOL.acquire(String.format("ClassLoader for '%s'", project.getName()),
+					jars, (parentClassLoader != null ? parentClassLoader : cachedParentClassLoader),
+					useNonLockingClassLoader());
+
 			markAsAccessed();
 			JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE);
 		}
 
 		public void dispose() {
 			JavaCore.removeElementChangedListener(this);
-			this.urls = null;
-			this.jarClassLoader = null;
+			if (this.jarClassLoader != null) {
+				JAR_CLASSLOADER_POOL.release(this.jarClassLoader);
+				this.jarClassLoader = null;
+			}
 		}
 
 		public void elementChanged(ElementChangedEvent event) {
@@ -405,13 +498,13 @@ public class ProjectClassLoaderCache {
 		}
 
 		public ClassLoader getClassLoader() {
-			ClassLoader parent = getJarClassLoader();
+			ClassLoader parent = jarClassLoader.getClassLoader();
 			if (useNonLockingClassLoader()) {
 				return new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'", project.getName()),
-						directories, parent);
+						directories, parent, true);
 			}
 			else {
-				return new FilteringURLClassLoader(directories, parent);
+				return new FilteringURLClassLoader(directories, parent, true);
 			}
 		}
 
@@ -423,8 +516,18 @@ public class ProjectClassLoaderCache {
 			return this.project;
 		}
 
+		/**
+		 * Returns the pooled classloader for the jars of this entry, or <code>null</code> if the entry is disposed.
+		 */
+		public JarClassLoaderPool.PooledClassLoader getJarClassLoader() {
+			return jarClassLoader;
+		}
+
+		/**
+		 * Must be called while holding the lock on the cache, as the access order is derived from a shared counter.
+		 */
 		public void markAsAccessed() {
-			lastAccess = System.currentTimeMillis();
+			lastAccess = ++accessCount;
 		}
 
 		public boolean matches(IProject project, ClassLoader parentClassLoader) {
@@ -433,45 +536,7 @@ public class ProjectClassLoaderCache {
 							.equals(this.parentClassLoader)));
 		}
 
-		private synchronized ClassLoader getJarClassLoader() {
-			if (jarClassLoader == null) {
-				Set<URL> jars = new LinkedHashSet<URL>();
-				List<URL> dirs = new ArrayList<URL>();
-				for (URL url : urls) {
-					if (shouldLoadFromParent(url)) {
-						jars.add(url);
-					}
-					else {
-						dirs.add(url);
-					}
-				}
-				if (parentClassLoader != null) {
-					// We use the parent class loader of the org.springframework.ide.eclipse.beans.core bundle
-					if (useNonLockingClassLoader()) {
-						jarClassLoader = new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'",
-								project.getName()), (URL[]) jars.toArray(new URL[jars.size()]), parentClassLoader);
-					}
-					else {
-						jarClassLoader = new FilteringURLClassLoader((URL[]) jars.toArray(new URL[jars.size()]),
-								parentClassLoader);
-					}
-				}
-				else {
-					if (useNonLockingClassLoader()) {
-						jarClassLoader = new FilteringNonLockingJarFileClassLoader(String.format("ClassLoader for '%s'",
-								project.getName()), (URL[]) jars.toArray(new URL[jars.size()]), cachedParentClassLoader);
-					}
-					else {
-						jarClassLoader = new FilteringURLClassLoader((URL[]) jars.toArray(new URL[jars.size()]),
-								cachedParentClassLoader);
-					}
-				}
-				directories = dirs.toArray(new URL[dirs.size()]);
-			}
-			return jarClassLoader;
-		}
-
-		private boolean shouldLoadFromParent(URL url) {
+		private static boolean shouldLoadFromParent(URL url) {
 			String path = url.getPath();
 			if (path.endsWith(".jar") || path.endsWith(".zip")) {
 				return true;
@@ -495,6 +560,9 @@ public class ProjectClassLoaderCache {
 		public void propertyChange(PropertyChangeEvent event) {
 			if (SpringCore.USE_NON_LOCKING_CLASSLOADER.equals(event.getProperty())) {
 				synchronized (CLASSLOADER_CACHE) {
+					for (ClassLoaderCacheEntry entry : CLASSLOADER_CACHE) {
+						entry.dispose();
+					}
 					CLASSLOADER_CACHE.clear();
 				}
 			}
@@ -604,4 +672,79 @@ public class ProjectClassLoaderCache {
 		}
 	}
 
+	/**
+	 * Statistics of the {@link ProjectClassLoaderCache} for tuning the cache size.
+	 * @since 3.9.0
+	 */
+	public static class Statistics {
+
+		private final long hits;
+		private final long misses;
+		private final long evictions;
+		private final int entries;
+		private final int sharedClassLoaders;
+		private final long sharedClassLoaderHits;
+		private final long size;
+		private final long sizeLimit;
+
+		Statistics(long hits, long misses, long evictions, int entries, int sharedClassLoaders,
+				long sharedClassLoaderHits, long size, long sizeLimit) {
+			this.hits = hits;
+			this.misses = misses;
+			this.evictions = evictions;
+			this.entries = entries;
+			this.sharedClassLoaders = sharedClassLoaders;
+			this.sharedClassLoaderHits = sharedClassLoaderHits;
+			this.size = size;
+			this.sizeLimit = sizeLimit;
+		}
+
+		public long getHits() {
+			return hits;
+		}
+
+		public long getMisses() {
+			return misses;
+		}
+
+		public long getEvictions() {
+			return evictions;
+		}
+
+		public int getEntries() {
+			return entries;
+		}
+
+		/**
+		 * Returns the number of jar classloaders, which may be shared by several entries.
+		 */
+		public int getSharedClassLoaders() {
+			return sharedClassLoaders;
+		}
+
+		/**
+		 * Returns how often a new entry could reuse the jar classloader of another entry.
+		 */
+		public long getSharedClassLoaderHits() {
+			return sharedClassLoaderHits;
+		}
+
+		/**
+		 * Returns the estimated size of the cache in bytes, i.e. the total size of the jars held by the cache.
+		 */
+		public long getSize() {
+			return size;
+		}
+
+		public long getSizeLimit() {
+			return sizeLimit;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits: %s, misses: %s, evictions: %s, entries: %s, jar classloaders: %s (%s reused), size: %sKB of %sKB",
+					hits, misses, evictions, entries, sharedClassLoaders, sharedClassLoaderHits, size / 1024, sizeLimit / 1024);
+		}
+	}
+
 }
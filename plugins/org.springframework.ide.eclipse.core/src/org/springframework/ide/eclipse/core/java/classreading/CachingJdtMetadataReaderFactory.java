@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2014 Spring IDE Developers
+ * Copyright (c) 2012, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,6 @@
 package org.springframework.ide.eclipse.core.java.classreading;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.eclipse.jdt.core.IJavaProject;
 import org.springframework.core.io.Resource;
@@ -20,26 +18,23 @@ import org.springframework.core.type.classreading.MetadataReader;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
 
 /**
+ * {@link MetadataReaderFactory} that caches the created metadata readers in the {@link JdtMetadataReaderCache} of
+ * the project and class loader, so that all factories of a project with the same class loader share their results.
  * @author Martin Lippert
  * @since 3.2.0
  */
 public class CachingJdtMetadataReaderFactory implements MetadataReaderFactory {
 	
 	private final JdtMetadataReaderFactory factory;
-	private final Map<String, MetadataReader> cache = new HashMap<String, MetadataReader>();
+	private final JdtMetadataReaderCache cache;
 	
 	public CachingJdtMetadataReaderFactory(IJavaProject project, ClassLoader classloader) {
 		this.factory = new JdtMetadataReaderFactory(project, classloader);
+		this.cache = JdtMetadataReaderCache.getCache(project, classloader);
 	}
 
 	public MetadataReader getMetadataReader(String className) throws IOException {
-		synchronized(cache) {
-			if (!cache.containsKey(className)) {
-				cache.put(className, factory.getMetadataReader(className));
-			}
-		}
-		
-		return cache.get(className);
+		return cache.getMetadataReader(className, factory);
 	}
 
 	public MetadataReader getMetadataReader(Resource resource) throws IOException {
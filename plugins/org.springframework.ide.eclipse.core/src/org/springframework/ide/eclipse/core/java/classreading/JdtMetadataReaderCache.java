@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.classreading;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Cache of {@link MetadataReader}s per project and class loader, shared by all {@link CachingJdtMetadataReaderFactory}
+ * instances created for that project and class loader. The metadata readers keep the class loader of the factory
+ * that created them, so factories with different class loaders never share readers.
+ * <p>
+ * Metadata readers are created per class name without holding a lock while the JDT model is consulted, so
+ * different classes can be read concurrently and concurrent requests for the same class wait for a single read.
+ * <p>
+ * Only the caches of the {@link #MAX_CLASSLOADERS_PER_PROJECT} most recently used class loaders of a project are kept,
+ * and every cache keeps at most {@link #MAX_READERS} readers, dropping the least recently used ones first.
+ * <p>
+ * Entries are removed when the corresponding compilation unit or class file changes, and all entries are dropped
+ * when a classpath or a library on the classpath changes or the project is closed.
+ * @author agent
+ * @since 3.9.0
+ */
+public class JdtMetadataReaderCache {
+
+	/** Maximum number of class loaders per project for which metadata readers are cached */
+	public static final int MAX_CLASSLOADERS_PER_PROJECT = 4;
+
+	/** Maximum number of metadata readers per project and class loader */
+	public static final int MAX_READERS = 5000;
+
+	/** The caches of each project, the most recently used one first */
+	private static final ConcurrentMap<IProject, LinkedList<JdtMetadataReaderCache>> CACHES = new ConcurrentHashMap<IProject, LinkedList<JdtMetadataReaderCache>>();
+
+	private static volatile boolean listenersRegistered = false;
+
+	private final ClassLoader classLoader;
+
+	/** Guarded by itself; the lock is never held while a class is read */
+	private final Map<String, FutureTask<MetadataReader>> readers = new LinkedHashMap<String, FutureTask<MetadataReader>>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, FutureTask<MetadataReader>> eldest) {
+			return size() > MAX_READERS;
+		}
+	};
+
+	private JdtMetadataReaderCache(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Returns the shared cache for the given project and class loader.
+	 */
+	public static JdtMetadataReaderCache getCache(IJavaProject project, ClassLoader classLoader) {
+		registerListenersIfRequired();
+
+		IProject key = project.getProject();
+		LinkedList<JdtMetadataReaderCache> caches = CACHES.get(key);
+		if (caches == null) {
+			LinkedList<JdtMetadataReaderCache> newCaches = new LinkedList<JdtMetadataReaderCache>();
+			caches = CACHES.putIfAbsent(key, newCaches);
+			if (caches == null) {
+				caches = newCaches;
+			}
+		}
+
+		synchronized (caches) {
+			for (Iterator<JdtMetadataReaderCache> iterator = caches.iterator(); iterator.hasNext();) {
+				JdtMetadataReaderCache cache = iterator.next();
+				if (cache.classLoader == classLoader) {
+					if (cache != caches.getFirst()) {
+						iterator.remove();
+						caches.addFirst(cache);
+					}
+					return cache;
+				}
+			}
+
+			// class loaders that haven't been used for a while have most likely been replaced
+			JdtMetadataReaderCache cache = new JdtMetadataReaderCache(classLoader);
+			caches.addFirst(cache);
+			while (caches.size() > MAX_CLASSLOADERS_PER_PROJECT) {
+				caches.removeLast();
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Removes all cached metadata readers of all projects.
+	 */
+	public static void clearAll() {
+		CACHES.clear();
+	}
+
+	/**
+	 * Returns the cached metadata reader for the given class or creates it with the given factory.
+	 */
+	public MetadataReader getMetadataReader(final String className, final MetadataReaderFactory factory)
+			throws IOException {
+		FutureTask<MetadataReader> reader;
+		FutureTask<MetadataReader> newReader = null;
+		synchronized (readers) {
+			reader = readers.get(className);
+			if (reader == null) {
+				newReader = new FutureTask<MetadataReader>(new Callable<MetadataReader>() {
+
+					public MetadataReader call() throws Exception {
+						return factory.getMetadataReader(className);
+					}
+				});
+				readers.put(className, newReader);
+				reader = newReader;
+			}
+		}
+		if (newReader != null) {
+			newReader.run();
+		}
+
+		try {
+			return reader.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while reading " + className);
+		}
+		catch (ExecutionException e) {
+			// don't keep failures, the class might show up later
+			synchronized (readers) {
+				if (readers.get(className) == reader) {
+					readers.remove(className);
+				}
+			}
+
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IOException("Could not read " + className, cause);
+		}
+	}
+
+	public int size() {
+		synchronized (readers) {
+			return readers.size();
+		}
+	}
+
+	/**
+	 * Returns the class loader of the metadata readers in this cache.
+	 */
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	/**
+	 * Removes the given top-level type and all its nested types from the cache.
+	 */
+	void remove(String topLevelTypeName) {
+		synchronized (readers) {
+			for (Iterator<String> classNames = readers.keySet().iterator(); classNames.hasNext();) {
+				String className = classNames.next();
+				if (className.equals(topLevelTypeName) || className.startsWith(topLevelTypeName + "$")
+						|| className.startsWith(topLevelTypeName + ".")) {
+					classNames.remove();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all types with the given simple name of their top-level type, regardless of the package.
+	 */
+	void removeBySimpleName(String topLevelSimpleName) {
+		synchronized (readers) {
+			for (Iterator<String> classNames = readers.keySet().iterator(); classNames.hasNext();) {
+				String className = classNames.next();
+				String simpleName = className.substring(className.lastIndexOf('.') + 1);
+				int ix = simpleName.indexOf('$');
+				if (ix >= 0) {
+					simpleName = simpleName.substring(0, ix);
+				}
+				if (simpleName.equals(topLevelSimpleName)) {
+					classNames.remove();
+				}
+			}
+		}
+	}
+
+	private static void registerListenersIfRequired() {
+		if (!listenersRegistered) {
+			synchronized (JdtMetadataReaderCache.class) {
+				if (!listenersRegistered) {
+					JavaCore.addElementChangedListener(new CacheInvalidatingElementChangedListener(),
+							ElementChangedEvent.POST_CHANGE);
+					ResourcesPlugin.getWorkspace().addResourceChangeListener(new ClassFileResourceChangeListener(),
+							IResourceChangeEvent.POST_CHANGE);
+					listenersRegistered = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the caches of all projects and class loaders.
+	 */
+	private static List<JdtMetadataReaderCache> getAllCaches() {
+		List<JdtMetadataReaderCache> allCaches = new ArrayList<JdtMetadataReaderCache>();
+		for (LinkedList<JdtMetadataReaderCache> caches : CACHES.values()) {
+			synchronized (caches) {
+				allCaches.addAll(caches);
+			}
+		}
+		return allCaches;
+	}
+
+	private static void removeFromAll(String topLevelTypeName) {
+		for (JdtMetadataReaderCache cache : getAllCaches()) {
+			cache.remove(topLevelTypeName);
+		}
+	}
+
+	/**
+	 * Removes changed types from the caches; as types of one project can be read through the classpath of other
+	 * projects, changed types are removed from all project caches.
+	 */
+	private static class CacheInvalidatingElementChangedListener implements IElementChangedListener {
+
+		private static final int CLASSPATH_CHANGED = IJavaElementDelta.F_CLASSPATH_CHANGED
+				| IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+		private static final int ROOT_CHANGED = IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+				| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH;
+
+		private static final int CONTENT_CHANGED = IJavaElementDelta.F_CONTENT | IJavaElementDelta.F_PRIMARY_RESOURCE;
+
+		public void elementChanged(ElementChangedEvent event) {
+			if (!CACHES.isEmpty()) {
+				visit(event.getDelta());
+			}
+		}
+
+		private void visit(IJavaElementDelta delta) {
+			IJavaElement element = delta.getElement();
+			switch (element.getElementType()) {
+			case IJavaElement.JAVA_PROJECT:
+				if (delta.getKind() == IJavaElementDelta.REMOVED
+						|| (delta.getFlags() & (IJavaElementDelta.F_CLOSED | IJavaElementDelta.F_OPENED)) != 0) {
+					CACHES.remove(((IJavaProject) element).getProject());
+				}
+				if ((delta.getFlags() & CLASSPATH_CHANGED) != 0) {
+					// dependent projects see the changed classpath as well
+					clearAll();
+					return;
+				}
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if ((delta.getFlags() & ROOT_CHANGED) != 0) {
+					clearAll();
+					return;
+				}
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+			case IJavaElement.CLASS_FILE:
+				if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & CONTENT_CHANGED) != 0) {
+					removeFromAll(getTopLevelTypeName(element));
+				}
+				return;
+			}
+
+			for (IJavaElementDelta child : delta.getAffectedChildren()) {
+				visit(child);
+			}
+		}
+
+		private String getTopLevelTypeName(IJavaElement element) {
+			String name = element.getElementName();
+			int ix = name.lastIndexOf('.');
+			if (ix > 0) {
+				name = name.substring(0, ix);
+			}
+			ix = name.indexOf('$');
+			if (ix > 0) {
+				name = name.substring(0, ix);
+			}
+			IJavaElement packageFragment = element.getParent();
+			if (packageFragment != null && packageFragment.getElementName().length() > 0) {
+				name = packageFragment.getElementName() + "." + name;
+			}
+			return name;
+		}
+	}
+
+	/**
+	 * Removes types whose class files have been written by a build. The metadata readers read the byte code of
+	 * a type, which changes after the element delta of its compilation unit has been reported.
+	 */
+	private static class ClassFileResourceChangeListener implements IResourceChangeListener, IResourceDeltaVisitor {
+
+		public void resourceChanged(IResourceChangeEvent event) {
+			if (!CACHES.isEmpty() && event.getDelta() != null) {
+				try {
+					event.getDelta().accept(this);
+				}
+				catch (CoreException e) {
+					SpringCore.log("Error while traversing resource change delta", e);
+				}
+			}
+		}
+
+		public boolean visit(IResourceDelta delta) throws CoreException {
+			IResource resource = delta.getResource();
+			if (resource instanceof IFile) {
+				if ("class".equals(resource.getFileExtension())) {
+					String name = resource.getName();
+					name = name.substring(0, name.length() - ".class".length());
+					int ix = name.indexOf('$');
+					if (ix > 0) {
+						name = name.substring(0, ix);
+					}
+					for (JdtMetadataReaderCache cache : getAllCaches()) {
+						cache.removeBySimpleName(name);
+					}
+				}
+				return false;
+			}
+			return true;
+		}
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,17 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.eclipse.core.resources.IProject;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.java.JdtUtils;
+import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
 
 /**
  * @author Martin Lippert
@@ -20,13 +29,48 @@ import org.springframework.ide.eclipse.core.java.JdtUtils;
 public class BytecodeTypeHierarchyClassReaderFactory implements TypeHierarchyClassReaderFactory {
 
 	public TypeHierarchyClassReader createClassReader(IProject project) {
-//		List<URL> urls = ProjectClassLoaderCache.getClassPathUrls(project, null);
-//		ClasspathLookup lookup = new ClasspathLookupDirect(urls.toArray(new URL[0]));
-		
 		ClassLoader loader = JdtUtils.getClassLoader(project, null);
 		ClasspathLookup lookup = new ClasspathLookupClassloader(loader);
 
+		TypeHierarchyIndexStore indexStore = SpringCore.getTypeHierarchyIndexStore();
+		if (indexStore != null) {
+			return new IndexedTypeHierarchyClassReader(createClasspathElements(project, indexStore), lookup, indexStore);
+		}
+
 		return new BytecodeTypeHierarchyClassReader(lookup);
 	}
 
+	/**
+	 * Creates the classpath elements for the given project. Jar files are looked up before
+	 * directories, in the same way the project classloader delegates to its parent jar loader first.
+	 */
+	protected ClasspathElement[] createClasspathElements(IProject project, TypeHierarchyIndexStore indexStore) {
+		List<URL> urls = ProjectClassLoaderCache.getClassPathUrls(project, null);
+
+		Set<String> jars = new LinkedHashSet<String>();
+		Set<File> directories = new LinkedHashSet<File>();
+		for (URL url : urls) {
+			try {
+				String path = url.getPath();
+				if (path.endsWith(".jar") || path.endsWith(".zip")) {
+					jars.add(url.toURI().getPath());
+				}
+				else {
+					directories.add(new File(url.toURI()));
+				}
+			} catch (Exception e) {
+				SpringCore.log(e);
+			}
+		}
+
+		List<ClasspathElement> elements = new ArrayList<ClasspathElement>();
+		for (String jar : jars) {
+			elements.add(new ClasspathElementJar(jar, indexStore));
+		}
+		for (File directory : directories) {
+			elements.add(new ClasspathElementDirectory(directory));
+		}
+		return elements.toArray(new ClasspathElement[elements.size()]);
+	}
+
 }
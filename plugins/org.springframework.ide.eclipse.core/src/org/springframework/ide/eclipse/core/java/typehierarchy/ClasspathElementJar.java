@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2015 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,17 +31,42 @@ public class ClasspathElementJar implements ClasspathElement {
 	private String jarFileName;
 	private Set<String> knownPackageNames;
 	private long lastModified;
+	private long fileSize = -1;
+
+	private TypeHierarchyIndexStore indexStore;
+	private JarTypeHierarchyIndex index;
 
 	public ClasspathElementJar(String jarFileName) {
+		this(jarFileName, null);
+	}
+
+	/**
+	 * @param indexStore the store for persistent type hierarchy indexes, can be <code>null</code>
+	 * @since 3.9.0
+	 */
+	public ClasspathElementJar(String jarFileName, TypeHierarchyIndexStore indexStore) {
 		this.jarFileName = jarFileName;
+		this.indexStore = indexStore;
 	}
 
 	public InputStream getStream(String fullyQualifiedClassFileName, String packageName, String classFileName) throws Exception {
 		if (!isPackage(packageName)) return null;
 		
-		ZipEntry entry = jarFile.getEntry(fullyQualifiedClassFileName);
+		JarTypeHierarchyIndex index = getTypeHierarchyIndex();
+		String className = null;
+		if (index != null && fullyQualifiedClassFileName.endsWith(".class")) {
+			className = fullyQualifiedClassFileName.substring(0, fullyQualifiedClassFileName.length() - 6);
+			if (index.isMissing(className)) return null;
+		}
+		
+		JarFile jar = getJarFile();
+		ZipEntry entry = jar.getEntry(fullyQualifiedClassFileName);
 		if (entry != null) {
-			return jarFile.getInputStream(entry);
+			return jar.getInputStream(entry);
+		}
+		
+		if (className != null) {
+			index.putMissing(className);
 		}
 		return null;
 	}
@@ -61,19 +86,38 @@ public class ClasspathElementJar implements ClasspathElement {
 
 	public long lastModified() {
 		if (this.lastModified == 0)
-			this.lastModified = new File(this.jarFile.getName()).lastModified();
+			this.lastModified = new File(this.jarFileName).lastModified();
 		return this.lastModified;
 	}
 
+	public long fileSize() {
+		if (this.fileSize == -1)
+			this.fileSize = new File(this.jarFileName).length();
+		return this.fileSize;
+	}
+
+	/**
+	 * Returns the shared type hierarchy index for this jar file or <code>null</code>
+	 * if this element has been created without an index store.
+	 * @since 3.9.0
+	 */
+	public JarTypeHierarchyIndex getTypeHierarchyIndex() {
+		if (this.indexStore == null) return null;
+		
+		synchronized(this) {
+			if (this.index == null) {
+				this.index = this.indexStore.getIndex(this.jarFileName, lastModified(), fileSize());
+			}
+			return this.index;
+		}
+	}
+
 	private boolean isPackage(String qualifiedPackageName) {
 		if (this.knownPackageNames != null)
 			return this.knownPackageNames.contains(qualifiedPackageName);
 
 		try {
 			synchronized(this) {
-				if (this.jarFile == null) {
-					this.jarFile = new JarFile(this.jarFileName);
-				}
 				this.knownPackageNames = findPackageSet();
 			}
 		} catch(Exception e) {
@@ -82,16 +126,30 @@ public class ClasspathElementJar implements ClasspathElement {
 		return this.knownPackageNames.contains(qualifiedPackageName);
 	}
 
-	private Set<String> findPackageSet() {
+	private synchronized JarFile getJarFile() throws IOException {
+		if (this.jarFile == null) {
+			this.jarFile = new JarFile(this.jarFileName);
+		}
+		return this.jarFile;
+	}
+
+	private Set<String> findPackageSet() throws IOException {
 		long lastModified = lastModified();
-		long fileSize = new File(jarFileName).length();
+		long fileSize = fileSize();
 		PackageCacheEntry cacheEntry = (PackageCacheEntry) PackageCache.get(jarFileName);
 		if (cacheEntry != null && cacheEntry.lastModified == lastModified && cacheEntry.fileSize == fileSize)
 			return cacheEntry.packageSet;
 		
+		JarTypeHierarchyIndex index = getTypeHierarchyIndex();
+		if (index != null && index.getPackageNames() != null) {
+			Set<String> packageSet = index.getPackageNames();
+			PackageCache.put(jarFileName, new PackageCacheEntry(lastModified, fileSize, packageSet));
+			return packageSet;
+		}
+		
 		Set<String> packageSet = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 		packageSet.add(""); //$NON-NLS-1$
-		nextEntry : for (Enumeration e = jarFile.entries(); e.hasMoreElements(); ) {
+		nextEntry : for (Enumeration e = getJarFile().entries(); e.hasMoreElements(); ) {
 			String fileName = ((ZipEntry) e.nextElement()).getName();
 
 			// add the package name & all of its parent packages
@@ -106,6 +164,9 @@ public class ClasspathElementJar implements ClasspathElement {
 		}
 
 		PackageCache.put(jarFileName, new PackageCacheEntry(lastModified, fileSize, packageSet));
+		if (index != null) {
+			index.setPackageNames(packageSet);
+		}
 		return packageSet;
 	}
 	
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.eclipse.core.resources.IProject;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Type hierarchy class reader that walks the classpath elements of a project directly and
+ * consults the persistent {@link JarTypeHierarchyIndex} of a jar before opening it. Type information
+ * that is read from a jar is added to the index, so that it doesn't need to be read again after
+ * a restart, as long as the jar doesn't change.
+ *
+ * Classes that cannot be found on the given classpath elements are looked up using the fallback lookup.
+ *
+ * When the reader is cleaned up, i.e. when a build has finished reading types, the index store is asked to
+ * write the indexes to disk, so that they survive even if the IDE isn't shut down cleanly.
+ *
+ * @author agent
+ * @since 3.9.0
+ */
+public class IndexedTypeHierarchyClassReader implements TypeHierarchyClassReader {
+
+	private final ClasspathElement[] cpElements;
+	private final BytecodeTypeHierarchyClassReader fallbackReader;
+	private final TypeHierarchyIndexStore indexStore;
+
+	public IndexedTypeHierarchyClassReader(ClasspathElement[] cpElements, ClasspathLookup fallbackLookup, TypeHierarchyIndexStore indexStore) {
+		this.cpElements = cpElements;
+		this.fallbackReader = new BytecodeTypeHierarchyClassReader(fallbackLookup);
+		this.indexStore = indexStore;
+	}
+
+	public TypeHierarchyElement readTypeHierarchyInformation(char[] fullyQualifiedClassName, IProject project) {
+		String className = new String(fullyQualifiedClassName);
+		String fullyQualifiedClassFileName = className + ".class";
+
+		String packageName = "";
+		String classFileName = fullyQualifiedClassFileName;
+
+		int lastIndexOf = fullyQualifiedClassFileName.lastIndexOf('/');
+		if (lastIndexOf > -1) {
+			packageName = fullyQualifiedClassFileName.substring(0, lastIndexOf);
+			classFileName = fullyQualifiedClassFileName.substring(lastIndexOf + 1);
+		}
+
+		for (int i = 0; i < cpElements.length; i++) {
+			ClasspathElement cpElement = cpElements[i];
+
+			JarTypeHierarchyIndex index = null;
+			if (cpElement instanceof ClasspathElementJar) {
+				index = ((ClasspathElementJar) cpElement).getTypeHierarchyIndex();
+				if (index != null) {
+					TypeHierarchyElement result = index.get(className);
+					if (result != null) {
+						return result;
+					}
+				}
+			}
+
+			InputStream stream = null;
+			synchronized(cpElement) {
+				try {
+					stream = cpElement.getStream(fullyQualifiedClassFileName, packageName, classFileName);
+				} catch (Exception e) {
+				}
+			}
+
+			if (stream != null) {
+				try {
+					TypeHierarchyElement result = fallbackReader.readTypeHierarchy(stream);
+					if (result != null && index != null) {
+						index.put(className, result);
+					}
+					return result;
+				}
+				finally {
+					try {
+						stream.close();
+					} catch (IOException e) {
+						SpringCore.log(e);
+					}
+				}
+			}
+		}
+
+		return fallbackReader.readTypeHierarchyInformation(fullyQualifiedClassName, project);
+	}
+
+	public void cleanup() {
+		for (int i = 0; i < cpElements.length; i++) {
+			synchronized(cpElements[i]) {
+				cpElements[i].cleanup();
+			}
+		}
+		fallbackReader.cleanup();
+		indexStore.scheduleSave();
+	}
+
+}
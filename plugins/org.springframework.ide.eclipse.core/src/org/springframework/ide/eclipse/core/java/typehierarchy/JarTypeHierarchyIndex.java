@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent type hierarchy information (superclass and interface names) for the classes
+ * of a single jar file. An index is only valid for the exact jar it was created from,
+ * identified by the path, the last modification timestamp and the size of the file.
+ *
+ * The index gets filled lazily while classes are read from the jar, including the names of classes
+ * that are known to be missing in the jar, and is shared across all projects and written to disk
+ * by the {@link TypeHierarchyIndexStore}. Index files are read back into a heap buffer
+ * in one go, so that the file is closed again before the index is used and can be
+ * replaced or deleted by the store at any time.
+ *
+ * @author agent
+ * @since 3.9.0
+ */
+public class JarTypeHierarchyIndex {
+
+	private static final int MAGIC = 0x54484958; // "THIX"
+
+	/**
+	 * Version of the index file format, increase this whenever the format changes
+	 */
+	public static final int VERSION = 2;
+
+	private final String jarPath;
+	private final long lastModified;
+	private final long size;
+
+	private final Map<String, TypeHierarchyElement> elements;
+	private final Set<String> missingClasses;
+	private volatile Set<String> packageNames;
+	private volatile boolean dirty;
+
+	public JarTypeHierarchyIndex(String jarPath, long lastModified, long size) {
+		this.jarPath = jarPath;
+		this.lastModified = lastModified;
+		this.size = size;
+		this.elements = new ConcurrentHashMap<String, TypeHierarchyElement>();
+		this.missingClasses = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	}
+
+	public String getJarPath() {
+		return jarPath;
+	}
+
+	public boolean matches(long lastModified, long size) {
+		return this.lastModified == lastModified && this.size == size;
+	}
+
+	public boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * Returns a new type hierarchy element for the given class name or <code>null</code>
+	 * if the class is not (yet) known to this index. The returned element is not shared
+	 * with other callers, so the lazily resolved links of the element can be set safely.
+	 */
+	public TypeHierarchyElement get(String fullyQualifiedClassName) {
+		TypeHierarchyElement element = elements.get(fullyQualifiedClassName);
+		if (element != null) {
+			return new TypeHierarchyElement(element.className, element.superclassName, element.interfaces);
+		}
+		return null;
+	}
+
+	public void put(String fullyQualifiedClassName, TypeHierarchyElement element) {
+		if (elements.put(fullyQualifiedClassName, new TypeHierarchyElement(element.className, element.superclassName, element.interfaces)) == null) {
+			this.dirty = true;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the jar is known to not contain the given class
+	 */
+	public boolean isMissing(String fullyQualifiedClassName) {
+		return missingClasses.contains(fullyQualifiedClassName);
+	}
+
+	public void putMissing(String fullyQualifiedClassName) {
+		if (missingClasses.add(fullyQualifiedClassName)) {
+			this.dirty = true;
+		}
+	}
+
+	/**
+	 * @return the set of package names contained in the jar or <code>null</code> if not (yet) known
+	 */
+	public Set<String> getPackageNames() {
+		return packageNames;
+	}
+
+	public void setPackageNames(Set<String> packageNames) {
+		this.packageNames = packageNames;
+		this.dirty = true;
+	}
+
+	public void write(File indexFile) throws IOException {
+		// reset the flag first, so that elements added while writing mark the index as dirty again
+		this.dirty = false;
+
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeChars(out, jarPath.toCharArray());
+			out.writeLong(lastModified);
+			out.writeLong(size);
+
+			Set<String> packages = this.packageNames;
+			if (packages != null) {
+				out.writeInt(packages.size());
+				for (String packageName : packages) {
+					writeChars(out, packageName.toCharArray());
+				}
+			}
+			else {
+				out.writeInt(-1);
+			}
+
+			Map<String, TypeHierarchyElement> snapshot = new HashMap<String, TypeHierarchyElement>(elements);
+			out.writeInt(snapshot.size());
+			for (TypeHierarchyElement element : snapshot.values()) {
+				writeChars(out, element.className);
+				writeChars(out, element.superclassName);
+				if (element.interfaces != null) {
+					out.writeInt(element.interfaces.length);
+					for (char[] interfaceName : element.interfaces) {
+						writeChars(out, interfaceName);
+					}
+				}
+				else {
+					out.writeInt(-1);
+				}
+			}
+
+			Set<String> missing = new HashSet<String>(missingClasses);
+			out.writeInt(missing.size());
+			for (String className : missing) {
+				writeChars(out, className.toCharArray());
+			}
+		}
+		catch (IOException e) {
+			this.dirty = true;
+			throw e;
+		}
+		finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Reads the index from the given file.
+	 *
+	 * @return the index or <code>null</code> if the file does not exist, is corrupt, has been
+	 * written by a different version or does not belong to the given jar path, modification timestamp and size
+	 */
+	public static JarTypeHierarchyIndex read(File indexFile, String jarPath, long lastModified, long size) {
+		if (!indexFile.isFile()) return null;
+
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexFile.toPath()));
+
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) return null;
+			char[] path = readChars(buffer);
+			if (path == null || !jarPath.equals(new String(path))) return null;
+			if (buffer.getLong() != lastModified || buffer.getLong() != size) return null;
+
+			JarTypeHierarchyIndex index = new JarTypeHierarchyIndex(jarPath, lastModified, size);
+
+			int packageCount = buffer.getInt();
+			if (packageCount >= 0) {
+				Set<String> packages = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>(packageCount));
+				for (int i = 0; i < packageCount; i++) {
+					packages.add(new String(readChars(buffer)));
+				}
+				index.packageNames = packages;
+			}
+
+			int elementCount = buffer.getInt();
+			for (int i = 0; i < elementCount; i++) {
+				char[] className = readChars(buffer);
+				char[] superclassName = readChars(buffer);
+				char[][] interfaces = null;
+				int interfaceCount = buffer.getInt();
+				if (interfaceCount > buffer.remaining() / 4) throw new BufferUnderflowException();
+				if (interfaceCount >= 0) {
+					interfaces = new char[interfaceCount][];
+					for (int j = 0; j < interfaceCount; j++) {
+						interfaces[j] = readChars(buffer);
+					}
+				}
+				index.elements.put(new String(className), new TypeHierarchyElement(className, superclassName, interfaces));
+			}
+
+			int missingCount = buffer.getInt();
+			for (int i = 0; i < missingCount; i++) {
+				index.missingClasses.add(new String(readChars(buffer)));
+			}
+			return index;
+		}
+		catch (IOException e) {
+			return null;
+		}
+		catch (RuntimeException e) {
+			// corrupt index file
+			return null;
+		}
+	}
+
+	private static void writeChars(DataOutputStream out, char[] chars) throws IOException {
+		if (chars == null) {
+			out.writeInt(-1);
+		}
+		else {
+			out.writeInt(chars.length);
+			for (int i = 0; i < chars.length; i++) {
+				out.writeChar(chars[i]);
+			}
+		}
+	}
+
+	private static char[] readChars(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) return null;
+		if (length * 2L > buffer.remaining()) throw new BufferUnderflowException();
+
+		char[] result = new char[length];
+		buffer.asCharBuffer().get(result);
+		buffer.position(buffer.position() + length * 2);
+		return result;
+	}
+
+}
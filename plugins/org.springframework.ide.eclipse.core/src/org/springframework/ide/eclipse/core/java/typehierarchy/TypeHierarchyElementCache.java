@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,35 +10,120 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
+ * Cache for type hierarchy elements, keyed by the fully qualified class name as char array.
+ *
+ * The cache is implemented as an open-addressing hash table with linear probing that compares
+ * the full class names, so classes with identical hash codes never replace each other. Lookups
+ * don't allocate any objects and don't need to acquire a lock, modifications are synchronized.
+ *
  * @author Martin Lippert
  * @since 3.3.0
  */
 public class TypeHierarchyElementCache {
-	
-	private Map<Integer, TypeHierarchyElement> cache;
-	
+
+	private static final int INITIAL_CAPACITY = 256; // has to be a power of two
+
+	private volatile Entry[] table;
+	private int size;
+
 	public TypeHierarchyElementCache() {
-		this.cache = new ConcurrentHashMap<Integer, TypeHierarchyElement>();
+		this.table = new Entry[INITIAL_CAPACITY];
 	}
 
 	public TypeHierarchyElement get(char[] fullyQualifiedClassName) {
-		return cache.get(charArrayToHashcode(fullyQualifiedClassName));
+		int hash = hash(fullyQualifiedClassName);
+		Entry[] tab = this.table;
+		int mask = tab.length - 1;
+
+		for (int i = hash & mask; ; i = (i + 1) & mask) {
+			Entry entry = tab[i];
+			if (entry == null) {
+				return null;
+			}
+			if (entry.hash == hash && equals(entry.key, fullyQualifiedClassName)) {
+				return entry.value;
+			}
+		}
+	}
+
+	public synchronized void put(char[] fullyQualifiedClassName, TypeHierarchyElement typeElement) {
+		int hash = hash(fullyQualifiedClassName);
+		Entry[] tab = this.table;
+		int mask = tab.length - 1;
+
+		int i = hash & mask;
+		for (Entry entry = tab[i]; entry != null; entry = tab[i]) {
+			if (entry.hash == hash && equals(entry.key, fullyQualifiedClassName)) {
+				tab[i] = new Entry(entry.key, hash, typeElement);
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+
+		if ((this.size + 1) * 2 > tab.length) {
+			// keep the load factor below 0.5 and publish the new table only after it is complete
+			Entry[] newTable = new Entry[tab.length * 2];
+			for (Entry entry : tab) {
+				if (entry != null) {
+					insert(newTable, entry);
+				}
+			}
+			insert(newTable, new Entry(fullyQualifiedClassName, hash, typeElement));
+			this.table = newTable;
+		}
+		else {
+			tab[i] = new Entry(fullyQualifiedClassName, hash, typeElement);
+		}
+		this.size++;
+	}
+
+	public synchronized int size() {
+		return this.size;
 	}
 
-	public void put(char[] fullyQualifiedClassName, TypeHierarchyElement typeElement) {
-		cache.put(charArrayToHashcode(fullyQualifiedClassName), typeElement);
+	private static void insert(Entry[] tab, Entry entry) {
+		int mask = tab.length - 1;
+		int i = entry.hash & mask;
+		while (tab[i] != null) {
+			i = (i + 1) & mask;
+		}
+		tab[i] = entry;
 	}
-	
-	private int charArrayToHashcode(char[] characters) {
+
+	private static int hash(char[] characters) {
 		int h = 0;
 		for (int i = 0; i < characters.length; i++) {
 			h = 31*h + characters[i];
 		}
-        return h;
+		// spread the higher bits, since the table index is taken from the lower bits only
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean equals(char[] first, char[] second) {
+		if (first == second) return true;
+		if (first.length != second.length) return false;
+
+		for (int i = first.length; --i >= 0;) {
+			if (first[i] != second[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Immutable table entry, final fields guarantee safe publication to unsynchronized readers
+	 */
+	private static class Entry {
+
+		final char[] key;
+		final int hash;
+		final TypeHierarchyElement value;
+
+		public Entry(char[] key, int hash, TypeHierarchyElement value) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+		}
 	}
 
 }
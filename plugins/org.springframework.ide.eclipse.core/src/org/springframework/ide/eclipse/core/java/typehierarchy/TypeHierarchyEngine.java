@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2014 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,11 @@
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
 import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.resources.IProject;
@@ -27,12 +31,19 @@ import org.eclipse.jdt.core.compiler.CharOperation;
 public class TypeHierarchyEngine {
 	
 	public static final String ENABLE_PROPERTY = "org.springframework.ide.eclipse.core.java.enableTypeHierarchyEngine";
+
+	/**
+	 * System property to enable or disable the persistent, per-jar type hierarchy index (enabled by default)
+	 * @since 3.9.0
+	 */
+	public static final String ENABLE_PERSISTENT_INDEX_PROPERTY = "org.springframework.ide.eclipse.core.java.enablePersistentTypeHierarchyIndex";
 	
 	private TypeHierarchyClassReaderFactory classReaderFactory;
 	private TypeHierarchyElementCacheFactory elementCacheFactory;
 
 	private final Map<IProject, TypeHierarchyElementCache> cache;
 	private final Map<IProject, TypeHierarchyClassReader> readers;
+	private final Map<IProject, SubtypeIndex> subtypeIndexes;
 
 	private final boolean autoCleanup;
 	
@@ -40,6 +51,7 @@ public class TypeHierarchyEngine {
 		this.autoCleanup = autoCleanup;
 		this.cache = new ConcurrentHashMap<IProject, TypeHierarchyElementCache>();
 		this.readers = new ConcurrentHashMap<IProject, TypeHierarchyClassReader>();
+		this.subtypeIndexes = new ConcurrentHashMap<IProject, SubtypeIndex>();
 	}
 
 	public void setClassReaderFactory(TypeHierarchyClassReaderFactory classReaderFactory) {
@@ -67,8 +79,27 @@ public class TypeHierarchyEngine {
 		cleanup(project);
 		this.readers.remove(project);
 		this.cache.remove(project);
+		this.subtypeIndexes.remove(project);
 	}
 	
+	/**
+	 * Clears the cached type information of the given project like {@link #clearCache(IProject)}, but keeps the
+	 * reverse subtype index for all types that are not affected by the given changed types. Indexed types that are
+	 * one of the changed types, one of their nested types or one of their known subtypes are removed from the
+	 * index and are indexed again by the next call to {@link #indexSubtypes(Collection, IProject)}.
+	 * @param changedTypes fully qualified names of the types that have been changed, added or removed
+	 * @since 3.9.0
+	 */
+	public void clearCache(IProject project, Collection<String> changedTypes) {
+		cleanup(project);
+		this.readers.remove(project);
+		this.cache.remove(project);
+		SubtypeIndex subtypeIndex = this.subtypeIndexes.get(project);
+		if (subtypeIndex != null) {
+			subtypeIndex.removeTypes(changedTypes);
+		}
+	}
+
 	public void clearCache() {
 		for (IProject project : this.readers.keySet()) {
 			clearCache(project);
@@ -248,6 +279,86 @@ public class TypeHierarchyEngine {
 		return false;
 	}
 	
+	/**
+	 * Adds the given types to the reverse subtype index of the project. The complete supertype hierarchy
+	 * (superclasses and implemented interfaces) of each type is calculated once and the type is
+	 * registered as a known subtype of all of them. Types that are already part of the index are skipped.
+	 * @param classNames fully qualified names of the types to index
+	 * @since 3.9.0
+	 */
+	public void indexSubtypes(Collection<String> classNames, IProject project) {
+		SubtypeIndex subtypeIndex = getSubtypeIndex(project);
+		try {
+			TypeHierarchyElementCache elementCache = getTypeHierarchyElementCache(project);
+			for (String className : classNames) {
+				if (!subtypeIndex.supertypes.containsKey(className)) {
+					Set<String> supertypes = getAllSupertypes(className.replace('.', '/').toCharArray(), project, elementCache);
+					for (String supertype : supertypes) {
+						subtypeIndex.addSubtype(supertype, className);
+					}
+					subtypeIndex.supertypes.put(className, supertypes);
+				}
+			}
+		}
+		finally {
+			if (autoCleanup) cleanup(project);
+		}
+	}
+
+	/**
+	 * Returns the names of all types indexed via {@link #indexSubtypes(Collection, IProject)} that
+	 * extend or implement the given type, directly or indirectly. The given type itself is not included.
+	 * @since 3.9.0
+	 */
+	public Set<String> getKnownSubtypes(String typeName, IProject project) {
+		SubtypeIndex subtypeIndex = this.subtypeIndexes.get(project);
+		if (subtypeIndex != null) {
+			Set<String> subtypes = subtypeIndex.subtypes.get(typeName);
+			if (subtypes != null) {
+				return Collections.unmodifiableSet(subtypes);
+			}
+		}
+		return Collections.emptySet();
+	}
+
+	private Set<String> getAllSupertypes(char[] typeName, IProject project, TypeHierarchyElementCache elementCache) {
+		Set<String> result = new HashSet<String>();
+		ArrayDeque<char[]> typesToAnalyze = new ArrayDeque<char[]>();
+		typesToAnalyze.add(typeName);
+
+		while (!typesToAnalyze.isEmpty()) {
+			TypeHierarchyElement typeElement = getTypeElement(typesToAnalyze.poll(), project, elementCache);
+			if (typeElement != null) {
+				if (typeElement.superclassName != null
+						&& result.add(new String(typeElement.superclassName).replace('/', '.'))) {
+					typesToAnalyze.add(typeElement.superclassName);
+				}
+				if (typeElement.interfaces != null) {
+					for (char[] interfaceName : typeElement.interfaces) {
+						if (result.add(new String(interfaceName).replace('/', '.'))) {
+							typesToAnalyze.add(interfaceName);
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private SubtypeIndex getSubtypeIndex(IProject project) {
+		SubtypeIndex subtypeIndex = this.subtypeIndexes.get(project);
+		if (subtypeIndex == null) {
+			synchronized (this.subtypeIndexes) {
+				subtypeIndex = this.subtypeIndexes.get(project);
+				if (subtypeIndex == null) {
+					subtypeIndex = new SubtypeIndex();
+					this.subtypeIndexes.put(project, subtypeIndex);
+				}
+			}
+		}
+		return subtypeIndex;
+	}
+
 	private TypeHierarchyElement getTypeElement(char[] fullyQualifiedClassName, IProject project, TypeHierarchyElementCache elementCache) {
 		TypeHierarchyElement result = elementCache.get(fullyQualifiedClassName);
 		if (result == null) {
@@ -262,8 +373,13 @@ public class TypeHierarchyEngine {
 	protected TypeHierarchyElementCache getTypeHierarchyElementCache(IProject project) {
 		TypeHierarchyElementCache elementCache = this.cache.get(project);
 		if (elementCache == null) {
-			elementCache = this.elementCacheFactory.createTypeHierarchyElementCache();
-			this.cache.put(project, elementCache);
+			synchronized (this.cache) {
+				elementCache = this.cache.get(project);
+				if (elementCache == null) {
+					elementCache = this.elementCacheFactory.createTypeHierarchyElementCache();
+					this.cache.put(project, elementCache);
+				}
+			}
 		}
 		return elementCache;
 	}
@@ -271,10 +387,72 @@ public class TypeHierarchyEngine {
 	private TypeHierarchyClassReader getClassReader(IProject project) {
 		TypeHierarchyClassReader result = this.readers.get(project);
 		if (result == null) {
-			result = classReaderFactory.createClassReader(project);
-			this.readers.put(project, result);
+			synchronized (this.readers) {
+				result = this.readers.get(project);
+				if (result == null) {
+					result = classReaderFactory.createClassReader(project);
+					this.readers.put(project, result);
+				}
+			}
 		}
 		return result;
 	}
 
+	/**
+	 * Reverse index from a type name to the names of all known (transitive) subtypes, together with the
+	 * supertypes of every indexed type to be able to remove single types from the index
+	 */
+	private static class SubtypeIndex {
+
+		final Map<String, Set<String>> supertypes = new ConcurrentHashMap<String, Set<String>>();
+		final Map<String, Set<String>> subtypes = new ConcurrentHashMap<String, Set<String>>();
+
+		void addSubtype(String supertype, String subtype) {
+			Set<String> knownSubtypes = subtypes.get(supertype);
+			if (knownSubtypes == null) {
+				synchronized (subtypes) {
+					knownSubtypes = subtypes.get(supertype);
+					if (knownSubtypes == null) {
+						knownSubtypes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+						subtypes.put(supertype, knownSubtypes);
+					}
+				}
+			}
+			knownSubtypes.add(subtype);
+		}
+
+		void removeTypes(Collection<String> changedTypes) {
+			Set<String> affectedTypes = new HashSet<String>();
+			for (String changedType : changedTypes) {
+				addAffectedTypes(changedType, affectedTypes);
+				String nestedTypePrefix = changedType + "$";
+				for (String indexedType : supertypes.keySet()) {
+					if (indexedType.startsWith(nestedTypePrefix)) {
+						addAffectedTypes(indexedType, affectedTypes);
+					}
+				}
+			}
+
+			for (String affectedType : affectedTypes) {
+				Set<String> indexedSupertypes = supertypes.remove(affectedType);
+				if (indexedSupertypes != null) {
+					for (String supertype : indexedSupertypes) {
+						Set<String> knownSubtypes = subtypes.get(supertype);
+						if (knownSubtypes != null) {
+							knownSubtypes.remove(affectedType);
+						}
+					}
+				}
+			}
+		}
+
+		private void addAffectedTypes(String type, Set<String> affectedTypes) {
+			affectedTypes.add(type);
+			Set<String> knownSubtypes = subtypes.get(type);
+			if (knownSubtypes != null) {
+				affectedTypes.addAll(knownSubtypes);
+			}
+		}
+	}
+
 }
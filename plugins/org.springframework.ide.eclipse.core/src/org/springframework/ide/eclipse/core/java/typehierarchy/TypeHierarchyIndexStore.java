@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.eclipse.core.java.typehierarchy;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.springframework.ide.eclipse.core.SpringCore;
+
+/**
+ * Workspace-wide store of {@link JarTypeHierarchyIndex} instances, one index per jar. The store is shared
+ * by the type hierarchy engines of all projects, so that a jar that is on the classpath of many projects
+ * is read only once. Jars are identified by their canonical path, last modification timestamp and size.
+ *
+ * If an index directory is given (usually inside of the plugin state location), index files are read
+ * on demand from that directory and modified indexes are written back to disk when {@link #save()} is called,
+ * which {@link #scheduleSave()} does in the background shortly after a reader has finished its work.
+ * Index files that haven't been used for {@link #UNUSED_INDEX_FILE_AGE} are deleted by {@link #saveAndPrune()}.
+ * Without an index directory the store is an in-memory cache only.
+ *
+ * @author agent
+ * @since 3.9.0
+ */
+public class TypeHierarchyIndexStore {
+
+	private static final String INDEX_FILE_EXTENSION = ".idx";
+
+	/**
+	 * Index files that haven't been read or written for this time (in milliseconds) are deleted on
+	 * {@link #saveAndPrune()}, as the jars they belong to are most likely not used anymore.
+	 */
+	public static final long UNUSED_INDEX_FILE_AGE = 30L * 24 * 60 * 60 * 1000;
+
+	private static final long SAVE_DELAY = 5000;
+
+	private final File indexDirectory;
+	private final Map<String, JarTypeHierarchyIndex> indexes;
+	private final Job saveJob;
+
+	/**
+	 * @param indexDirectory the directory for the index files, or <code>null</code> to not persist the indexes
+	 */
+	public TypeHierarchyIndexStore(File indexDirectory) {
+		this.indexDirectory = indexDirectory;
+		this.indexes = new ConcurrentHashMap<String, JarTypeHierarchyIndex>();
+		this.saveJob = new Job("Saving type hierarchy indexes") {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				save();
+				return Status.OK_STATUS;
+			}
+		};
+		this.saveJob.setSystem(true);
+	}
+
+	/**
+	 * Returns the index for the given jar file. If no valid index exists for the jar
+	 * (identified by path, last modification timestamp and size), a new and empty index is returned.
+	 */
+	public JarTypeHierarchyIndex getIndex(String jarPath, long lastModified, long size) {
+		jarPath = getCanonicalPath(jarPath);
+
+		JarTypeHierarchyIndex index = this.indexes.get(jarPath);
+		if (index != null && index.matches(lastModified, size)) {
+			return index;
+		}
+
+		synchronized (this) {
+			index = this.indexes.get(jarPath);
+			if (index == null || !index.matches(lastModified, size)) {
+				index = null;
+				if (indexDirectory != null) {
+					File indexFile = getIndexFile(jarPath);
+					index = JarTypeHierarchyIndex.read(indexFile, jarPath, lastModified, size);
+					if (index != null) {
+						// mark the index file as used, see saveAndPrune()
+						indexFile.setLastModified(System.currentTimeMillis());
+					}
+				}
+				if (index == null) {
+					index = new JarTypeHierarchyIndex(jarPath, lastModified, size);
+				}
+				this.indexes.put(jarPath, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Writes all modified indexes to disk in the background, after a short delay.
+	 * @since 3.9.0
+	 */
+	public void scheduleSave() {
+		if (indexDirectory != null) {
+			saveJob.schedule(SAVE_DELAY);
+		}
+	}
+
+	/**
+	 * Writes all modified indexes to disk.
+	 */
+	public synchronized void save() {
+		if (indexDirectory == null || !indexDirectory.isDirectory() && !indexDirectory.mkdirs()) {
+			return;
+		}
+
+		for (JarTypeHierarchyIndex index : this.indexes.values()) {
+			if (index.isDirty()) {
+				File indexFile = getIndexFile(index.getJarPath());
+				File tempFile = new File(indexFile.getPath() + ".tmp");
+				try {
+					index.write(tempFile);
+					if (!tempFile.renameTo(indexFile)) {
+						indexFile.delete();
+						if (!tempFile.renameTo(indexFile)) {
+							tempFile.delete();
+						}
+					}
+				}
+				catch (IOException e) {
+					tempFile.delete();
+					SpringCore.log("Error writing type hierarchy index for " + index.getJarPath(), e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes all modified indexes to disk and deletes the index files of jars that haven't been opened since
+	 * the store has been created and whose index files haven't been used for {@link #UNUSED_INDEX_FILE_AGE}.
+	 * @since 3.9.0
+	 */
+	public synchronized void saveAndPrune() {
+		saveJob.cancel();
+		save();
+		if (indexDirectory == null) {
+			return;
+		}
+		File[] indexFiles = indexDirectory.listFiles();
+		if (indexFiles == null) {
+			return;
+		}
+
+		Set<String> openedFileNames = new HashSet<String>();
+		for (String jarPath : this.indexes.keySet()) {
+			openedFileNames.add(getIndexFile(jarPath).getName());
+		}
+		long unusedSince = System.currentTimeMillis() - UNUSED_INDEX_FILE_AGE;
+		for (File indexFile : indexFiles) {
+			if (indexFile.getName().endsWith(INDEX_FILE_EXTENSION) && !openedFileNames.contains(indexFile.getName())
+					&& indexFile.lastModified() < unusedSince) {
+				indexFile.delete();
+			}
+		}
+	}
+
+	private String getCanonicalPath(String path) {
+		try {
+			return new File(path).getCanonicalPath();
+		}
+		catch (IOException e) {
+			return path;
+		}
+	}
+
+	private File getIndexFile(String jarPath) {
+		String jarName = new File(jarPath).getName();
+		return new File(indexDirectory, jarName + "-" + Integer.toHexString(jarPath.hashCode()) + INDEX_FILE_EXTENSION);
+	}
+
+}
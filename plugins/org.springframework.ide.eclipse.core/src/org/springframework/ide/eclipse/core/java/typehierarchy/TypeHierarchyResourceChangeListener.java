@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013 Spring IDE Developers
+ * Copyright (c) 2013, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,20 +10,47 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.java.typehierarchy;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
 import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
 
 /**
+ * Resets the cached type information of changed projects before they are built. The reverse subtype index of a
+ * project is only updated for the types that have been changed, unless the classpath of the project might have
+ * changed. Projects that depend on a changed project are reset for the same types, as these are on their classpath
+ * as well.
+ * <p>
+ * As a {@link IElementChangedListener} it resets the cached type information of projects whose (resolved) classpath
+ * has changed, e.g. when a classpath container has been updated, and of all projects that depend on them.
  * @author Martin Lippert
  * @since 3.3.0
  */
-public class TypeHierarchyResourceChangeListener implements IResourceChangeListener {
+public class TypeHierarchyResourceChangeListener implements IResourceChangeListener, IElementChangedListener {
 
 	public void resourceChanged(IResourceChangeEvent event) {
 		if (event.getType() == IResourceChangeEvent.PRE_BUILD) {
@@ -34,16 +61,155 @@ public class TypeHierarchyResourceChangeListener implements IResourceChangeListe
 			}
 		}
 	}
-	
+
+	/**
+	 * {@inheritDoc}
+	 * @since 3.9.0
+	 */
+	public void elementChanged(ElementChangedEvent event) {
+		for (IJavaElementDelta delta : event.getDelta().getAffectedChildren()) {
+			if ((delta.getFlags() & IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED) != 0
+					|| (delta.getFlags() & IJavaElementDelta.F_CLASSPATH_CHANGED) != 0) {
+				IProject project = delta.getElement().getJavaProject().getProject();
+				SpringCore.getTypeHierarchyEngine().clearCache(project);
+				for (IProject dependentProject : getDependentProjects(project)) {
+					SpringCore.getTypeHierarchyEngine().clearCache(dependentProject);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the projects that have the given project on their classpath, directly or through other projects.
+	 */
+	protected static Set<IProject> getDependentProjects(IProject project) {
+		Set<IProject> dependentProjects = new HashSet<IProject>();
+		IJavaProject[] javaProjects;
+		try {
+			javaProjects = JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects();
+		}
+		catch (JavaModelException e) {
+			SpringCore.log(e);
+			return dependentProjects;
+		}
+
+		List<String> requiredNames = new ArrayList<String>();
+		requiredNames.add(project.getName());
+		for (int i = 0; i < requiredNames.size(); i++) {
+			for (IJavaProject javaProject : javaProjects) {
+				try {
+					if (!dependentProjects.contains(javaProject.getProject())
+							&& Arrays.asList(javaProject.getRequiredProjectNames()).contains(requiredNames.get(i))) {
+						dependentProjects.add(javaProject.getProject());
+						requiredNames.add(javaProject.getElementName());
+					}
+				}
+				catch (JavaModelException e) {
+					// project is not accessible anymore
+				}
+			}
+		}
+		dependentProjects.remove(project);
+		return dependentProjects;
+	}
+
 	protected static class CacheResetVisitor implements IResourceDeltaVisitor {
-		public boolean visit(IResourceDelta delta) {
+		public boolean visit(IResourceDelta delta) throws CoreException {
 			IResource res = delta.getResource();
 			if (res instanceof IProject) {
-				SpringCore.getTypeHierarchyEngine().clearCache((IProject) res);
+				IProject project = (IProject) res;
+				Set<String> changedTypes = null;
+				if (delta.getKind() == IResourceDelta.CHANGED && (delta.getFlags() & IResourceDelta.OPEN) == 0
+						&& JdtUtils.isJavaProject(project)) {
+					changedTypes = getChangedTypes(JdtUtils.getJavaProject(project), delta);
+				}
+
+				if (changedTypes != null) {
+					SpringCore.getTypeHierarchyEngine().clearCache(project, changedTypes);
+				}
+				else {
+					SpringCore.getTypeHierarchyEngine().clearCache(project);
+				}
+				if (changedTypes == null || !changedTypes.isEmpty()) {
+					// the types of the project are on the classpath of the projects that depend on it
+					for (IProject dependentProject : getDependentProjects(project)) {
+						if (changedTypes != null) {
+							SpringCore.getTypeHierarchyEngine().clearCache(dependentProject, changedTypes);
+						}
+						else {
+							SpringCore.getTypeHierarchyEngine().clearCache(dependentProject);
+						}
+					}
+				}
 				return false;
 			}
 			return true;
 		}
+
+		/**
+		 * Returns the names of the types whose source or class files have been changed, or <code>null</code> if
+		 * the change might affect the classpath of the project and therefore all types.
+		 */
+		private Set<String> getChangedTypes(IJavaProject javaProject, IResourceDelta projectDelta) throws CoreException {
+			final List<IPath> outputLocations = new ArrayList<IPath>();
+			try {
+				outputLocations.add(javaProject.getOutputLocation());
+				for (IClasspathEntry entry : javaProject.getRawClasspath()) {
+					if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE && entry.getOutputLocation() != null) {
+						outputLocations.add(entry.getOutputLocation());
+					}
+				}
+			}
+			catch (JavaModelException e) {
+				return null;
+			}
+
+			final Set<String> changedTypes = new HashSet<String>();
+			final boolean[] classpathChanged = new boolean[1];
+			projectDelta.accept(new IResourceDeltaVisitor() {
+				public boolean visit(IResourceDelta delta) {
+					IResource resource = delta.getResource();
+					if (!(resource instanceof IFile)) {
+						return !classpathChanged[0];
+					}
+
+					String extension = resource.getFileExtension();
+					if (".classpath".equals(resource.getName()) || "jar".equals(extension) || "zip".equals(extension)) {
+						classpathChanged[0] = true;
+					}
+					else if ("java".equals(extension)) {
+						IJavaElement element = JavaCore.create((IFile) resource);
+						if (element instanceof ICompilationUnit) {
+							String packageName = element.getParent().getElementName();
+							String typeName = resource.getFullPath().removeFileExtension().lastSegment();
+							changedTypes.add(packageName.length() > 0 ? packageName + "." + typeName : typeName);
+							// secondary top-level types of the compilation unit
+							if (element.exists()) {
+								try {
+									for (IType type : ((ICompilationUnit) element).getTypes()) {
+										changedTypes.add(type.getFullyQualifiedName());
+									}
+								}
+								catch (JavaModelException e) {
+									// compilation unit can't be parsed, the class files are reported by the build
+								}
+							}
+						}
+					}
+					else if ("class".equals(extension)) {
+						for (IPath outputLocation : outputLocations) {
+							if (outputLocation.isPrefixOf(resource.getFullPath())) {
+								changedTypes.add(resource.getFullPath().removeFirstSegments(outputLocation.segmentCount())
+										.removeFileExtension().toString().replace('/', '.'));
+								break;
+							}
+						}
+					}
+					return false;
+				}
+			});
+			return classpathChanged[0] ? null : changedTypes;
+		}
 	}
 
 }
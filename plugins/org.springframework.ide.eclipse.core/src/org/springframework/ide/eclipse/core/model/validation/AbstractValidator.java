@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2014 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,16 +10,32 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.model.validation;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 import org.springframework.ide.eclipse.core.MarkerUtils;
+import org.springframework.ide.eclipse.core.SpringCore;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinition;
 import org.springframework.ide.eclipse.core.internal.model.validation.ValidationRuleDefinitionFactory;
 import org.springframework.ide.eclipse.core.model.IModelElement;
@@ -39,6 +55,17 @@ import org.springframework.ide.eclipse.core.project.IProjectContributorStateAwar
  */
 public abstract class AbstractValidator implements IValidator, IProjectContributorStateAware {
 
+	/**
+	 * Worker threads shared by all validators. The number of threads is bounded by the configured number of
+	 * validation threads; idle threads are discarded after some time.
+	 */
+	private static final ThreadPoolExecutor VALIDATION_EXECUTOR = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ValidationThreadFactory());
+
+	static {
+		VALIDATION_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
 	/** Internal state object */
 	private IProjectContributorState contributorState;
 
@@ -57,6 +84,17 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 		MarkerUtils.deleteMarkers(resource, getMarkerId());
 	}
 
+	/**
+	 * Returns the existing markers that have been created by this validator for the given resource. These are
+	 * the markers that are reconciled with the problems found by the next validation of the resource. Sub
+	 * classes that override {@link #cleanup(IResource, IProgressMonitor)} should override this method as well
+	 * to return the same set of markers that are removed during cleanup.
+	 * @since 3.9.0
+	 */
+	protected IMarker[] findMarkers(IResource resource) throws CoreException {
+		return MarkerUtils.findMarkers(resource, getMarkerId());
+	}
+
 	public void setMarkerId(String markerId) {
 		this.markerId = markerId;
 	}
@@ -78,47 +116,190 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 	 */
 	public final void validate(Set<IResource> affectedResources, int kind, IProgressMonitor monitor)
 			throws CoreException {
+		if (affectedResources.size() > 1 && useConcurrentValidation()) {
+			validateConcurrently(affectedResources, kind, monitor);
+			return;
+		}
+
 		SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, affectedResources.size());
 		try {
+			Map<IResource, Set<ValidationProblem>> problemsByResource = new LinkedHashMap<IResource, Set<ValidationProblem>>();
 			for (IResource resource : affectedResources) {
-				String progressMessage = "Validating '" + resource.getFullPath().toString().substring(1) + "'";
-				reportProgress(progressMessage, subMonitor);
-
-				cleanup(resource, subMonitor);
 				if (subMonitor.isCanceled()) {
 					throw new OperationCanceledException();
 				}
 
-				IValidationElementLifecycleManager callback = initValidationElementCallback(resource, kind);
+				String progressMessage = "Validating '" + resource.getFullPath().toString().substring(1) + "'";
+				reportProgress(progressMessage, subMonitor);
 
-				IResourceModelElement rootElement = callback.getRootElement();
+				problemsByResource.put(resource, validateResource(resource, kind, subMonitor));
 
-				// Check if resource model element is external to the workspace -> if so, do not validate the resource
-				if (rootElement != null && rootElement.isExternal()) {
-					monitor.worked(1);
-					break;
+				subMonitor.worked(1);
+				if (subMonitor.isCanceled()) {
+					throw new OperationCanceledException();
 				}
+			}
+			updateProblemMarkers(problemsByResource);
+		}
+		finally {
+			subMonitor.done();
+		}
+	}
 
-				Set<ValidationRuleDefinition> ruleDefinitions = getRuleDefinitions(resource);
-				if (rootElement != null && ruleDefinitions != null && ruleDefinitions.size() > 0) {
-					Set<ValidationProblem> problems = validate(callback, ruleDefinitions, subMonitor);
-					ValidationUtils.createProblemMarkers(resource, problems, getMarkerId());
-				}
+	/**
+	 * Validates the given resources on the bounded pool of worker threads shared by all validators. Every resource gets its own
+	 * {@link IValidationElementLifecycleManager} and {@link IValidationContext}s. The workers only collect
+	 * {@link ValidationProblem}s; markers of all resources are updated on the calling thread once all resources
+	 * have been validated.
+	 */
+	private void validateConcurrently(Set<IResource> affectedResources, final int kind, final IProgressMonitor monitor)
+			throws CoreException {
+		SubProgressMonitor subMonitor = new SubProgressMonitor(monitor, affectedResources.size());
+		ExecutorService executor = getValidationExecutor(Math.max(1, getConcurrentValidationThreads()));
+		Map<IResource, Future<Set<ValidationProblem>>> results = new LinkedHashMap<IResource, Future<Set<ValidationProblem>>>();
+		try {
+			final IProgressMonitor workerMonitor = new CancelPropagatingProgressMonitor(monitor);
+			for (final IResource resource : affectedResources) {
+				results.put(resource, executor.submit(new Callable<Set<ValidationProblem>>() {
+					public Set<ValidationProblem> call() throws Exception {
+						return validateResource(resource, kind, workerMonitor);
+					}
+				}));
+			}
+
+			Map<IResource, Set<ValidationProblem>> problemsByResource = new LinkedHashMap<IResource, Set<ValidationProblem>>();
+			for (Map.Entry<IResource, Future<Set<ValidationProblem>>> result : results.entrySet()) {
+				String progressMessage = "Validating '" + result.getKey().getFullPath().toString().substring(1) + "'";
+				reportProgress(progressMessage, subMonitor);
 
-				// call close on callback to execute any required resource cleanup in template
-				callback.destroy();
+				problemsByResource.put(result.getKey(), getResult(result.getValue()));
 
 				subMonitor.worked(1);
 				if (subMonitor.isCanceled()) {
 					throw new OperationCanceledException();
 				}
 			}
+
+			updateProblemMarkers(problemsByResource);
 		}
 		finally {
+			// resources that haven't been validated yet if validation failed or has been canceled
+			for (Future<Set<ValidationProblem>> result : results.values()) {
+				result.cancel(true);
+			}
 			subMonitor.done();
 		}
 	}
 
+	/**
+	 * Returns the shared executor after adjusting its number of threads to the given number.
+	 */
+	private static ExecutorService getValidationExecutor(int threads) {
+		synchronized (VALIDATION_EXECUTOR) {
+			if (threads > VALIDATION_EXECUTOR.getMaximumPoolSize()) {
+				VALIDATION_EXECUTOR.setMaximumPoolSize(threads);
+				VALIDATION_EXECUTOR.setCorePoolSize(threads);
+			}
+			else if (threads < VALIDATION_EXECUTOR.getMaximumPoolSize()) {
+				VALIDATION_EXECUTOR.setCorePoolSize(threads);
+				VALIDATION_EXECUTOR.setMaximumPoolSize(threads);
+			}
+		}
+		return VALIDATION_EXECUTOR;
+	}
+
+	/**
+	 * Validates a single resource and returns the found problems, or <code>null</code> if the
+	 * resource has not been validated. Doesn't touch any markers.
+	 */
+	private Set<ValidationProblem> validateResource(IResource resource, int kind, IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+
+		IValidationElementLifecycleManager callback = initValidationElementCallback(resource, kind);
+		try {
+			IResourceModelElement rootElement = callback.getRootElement();
+
+			// Check if resource model element is external to the workspace -> if so, do not validate the resource
+			if (rootElement != null && rootElement.isExternal()) {
+				return null;
+			}
+
+			Set<ValidationRuleDefinition> ruleDefinitions = getRuleDefinitions(resource);
+			if (rootElement != null && ruleDefinitions != null && ruleDefinitions.size() > 0) {
+				return validate(callback, ruleDefinitions, monitor);
+			}
+			return new LinkedHashSet<ValidationProblem>();
+		}
+		finally {
+			// call close on callback to execute any required resource cleanup in template
+			callback.destroy();
+		}
+	}
+
+	/**
+	 * Reconciles the existing markers of the validated resources with the found problems in one batched
+	 * workspace operation. Only markers of problems that have been fixed are deleted and only markers of
+	 * new problems are created, so that unchanged resources don't cause any marker deltas.
+	 */
+	private void updateProblemMarkers(final Map<IResource, Set<ValidationProblem>> problemsByResource)
+			throws CoreException {
+		IWorkspaceRunnable updateMarkers = new IWorkspaceRunnable() {
+			public void run(IProgressMonitor monitor) throws CoreException {
+				for (Map.Entry<IResource, Set<ValidationProblem>> problems : problemsByResource.entrySet()) {
+					IResource resource = problems.getKey();
+					if (resource.isAccessible()) {
+						ValidationUtils.reconcileProblemMarkers(resource, findMarkers(resource),
+								problems.getValue(), getMarkerId());
+					}
+				}
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(updateMarkers, null, IWorkspace.AVOID_UPDATE, null);
+	}
+
+	private Set<ValidationProblem> getResult(Future<Set<ValidationProblem>> future) throws CoreException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			else if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CoreException(SpringCore.createErrorStatus("Error during validation", cause));
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if this validator is able to validate several resources at the same time. Sub
+	 * classes need to make sure that their {@link IValidationElementLifecycleManager}, {@link IValidationContext}
+	 * and rules are safe to use from multiple threads before returning <code>true</code> here.
+	 * @since 3.9.0
+	 */
+	protected boolean supportsConcurrentValidation() {
+		return false;
+	}
+
+	private boolean useConcurrentValidation() {
+		return supportsConcurrentValidation()
+				&& SpringCore.getDefault().getPluginPreferences().getBoolean(SpringCore.USE_CONCURRENT_VALIDATION);
+	}
+
+	private int getConcurrentValidationThreads() {
+		return SpringCore.getDefault().getPluginPreferences().getInt(SpringCore.CONCURRENT_VALIDATION_THREADS);
+	}
+
 	private IValidationElementLifecycleManager initValidationElementCallback(IResource resource, int kind) {
 		IValidationElementLifecycleManager callback = createValidationElementLifecycleManager();
 		if (callback instanceof IValidationElementLifecycleManagerExtension) {
@@ -129,7 +310,7 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 	}
 
 	private Set<ValidationProblem> validate(IValidationElementLifecycleManager callback,
-			Set<ValidationRuleDefinition> ruleDefinitions, SubProgressMonitor subMonitor) {
+			Set<ValidationRuleDefinition> ruleDefinitions, IProgressMonitor subMonitor) {
 		Set<ValidationProblem> problems = new LinkedHashSet<ValidationProblem>();
 		for (IResourceModelElement contextElement : callback.getContextElements()) {
 			IValidationContext context = createContext(callback.getRootElement(), contextElement);
@@ -290,4 +471,33 @@ public abstract class AbstractValidator implements IValidator, IProjectContribut
 			return false;
 		}
 	}
+
+	/**
+	 * Progress monitor for the validation workers. Progress monitors are not thread-safe, so the
+	 * workers don't report any progress but only forward the cancellation state of the given monitor.
+	 */
+	private static class CancelPropagatingProgressMonitor extends NullProgressMonitor {
+
+		private final IProgressMonitor monitor;
+
+		public CancelPropagatingProgressMonitor(IProgressMonitor monitor) {
+			this.monitor = monitor;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || (monitor != null && monitor.isCanceled());
+		}
+	}
+
+	private static class ValidationThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "Spring Validation Worker " + threadNumber.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2010 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,13 +10,18 @@
  *******************************************************************************/
 package org.springframework.ide.eclipse.core.model.validation;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.springframework.ide.eclipse.core.MarkerUtils;
 import org.springframework.ide.eclipse.core.SpringCore;
@@ -75,47 +80,225 @@ public final class ValidationUtils {
 
 				// Create new marker
 				IMarker marker = resource.createMarker(markerId);
-				Map<String, Object> attributes = new HashMap<String, Object>();
-				attributes.put(IMarker.MESSAGE, problem.getMessage());
-				attributes.put(IMarker.SEVERITY, new Integer(problem.getSeverity()));
-
-				// Store the originating resource reference in marker so that
-				// the marker can later on be deleted with a reference from the
-				// initial resource
-				attributes.put(MarkerUtils.ORIGINATING_RESOURCE_KEY, originatingResource.getFullPath().toString());
-				if (problem.getLine() > 0) {
-					attributes.put(IMarker.LINE_NUMBER, new Integer(problem.getLine()));
+				Map<String, Object> attributes = createMarkerAttributes(originatingResource, problem);
+				marker.setAttributes(attributes);
+			}
+			catch (CoreException e) {
+				SpringCore.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Reconciles the given existing {@link IMarker validation markers} of the specified resource with the given
+	 * validation problems. Markers that still correspond to a problem (same resource and same attributes, e.g. rule
+	 * id, line number, message and problem attributes) are kept untouched, markers for new problems are created and
+	 * markers for problems that don't exist anymore are deleted. Re-validating an unchanged resource therefore
+	 * doesn't cause any marker changes.
+	 * <p>
+	 * Callers should run this method inside of an {@link org.eclipse.core.resources.IWorkspaceRunnable} to batch
+	 * the resulting resource deltas.
+	 * @param resource the validated resource
+	 * @param existingMarkers the markers that have been created by a previous validation of the resource
+	 * @param problems the validation problems found for the resource, can be <code>null</code>
+	 * @param markerId the id of the markers to create
+	 * @since 3.9.0
+	 */
+	public static void reconcileProblemMarkers(IResource resource, IMarker[] existingMarkers,
+			Set<ValidationProblem> problems, String markerId) {
+		Map<MarkerKey, List<IMarker>> obsoleteMarkersByKey = new HashMap<MarkerKey, List<IMarker>>();
+		Set<IMarker> obsoleteMarkers = new HashSet<IMarker>();
+		for (IMarker marker : existingMarkers) {
+			try {
+				MarkerKey key = new MarkerKey(marker.getResource(), marker.getAttributes());
+				List<IMarker> markers = obsoleteMarkersByKey.get(key);
+				if (markers == null) {
+					markers = new ArrayList<IMarker>();
+					obsoleteMarkersByKey.put(key, markers);
+				}
+				markers.add(marker);
+				obsoleteMarkers.add(marker);
+			}
+			catch (CoreException e) {
+				// marker doesn't exist anymore
+			}
+		}
+
+		if (problems != null) {
+			for (ValidationProblem problem : problems) {
+				// Don't install problems that are configured to get ignored
+				if (problem.getSeverity() < 0) {
+					continue;
 				}
-				if (problem.getErrorId() != null) {
-					attributes.put(IValidationProblemMarker.ERROR_ID, problem.getErrorId());
+
+				IResource markerResource = (problem.getResource() != null ? problem.getResource() : resource);
+				if (markerResource == null || !markerResource.isAccessible()) {
+					continue;
 				}
-				if (problem.getRuleId() != null) {
-					attributes.put(IValidationProblemMarker.RULE_ID, problem.getRuleId());
+
+				Map<String, Object> attributes = createMarkerAttributes(resource, problem);
+				IMarker existingMarker = removeMatchingMarker(
+						obsoleteMarkersByKey.get(new MarkerKey(markerResource, attributes)), attributes);
+				if (existingMarker != null) {
+					// Keep the existing marker for this problem
+					obsoleteMarkers.remove(existingMarker);
+					continue;
 				}
 
-				// Add validation attributes to the list of marker attributes
-				for (ValidationProblemAttribute attribute : problem.getAttributes()) {
-					Object value = attribute.getValue();
-
-					// Marker can only handle value of type String, Integer or Boolean
-					if (value instanceof String || value instanceof Integer || value instanceof Boolean) {
-						attributes.put(attribute.getKey(), value);
-					} else if (value instanceof List<?>) {
-						int counter = 1;
-						for(Object v: (List<?>) value) {
-							if (v instanceof String || value instanceof Integer || value instanceof Boolean) {
-								attributes.put(attribute.getKey() + counter, v);
-								counter++;
-							}
-						}
+				try {
+					if (!hasProblemMarker(markerResource, problem, markerId, obsoleteMarkers)) {
+						IMarker marker = markerResource.createMarker(markerId);
+						marker.setAttributes(attributes);
 					}
 				}
+				catch (CoreException e) {
+					SpringCore.log(e);
+				}
+			}
+		}
 
-				marker.setAttributes(attributes);
+		if (obsoleteMarkers.size() > 0) {
+			try {
+				ResourcesPlugin.getWorkspace().deleteMarkers(obsoleteMarkers.toArray(new IMarker[obsoleteMarkers.size()]));
 			}
 			catch (CoreException e) {
 				SpringCore.log(e);
 			}
 		}
 	}
+
+	/**
+	 * Removes and returns the first of the given markers which carries the same problem attributes as the given
+	 * marker attributes. Attributes which are not written by {@link #createMarkerAttributes(IResource, ValidationProblem)}
+	 * (e.g. the char range added by an editor's annotation model) are ignored.
+	 */
+	private static IMarker removeMatchingMarker(List<IMarker> markers, Map<String, Object> attributes) {
+		if (markers != null) {
+			for (Iterator<IMarker> iterator = markers.iterator(); iterator.hasNext();) {
+				IMarker marker = iterator.next();
+				if (hasAttributes(marker, attributes)) {
+					iterator.remove();
+					return marker;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean hasAttributes(IMarker marker, Map<String, Object> attributes) {
+		try {
+			for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+				if (!attribute.getValue().equals(marker.getAttribute(attribute.getKey()))) {
+					return false;
+				}
+			}
+			return true;
+		}
+		catch (CoreException e) {
+			// marker doesn't exist anymore
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if the specified resource already has a marker with the same line and message as the given problem,
+	 * ignoring the given obsolete markers.
+	 */
+	private static boolean hasProblemMarker(IResource resource, ValidationProblem problem, String markerId,
+			Set<IMarker> obsoleteMarkers) throws CoreException {
+		IMarker[] markers = resource.findMarkers(markerId, false, IResource.DEPTH_ZERO);
+		for (IMarker marker : markers) {
+			if (!obsoleteMarkers.contains(marker) && marker.getAttribute(IMarker.LINE_NUMBER, -1) == problem.getLine()
+					&& marker.getAttribute(IMarker.MESSAGE, "").equals(problem.getMessage())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Creates the marker attributes for the given validation problem.
+	 * <p>
+	 * Adds the originating resource as marker attribute with the key {@link MarkerUtils#ORIGINATING_RESOURCE_KEY}.
+	 */
+	private static Map<String, Object> createMarkerAttributes(IResource originatingResource, ValidationProblem problem) {
+		Map<String, Object> attributes = new HashMap<String, Object>();
+		attributes.put(IMarker.MESSAGE, problem.getMessage());
+		attributes.put(IMarker.SEVERITY, new Integer(problem.getSeverity()));
+
+		// Store the originating resource reference in marker so that
+		// the marker can later on be deleted with a reference from the
+		// initial resource
+		attributes.put(MarkerUtils.ORIGINATING_RESOURCE_KEY, originatingResource.getFullPath().toString());
+		if (problem.getLine() > 0) {
+			attributes.put(IMarker.LINE_NUMBER, new Integer(problem.getLine()));
+		}
+		if (problem.getErrorId() != null) {
+			attributes.put(IValidationProblemMarker.ERROR_ID, problem.getErrorId());
+		}
+		if (problem.getRuleId() != null) {
+			attributes.put(IValidationProblemMarker.RULE_ID, problem.getRuleId());
+		}
+
+		// Add validation attributes to the list of marker attributes
+		for (ValidationProblemAttribute attribute : problem.getAttributes()) {
+			Object value = attribute.getValue();
+
+			// Marker can only handle value of type String, Integer or Boolean
+			if (value instanceof String || value instanceof Integer || value instanceof Boolean) {
+				attributes.put(attribute.getKey(), value);
+			} else if (value instanceof List<?>) {
+				int counter = 1;
+				for(Object v: (List<?>) value) {
+					if (v instanceof String || v instanceof Integer || v instanceof Boolean) {
+						attributes.put(attribute.getKey() + counter, v);
+						counter++;
+					}
+				}
+			}
+		}
+		return attributes;
+	}
+
+	/**
+	 * Identifies a marker by its resource and the standard attributes written by
+	 * {@link #createMarkerAttributes(IResource, ValidationProblem)}. Any other attribute of a marker is not part of the
+	 * key.
+	 */
+	private static class MarkerKey {
+
+		private static final String[] KEY_ATTRIBUTES = new String[] { IMarker.MESSAGE, IMarker.SEVERITY,
+				IMarker.LINE_NUMBER, IValidationProblemMarker.ERROR_ID, IValidationProblemMarker.RULE_ID,
+				MarkerUtils.ORIGINATING_RESOURCE_KEY };
+
+		private final IResource resource;
+		private final Object[] values;
+
+		public MarkerKey(IResource resource, Map<String, Object> attributes) {
+			this.resource = resource;
+			this.values = new Object[KEY_ATTRIBUTES.length];
+			if (attributes != null) {
+				for (int i = 0; i < KEY_ATTRIBUTES.length; i++) {
+					values[i] = attributes.get(KEY_ATTRIBUTES[i]);
+				}
+			}
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MarkerKey)) {
+				return false;
+			}
+			MarkerKey that = (MarkerKey) other;
+			return resource.equals(that.resource) && Arrays.equals(values, that.values);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * resource.hashCode() + Arrays.hashCode(values);
+		}
+	}
 }
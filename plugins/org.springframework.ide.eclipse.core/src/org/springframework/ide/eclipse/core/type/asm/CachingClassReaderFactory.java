@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007 Spring IDE Developers
+ * Copyright (c) 2007, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,8 @@
 package org.springframework.ide.eclipse.core.type.asm;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.asm.ClassReader;
 import org.springframework.core.io.Resource;
@@ -27,8 +27,8 @@ import org.springframework.core.io.ResourceLoader;
  */
 public class CachingClassReaderFactory extends SimpleClassReaderFactory {
 
-	private final Map<Resource, ClassReader> classReaderCache = 
-		new HashMap<Resource, ClassReader>();
+	private final ConcurrentMap<Resource, ClassReader> classReaderCache = 
+		new ConcurrentHashMap<Resource, ClassReader>();
 
 	/**
 	 * Create a new CachingClassReaderFactory for the default class loader.
@@ -55,14 +55,16 @@ public class CachingClassReaderFactory extends SimpleClassReaderFactory {
 	}
 
 	public ClassReader getClassReader(Resource resource) throws IOException {
-		synchronized (this.classReaderCache) {
-			ClassReader classReader = this.classReaderCache.get(resource);
-			if (classReader == null) {
-				classReader = super.getClassReader(resource);
-				this.classReaderCache.put(resource, classReader);
+		ClassReader classReader = this.classReaderCache.get(resource);
+		if (classReader == null) {
+			// read outside of any lock, a concurrently read reader for the same resource wins
+			classReader = super.getClassReader(resource);
+			ClassReader existingReader = this.classReaderCache.putIfAbsent(resource, classReader);
+			if (existingReader != null) {
+				classReader = existingReader;
 			}
-			return classReader;
 		}
+		return classReader;
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015, 2016 Pivotal, Inc.
+ * Copyright (c) 2015, 2017 Pivotal, Inc.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,45 +11,61 @@
 package org.springframework.ide.eclipse.editor.support.yaml.ast;
 
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IDocumentListener;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.nodes.MappingNode;
+import org.yaml.snakeyaml.nodes.Node;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.NodeTuple;
 
 /**
  * Responsible for providing a AST for a document containing yml formatted text.
+ * <p>
+ * ASTs are cached per document. When a document changes, only the part of the
+ * document starting at the first changed yaml document (between '---' separators),
+ * or the first changed top-level entry of that document, is composed again. The nodes
+ * in front of the change are reused from the previous AST.
+ * <p>
+ * Snakeyaml nodes carry absolute positions which can not be moved around, so the
+ * reused part of the text is replaced by whitespace (keeping all line breaks) before it
+ * is handed to the composer. That way the newly composed nodes get exactly the same
+ * positions as they would get when composing the complete text.
  *
  * @author Kris De Volder
  */
 public class YamlASTProvider {
 
-	private YamlFileAST cached = null;
-
 	/**
-	 * Tracks the source from which cached AST got parsed.
+	 * Cached AST together with the text it was parsed from.
 	 */
-	private IDocument cachedFor = null;
+	private static class CachedAST {
+		YamlFileAST ast;
+		String text;
+		volatile boolean dirty;
+	}
+
+	private final Map<IDocument, CachedAST> cache = new WeakHashMap<IDocument, CachedAST>();
 
 	/**
 	 * For cache invalidation
 	 */
 	private IDocumentListener listener = new IDocumentListener() {
 
-		public void documentChanged(final DocumentEvent event) {
-			Job job = new Job("Clear YamlASTProvider Cache") {
-				protected IStatus run(IProgressMonitor monitor) {
-					changed(event.getDocument());
-					return Status.OK_STATUS;
-				}
-			};
-			job.setPriority(Job.INTERACTIVE);
-			job.setSystem(true);
-			job.schedule();
+		public void documentChanged(DocumentEvent event) {
+			CachedAST cached;
+			synchronized (cache) {
+				cached = cache.get(event.getDocument());
+			}
+			if (cached!=null) {
+				cached.dirty = true;
+			}
 		}
 		public void documentAboutToBeChanged(DocumentEvent event) {
 			//Don't care.
@@ -62,26 +78,218 @@ public class YamlASTProvider {
 		this.yaml = yaml;
 	}
 
-	private synchronized void changed(IDocument doc) {
-		if (doc==cachedFor) {
-			doc.removeDocumentListener(listener);
-			cachedFor = null;
-			cached = null;
+	public synchronized YamlFileAST getAST(IDocument doc) {
+		CachedAST cached;
+		synchronized (cache) {
+			cached = cache.get(doc);
+			if (cached==null) {
+				cached = new CachedAST();
+				cache.put(doc, cached);
+				doc.addDocumentListener(listener);
+			}
+		}
+		if (cached.ast!=null && !cached.dirty) {
+			return cached.ast;
+		}
+
+		//Reset the flag before reading the text, so changes made while parsing are not lost.
+		cached.dirty = false;
+		String text = doc.get();
+		if (cached.ast==null || !text.equals(cached.text)) {
+			YamlFileAST oldAst = cached.ast;
+			String oldText = cached.text;
+			cached.ast = null;
+			cached.text = null;
+			YamlFileAST ast = oldAst==null ? null : parseIncrementally(oldAst, oldText, text);
+			if (ast==null) {
+				ast = parse(text);
+			}
+			cached.ast = ast;
+			cached.text = text;
 		}
+		return cached.ast;
 	}
 
-	public synchronized YamlFileAST getAST(IDocument doc) {
-		if (doc==cachedFor) {
-			return cached;
+	private YamlFileAST parse(String text) {
+		return new YamlFileAST(yaml.composeAll(new StringReader(text)));
+	}
+
+	/**
+	 * Composes the new text reusing the nodes of the old AST that are in front of the
+	 * first changed character.
+	 *
+	 * @return the new AST or <code>null</code> if the text has to be composed completely.
+	 */
+	private YamlFileAST parseIncrementally(YamlFileAST oldAst, String oldText, String text) {
+		int changed = commonPrefixLength(oldText, text);
+		List<Node> oldNodes = oldAst.getNodes();
+
+		//Documents whose successor starts in front of the change can be reused as is.
+		int reusedDocs = 0;
+		while (reusedDocs+1<oldNodes.size() && NodeUtil.getStart(oldNodes.get(reusedDocs+1))<changed) {
+			reusedDocs++;
+		}
+
+		int docStart = 0;
+		if (reusedDocs>0) {
+			docStart = findDocumentStart(text, NodeUtil.getEnd(oldNodes.get(reusedDocs-1)), NodeUtil.getStart(oldNodes.get(reusedDocs)));
+			if (docStart<0) {
+				return null;
+			}
+		}
+
+		//Within the changed document, top-level entries in front of the change can be reused as well.
+		List<NodeTuple> reusedEntries = null;
+		int reusedEntriesStart = -1;
+		int reusedEntriesEnd = -1;
+		Node changedDoc = oldNodes.isEmpty() ? null : oldNodes.get(reusedDocs);
+		if (changedDoc!=null && changedDoc.getNodeId()==NodeId.mapping) {
+			List<NodeTuple> entries = ((MappingNode) changedDoc).getValue();
+			int reusableEntries = 0;
+			while (reusableEntries+1<entries.size() && getKeyStart(entries.get(reusableEntries+1))<changed) {
+				reusableEntries++;
+			}
+			//The first entry is composed again, as it determines the start of the document node. The composed
+			//copy is replaced by the old one afterwards, as the end of a block node depends on the text following it.
+			if (reusableEntries>=2) {
+				int column = entries.get(0).getKeyNode().getStartMark().getColumn();
+				reusedEntriesStart = getKeyStart(entries.get(1));
+				reusedEntriesEnd = getKeyStart(entries.get(reusableEntries));
+				if (isEntryStart(text, reusedEntriesStart, column) && isEntryStart(text, reusedEntriesEnd, column)) {
+					reusedEntries = new ArrayList<NodeTuple>(entries.subList(0, reusableEntries));
+				}
+			}
+		}
+
+		if (docStart==0 && reusedEntries==null) {
+			return null;
+		}
+
+		StringBuilder partialText = new StringBuilder(text.length());
+		if (!appendBlanked(partialText, text, 0, docStart)) {
+			return null;
+		}
+		if (reusedEntries!=null) {
+			partialText.append(text, docStart, reusedEntriesStart);
+			if (!appendBlanked(partialText, text, reusedEntriesStart, reusedEntriesEnd)) {
+				return null;
+			}
+			partialText.append(text, reusedEntriesEnd, text.length());
 		} else {
-			if (cachedFor!=null) {
-				cachedFor.removeDocumentListener(listener);
+			partialText.append(text, docStart, text.length());
+		}
+
+		List<Node> nodes = new ArrayList<Node>(oldNodes.subList(0, reusedDocs));
+		try {
+			List<Node> composed = new YamlFileAST(yaml.composeAll(new StringReader(partialText.toString()))).getNodes();
+			if (reusedEntries!=null) {
+				if (composed.isEmpty() || composed.get(0).getNodeId()!=NodeId.mapping) {
+					return null;
+				}
+				List<NodeTuple> entries = ((MappingNode) composed.get(0)).getValue();
+				if (entries.size()<2 || getKeyStart(entries.get(1))!=reusedEntriesEnd) {
+					return null;
+				}
+				entries.remove(0);
+				entries.addAll(0, reusedEntries);
+			}
+			nodes.addAll(composed);
+		} catch (RuntimeException e) {
+			//Compose the complete text again, so that syntax errors are reported the same way as before.
+			return null;
+		}
+		return new YamlFileAST(nodes);
+	}
+
+	/**
+	 * Finds the start of the line with the '---' marker that starts the document whose content
+	 * starts at the given offset.
+	 *
+	 * @return start offset of the marker line or -1 if the document doesn't start with a marker
+	 * or is preceded by directives
+	 */
+	private static int findDocumentStart(String text, int previousDocEnd, int docContentStart) {
+		int lineStart = getLineStart(text, docContentStart);
+		while (lineStart>=previousDocEnd) {
+			//The node of an empty document starts at the marker of the next document, so the marker must be in front of it.
+			if (lineStart<docContentStart && text.startsWith("---", lineStart) && (lineStart+3==text.length() || Character.isWhitespace(text.charAt(lineStart+3)))) {
+				return containsDirective(text, previousDocEnd, lineStart) ? -1 : lineStart;
+			}
+			if (lineStart==0) {
+				break;
+			}
+			lineStart = getLineStart(text, lineStart-1);
+		}
+		return -1;
+	}
+
+	private static boolean containsDirective(String text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i)=='%' && (i==0 || isLineBreak(text.charAt(i-1)))) {
+				return true;
 			}
-			doc.addDocumentListener(listener);
-			cached = new YamlFileAST(yaml.composeAll(new StringReader(doc.get())));
-			cachedFor = doc;
 		}
-		return cached;
+		return false;
+	}
+
+	/**
+	 * @return true if the given offset is at the given column and only preceded by spaces on its line.
+	 */
+	private static boolean isEntryStart(String text, int offset, int column) {
+		int lineStart = getLineStart(text, offset);
+		if (offset-lineStart!=column) {
+			return false;
+		}
+		for (int i = lineStart; i < offset; i++) {
+			if (text.charAt(i)!=' ') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int getLineStart(String text, int offset) {
+		while (offset>0 && !isLineBreak(text.charAt(offset-1))) {
+			offset--;
+		}
+		return offset;
+	}
+
+	/**
+	 * Appends the given range of the text, replacing all characters except for line breaks by spaces.
+	 *
+	 * @return false if the range can't be blanked out without changing character positions.
+	 */
+	private static boolean appendBlanked(StringBuilder buf, String text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (isLineBreak(c)) {
+				buf.append(c);
+			} else if (Character.isSurrogate(c)) {
+				//Depending on the snakeyaml version, positions are counted in chars or in code points.
+				return false;
+			} else {
+				buf.append(' ');
+			}
+		}
+		return true;
+	}
+
+	private static boolean isLineBreak(char c) {
+		return c=='\n' || c=='\r' || c=='\u0085' || c=='\u2028' || c=='\u2029';
+	}
+
+	private static int getKeyStart(NodeTuple entry) {
+		return NodeUtil.getStart(entry.getKeyNode());
+	}
+
+	private static int commonPrefixLength(String a, String b) {
+		int length = Math.min(a.length(), b.length());
+		int i = 0;
+		while (i<length && a.charAt(i)==b.charAt(i)) {
+			i++;
+		}
+		return i;
 	}
 
 }
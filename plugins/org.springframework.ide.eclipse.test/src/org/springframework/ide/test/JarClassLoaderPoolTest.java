@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2017 Spring IDE Developers
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Spring IDE Developers - initial API and implementation
+ *******************************************************************************/
+package org.springframework.ide.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.ide.eclipse.core.java.JarClassLoaderPool;
+import org.springframework.ide.eclipse.core.java.JarClassLoaderPool.PooledClassLoader;
+
+/**
+ * @author agent
+ * @since 3.9.0
+ */
+public class JarClassLoaderPoolTest {
+
+	private File jar1;
+	private File jar2;
+	private ClassLoader parent;
+
+	@Before
+	public void setUp() throws Exception {
+		jar1 = createFile(100);
+		jar2 = createFile(50);
+		parent = getClass().getClassLoader();
+	}
+
+	@After
+	public void tearDown() {
+		jar1.delete();
+		jar2.delete();
+	}
+
+	@Test
+	public void testSameJarsShareClassLoader() throws Exception {
+		JarClassLoaderPool pool = new JarClassLoaderPool();
+		PooledClassLoader first = pool.acquire("first", urls(jar1, jar2), parent, false);
+		PooledClassLoader second = pool.acquire("second", urls(jar1, jar2), parent, false);
+
+		assertSame(first, second);
+		assertSame(first.getClassLoader(), second.getClassLoader());
+		assertEquals(1, pool.getClassLoaderCount());
+		assertEquals(1, pool.getHits());
+		assertEquals(150, pool.getSize());
+	}
+
+	@Test
+	public void testDifferentJarsOrParents() throws Exception {
+		JarClassLoaderPool pool = new JarClassLoaderPool();
+		PooledClassLoader loader = pool.acquire("first", urls(jar1, jar2), parent, false);
+
+		assertNotSame(loader, pool.acquire("second", urls(jar2, jar1), parent, false));
+		assertNotSame(loader, pool.acquire("third", urls(jar1), parent, false));
+		assertNotSame(loader, pool.acquire("fourth", urls(jar1, jar2), null, false));
+		assertEquals(4, pool.getClassLoaderCount());
+		assertEquals(0, pool.getHits());
+	}
+
+	@Test
+	public void testRewrittenJarGetsNewClassLoader() throws Exception {
+		JarClassLoaderPool pool = new JarClassLoaderPool();
+		PooledClassLoader loader = pool.acquire("first", urls(jar1), parent, false);
+
+		// a snapshot jar rewritten at the same location while another project still uses the old classloader
+		writeFile(jar1, 120);
+		PooledClassLoader rewritten = pool.acquire("second", urls(jar1), parent, false);
+		assertNotSame(loader, rewritten);
+		assertEquals(0, pool.getHits());
+		assertEquals(120, rewritten.getSize());
+		assertSame(rewritten, pool.acquire("third", urls(jar1), parent, false));
+	}
+
+	@Test
+	public void testReleaseRemovesUnusedClassLoaders() throws Exception {
+		JarClassLoaderPool pool = new JarClassLoaderPool();
+		PooledClassLoader first = pool.acquire("first", urls(jar1), parent, false);
+		PooledClassLoader second = pool.acquire("second", urls(jar1), parent, false);
+		PooledClassLoader other = pool.acquire("other", urls(jar2), parent, false);
+		assertEquals(150, pool.getSize());
+
+		pool.release(first);
+		assertEquals(2, pool.getClassLoaderCount());
+		pool.release(second);
+		assertEquals(1, pool.getClassLoaderCount());
+		assertEquals(50, pool.getSize());
+
+		assertNotSame(first, pool.acquire("again", urls(jar1), parent, false));
+		pool.release(other);
+		assertEquals(100, pool.getSize());
+	}
+
+	@Test
+	public void testEmptyJars() throws Exception {
+		JarClassLoaderPool pool = new JarClassLoaderPool();
+		List<URL> noJars = Collections.emptyList();
+		assertSame(pool.acquire("first", noJars, parent, false), pool.acquire("second", noJars, parent, false));
+		assertEquals(0, pool.getSize());
+	}
+
+	private static List<URL> urls(File... files) throws Exception {
+		URL[] urls = new URL[files.length];
+		for (int i = 0; i < files.length; i++) {
+			urls[i] = files[i].toURI().toURL();
+		}
+		return Arrays.asList(urls);
+	}
+
+	private static File createFile(int size) throws Exception {
+		File file = File.createTempFile("pool", ".jar");
+		writeFile(file, size);
+		return file;
+	}
+
+	private static void writeFile(File file, int size) throws Exception {
+		FileOutputStream out = new FileOutputStream(file);
+		try {
+			out.write(new byte[size]);
+		}
+		finally {
+			out.close();
+		}
+	}
+
+}
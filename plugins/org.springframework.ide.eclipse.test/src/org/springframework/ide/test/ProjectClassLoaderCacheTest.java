@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011 Spring IDE Developers
+ * Copyright (c) 2011, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,14 +12,45 @@ package org.springframework.ide.test;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.junit.After;
 import org.junit.Test;
+import org.springframework.ide.eclipse.core.SpringCore;
+import org.springframework.ide.eclipse.core.java.JdtUtils;
 import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache;
+import org.springframework.ide.eclipse.core.java.ProjectClassLoaderCache.Statistics;
 
 /**
  * @author Martin Lippert
  */
 public class ProjectClassLoaderCacheTest {
 
+	private static final int JAR_SIZE = 700 * 1024;
+
+	private final List<TestProject> projects = new ArrayList<TestProject>();
+
+	private final List<File> jars = new ArrayList<File>();
+
+	@After
+	public void tearDown() throws Exception {
+		SpringCore.getDefault().getPluginPreferences().setToDefault(SpringCore.CLASSLOADER_CACHE_SIZE);
+		for (TestProject project : projects) {
+			project.dispose();
+		}
+		for (File jar : jars) {
+			jar.delete();
+		}
+	}
+
 	@Test
 	public void testFilter() {
 		assertFalse(ProjectClassLoaderCache.shouldFilter(null));
@@ -33,4 +64,81 @@ public class ProjectClassLoaderCacheTest {
 		assertTrue(ProjectClassLoaderCache.shouldFilter("META-INF/services/javax"));
 	}
 
+	@Test
+	public void testSharedClassLoadersAreEvictedTogether() throws Exception {
+		SpringCore.getDefault().getPluginPreferences().setValue(SpringCore.CLASSLOADER_CACHE_SIZE, 1);
+		File sharedJar = createJar();
+		IProject first = createProject("ClassLoaderCacheFirst", sharedJar);
+		IProject second = createProject("ClassLoaderCacheSecond", sharedJar);
+		IProject third = createProject("ClassLoaderCacheThird", createJar());
+
+		Statistics before = ProjectClassLoaderCache.getStatistics();
+		ClassLoader firstLoader = JdtUtils.getClassLoader(first, null);
+		ClassLoader secondLoader = JdtUtils.getClassLoader(second, null);
+		Statistics shared = ProjectClassLoaderCache.getStatistics();
+
+		// projects with the same jars share the classloader for them
+		assertSame(firstLoader.getParent(), secondLoader.getParent());
+		assertEquals(2, shared.getMisses() - before.getMisses());
+		assertEquals(1, shared.getSharedClassLoaderHits() - before.getSharedClassLoaderHits());
+		assertEquals(1024 * 1024, shared.getSizeLimit());
+		assertTrue(shared.getSize() <= shared.getSizeLimit());
+
+		// the jar of the third project exceeds the limit, so both entries of the shared jar classloader are evicted
+		ClassLoader thirdLoader = JdtUtils.getClassLoader(third, null);
+		Statistics evicted = ProjectClassLoaderCache.getStatistics();
+		assertEquals(2, evicted.getEvictions() - shared.getEvictions());
+		assertTrue(evicted.getSize() <= evicted.getSizeLimit());
+
+		assertSame(thirdLoader.getParent(), JdtUtils.getClassLoader(third, null).getParent());
+		assertNotSame(firstLoader.getParent(), JdtUtils.getClassLoader(first, null).getParent());
+		assertEquals(4, ProjectClassLoaderCache.getStatistics().getMisses() - before.getMisses());
+	}
+
+	@Test
+	public void testLeastRecentlyAccessedEntryIsEvicted() throws Exception {
+		SpringCore.getDefault().getPluginPreferences().setValue(SpringCore.CLASSLOADER_CACHE_SIZE, 2);
+		IProject first = createProject("ClassLoaderCacheFirst", createJar());
+		IProject second = createProject("ClassLoaderCacheSecond", createJar());
+		IProject third = createProject("ClassLoaderCacheThird", createJar());
+
+		ClassLoader firstLoader = JdtUtils.getClassLoader(first, null);
+		ClassLoader secondLoader = JdtUtils.getClassLoader(second, null);
+		// accessing the first project again makes the second one the least recently accessed entry
+		assertSame(firstLoader.getParent(), JdtUtils.getClassLoader(first, null).getParent());
+
+		Statistics before = ProjectClassLoaderCache.getStatistics();
+		JdtUtils.getClassLoader(third, null);
+		Statistics evicted = ProjectClassLoaderCache.getStatistics();
+		assertEquals(1, evicted.getEvictions() - before.getEvictions());
+		assertTrue(evicted.getSize() <= evicted.getSizeLimit());
+
+		assertSame(firstLoader.getParent(), JdtUtils.getClassLoader(first, null).getParent());
+		assertNotSame(secondLoader.getParent(), JdtUtils.getClassLoader(second, null).getParent());
+	}
+
+	private IProject createProject(String name, File jar) throws CoreException {
+		TestProject project = new TestProject(name, false);
+		projects.add(project);
+		project.addJar(jar);
+		return project.getProject();
+	}
+
+	private File createJar() throws Exception {
+		File file = File.createTempFile("classloadercache", ".jar");
+		jars.add(file);
+		byte[] content = new byte[JAR_SIZE];
+		new Random().nextBytes(content);
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+		try {
+			out.putNextEntry(new ZipEntry("content.bin"));
+			out.write(content);
+			out.closeEntry();
+		}
+		finally {
+			out.close();
+		}
+		return file;
+	}
+
 }
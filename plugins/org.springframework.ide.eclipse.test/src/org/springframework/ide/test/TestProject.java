@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2007 Spring IDE Developers
+ * Copyright (c) 2004, 2017 Spring IDE Developers
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.springframework.ide.test;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -55,8 +56,12 @@ public class TestProject {
 	private IPackageFragmentRoot sourceFolder;
 
 	public TestProject() throws CoreException {
+		this("TestProject", true);
+	}
+
+	public TestProject(String name, boolean addSystemLibraries) throws CoreException {
 		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-		project = root.getProject("TestProject");
+		project = root.getProject(name);
 		project.create(null);
 		project.open(null);
 		javaProject = JavaCore.create(project);
@@ -67,7 +72,9 @@ public class TestProject {
 		javaProject.setRawClasspath(new IClasspathEntry[0], null);
 
 		createOutputFolder(binFolder);
-		addSystemLibraries();
+		if (addSystemLibraries) {
+			addSystemLibraries();
+		}
 	}
 
 	public IProject getProject() {
@@ -80,11 +87,18 @@ public class TestProject {
 
 	public void addJar(String plugin, String jar) throws MalformedURLException,
 			IOException, JavaModelException {
-		Path result = findFileInPlugin(plugin, jar);
+		addLibrary(findFileInPlugin(plugin, jar));
+	}
+
+	public void addJar(File jar) throws JavaModelException {
+		addLibrary(new Path(jar.getAbsolutePath()));
+	}
+
+	private void addLibrary(IPath path) throws JavaModelException {
 		IClasspathEntry[] oldEntries = javaProject.getRawClasspath();
 		IClasspathEntry[] newEntries = new IClasspathEntry[oldEntries.length + 1];
 		System.arraycopy(oldEntries, 0, newEntries, 0, oldEntries.length);
-		newEntries[oldEntries.length] = JavaCore.newLibraryEntry(result, null,
+		newEntries[oldEntries.length] = JavaCore.newLibraryEntry(path, null,
 				null);
 		javaProject.setRawClasspath(newEntries, null);
 	}